@@ -0,0 +1,19 @@
+package com.coffeeshop.api;
+
+/**
+ * A request the API refuses, answered with the given HTTP status and message
+ */
+public class ApiException extends Exception {
+    private static final long serialVersionUID = 1L;
+    
+    private final int status;
+    
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+    
+    public int getStatus() {
+        return status;
+    }
+}
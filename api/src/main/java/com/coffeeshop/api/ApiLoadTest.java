@@ -0,0 +1,275 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.config.DatabaseConfig;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures requests-per-second of one API node under a device-like mix:
+ * menu polls and ready-order polls revalidated with ETags, plus order
+ * creation and status changes. Writes real orders, so run it against a
+ * scratch database.
+ *
+ * Usage: ApiLoadTest [url|embedded] [clients] [seconds] [writePercent]
+ *
+ * With {@code embedded} (the default) a server is started in this process
+ * on the configured database, e.g. with
+ * {@code -Dcoffeeshop.db=embedded -Dcoffeeshop.db.path=mem:load}. Against a
+ * running server, pass its token as {@code -Dcoffeeshop.api.token}.
+ */
+public class ApiLoadTest {
+    private static final int WAITER_ID = 2;
+    private static final String TOKEN = System.getProperty("coffeeshop.api.token");
+    
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        ApiServer embedded = null;
+        String baseUrl = target;
+        if ("embedded".equals(target)) {
+            DatabaseConfig.getInstance().initializeDatabase();
+            embedded = new ApiServer(0, Math.max(4, Runtime.getRuntime().availableProcessors() * 2), 5, null);
+            embedded.start();
+            baseUrl = "http://localhost:" + embedded.getPort();
+        }
+        
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+            Workload workload = new Workload(client, baseUrl, writePercent);
+            
+            // Warm up connections, caches and JIT
+            run(workload, clients, 3);
+            Result result = run(workload, clients, seconds);
+            
+            System.out.printf("Target: %s, clients: %d, duration: %d s, writes: %d%%%n", baseUrl, clients, seconds, writePercent);
+            System.out.printf("Requests: %d (%d errors)%n", result.requests, result.errors);
+            System.out.printf("Throughput: %10.1f requests/s%n", result.requests / (result.elapsedNanos / 1e9));
+            System.out.printf("Latency   : p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                result.percentile(50), result.percentile(95), result.percentile(99), result.percentile(100));
+            System.out.println("Responses : " + result.statuses);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+                DatabaseConfig.getInstance().closeDataSource();
+            }
+        }
+    }
+    
+    private static Result run(Workload workload, int clients, int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Result result = new Result();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            new VirtualClient(workload, result, deadline, new Random(i), done).next();
+        }
+        done.await();
+        result.finish(System.nanoTime() - start);
+        return result;
+    }
+    
+    /**
+     * One device issuing requests back to back until the deadline
+     */
+    private static final class VirtualClient {
+        private final Workload workload;
+        private final Result result;
+        private final long deadline;
+        private final Random random;
+        private final CountDownLatch done;
+        private final List<Long> latencies = new ArrayList<>();
+        
+        VirtualClient(Workload workload, Result result, long deadline, Random random, CountDownLatch done) {
+            this.workload = workload;
+            this.result = result;
+            this.deadline = deadline;
+            this.random = random;
+            this.done = done;
+        }
+        
+        void next() {
+            if (System.nanoTime() >= deadline) {
+                result.addLatencies(latencies);
+                done.countDown();
+                return;
+            }
+            long sent = System.nanoTime();
+            workload.send(random).whenComplete((status, error) -> {
+                latencies.add(System.nanoTime() - sent);
+                result.record(error != null ? -1 : status);
+                next();
+            });
+        }
+    }
+    
+    /**
+     * The request mix, with the ETags a device would remember
+     */
+    private static final class Workload {
+        private final HttpClient client;
+        private final String baseUrl;
+        private final int writePercent;
+        private final Map<String, String> etags = new ConcurrentHashMap<>();
+        private final long[] tableIds;
+        private final long[] menuItemIds;
+        private final List<Long> createdOrders = new CopyOnWriteArrayList<>();
+        
+        Workload(HttpClient client, String baseUrl, int writePercent) throws Exception {
+            this.client = client;
+            this.baseUrl = baseUrl;
+            this.writePercent = writePercent;
+            this.tableIds = ids(get("/api/tables"), "active");
+            this.menuItemIds = ids(get("/api/menu?available=true"), "available");
+        }
+        
+        CompletableFuture<Integer> send(Random random) {
+            int roll = random.nextInt(100);
+            if (roll < writePercent / 2 || (roll < writePercent && createdOrders.isEmpty())) {
+                return createOrder(random);
+            } else if (roll < writePercent) {
+                Long orderId = createdOrders.get(random.nextInt(createdOrders.size()));
+                String status = random.nextBoolean() ? "IN_PROGRESS" : "READY";
+                return sendAsync(request("/api/orders/" + orderId + "/status")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\",\"changedBy\":" + WAITER_ID + "}")));
+            } else if (roll < writePercent + (100 - writePercent) / 2) {
+                return revalidate("/api/menu?available=true");
+            } else {
+                return revalidate("/api/orders?status=READY");
+            }
+        }
+        
+        private CompletableFuture<Integer> createOrder(Random random) {
+            String body = "{\"tableId\":" + tableIds[random.nextInt(tableIds.length)]
+                + ",\"waiterId\":" + WAITER_ID
+                + ",\"customerName\":\"Load test\""
+                + ",\"items\":[{\"menuItemId\":" + menuItemIds[random.nextInt(menuItemIds.length)] + ",\"quantity\":"
+                + (1 + random.nextInt(3)) + "}]}";
+            return client.sendAsync(request("/api/orders").POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                    HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() == 201) {
+                        response.headers().firstValue("Location").ifPresent(location ->
+                            createdOrders.add(Long.valueOf(location.substring(location.lastIndexOf('/') + 1))));
+                    }
+                    return response.statusCode();
+                });
+        }
+        
+        private CompletableFuture<Integer> revalidate(String path) {
+            HttpRequest.Builder builder = request(path).GET();
+            String etag = etags.get(path);
+            if (etag != null) {
+                builder.header("If-None-Match", etag);
+            }
+            return client.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(response -> {
+                    response.headers().firstValue("ETag").ifPresent(tag -> etags.put(path, tag));
+                    return response.statusCode();
+                });
+        }
+        
+        private CompletableFuture<Integer> sendAsync(HttpRequest.Builder builder) {
+            return client.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+        }
+        
+        private HttpRequest.Builder request(String path) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json");
+            if (TOKEN != null && !TOKEN.isEmpty()) {
+                builder.header("Authorization", "Bearer " + TOKEN);
+            }
+            return builder;
+        }
+        
+        private String get(String path) throws Exception {
+            HttpResponse<String> response = client.send(request(path).GET().build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+            }
+            return response.body();
+        }
+        
+        private static long[] ids(String json, String flag) throws ApiException {
+            List<Long> ids = new ArrayList<>();
+            for (Object element : (List<?>) JsonReader.parse(json)) {
+                Map<?, ?> object = (Map<?, ?>) element;
+                if (Boolean.TRUE.equals(object.get(flag))) {
+                    ids.add(((BigDecimal) object.get("id")).longValue());
+                }
+            }
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("No usable ids in " + json);
+            }
+            return ids.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+    
+    private static final class Result {
+        private final LongAdder requestCount = new LongAdder();
+        private final LongAdder errorCount = new LongAdder();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final List<Long> latencies = new ArrayList<>();
+        private long[] sorted;
+        long requests;
+        long errors;
+        Map<Integer, Long> statuses;
+        long elapsedNanos;
+        
+        void record(int status) {
+            requestCount.increment();
+            if (status < 0 || status >= 400) {
+                errorCount.increment();
+            }
+            statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+        }
+        
+        synchronized void addLatencies(List<Long> clientLatencies) {
+            latencies.addAll(clientLatencies);
+        }
+        
+        /**
+         * Summarize once every client finished
+         */
+        synchronized void finish(long elapsed) {
+            elapsedNanos = elapsed;
+            sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            requests = requestCount.sum();
+            errors = errorCount.sum();
+            statuses = new TreeMap<>();
+            statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        }
+        
+        double percentile(int p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+        }
+    }
+}
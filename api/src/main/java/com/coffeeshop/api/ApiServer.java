@@ -0,0 +1,217 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.config.DatabaseBackend;
+import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.service.MenuService;
+import com.coffeeshop.service.OrderService;
+import com.coffeeshop.service.TableService;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * HTTP/JSON server giving handheld ordering devices and customer displays
+ * access to orders, menu and tables without a database connection of their
+ * own.
+ *
+ * Connections are multiplexed by the JDK server's selector thread and
+ * requests run on a small worker pool. Catalog reads are answered from
+ * memory; writes are coalesced and answered once committed, without holding
+ * a worker. Boards can follow order changes as server-sent events instead
+ * of polling. The server takes part in change notifications like a
+ * terminal: its caches drop what other terminals change, and the terminals
+ * hear about orders placed through the API.
+ */
+public class ApiServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ApiServer.class);
+    
+    // Caches are also dropped this often when change notifications are unavailable
+    private static final long UNNOTIFIED_CACHE_MILLIS = 10_000;
+    
+    // The JDK server has no write timeout; this deadline is the only thing that frees a writer blocked on a board that stopped reading
+    private static final String MAX_RESPONSE_SECONDS = "sun.net.httpserver.maxRspTime";
+    private static final long DEFAULT_MAX_RESPONSE_SECONDS = 300;
+    
+    static {
+        // Read once, when the JDK server is first used, so it has to be set before any server is created
+        if (System.getProperty(MAX_RESPONSE_SECONDS) == null) {
+            System.setProperty(MAX_RESPONSE_SECONDS, Long.toString(DEFAULT_MAX_RESPONSE_SECONDS));
+        }
+    }
+    
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService expiry;
+    private final OrderCreateBatcher createBatcher;
+    private final CatalogCache catalog;
+    private final OrderHandler orderHandler;
+    private final OrderEventHub eventHub;
+    private final Consumer<ChangeEvent> changeListener;
+    
+    /**
+     * @param port Port to listen on, 0 for any free port
+     * @param threads Worker threads running requests
+     * @param writeWindowMillis How long writes wait to be coalesced with others
+     * @param token API token devices must present, or null to admit every request
+     */
+    public ApiServer(int port, int threads, long writeWindowMillis, String token) throws IOException {
+        AtomicInteger workerCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "api-worker-" + workerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.expiry = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "api-cache-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        
+        OrderService orderService = new OrderService();
+        MenuService menuService = new MenuService();
+        OrderService.enableStatusGroupCommit(writeWindowMillis, 256);
+        this.createBatcher = new OrderCreateBatcher(orderService, writeWindowMillis, 128);
+        this.catalog = new CatalogCache(menuService, new TableService());
+        this.orderHandler = new OrderHandler(orderService, createBatcher, catalog, workers);
+        this.eventHub = new OrderEventHub(orderService,
+            Integer.getInteger("coffeeshop.api.maxSubscribers", 1000),
+            Integer.getInteger("coffeeshop.api.eventWriters", 8));
+        
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.server.setExecutor(workers);
+        CatalogHandler catalogHandler = new CatalogHandler(catalog, menuService);
+        HttpContext[] contexts = {
+            server.createContext("/api/menu", catalogHandler),
+            server.createContext("/api/categories", catalogHandler),
+            server.createContext("/api/tables", catalogHandler),
+            server.createContext("/api/orders", orderHandler),
+            server.createContext("/api/orders/events", new EventStreamHandler(eventHub))
+        };
+        if (token != null && !token.isEmpty()) {
+            for (HttpContext context : contexts) {
+                context.getFilters().add(new TokenFilter(token));
+            }
+        }
+        server.createContext("/api/health", new HealthHandler(eventHub));
+        
+        this.changeListener = this::onChange;
+    }
+    
+    public static void main(String[] args) throws IOException, SQLException {
+        // Anyone who can reach the port could otherwise create orders and change statuses
+        String token = System.getProperty("coffeeshop.api.token");
+        if ((token == null || token.isEmpty()) && !Boolean.getBoolean("coffeeshop.api.allowAnonymous")) {
+            logger.error("No API token set: start with -Dcoffeeshop.api.token=<secret>, "
+                + "or -Dcoffeeshop.api.allowAnonymous=true to admit every request");
+            System.exit(1);
+        }
+        
+        DatabaseConfig.getInstance().initializeDatabase();
+        ChangeNotifier.getInstance().connectConfigured(DatabaseConfig.getInstance().getBackend() == DatabaseBackend.MYSQL);
+        OrderService.enableOutboxRelay(Long.getLong("coffeeshop.outbox.pollMs", 5000L));
+        
+        ApiServer server = new ApiServer(
+            Integer.getInteger("coffeeshop.api.port", 8080),
+            Integer.getInteger("coffeeshop.api.threads", Math.max(4, Runtime.getRuntime().availableProcessors() * 2)),
+            Long.getLong("coffeeshop.api.writeWindowMs", 5L),
+            token);
+        server.start();
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            OrderService.disableOutboxRelay();
+        }));
+    }
+    
+    public void start() {
+        ChangeNotifier notifier = ChangeNotifier.getInstance();
+        notifier.addListener(changeListener);
+        if (!notifier.isConnected()) {
+            logger.warn("Change notifications unavailable, API caches expire every {} ms", UNNOTIFIED_CACHE_MILLIS);
+            expiry.scheduleWithFixedDelay(this::invalidateAll, UNNOTIFIED_CACHE_MILLIS, UNNOTIFIED_CACHE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        eventHub.start();
+        server.start();
+        logger.info("API server listening on port {}", getPort());
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Stop accepting requests, commit queued writes and stop the workers
+     */
+    @Override
+    public void close() {
+        eventHub.close();
+        server.stop(1);
+        ChangeNotifier.getInstance().removeListener(changeListener);
+        createBatcher.close();
+        OrderService.disableStatusGroupCommit();
+        expiry.shutdownNow();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void onChange(ChangeEvent event) {
+        switch (event.getEntity()) {
+            case ORDER:
+                orderHandler.invalidate();
+                break;
+            case MENU:
+                catalog.invalidateMenu();
+                break;
+            case TABLE:
+                catalog.invalidateTables();
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void invalidateAll() {
+        orderHandler.invalidate();
+        catalog.invalidateMenu();
+        catalog.invalidateTables();
+    }
+    
+    /**
+     * {@code GET /api/health}, for load balancers and monitoring; needs no token
+     */
+    private static final class HealthHandler extends JsonHandler {
+        private final OrderEventHub eventHub;
+        
+        HealthHandler(OrderEventHub eventHub) {
+            this.eventHub = eventHub;
+        }
+        
+        @Override
+        protected void serve(HttpExchange exchange) throws ApiException, IOException {
+            requireMethod(exchange, "GET");
+            sendJson(exchange, 200, new JsonWriter().beginObject()
+                .field("status", "UP")
+                .field("notifications", ChangeNotifier.getInstance().isConnected())
+                .field("eventSubscribers", eventHub.getSubscriberCount())
+                .endObject().toBytes());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.coffeeshop.api;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A value loaded from the database once and served from memory until the
+ * data behind it changes.
+ *
+ * Concurrent requests for a missing value wait for a single load instead of
+ * each querying the database. A load that overlaps an invalidation is
+ * returned to its caller but not kept, so a stale value is never cached.
+ */
+final class Cached<T> {
+    private final Loader<T> loader;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile T value;
+    
+    Cached(Loader<T> loader) {
+        this.loader = loader;
+    }
+    
+    T get() throws SQLException {
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            current = value;
+            if (current != null) {
+                return current;
+            }
+            long loadedGeneration = generation.get();
+            T loaded = loader.load();
+            if (generation.get() == loadedGeneration) {
+                value = loaded;
+            }
+            return loaded;
+        }
+    }
+    
+    void invalidate() {
+        generation.incrementAndGet();
+        value = null;
+    }
+    
+    @FunctionalInterface
+    interface Loader<T> {
+        T load() throws SQLException;
+    }
+}
@@ -0,0 +1,126 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.Category;
+import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.model.Table;
+import com.coffeeshop.service.MenuService;
+import com.coffeeshop.service.TableService;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the menu, categories and tables, held both as models
+ * for validating orders and as encoded responses. Each part is dropped when
+ * a change event for it arrives and reloaded on the next request.
+ */
+final class CatalogCache {
+    private final MenuService menuService;
+    private final TableService tableService;
+    
+    private final Cached<Menu> menu = new Cached<>(this::loadMenu);
+    private final Cached<JsonBody> categories = new Cached<>(this::loadCategories);
+    private final Cached<Tables> tables = new Cached<>(this::loadTables);
+    
+    CatalogCache(MenuService menuService, TableService tableService) {
+        this.menuService = menuService;
+        this.tableService = tableService;
+    }
+    
+    JsonBody getMenu(boolean availableOnly) throws SQLException {
+        Menu current = menu.get();
+        return availableOnly ? current.available : current.all;
+    }
+    
+    MenuItem getMenuItem(Long id) throws SQLException {
+        return menu.get().byId.get(id);
+    }
+    
+    JsonBody getCategories() throws SQLException {
+        return categories.get();
+    }
+    
+    JsonBody getTables() throws SQLException {
+        return tables.get().all;
+    }
+    
+    Table getActiveTable(Long id) throws SQLException {
+        Table table = tables.get().byId.get(id);
+        return table != null && table.isActive() ? table : null;
+    }
+    
+    /**
+     * Drop the menu and categories, e.g. after a price or availability change
+     */
+    void invalidateMenu() {
+        menu.invalidate();
+        categories.invalidate();
+    }
+    
+    void invalidateTables() {
+        tables.invalidate();
+    }
+    
+    private Menu loadMenu() throws SQLException {
+        List<MenuItem> items = menuService.getAllMenuItems();
+        Map<Long, MenuItem> byId = new HashMap<>(items.size() * 2);
+        JsonWriter all = new JsonWriter(items.size() * 200);
+        JsonWriter available = new JsonWriter(items.size() * 200);
+        all.beginArray();
+        available.beginArray();
+        for (MenuItem item : items) {
+            byId.put(item.getId(), item);
+            JsonMapping.writeMenuItem(all, item);
+            if (item.isAvailable()) {
+                JsonMapping.writeMenuItem(available, item);
+            }
+        }
+        all.endArray();
+        available.endArray();
+        return new Menu(Collections.unmodifiableMap(byId), new JsonBody(all), new JsonBody(available));
+    }
+    
+    private JsonBody loadCategories() throws SQLException {
+        JsonWriter out = new JsonWriter().beginArray();
+        for (Category category : menuService.getAllCategories()) {
+            JsonMapping.writeCategory(out, category);
+        }
+        return new JsonBody(out.endArray());
+    }
+    
+    private Tables loadTables() throws SQLException {
+        List<Table> all = tableService.getAllTables();
+        Map<Long, Table> byId = new HashMap<>(all.size() * 2);
+        JsonWriter out = new JsonWriter().beginArray();
+        for (Table table : all) {
+            byId.put(table.getId(), table);
+            JsonMapping.writeTable(out, table);
+        }
+        return new Tables(Collections.unmodifiableMap(byId), new JsonBody(out.endArray()));
+    }
+    
+    private static final class Menu {
+        final Map<Long, MenuItem> byId;
+        final JsonBody all;
+        final JsonBody available;
+        
+        Menu(Map<Long, MenuItem> byId, JsonBody all, JsonBody available) {
+            this.byId = byId;
+            this.all = all;
+            this.available = available;
+        }
+    }
+    
+    private static final class Tables {
+        final Map<Long, Table> byId;
+        final JsonBody all;
+        
+        Tables(Map<Long, Table> byId, JsonBody all) {
+            this.byId = byId;
+            this.all = all;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.service.MenuService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Read-only catalog: {@code /api/menu}, {@code /api/menu/{id}},
+ * {@code /api/menu/search?q=}, {@code /api/categories} and
+ * {@code /api/tables}. Everything except search is served from the
+ * {@link CatalogCache} with an ETag, so devices that poll the menu mostly
+ * get a 304.
+ */
+class CatalogHandler extends JsonHandler {
+    private final CatalogCache catalog;
+    private final MenuService menuService;
+    
+    CatalogHandler(CatalogCache catalog, MenuService menuService) {
+        this.catalog = catalog;
+        this.menuService = menuService;
+    }
+    
+    @Override
+    protected void serve(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        requireMethod(exchange, "GET");
+        String context = exchange.getHttpContext().getPath();
+        String[] path = subPath(exchange);
+        boolean availableOnly = "true".equals(queryParameter(exchange, "available"));
+        
+        if (context.endsWith("/categories") && path.length == 0) {
+            sendCached(exchange, catalog.getCategories());
+        } else if (context.endsWith("/tables") && path.length == 0) {
+            sendCached(exchange, catalog.getTables());
+        } else if (context.endsWith("/menu") && path.length == 0) {
+            sendCached(exchange, catalog.getMenu(availableOnly));
+        } else if (context.endsWith("/menu") && path.length == 1 && path[0].equals("search")) {
+            search(exchange, queryParameter(exchange, "q"), availableOnly);
+        } else if (context.endsWith("/menu") && path.length == 1) {
+            MenuItem item = catalog.getMenuItem(parseId(path[0]));
+            if (item == null) {
+                throw new ApiException(404, "Menu item not found");
+            }
+            JsonWriter out = new JsonWriter();
+            JsonMapping.writeMenuItem(out, item);
+            sendCached(exchange, new JsonBody(out));
+        } else {
+            throw new ApiException(404, "Not found");
+        }
+    }
+    
+    private void search(HttpExchange exchange, String query, boolean availableOnly) throws ApiException, SQLException, IOException {
+        if (query == null || query.isBlank()) {
+            throw new ApiException(400, "Parameter 'q' is required");
+        }
+        // Loading the catalog also rebuilds the search index after a menu change
+        catalog.getMenu(false);
+        
+        List<MenuItem> results = menuService.searchMenuItems(query, availableOnly);
+        JsonWriter out = new JsonWriter().beginArray();
+        for (MenuItem item : results) {
+            JsonMapping.writeMenuItem(out, item);
+        }
+        sendJson(exchange, 200, out.endArray().toBytes());
+    }
+}
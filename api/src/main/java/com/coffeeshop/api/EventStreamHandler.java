@@ -0,0 +1,58 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.Order;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * {@code GET /api/orders/events[?status=READY]}: a server-sent event stream
+ * of order changes for kitchen screens and pickup displays.
+ *
+ * Events are {@code order} with the order as data, {@code removed} with the
+ * id of a deleted order, and {@code resync} when the board should reload its
+ * lists, e.g. after reconnecting too late to be caught up. With a status,
+ * a board also gets the {@code order} event of an order leaving that status,
+ * carrying its new status, and should drop the order from its list.
+ */
+class EventStreamHandler extends JsonHandler {
+    private final OrderEventHub hub;
+    
+    EventStreamHandler(OrderEventHub hub) {
+        this.hub = hub;
+    }
+    
+    @Override
+    protected void serve(HttpExchange exchange) throws ApiException, IOException {
+        requireMethod(exchange, "GET");
+        if (subPath(exchange).length != 0) {
+            throw new ApiException(404, "Not found");
+        }
+        
+        Order.Status status = null;
+        String statusName = queryParameter(exchange, "status");
+        if (statusName != null) {
+            try {
+                status = Order.Status.valueOf(statusName);
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Parameter 'status' must be an order status");
+            }
+        }
+        
+        // Browsers resend the last id on reconnect; the parameter serves clients that cannot set headers
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = queryParameter(exchange, "lastEventId");
+        }
+        Long lastSeen = null;
+        if (lastEventId != null && !lastEventId.isEmpty()) {
+            try {
+                lastSeen = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Invalid Last-Event-ID");
+            }
+        }
+        
+        hub.subscribe(exchange, status, lastSeen);
+    }
+}
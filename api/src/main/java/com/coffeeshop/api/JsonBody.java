@@ -0,0 +1,35 @@
+package com.coffeeshop.api;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Encoded response bytes with an entity tag derived from them, so every API
+ * node serving the same data hands out the same tag
+ */
+final class JsonBody {
+    final byte[] json;
+    final String etag;
+    
+    JsonBody(byte[] json) {
+        this.json = json;
+        this.etag = etagOf(json);
+    }
+    
+    JsonBody(JsonWriter writer) {
+        this(writer.toBytes());
+    }
+    
+    private static String etagOf(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            StringBuilder tag = new StringBuilder("\"");
+            for (int i = 0; i < 12; i++) {
+                tag.append(String.format("%02x", digest[i]));
+            }
+            return tag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.coffeeshop.api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Base for the API's handlers: turns {@link ApiException}s and database
+ * errors into JSON error responses and provides the response helpers.
+ *
+ * A handler may return without answering and complete the exchange later
+ * from another thread, e.g. once a coalesced write has committed.
+ */
+abstract class JsonHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(JsonHandler.class);
+    
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    
+    @Override
+    public final void handle(HttpExchange exchange) {
+        try {
+            serve(exchange);
+        } catch (Exception e) {
+            fail(exchange, e);
+        }
+    }
+    
+    protected abstract void serve(HttpExchange exchange) throws ApiException, SQLException, IOException;
+    
+    /**
+     * Answer with the error a failed request deserves
+     */
+    static void fail(HttpExchange exchange, Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        
+        if (cause instanceof ApiException) {
+            sendError(exchange, ((ApiException) cause).getStatus(), cause.getMessage());
+        } else if (cause instanceof SQLException) {
+            logger.error("Database error serving {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), cause);
+            sendError(exchange, 503, "Database unavailable");
+        } else if (cause instanceof IOException) {
+            // The client went away
+            logger.debug("I/O error serving {}: {}", exchange.getRequestURI(), cause.getMessage());
+            exchange.close();
+        } else {
+            logger.error("Error serving {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), cause);
+            sendError(exchange, 500, "Internal error");
+        }
+    }
+    
+    static void sendJson(HttpExchange exchange, int status, byte[] json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+    
+    /**
+     * Answer with a cacheable body, or 304 if the client already holds it
+     */
+    static void sendCached(HttpExchange exchange, JsonBody body) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", body.etag);
+        headers.set("Cache-Control", "no-cache");
+        if (matchesEtag(exchange.getRequestHeaders().getFirst("If-None-Match"), body.etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        } else {
+            sendJson(exchange, 200, body.json);
+        }
+    }
+    
+    static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+    
+    static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            sendJson(exchange, status, new JsonWriter().beginObject()
+                .field("status", status)
+                .field("error", message)
+                .endObject().toBytes());
+        } catch (IOException e) {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * Read the request body as a JSON object
+     * @throws ApiException 413 if the body is too large, 400 if it is not a JSON object
+     */
+    static Map<String, Object> readJson(HttpExchange exchange) throws ApiException, IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                if (buffer.size() + read > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body too large");
+                }
+                buffer.write(chunk, 0, read);
+            }
+        }
+        return JsonReader.parseObject(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Get a decoded query parameter, or null if absent
+     */
+    static String queryParameter(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            if (key.equals(name)) {
+                return eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Split the path below the handler's context into segments, e.g. ["12", "status"]
+     */
+    static String[] subPath(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath().substring(exchange.getHttpContext().getPath().length());
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+    
+    static Long parseId(String segment) throws ApiException {
+        try {
+            long id = Long.parseLong(segment);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through
+        }
+        throw new ApiException(404, "Not found");
+    }
+    
+    static void requireMethod(HttpExchange exchange, String method) throws ApiException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new ApiException(405, "Method " + exchange.getRequestMethod() + " not allowed");
+        }
+    }
+    
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
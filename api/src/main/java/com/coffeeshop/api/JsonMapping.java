@@ -0,0 +1,170 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.Category;
+import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.OrderItem;
+import com.coffeeshop.model.Table;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON representations of the models exposed by the API
+ */
+final class JsonMapping {
+    private JsonMapping() {
+        throw new IllegalStateException("Utility class");
+    }
+    
+    static void writeOrder(JsonWriter out, Order order) {
+        out.beginObject()
+            .field("id", order.getId())
+            .field("orderNumber", order.getOrderNumber())
+            .field("tableId", order.getTableId())
+            .field("tableName", order.getTableName())
+            .field("customerName", order.getCustomerName())
+            .field("waiterId", order.getWaiterId())
+            .field("waiterName", order.getWaiterName())
+            .field("status", order.getStatus())
+            .field("totalAmount", order.getTotalAmount())
+            .field("notes", order.getNotes())
+            .field("version", order.getVersion())
+            .field("createdAt", order.getCreatedAt())
+            .field("updatedAt", order.getUpdatedAt());
+        
+        out.name("items").beginArray();
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                out.beginObject()
+                    .field("id", item.getId())
+                    .field("menuItemId", item.getMenuItemId())
+                    .field("menuItemName", item.getMenuItemName())
+                    .field("quantity", item.getQuantity())
+                    .field("unitPrice", item.getUnitPrice())
+                    .field("totalPrice", item.getTotalPrice())
+                    .field("specialInstructions", item.getSpecialInstructions())
+                    .endObject();
+            }
+        }
+        out.endArray().endObject();
+    }
+    
+    static void writeMenuItem(JsonWriter out, MenuItem item) {
+        out.beginObject()
+            .field("id", item.getId())
+            .field("name", item.getName())
+            .field("categoryId", item.getCategoryId())
+            .field("categoryName", item.getCategoryName())
+            .field("description", item.getDescription())
+            .field("price", item.getPrice())
+            .field("available", item.isAvailable())
+            .field("preparationTime", item.getPreparationTime())
+            .field("station", item.getStation())
+            .endObject();
+    }
+    
+    static void writeCategory(JsonWriter out, Category category) {
+        out.beginObject()
+            .field("id", category.getId())
+            .field("name", category.getName())
+            .field("description", category.getDescription())
+            .field("active", category.isActive())
+            .field("station", category.getStation())
+            .endObject();
+    }
+    
+    static void writeTable(JsonWriter out, Table table) {
+        out.beginObject()
+            .field("id", table.getId())
+            .field("tableNumber", table.getTableNumber())
+            .field("capacity", table.getCapacity())
+            .field("active", table.isActive())
+            .endObject();
+    }
+    
+    /**
+     * Read a new order. Prices and names come from the catalog, never from
+     * the client.
+     * @throws ApiException 400 if a field is missing or refers to something unknown
+     */
+    static Order readNewOrder(Map<String, Object> body, CatalogCache catalog) throws ApiException, SQLException {
+        Order order = new Order();
+        order.setTableId(requiredId(body, "tableId"));
+        order.setWaiterId(requiredId(body, "waiterId"));
+        order.setCustomerName(optionalString(body, "customerName"));
+        order.setNotes(optionalString(body, "notes"));
+        
+        if (catalog.getActiveTable(order.getTableId()) == null) {
+            throw new ApiException(400, "Unknown or inactive table " + order.getTableId());
+        }
+        
+        Object items = body.get("items");
+        if (!(items instanceof List) || ((List<?>) items).isEmpty()) {
+            throw new ApiException(400, "An order needs at least one item");
+        }
+        for (Object element : (List<?>) items) {
+            if (!(element instanceof Map)) {
+                throw new ApiException(400, "Order items must be objects");
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> itemBody = (Map<String, Object>) element;
+            Long menuItemId = optionalId(itemBody, "menuItemId");
+            MenuItem menuItem = menuItemId != null ? catalog.getMenuItem(menuItemId) : null;
+            if (menuItem == null || !menuItem.isAvailable()) {
+                throw new ApiException(400, "Unknown or unavailable menu item " + menuItemId);
+            }
+            Long quantity = optionalLong(itemBody, "quantity");
+            if (quantity != null && (quantity < 1 || quantity > 100)) {
+                throw new ApiException(400, "Quantity must be between 1 and 100");
+            }
+            
+            OrderItem item = new OrderItem(null, menuItemId, quantity != null ? quantity.intValue() : 1, menuItem.getPrice());
+            item.setMenuItemName(menuItem.getName());
+            item.setSpecialInstructions(optionalString(itemBody, "specialInstructions"));
+            order.addOrderItem(item);
+        }
+        return order;
+    }
+    
+    static Long requiredId(Map<String, Object> body, String field) throws ApiException {
+        Long id = optionalId(body, field);
+        if (id == null) {
+            throw new ApiException(400, "Field '" + field + "' is required");
+        }
+        return id;
+    }
+    
+    static Long optionalId(Map<String, Object> body, String field) throws ApiException {
+        Long id = optionalLong(body, field);
+        if (id != null && id <= 0) {
+            throw new ApiException(400, "Field '" + field + "' must be a positive id");
+        }
+        return id;
+    }
+    
+    static Long optionalLong(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof BigDecimal)) {
+            throw new ApiException(400, "Field '" + field + "' must be a number");
+        }
+        try {
+            return ((BigDecimal) value).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ApiException(400, "Field '" + field + "' must be a whole number");
+        }
+    }
+    
+    static String optionalString(Map<String, Object> body, String field) throws ApiException {
+        Object value = body.get(field);
+        if (value != null && !(value instanceof String)) {
+            throw new ApiException(400, "Field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+}
@@ -0,0 +1,202 @@
+package com.coffeeshop.api;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser for request bodies. Objects become maps, arrays lists, numbers
+ * {@link BigDecimal}s; strings, booleans and null map to themselves.
+ */
+final class JsonReader {
+    // Request bodies are small; anything nested deeper is not one of ours
+    private static final int MAX_DEPTH = 32;
+    
+    private final String text;
+    private int pos;
+    
+    private JsonReader(String text) {
+        this.text = text;
+    }
+    
+    /**
+     * Parse a complete document
+     * @throws ApiException 400 if the text is not valid JSON
+     */
+    static Object parse(String text) throws ApiException {
+        JsonReader reader = new JsonReader(text);
+        Object value = reader.readValue(0);
+        reader.skipWhitespace();
+        if (reader.pos < text.length()) {
+            throw reader.error("Unexpected trailing characters");
+        }
+        return value;
+    }
+    
+    /**
+     * Parse a document that must be an object
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) throws ApiException {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new ApiException(400, "Request body must be a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+    
+    private Object readValue(int depth) throws ApiException {
+        if (depth > MAX_DEPTH) {
+            throw error("Nested too deeply");
+        }
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{': return readObject(depth);
+            case '[': return readArray(depth);
+            case '"': return readString();
+            case 't': return readLiteral("true", Boolean.TRUE);
+            case 'f': return readLiteral("false", Boolean.FALSE);
+            case 'n': return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+    
+    private Map<String, Object> readObject(int depth) throws ApiException {
+        Map<String, Object> object = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a field name");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue(depth + 1));
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+    
+    private List<Object> readArray(int depth) throws ApiException {
+        List<Object> array = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue(depth + 1));
+            skipWhitespace();
+            if (peek() == ',') {
+                pos++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+    
+    private String readString() throws ApiException {
+        pos++;
+        StringBuilder value = new StringBuilder();
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos >= text.length()) {
+                break;
+            }
+            char escaped = text.charAt(pos++);
+            switch (escaped) {
+                case '"': case '\\': case '/': value.append(escaped); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escaped + "'");
+            }
+        }
+        throw error("Unterminated string");
+    }
+    
+    private BigDecimal readNumber() throws ApiException {
+        int start = pos;
+        while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+            pos++;
+        }
+        try {
+            return new BigDecimal(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+    
+    private Object readLiteral(String literal, Object value) throws ApiException {
+        if (!text.startsWith(literal, pos)) {
+            throw error("Unexpected token");
+        }
+        pos += literal.length();
+        return value;
+    }
+    
+    private void expect(char c) throws ApiException {
+        if (peek() != c) {
+            throw error("Expected '" + c + "'");
+        }
+        pos++;
+    }
+    
+    private char peek() {
+        return pos < text.length() ? text.charAt(pos) : '\0';
+    }
+    
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+    
+    private ApiException error(String message) {
+        return new ApiException(400, "Invalid JSON at position " + pos + ": " + message);
+    }
+}
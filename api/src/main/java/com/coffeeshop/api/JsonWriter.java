@@ -0,0 +1,131 @@
+package com.coffeeshop.api;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming writer for the API's JSON responses. Commas are placed
+ * automatically; callers only open and close objects and arrays.
+ */
+final class JsonWriter {
+    private final StringBuilder out;
+    private boolean needsComma;
+    
+    JsonWriter() {
+        this(256);
+    }
+    
+    JsonWriter(int capacity) {
+        this.out = new StringBuilder(capacity);
+    }
+    
+    JsonWriter beginObject() {
+        separate();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+    
+    JsonWriter endObject() {
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter beginArray() {
+        separate();
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+    
+    JsonWriter endArray() {
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter name(String name) {
+        separate();
+        string(name);
+        out.append(':');
+        needsComma = false;
+        return this;
+    }
+    
+    /**
+     * Write a string, or null. Enums and dates are written as their
+     * {@code toString()}.
+     */
+    JsonWriter value(Object value) {
+        separate();
+        if (value == null) {
+            out.append("null");
+        } else {
+            string(value.toString());
+        }
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter value(Number value) {
+        separate();
+        out.append(value == null ? "null" : value.toString());
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter value(boolean value) {
+        separate();
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter field(String name, Object value) {
+        return name(name).value(value);
+    }
+    
+    JsonWriter field(String name, Number value) {
+        return name(name).value(value);
+    }
+    
+    JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+    
+    byte[] toBytes() {
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+    
+    private void separate() {
+        if (needsComma) {
+            out.append(',');
+        }
+    }
+    
+    private void string(String text) {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
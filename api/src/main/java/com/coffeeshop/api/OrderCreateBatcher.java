@@ -0,0 +1,183 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces orders posted by many devices into bulk inserts.
+ *
+ * Orders arriving within a short window are collected by a single worker
+ * thread and saved with one multi-row insert. Each caller's future
+ * completes once its order is committed. If a batch is rejected, its orders
+ * are retried one by one, so one bad order only fails its own request.
+ */
+class OrderCreateBatcher implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OrderCreateBatcher.class);
+    
+    private final OrderService orderService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingOrder> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    
+    // Order numbers are issued here rather than per save, so a batch never collides with itself.
+    // The random part tells this process apart from other API nodes and from earlier runs.
+    private final String orderNumberPrefix = "API-" + UUID.randomUUID().toString().substring(0, 6).toUpperCase() + "-";
+    private final AtomicLong orderNumbers = new AtomicLong();
+    
+    OrderCreateBatcher(OrderService orderService, long windowMillis, int maxBatchSize) {
+        this.orderService = orderService;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        // A batch must fit one bulk-save transaction, or a rejected batch could leave saved orders behind
+        this.maxBatchSize = Math.min(maxBatchSize, OrderDAO.DEFAULT_BULK_CHUNK_SIZE);
+        this.worker = new Thread(this::run, "order-create-batch");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    /**
+     * Queue a new order
+     * @return Future completed with the saved order, or exceptionally with
+     *         the {@link SQLException} that prevented saving it
+     */
+    CompletableFuture<Order> submit(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        order.setOrderNumber(orderNumberPrefix + Long.toString(orderNumbers.incrementAndGet(), 36).toUpperCase());
+        order.setStatus(Order.Status.NEW);
+        order.setCreatedAt(now);
+        order.setUpdatedAt(now);
+        
+        PendingOrder pending = new PendingOrder(order);
+        // Checked and queued under the lock close() takes, so nothing is queued after the final flush
+        synchronized (this) {
+            if (!running) {
+                pending.future.completeExceptionally(new SQLException("Order writer is closed"));
+                return pending.future;
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+    
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Keep collecting until the window closes or the batch is full
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingOrder next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        // Never leave a caller waiting forever
+        synchronized (this) {
+            running = false;
+        }
+        PendingOrder leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new SQLException("Order writer stopped before commit"));
+        }
+    }
+    
+    private void commit(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order);
+        }
+        
+        try {
+            if (orders.size() == 1) {
+                orderService.createOrder(orders.get(0));
+            } else {
+                orderService.createOrders(orders);
+            }
+            for (PendingOrder pending : batch) {
+                pending.future.complete(pending.order);
+            }
+            logger.debug("Saved {} API orders in one batch", batch.size());
+        } catch (SQLException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            logger.warn("Batch of {} API orders rejected, saving them one by one: {}", batch.size(), e.getMessage());
+            for (PendingOrder pending : batch) {
+                try {
+                    orderService.createOrder(pending.order);
+                    pending.future.complete(pending.order);
+                } catch (SQLException single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the worker alive for the next batch
+            logger.error("Saving {} API orders failed", batch.size(), e);
+            for (PendingOrder pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Stop accepting orders and save everything already queued
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static final class PendingOrder {
+        final Order order;
+        final CompletableFuture<Order> future = new CompletableFuture<>();
+        
+        PendingOrder(Order order) {
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.Order;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.service.OrderService;
+import com.sun.net.httpserver.HttpExchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Pushes order changes to connected boards as server-sent events.
+ *
+ * Each change is read from the database once, on a single hub thread, and
+ * the encoded frame is handed to every subscriber, so the database load does
+ * not grow with the number of screens. Frames carry increasing ids and the
+ * most recent ones are kept, so a board that reconnects with
+ * {@code Last-Event-ID} gets what it missed; if that is too far back it is
+ * told to reload instead. A board following one status also gets the event
+ * of an order leaving that status, with its new status, so it can drop it.
+ *
+ * Each subscriber has a bounded queue drained by a shared writer pool. A
+ * board that falls that far behind is disconnected rather than allowed to
+ * hold more memory; it reconnects and catches up like any other. A board
+ * that stops reading altogether blocks its writer in a write that cannot
+ * time out; the server's response deadline ({@code sun.net.httpserver.maxRspTime},
+ * set by {@link ApiServer}) closes the connection, which ends the write. The
+ * deadline ends every stream, so boards reconnect with {@code Last-Event-ID}
+ * at that interval and miss nothing.
+ */
+class OrderEventHub implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventHub.class);
+    
+    // Frames kept for boards that reconnect
+    private static final int REPLAY_FRAMES = 512;
+    
+    // Frames a subscriber may have queued before it counts as too slow
+    private static final int MAX_QUEUED_FRAMES = 256;
+    
+    private static final long HEARTBEAT_SECONDS = 15;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] STREAM_START = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    
+    private final OrderService orderService;
+    private final int maxSubscribers;
+    private final ScheduledExecutorService hub;
+    private final ExecutorService writers;
+    private final Consumer<ChangeEvent> changeListener = this::onChange;
+    
+    // Touched only on the hub thread
+    private final Deque<Frame> recent = new ArrayDeque<>();
+    private long lastSequence;
+    // Status last sent per open order; finished orders are forgotten
+    private final Map<Long, Order.Status> sentStatuses = new HashMap<>();
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    OrderEventHub(OrderService orderService, int maxSubscribers, int writerThreads) {
+        this.orderService = orderService;
+        this.maxSubscribers = maxSubscribers;
+        this.hub = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "order-event-hub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread thread = new Thread(r, "order-event-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Starts at the clock so ids keep increasing across restarts
+        this.lastSequence = System.currentTimeMillis() * 1000;
+    }
+    
+    void start() {
+        ChangeNotifier.getInstance().addListener(changeListener);
+        hub.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    /**
+     * Start streaming to a board. The exchange stays open until the board
+     * disconnects, falls too far behind, or the hub closes.
+     * @param status Only send orders now in this status, or null for all
+     * @param lastEventId Id of the last frame the board saw before reconnecting, or null
+     */
+    void subscribe(HttpExchange exchange, Order.Status status, Long lastEventId) throws ApiException, IOException {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ApiException(503, "Too many event subscribers");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.sendResponseHeaders(200, 0);
+        
+        Subscriber subscriber = new Subscriber(exchange, status);
+        subscriber.send(STREAM_START);
+        try {
+            // On the hub thread, so no frame is broadcast between the replay and joining
+            hub.execute(() -> {
+                replay(subscriber, lastEventId);
+                subscriber.join();
+            });
+        } catch (RejectedExecutionException e) {
+            subscriber.close();
+        }
+    }
+    
+    private void replay(Subscriber subscriber, Long lastEventId) {
+        if (lastEventId == null) {
+            return;
+        }
+        if (recent.isEmpty() || lastEventId < recent.peekFirst().sequence - 1) {
+            subscriber.send(resyncFrame(lastSequence).bytes);
+            return;
+        }
+        for (Frame frame : recent) {
+            if (frame.sequence > lastEventId) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+    
+    private void onChange(ChangeEvent event) {
+        if (event.getEntity() != ChangeEvent.Entity.ORDER) {
+            return;
+        }
+        try {
+            hub.execute(() -> publish(event.getEntityId()));
+        } catch (RejectedExecutionException e) {
+            // Closing
+        }
+    }
+    
+    private void publish(Long orderId) {
+        if (subscribers.isEmpty()) {
+            // Nobody to load it for; boards reconnecting later catch up with a reload
+            sentStatuses.clear();
+            remember(resyncFrame(++lastSequence));
+            return;
+        }
+        
+        Frame frame;
+        if (orderId == null) {
+            // Several orders changed at once; boards reload, and what they show is no longer known here
+            sentStatuses.clear();
+            frame = resyncFrame(++lastSequence);
+        } else {
+            try {
+                Optional<Order> order = orderService.getOrderById(orderId);
+                if (order.isPresent()) {
+                    frame = orderFrame(++lastSequence, order.get(), previousStatus(order.get()));
+                } else {
+                    sentStatuses.remove(orderId);
+                    frame = removedFrame(++lastSequence, orderId);
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not load order {} for event subscribers: {}", orderId, e.getMessage());
+                frame = resyncFrame(++lastSequence);
+            }
+        }
+        remember(frame);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+    
+    /**
+     * Note the status sent for an order
+     * @return Status sent before, or null when every board should hear of the order
+     */
+    private Order.Status previousStatus(Order order) {
+        Order.Status status = order.getStatus();
+        boolean finished = status == Order.Status.COMPLETED || status == Order.Status.CANCELLED;
+        boolean known = sentStatuses.containsKey(order.getId());
+        Order.Status previous = finished ? sentStatuses.remove(order.getId()) : sentStatuses.put(order.getId(), status);
+        if (known || status == Order.Status.NEW) {
+            // A NEW order not seen before was just placed, so it left no status
+            return previous != null ? previous : status;
+        }
+        // Changed before the hub saw it, e.g. before this server started: any board may be showing it
+        return null;
+    }
+    
+    private void remember(Frame frame) {
+        recent.addLast(frame);
+        if (recent.size() > REPLAY_FRAMES) {
+            recent.removeFirst();
+        }
+    }
+    
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(HEARTBEAT);
+        }
+    }
+    
+    /**
+     * @param previous Status boards may still show the order under, or null if that is unknown
+     */
+    private static Frame orderFrame(long sequence, Order order, Order.Status previous) {
+        JsonWriter data = new JsonWriter(512);
+        JsonMapping.writeOrder(data, order);
+        return previous != null
+            ? new Frame(sequence, "order", order.getStatus(), previous, data.toString())
+            : new Frame(sequence, "order", null, null, data.toString());
+    }
+    
+    private static Frame removedFrame(long sequence, Long orderId) {
+        return new Frame(sequence, "removed", null, null, new JsonWriter().beginObject().field("id", orderId).endObject().toString());
+    }
+    
+    private static Frame resyncFrame(long sequence) {
+        return new Frame(sequence, "resync", null, null, "{}");
+    }
+    
+    /**
+     * Disconnect every board and stop
+     */
+    @Override
+    public void close() {
+        ChangeNotifier.getInstance().removeListener(changeListener);
+        hub.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        writers.shutdown();
+        try {
+            writers.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writers.shutdownNow();
+    }
+    
+    /**
+     * One encoded event, shared by every subscriber it is sent to
+     */
+    private static final class Frame {
+        final long sequence;
+        final Order.Status status; // null for events every board needs
+        final Order.Status previousStatus; // status the order left, or the same as status
+        final byte[] bytes;
+        
+        Frame(long sequence, String event, Order.Status status, Order.Status previousStatus, String data) {
+            this.sequence = sequence;
+            this.status = status;
+            this.previousStatus = previousStatus;
+            this.bytes = ("id: " + sequence + "\nevent: " + event + "\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8);
+        }
+    }
+    
+    private final class Subscriber {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private final Order.Status status;
+        private final Deque<byte[]> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean closed;
+        
+        Subscriber(HttpExchange exchange, Order.Status status) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+            this.status = status;
+        }
+        
+        void offer(Frame frame) {
+            // Boards following a status also hear of orders leaving it
+            if (status == null || frame.status == null || frame.status == status || frame.previousStatus == status) {
+                send(frame.bytes);
+            }
+        }
+        
+        void join() {
+            synchronized (queue) {
+                if (!closed) {
+                    subscribers.add(this);
+                }
+            }
+        }
+        
+        void send(byte[] bytes) {
+            synchronized (queue) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= MAX_QUEUED_FRAMES) {
+                    logger.info("Disconnecting slow event subscriber {}", exchange.getRemoteAddress());
+                    disconnectLocked();
+                    return;
+                }
+                queue.addLast(bytes);
+                if (!draining) {
+                    draining = true;
+                    schedule(this::drain);
+                }
+            }
+        }
+        
+        private void drain() {
+            try {
+                while (true) {
+                    byte[] next;
+                    boolean more;
+                    synchronized (queue) {
+                        if (closed) {
+                            break;
+                        }
+                        next = queue.pollFirst();
+                        if (next == null) {
+                            draining = false;
+                            return;
+                        }
+                        more = !queue.isEmpty();
+                    }
+                    out.write(next);
+                    if (!more) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // The board went away
+                synchronized (queue) {
+                    markClosed();
+                }
+            }
+            exchange.close();
+        }
+        
+        void close() {
+            synchronized (queue) {
+                disconnectLocked();
+            }
+        }
+        
+        /**
+         * Closing the exchange writes the end of the stream, which may block
+         * on a board that stopped reading, so it is left to a writer thread
+         */
+        private void disconnectLocked() {
+            if (!closed) {
+                markClosed();
+                if (!draining) {
+                    draining = true;
+                    schedule(exchange::close);
+                }
+            }
+        }
+        
+        private void markClosed() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+        
+        private void schedule(Runnable task) {
+            try {
+                writers.execute(task);
+            } catch (RejectedExecutionException e) {
+                markClosed();
+                exchange.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.coffeeshop.api;
+
+import com.coffeeshop.model.Order;
+import com.coffeeshop.service.OrderService;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Orders:
+ * <ul>
+ *   <li>{@code POST /api/orders} creates an order (201 with the saved order)</li>
+ *   <li>{@code GET /api/orders/{id}} reads one order</li>
+ *   <li>{@code GET /api/orders?status=READY} lists the orders in an active status</li>
+ *   <li>{@code PUT /api/orders/{id}/status} changes the status (204)</li>
+ * </ul>
+ * Creates and status changes are coalesced with those of other devices and
+ * answered once committed, without holding a server thread in the meantime.
+ * The active-status lists are what customer displays poll, so they are
+ * cached with an ETag until the next order change.
+ */
+class OrderHandler extends JsonHandler {
+    private static final Order.Status[] LISTED_STATUSES = {
+        Order.Status.NEW, Order.Status.IN_PROGRESS, Order.Status.READY
+    };
+    
+    private final OrderService orderService;
+    private final OrderCreateBatcher createBatcher;
+    private final CatalogCache catalog;
+    private final Executor responder;
+    private final Map<Order.Status, Cached<JsonBody>> activeLists = new EnumMap<>(Order.Status.class);
+    
+    /**
+     * @param responder Runs the responses to coalesced writes, off the committing thread
+     */
+    OrderHandler(OrderService orderService, OrderCreateBatcher createBatcher, CatalogCache catalog, Executor responder) {
+        this.orderService = orderService;
+        this.createBatcher = createBatcher;
+        this.catalog = catalog;
+        this.responder = responder;
+        for (Order.Status status : LISTED_STATUSES) {
+            activeLists.put(status, new Cached<>(() -> loadList(status)));
+        }
+    }
+    
+    /**
+     * Drop the cached lists after an order changed
+     */
+    void invalidate() {
+        activeLists.values().forEach(Cached::invalidate);
+    }
+    
+    @Override
+    protected void serve(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        String[] path = subPath(exchange);
+        
+        if (path.length == 0 && "POST".equals(exchange.getRequestMethod())) {
+            create(exchange);
+        } else if (path.length == 0) {
+            requireMethod(exchange, "GET");
+            list(exchange, queryParameter(exchange, "status"));
+        } else if (path.length == 1) {
+            requireMethod(exchange, "GET");
+            Order order = orderService.getOrderById(parseId(path[0]))
+                .orElseThrow(() -> new ApiException(404, "Order not found"));
+            JsonWriter out = new JsonWriter(512);
+            JsonMapping.writeOrder(out, order);
+            sendCached(exchange, new JsonBody(out));
+        } else if (path.length == 2 && path[1].equals("status")) {
+            requireMethod(exchange, "PUT");
+            updateStatus(exchange, parseId(path[0]));
+        } else {
+            throw new ApiException(404, "Not found");
+        }
+    }
+    
+    private void create(HttpExchange exchange) throws ApiException, SQLException, IOException {
+        Order order = JsonMapping.readNewOrder(readJson(exchange), catalog);
+        respondWhenDone(exchange, createBatcher.submit(order), saved -> {
+            invalidate();
+            JsonWriter out = new JsonWriter(512);
+            JsonMapping.writeOrder(out, saved);
+            exchange.getResponseHeaders().set("Location", "/api/orders/" + saved.getId());
+            sendJson(exchange, 201, out.toBytes());
+        });
+    }
+    
+    private void list(HttpExchange exchange, String statusName) throws ApiException, SQLException, IOException {
+        Cached<JsonBody> list = null;
+        try {
+            list = statusName != null ? activeLists.get(Order.Status.valueOf(statusName)) : null;
+        } catch (IllegalArgumentException e) {
+            // Reported below
+        }
+        if (list == null) {
+            throw new ApiException(400, "Parameter 'status' must be one of NEW, IN_PROGRESS, READY");
+        }
+        sendCached(exchange, list.get());
+    }
+    
+    private void updateStatus(HttpExchange exchange, Long orderId) throws ApiException, IOException {
+        Map<String, Object> body = readJson(exchange);
+        String statusName = JsonMapping.optionalString(body, "status");
+        Order.Status status;
+        try {
+            status = Order.Status.valueOf(statusName != null ? statusName : "");
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Field 'status' must be an order status");
+        }
+        // Taken as sent: the shared token does not say which user is behind the device
+        Long changedBy = JsonMapping.optionalId(body, "changedBy");
+        
+        respondWhenDone(exchange, orderService.updateOrderStatusAsync(orderId, status, changedBy),
+            ignored -> {
+                invalidate();
+                sendEmpty(exchange, 204);
+            });
+    }
+    
+    private JsonBody loadList(Order.Status status) throws SQLException {
+        List<Order> orders = orderService.getOrdersByStatus(status);
+        JsonWriter out = new JsonWriter(orders.size() * 512 + 2).beginArray();
+        for (Order order : orders) {
+            JsonMapping.writeOrder(out, order);
+        }
+        return new JsonBody(out.endArray());
+    }
+    
+    private <T> void respondWhenDone(HttpExchange exchange, CompletableFuture<T> future, Response<T> response) {
+        future.whenCompleteAsync((value, error) -> {
+            if (error != null) {
+                fail(exchange, error);
+                return;
+            }
+            try {
+                response.send(value);
+            } catch (IOException e) {
+                fail(exchange, e);
+            }
+        }, responder);
+    }
+    
+    @FunctionalInterface
+    private interface Response<T> {
+        void send(T value) throws IOException;
+    }
+}
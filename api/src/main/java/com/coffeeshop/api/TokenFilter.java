@@ -0,0 +1,36 @@
+package com.coffeeshop.api;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Admits only requests carrying the shop's API token as
+ * {@code Authorization: Bearer <token>}
+ */
+class TokenFilter extends Filter {
+    private final byte[] expected;
+    
+    TokenFilter(String token) {
+        this.expected = ("Bearer " + token).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && MessageDigest.isEqual(expected, header.getBytes(StandardCharsets.UTF_8))) {
+            chain.doFilter(exchange);
+        } else {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+            JsonHandler.sendError(exchange, 401, "Missing or invalid API token");
+        }
+    }
+    
+    @Override
+    public String description() {
+        return "API token check";
+    }
+}
@@ -1,13 +1,56 @@
 package com.coffeeshop;
 
+import com.coffeeshop.config.DatabaseBackend;
 import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.Station;
+import com.coffeeshop.model.User;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.service.AuditService;
+import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.service.KitchenScheduler;
+import com.coffeeshop.service.MenuService;
+import com.coffeeshop.service.OrderService;
+import com.coffeeshop.service.UserService;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.util.StartupTimer;
 import com.coffeeshop.view.LoginFrame;
+import com.coffeeshop.view.SessionWindows;
+import com.coffeeshop.view.admin.AdminDashboard;
+import com.coffeeshop.view.admin.MenuManagementPanel;
+import com.coffeeshop.view.admin.ReportsPanel;
+import com.coffeeshop.view.admin.UserManagementPanel;
+import com.coffeeshop.view.kitchen.KitchenDashboard;
+import com.coffeeshop.view.kitchen.KitchenOrderPanel;
+import com.coffeeshop.view.kitchen.StationTicketPanel;
+import com.coffeeshop.view.waiter.ModernMenuViewPanel;
+import com.coffeeshop.view.waiter.NewOrderPanel;
+import com.coffeeshop.view.waiter.OrderHistoryPanel;
+import com.coffeeshop.view.waiter.TableManagementPanel;
+import com.coffeeshop.view.waiter.WaiterDashboard;
 import com.formdev.flatlaf.FlatDarkLaf;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 /**
  * Main application entry point for Coffee Shop Management System
@@ -18,7 +61,11 @@ import java.awt.*;
 public class CoffeeShopApplication {
     private static final Logger logger = LoggerFactory.getLogger(CoffeeShopApplication.class);
     
+    // Training run for the class data sharing archive, see the appcds profile
+    private static final boolean TRAINING_RUN = Boolean.getBoolean("coffeeshop.startup.training");
+    
     public static void main(String[] args) {
+        StartupTimer.Phase startup = StartupTimer.start("startup");
         logger.info("Starting Coffee Shop Management System...");
         
         // Set system properties for better UI rendering
@@ -26,7 +73,19 @@ public class CoffeeShopApplication {
         System.setProperty("swing.aatext", "true");
         System.setProperty("awt.useSystemAAFontSettings", "on");
         
+        // Connect to the database while the look and feel loads, the two do not depend on each other
+        FutureTask<Void> database = new FutureTask<>(() -> {
+            StartupTimer.Phase phase = StartupTimer.start("database");
+            DatabaseConfig.getInstance().initializeDatabase();
+            phase.end();
+            return null;
+        });
+        Thread databaseInit = new Thread(database, "database-init");
+        databaseInit.setDaemon(true);
+        databaseInit.start();
+        
         // Set look and feel
+        StartupTimer.Phase lookAndFeel = StartupTimer.start("look-and-feel");
         try {
             UIManager.setLookAndFeel(new FlatDarkLaf());
             
@@ -45,15 +104,48 @@ public class CoffeeShopApplication {
                 logger.error("Failed to set system look and feel", e);
             }
         }
+        lookAndFeel.end();
         
         // Initialize database
         try {
-            DatabaseConfig.getInstance().initializeDatabase();
+            awaitDatabase(database);
             logger.info("Database initialized successfully");
+            
+            StartupTimer.Phase services = StartupTimer.start("services");
+            
+            // Opt-in: -Dcoffeeshop.statusGroupCommitMs=5 coalesces kitchen status clicks into batched commits
+            long groupCommitMs = Long.getLong("coffeeshop.statusGroupCommitMs", 0L);
+            if (groupCommitMs > 0) {
+                OrderService.enableStatusGroupCommit(groupCommitMs, 256);
+                Runtime.getRuntime().addShutdownHook(new Thread(OrderService::disableStatusGroupCommit));
+            }
+            
+            // Capture orders locally while a shared MySQL server is unreachable
+            if (DatabaseConfig.getInstance().getBackend() == DatabaseBackend.MYSQL
+                    && Boolean.parseBoolean(System.getProperty("coffeeshop.journal", "true"))) {
+                Path journalDir = Paths.get(System.getProperty("coffeeshop.journal.dir",
+                    Paths.get(System.getProperty("user.home"), ".coffeeshop", "journal").toString()));
+                OrderService.enableOfflineJournal(journalDir, Long.getLong("coffeeshop.journal.dbTimeoutMs", 2000L));
+                Runtime.getRuntime().addShutdownHook(new Thread(OrderService::disableOfflineJournal));
+            }
+            
+            // Record logins, orders and menu edits locally for the user activity report,
+            // except in the training run, which signs in as real users
+            if (!TRAINING_RUN && Boolean.parseBoolean(System.getProperty("coffeeshop.audit", "true"))) {
+                enableAuditLog();
+            }
+            
+            connectChangeNotifications();
+            
+            // Order changes are announced from the outbox they commit with, also when notifications are off
+            OrderService.enableOutboxRelay(Long.getLong("coffeeshop.outbox.pollMs", 5000L));
+            Runtime.getRuntime().addShutdownHook(new Thread(OrderService::disableOutboxRelay));
+            services.end();
         } catch (Exception e) {
             logger.error("Failed to initialize database", e);
             JOptionPane.showMessageDialog(null, 
-                "Failed to connect to database. Please ensure MySQL is running.\n" + e.getMessage(),
+                "Failed to connect to database. Please ensure MySQL is running,\n" +
+                "or start with -Dcoffeeshop.db=embedded for a single-terminal setup.\n" + e.getMessage(),
                 "Database Error", 
                 JOptionPane.ERROR_MESSAGE);
             System.exit(1);
@@ -62,8 +154,22 @@ public class CoffeeShopApplication {
         // Start the application
         SwingUtilities.invokeLater(() -> {
             try {
-                new LoginFrame().setVisible(true);
+                if (!(TRAINING_RUN && GraphicsEnvironment.isHeadless())) {
+                    StartupTimer.Phase loginFrame = StartupTimer.start("login-frame");
+                    SessionWindows.install();
+                    new LoginFrame().setVisible(true);
+                    loginFrame.end();
+                }
+                startup.end();
+                StartupTimer.report();
                 logger.info("Application started successfully");
+                
+                // Nothing on the login screen needs the search index, so build it once the screen is up
+                buildSearchIndex();
+                
+                if (TRAINING_RUN) {
+                    finishTrainingRun();
+                }
             } catch (Exception e) {
                 logger.error("Failed to start application", e);
                 JOptionPane.showMessageDialog(null, 
@@ -74,4 +180,161 @@ public class CoffeeShopApplication {
             }
         });
     }
+    
+    private static void awaitDatabase(FutureTask<Void> database) throws Exception {
+        try {
+            database.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Build the order search index off the startup path; searches use the database until it is ready
+     */
+    private static void buildSearchIndex() {
+        int searchWindowDays = Integer.getInteger("coffeeshop.search.windowDays", 30);
+        Thread indexBuilder = new Thread(() -> {
+            try {
+                OrderService.rebuildSearchIndex(searchWindowDays);
+            } catch (Exception e) {
+                logger.error("Failed to build order search index", e);
+            }
+        }, "search-index-builder");
+        indexBuilder.setDaemon(true);
+        indexBuilder.start();
+    }
+    
+    /**
+     * Load the application's classes and, given a display, open the screens
+     * each role works in, then exit so the JVM writes the class data sharing
+     * archive with what a normal day loads
+     */
+    private static void finishTrainingRun() {
+        int classes = loadApplicationClasses();
+        int screens = GraphicsEnvironment.isHeadless() ? 0 : openScreens();
+        logger.info("Training run finished after loading {} classes and opening {} screens, exiting", classes, screens);
+        System.exit(0);
+    }
+    
+    /**
+     * Load every class of the application, inner classes, renderers and models included
+     * @return Number of classes loaded
+     */
+    private static int loadApplicationClasses() {
+        List<String> entries = new ArrayList<>();
+        try {
+            Path source = Paths.get(CoffeeShopApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (Files.isDirectory(source)) {
+                try (Stream<Path> files = Files.walk(source)) {
+                    files.map(file -> source.relativize(file).toString().replace(File.separatorChar, '/'))
+                        .forEach(entries::add);
+                }
+            } else {
+                try (JarFile jar = new JarFile(source.toFile())) {
+                    jar.stream().map(JarEntry::getName).forEach(entries::add);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            logger.warn("Training run could not list the application classes", e);
+        }
+        
+        ClassLoader loader = CoffeeShopApplication.class.getClassLoader();
+        int loaded = 0;
+        for (String entry : entries) {
+            if (entry.startsWith("com/coffeeshop/") && entry.endsWith(".class")) {
+                String name = entry.substring(0, entry.length() - ".class".length()).replace('/', '.');
+                try {
+                    Class.forName(name, false, loader);
+                    loaded++;
+                } catch (ClassNotFoundException | LinkageError e) {
+                    logger.debug("Training run could not load {}", name, e);
+                }
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * Open and close each role's dashboard and the screens it leads to, as that
+     * role's login would, so the Swing classes they use are loaded too
+     * @return Number of screens opened
+     */
+    private static int openScreens() {
+        Map<User.Role, List<Supplier<Window>>> screens = new EnumMap<>(User.Role.class);
+        screens.put(User.Role.ADMIN, List.of(AdminDashboard::new, MenuManagementPanel::new,
+            UserManagementPanel::new, ReportsPanel::new));
+        screens.put(User.Role.WAITER, List.of(WaiterDashboard::new, NewOrderPanel::new,
+            OrderHistoryPanel::new, ModernMenuViewPanel::new, TableManagementPanel::new));
+        screens.put(User.Role.KITCHEN, List.of(KitchenDashboard::new,
+            () -> new KitchenOrderPanel(Order.Status.NEW), () -> new StationTicketPanel(Station.values()[0])));
+        
+        AuthenticationService authService = AuthenticationService.getInstance();
+        UserService userService = new UserService();
+        int opened = 0;
+        for (Map.Entry<User.Role, List<Supplier<Window>>> role : screens.entrySet()) {
+            try {
+                List<User> users = userService.getUsersByRole(role.getKey());
+                if (users.isEmpty()) {
+                    continue;
+                }
+                Session session = authService.startSession(users.get(0));
+                for (Supplier<Window> screen : role.getValue()) {
+                    Window window = screen.get();
+                    window.setVisible(true);
+                    window.dispose();
+                    opened++;
+                }
+                authService.logout(session);
+            } catch (Exception e) {
+                logger.warn("Training run could not open the {} screens", role.getKey(), e);
+            }
+        }
+        return opened;
+    }
+    
+    /**
+     * Open this terminal's audit log; without it the terminal runs on, recording nothing
+     */
+    private static void enableAuditLog() {
+        Path auditDir = Paths.get(System.getProperty("coffeeshop.audit.dir",
+            Paths.get(System.getProperty("user.home"), ".coffeeshop", "audit").toString()));
+        try {
+            AuditService.getInstance().enable(auditDir,
+                Long.getLong("coffeeshop.audit.segmentKb", 1024L) * 1024,
+                Integer.getInteger("coffeeshop.audit.retentionDays", 400));
+            Runtime.getRuntime().addShutdownHook(new Thread(AuditService.getInstance()::disable));
+        } catch (IOException e) {
+            logger.error("Failed to open audit log at {}; user actions are not recorded", auditDir, e);
+        }
+    }
+    
+    /**
+     * Exchange change events with the other terminals, so open views refresh
+     * as soon as another terminal changes an order, the menu or a table
+     */
+    private static void connectChangeNotifications() {
+        ChangeNotifier notifier = ChangeNotifier.getInstance();
+        
+        // Keep this terminal's caches in step with the others
+        notifier.addListener(event -> {
+            try {
+                if (event.getEntity() == ChangeEvent.Entity.ORDER || event.getEntity() == ChangeEvent.Entity.MENU) {
+                    KitchenScheduler.getInstance().invalidate();
+                }
+                if (event.isRemote() && event.getEntity() == ChangeEvent.Entity.ORDER) {
+                    new OrderService().reindexOrder(event.getEntityId());
+                } else if (event.isRemote() && event.getEntity() == ChangeEvent.Entity.MENU) {
+                    new MenuService().refreshSearchIndex();
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to apply change event {}", event, e);
+            }
+        });
+        
+        notifier.connectConfigured(DatabaseConfig.getInstance().getBackend() == DatabaseBackend.MYSQL);
+    }
 }
@@ -0,0 +1,154 @@
+package com.coffeeshop.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Market-basket counts: how many orders contain each item, and each pair of
+ * items. An item on several lines of an order counts once for that order.
+ * Items are the item codes of {@link SalesStore}.
+ */
+final class BasketCounts {
+    // Days counted by one fork/join task before it stops splitting
+    private static final int DAYS_PER_TASK = 8;
+    
+    private int orders;
+    private int[] itemOrders;
+    private final IntPairCounter pairs;
+    
+    BasketCounts(int itemCount) {
+        this.itemOrders = new int[Math.max(16, itemCount)];
+        this.pairs = new IntPairCounter(itemCount * 4);
+    }
+    
+    /**
+     * Count the baskets of some days, splitting the days across the fork/join pool
+     * @param itemCount Number of item codes in use
+     */
+    static BasketCounts count(DayPartition[] days, int itemCount) {
+        return ForkJoinPool.commonPool().invoke(new CountTask(days, 0, days.length, itemCount));
+    }
+    
+    /**
+     * Add an order's items, or take them back out with a sign of -1
+     * @param items Distinct item codes of the order
+     * @param size Number of codes used in the array
+     */
+    void addBasket(int[] items, int size, int sign) {
+        orders += sign;
+        for (int i = 0; i < size; i++) {
+            if (items[i] >= itemOrders.length) {
+                itemOrders = Arrays.copyOf(itemOrders, Math.max(items[i] + 1, itemOrders.length * 2));
+            }
+            itemOrders[items[i]] += sign;
+            for (int j = i + 1; j < size; j++) {
+                pairs.add(items[i], items[j], sign);
+            }
+        }
+    }
+    
+    int getOrders() {
+        return orders;
+    }
+    
+    /**
+     * @return Orders containing the item
+     */
+    int getItemOrders(int item) {
+        return item < itemOrders.length ? itemOrders[item] : 0;
+    }
+    
+    /**
+     * @return Orders containing both items
+     */
+    int getPairOrders(int a, int b) {
+        return pairs.get(a, b);
+    }
+    
+    void forEachPair(IntPairCounter.PairVisitor visitor) {
+        pairs.forEach(visitor);
+    }
+    
+    private void addDay(DayPartition day, int[] basket) {
+        int[] orderIds = day.orderIds;
+        int[] items = day.items;
+        int size = 0;
+        for (int i = 0; i < day.size; i++) {
+            // Lines of an order are adjacent
+            if (i > 0 && orderIds[i] != orderIds[i - 1]) {
+                addBasket(basket, size, 1);
+                size = 0;
+            }
+            size = addDistinct(basket, size, items[i]);
+        }
+        if (size > 0) {
+            addBasket(basket, size, 1);
+        }
+    }
+    
+    /**
+     * Add a code to a basket unless already in it; baskets are a handful of items
+     * @return New size of the basket
+     */
+    static int addDistinct(int[] basket, int size, int item) {
+        for (int i = 0; i < size; i++) {
+            if (basket[i] == item) {
+                return size;
+            }
+        }
+        if (size < basket.length) {
+            basket[size++] = item;
+        }
+        return size;
+    }
+    
+    private void addAll(BasketCounts other) {
+        orders += other.orders;
+        if (other.itemOrders.length > itemOrders.length) {
+            itemOrders = Arrays.copyOf(itemOrders, other.itemOrders.length);
+        }
+        for (int item = 0; item < other.itemOrders.length; item++) {
+            itemOrders[item] += other.itemOrders[item];
+        }
+        pairs.addAll(other.pairs);
+    }
+    
+    /**
+     * Counts a slice of the days, splitting it in half until it is small
+     */
+    private static final class CountTask extends RecursiveTask<BasketCounts> {
+        // Orders with more distinct items than this are counted by their first ones
+        private static final int MAX_BASKET = 64;
+        
+        private final DayPartition[] days;
+        private final int low;
+        private final int high;
+        private final int itemCount;
+        
+        CountTask(DayPartition[] days, int low, int high, int itemCount) {
+            this.days = days;
+            this.low = low;
+            this.high = high;
+            this.itemCount = itemCount;
+        }
+        
+        @Override
+        protected BasketCounts compute() {
+            if (high - low <= DAYS_PER_TASK) {
+                BasketCounts counts = new BasketCounts(itemCount);
+                int[] basket = new int[MAX_BASKET];
+                for (int i = low; i < high; i++) {
+                    counts.addDay(days[i], basket);
+                }
+                return counts;
+            }
+            int middle = (low + high) >>> 1;
+            CountTask left = new CountTask(days, low, middle, itemCount);
+            left.fork();
+            BasketCounts counts = new CountTask(days, middle, high, itemCount).compute();
+            counts.addAll(left.join());
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.coffeeshop.analytics;
+
+import java.util.Arrays;
+
+/**
+ * The order lines of one day, stored column by column in primitive arrays.
+ * Waiter, table, category and item are dictionary codes. Lines of an order
+ * are adjacent. A partition is never changed once built; a changed day gets
+ * a new partition.
+ */
+final class DayPartition {
+    final long epochDay;
+    final int size;
+    final int[] orderIds;
+    final byte[] hours;
+    final int[] waiters;
+    final int[] tables;
+    final int[] categories;
+    final int[] items;
+    final int[] quantities;
+    final long[] cents;
+    
+    private DayPartition(Builder builder) {
+        this.epochDay = builder.epochDay;
+        this.size = builder.size;
+        this.orderIds = Arrays.copyOf(builder.orderIds, size);
+        this.hours = Arrays.copyOf(builder.hours, size);
+        this.waiters = Arrays.copyOf(builder.waiters, size);
+        this.tables = Arrays.copyOf(builder.tables, size);
+        this.categories = Arrays.copyOf(builder.categories, size);
+        this.items = Arrays.copyOf(builder.items, size);
+        this.quantities = Arrays.copyOf(builder.quantities, size);
+        this.cents = Arrays.copyOf(builder.cents, size);
+    }
+    
+    /**
+     * The code column of a named dimension
+     * @return Column, or null for a time dimension
+     */
+    int[] codes(SalesDimension dimension) {
+        switch (dimension) {
+            case WAITER: return waiters;
+            case TABLE: return tables;
+            case CATEGORY: return categories;
+            case ITEM: return items;
+            default: return null;
+        }
+    }
+    
+    /**
+     * Collects the lines of a day in growing arrays
+     */
+    static final class Builder {
+        private final long epochDay;
+        private int size;
+        private int[] orderIds = new int[64];
+        private byte[] hours = new byte[64];
+        private int[] waiters = new int[64];
+        private int[] tables = new int[64];
+        private int[] categories = new int[64];
+        private int[] items = new int[64];
+        private int[] quantities = new int[64];
+        private long[] cents = new long[64];
+        
+        Builder(long epochDay) {
+            this.epochDay = epochDay;
+        }
+        
+        void add(long orderId, int hour, int waiter, int table, int category, int item, int quantity, long lineCents) {
+            if (size == orderIds.length) {
+                int capacity = size * 2;
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                hours = Arrays.copyOf(hours, capacity);
+                waiters = Arrays.copyOf(waiters, capacity);
+                tables = Arrays.copyOf(tables, capacity);
+                categories = Arrays.copyOf(categories, capacity);
+                items = Arrays.copyOf(items, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                cents = Arrays.copyOf(cents, capacity);
+            }
+            orderIds[size] = Math.toIntExact(orderId);
+            hours[size] = (byte) hour;
+            waiters[size] = waiter;
+            tables[size] = table;
+            categories[size] = category;
+            items[size] = item;
+            quantities[size] = quantity;
+            cents[size] = lineCents;
+            size++;
+        }
+        
+        DayPartition build() {
+            return new DayPartition(this);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.coffeeshop.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forecasts how much of each menu item sells per day, for prep planning.
+ *
+ * Each item has a demand series per hour of the week (Monday 07:00, Monday
+ * 08:00, ...). Every slot is smoothed exponentially across weeks, keeping a
+ * level and a variance, so a forecast for a day reads that weekday's 24 slots
+ * of each item. Training is incremental: each night the days completed since
+ * the last training are folded into the slots, reading only those days from
+ * {@link SalesStore}. The first training reads a bounded warm-up of recent
+ * weeks, never the whole history.
+ *
+ * Days the shop sold nothing are taken as closed and skipped. Orders changed
+ * after their day was trained are not trained again.
+ */
+public class DemandForecaster {
+    private static final Logger logger = LoggerFactory.getLogger(DemandForecaster.class);
+    private static DemandForecaster instance;
+    
+    // Days the first training reads; eight weeks give every hour of the week eight samples
+    private static final int WARM_UP_DAYS = Integer.getInteger("coffeeshop.forecast.warmUpDays", 56);
+    
+    // Weight of the latest week; about the last six weeks count
+    private static final double ALPHA = 0.3;
+    
+    // Deviations of margin prepared above the expected quantity; one covers about five days in six
+    private static final double SAFETY_FACTOR = 1.0;
+    
+    // Items expected to sell less than this are left out of the plan
+    private static final double MIN_EXPECTED = 0.5;
+    
+    private static final int SLOTS = 7 * 24;
+    
+    private final SalesStore salesStore;
+    
+    // Guarded by this: per item code, level and variance per hour-of-week slot
+    private double[][] levels = new double[0][];
+    private double[][] variances = new double[0][];
+    // Trading days trained per weekday, Monday first
+    private final int[] trainedDays = new int[7];
+    private LocalDate trainedThrough;
+    
+    // Guarded by this
+    private ScheduledExecutorService trainer;
+    
+    private DemandForecaster() {
+        this.salesStore = SalesStore.getInstance();
+    }
+    
+    public static synchronized DemandForecaster getInstance() {
+        if (instance == null) {
+            instance = new DemandForecaster();
+        }
+        return instance;
+    }
+    
+    /**
+     * Train in the background now and after each midnight; later calls do nothing
+     */
+    public synchronized void start() {
+        if (trainer != null) {
+            return;
+        }
+        trainer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "demand-forecast");
+            thread.setDaemon(true);
+            return thread;
+        });
+        trainer.scheduleWithFixedDelay(this::trainInBackground, 0, 1, TimeUnit.HOURS);
+    }
+    
+    /**
+     * Forecast a day's demand per item, training on any completed days first
+     * @param day Day to forecast, normally tomorrow
+     * @return Items by expected quantity, most first
+     */
+    public synchronized List<ItemForecast> forecast(LocalDate day) throws SQLException {
+        train();
+        
+        int first = slot(day, 0);
+        List<ItemForecast> forecasts = new ArrayList<>();
+        for (int item = 0; item < levels.length; item++) {
+            double expected = 0;
+            double variance = 0;
+            int peakHour = 0;
+            for (int hour = 0; hour < 24; hour++) {
+                expected += levels[item][first + hour];
+                // Hours vary independently, so their variances add up
+                variance += variances[item][first + hour];
+                if (levels[item][first + hour] > levels[item][first + peakHour]) {
+                    peakHour = hour;
+                }
+            }
+            if (expected >= MIN_EXPECTED) {
+                double deviation = Math.sqrt(variance);
+                int prep = (int) Math.ceil(expected + SAFETY_FACTOR * deviation);
+                forecasts.add(new ItemForecast(salesStore.itemName(item), expected, deviation, prep, peakHour));
+            }
+        }
+        forecasts.sort(Comparator.comparingDouble(ItemForecast::getExpected).reversed()
+            .thenComparing(ItemForecast::getItem));
+        return forecasts;
+    }
+    
+    private void trainInBackground() {
+        try {
+            synchronized (this) {
+                train();
+            }
+        } catch (SQLException e) {
+            logger.warn("Failed to train demand forecast; will try again next hour", e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to train demand forecast", e);
+        }
+    }
+    
+    /**
+     * Fold the days completed since the last training into the slots
+     */
+    private void train() throws SQLException {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate from = yesterday.minusDays(WARM_UP_DAYS - 1);
+        if (trainedThrough != null && trainedThrough.isAfter(from)) {
+            from = trainedThrough.plusDays(1);
+        }
+        if (from.isAfter(yesterday)) {
+            return;
+        }
+        
+        long start = System.nanoTime();
+        DayPartition[] days = salesStore.days(from, yesterday);
+        grow(salesStore.itemCount());
+        double[] sold = new double[levels.length * 24];
+        for (DayPartition day : days) {
+            Arrays.fill(sold, 0);
+            for (int i = 0; i < day.size; i++) {
+                if (day.items[i] >= 0) {
+                    sold[day.items[i] * 24 + day.hours[i]] += day.quantities[i];
+                }
+            }
+            trainDay(LocalDate.ofEpochDay(day.epochDay), sold);
+        }
+        trainedThrough = yesterday;
+        
+        logger.debug("Trained demand forecast on {} days from {} in {} ms",
+            days.length, from, (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Smooth one day's hourly sales of every item into that weekday's slots
+     * @param sold Quantity per item and hour, item-major
+     */
+    private void trainDay(LocalDate day, double[] sold) {
+        int weekday = day.getDayOfWeek().getValue() - 1;
+        // Until a weekday has enough samples, weigh them equally rather than favour the first
+        double alpha = Math.max(ALPHA, 1.0 / ++trainedDays[weekday]);
+        int first = slot(day, 0);
+        for (int item = 0; item < levels.length; item++) {
+            for (int hour = 0; hour < 24; hour++) {
+                int slot = first + hour;
+                double error = sold[item * 24 + hour] - levels[item][slot];
+                levels[item][slot] += alpha * error;
+                variances[item][slot] = (1 - alpha) * (variances[item][slot] + alpha * error * error);
+            }
+        }
+    }
+    
+    /**
+     * Make room for new item codes; an item's slots start at zero, as it sold nothing before
+     */
+    private void grow(int itemCount) {
+        int known = levels.length;
+        if (itemCount <= known) {
+            return;
+        }
+        levels = Arrays.copyOf(levels, itemCount);
+        variances = Arrays.copyOf(variances, itemCount);
+        for (int item = known; item < itemCount; item++) {
+            levels[item] = new double[SLOTS];
+            variances[item] = new double[SLOTS];
+        }
+    }
+    
+    private static int slot(LocalDate day, int hour) {
+        return (day.getDayOfWeek().getValue() - 1) * 24 + hour;
+    }
+}
@@ -0,0 +1,133 @@
+package com.coffeeshop.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Counts per unordered pair of int codes, in an open-addressing hash table
+ * of primitive arrays: no boxing and no entry objects, so counting the pairs
+ * of millions of baskets does not churn the heap. The pair (a, b) is the
+ * same as (b, a).
+ */
+final class IntPairCounter {
+    private static final long EMPTY = -1L;
+    
+    // Grow when the table is this full; linear probing slows down past it
+    private static final float LOAD_FACTOR = 0.6f;
+    
+    private long[] keys;
+    private int[] counts;
+    private int mask;
+    private int size;
+    
+    /**
+     * @param expectedPairs Number of distinct pairs expected, to size the table
+     */
+    IntPairCounter(int expectedPairs) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedPairs / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+    
+    /**
+     * Add to the count of a pair
+     * @param a Code, not negative
+     * @param b Another code, not negative
+     * @param delta Amount to add, negative to take away
+     */
+    void add(int a, int b, int delta) {
+        long key = key(a, b);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                counts[slot] += delta;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = delta;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+    }
+    
+    /**
+     * @return Count of a pair, 0 if never counted
+     */
+    int get(int a, int b) {
+        long key = key(a, b);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+    
+    /**
+     * @return Number of pairs counted, including those taken back to zero
+     */
+    int size() {
+        return size;
+    }
+    
+    /**
+     * Add every count of another counter to this one
+     */
+    void addAll(IntPairCounter other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            long key = other.keys[slot];
+            if (key != EMPTY) {
+                add((int) (key >>> 32), (int) key, other.counts[slot]);
+            }
+        }
+    }
+    
+    /**
+     * Visit the pairs with a positive count, the smaller code first
+     */
+    void forEach(PairVisitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY && counts[slot] > 0) {
+                visitor.visit((int) (keys[slot] >>> 32), (int) keys[slot], counts[slot]);
+            }
+        }
+    }
+    
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+    
+    private static long key(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+    
+    private int slot(long key) {
+        // Mix the bits so that consecutive codes spread over the table
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    interface PairVisitor {
+        void visit(int a, int b, int count);
+    }
+}
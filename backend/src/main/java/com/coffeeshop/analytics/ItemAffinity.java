@@ -0,0 +1,233 @@
+package com.coffeeshop.analytics;
+
+import com.coffeeshop.dao.SalesLineDAO;
+import com.coffeeshop.dao.impl.SalesLineDAOImpl;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Add-on suggestions from the items customers order together.
+ *
+ * Basket counts of recent orders are built once in the background from
+ * {@link SalesStore}, then kept current from order change events: an order
+ * taken since is counted when it completes and taken out again if it is
+ * cancelled. After each change the suggestions of every item are worked out
+ * again into a table the order screen reads without locking or querying.
+ * The counts are rebuilt once a day, which also drops orders cancelled
+ * after they were first counted.
+ */
+public class ItemAffinity {
+    private static final Logger logger = LoggerFactory.getLogger(ItemAffinity.class);
+    private static ItemAffinity instance;
+    
+    // Days of orders the counts cover
+    private static final int WINDOW_DAYS = Integer.getInteger("coffeeshop.affinity.windowDays", 90);
+    
+    // Fewest orders two items must share before one is suggested with the other
+    private static final int MIN_TOGETHER = 5;
+    
+    // Items on an order beyond this many are left out of its basket
+    private static final int MAX_BASKET = 64;
+    
+    private final SalesLineDAO salesLineDAO;
+    private final SalesStore salesStore;
+    
+    // Suggestions per item name, best first; replaced rather than modified
+    private volatile Map<String, List<Suggestion>> suggestions = Collections.emptyMap();
+    
+    // Updater thread only
+    private BasketCounts counts;
+    private LocalDate builtOn;
+    private long lastBuiltOrderId;
+    private final Map<Long, int[]> countedOrders = new HashMap<>();
+    
+    // Guarded by this
+    private ScheduledExecutorService updater;
+    
+    private ItemAffinity() {
+        this.salesLineDAO = new SalesLineDAOImpl();
+        this.salesStore = SalesStore.getInstance();
+    }
+    
+    public static synchronized ItemAffinity getInstance() {
+        if (instance == null) {
+            instance = new ItemAffinity();
+        }
+        return instance;
+    }
+    
+    /**
+     * Build the counts in the background and follow order changes from then
+     * on; later calls do nothing
+     */
+    public synchronized void start() {
+        if (updater != null) {
+            return;
+        }
+        updater = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "item-affinity");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ChangeNotifier.getInstance().addListener(this::onChange);
+        updater.execute(this::rebuild);
+        updater.scheduleWithFixedDelay(this::checkDay, 1, 1, TimeUnit.HOURS);
+    }
+    
+    /**
+     * Suggest items to go with a basket, scoring each by how often it comes
+     * with the basket item it goes best with
+     * @param basketItemNames Names of the items already ordered
+     * @param limit Most suggestions to return
+     * @return Item names not in the basket, best first; empty until the counts are built
+     */
+    public List<String> suggest(Collection<String> basketItemNames, int limit) {
+        Map<String, List<Suggestion>> table = suggestions;
+        Map<String, Double> scores = new HashMap<>();
+        for (String name : basketItemNames) {
+            for (Suggestion suggestion : table.getOrDefault(name, Collections.emptyList())) {
+                if (!basketItemNames.contains(suggestion.itemName)) {
+                    scores.merge(suggestion.itemName, suggestion.confidence, Math::max);
+                }
+            }
+        }
+        
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            names.add(ranked.get(i).getKey());
+        }
+        return names;
+    }
+    
+    private void onChange(ChangeEvent event) {
+        if (event.getEntity() != ChangeEvent.Entity.ORDER || event.getEntityId() == null) {
+            return;
+        }
+        synchronized (this) {
+            updater.execute(() -> apply(event.getEntityId()));
+        }
+    }
+    
+    /**
+     * Count a newly completed order, or take back one that no longer counts
+     */
+    private void apply(Long orderId) {
+        if (counts == null || orderId <= lastBuiltOrderId) {
+            return;
+        }
+        try {
+            Order.Status[] status = { null };
+            int[] basket = new int[MAX_BASKET];
+            int[] size = { 0 };
+            salesLineDAO.forEachLineOfOrder(orderId, line -> {
+                status[0] = line.getStatus();
+                size[0] = BasketCounts.addDistinct(basket, size[0], salesStore.itemCode(line.getItemName()));
+            });
+            
+            int[] counted = countedOrders.get(orderId);
+            boolean completed = status[0] == Order.Status.COMPLETED;
+            if (counted != null && !completed) {
+                counts.addBasket(counted, counted.length, -1);
+                countedOrders.remove(orderId);
+            } else if (counted == null && completed) {
+                int[] items = Arrays.copyOf(basket, size[0]);
+                counts.addBasket(items, items.length, 1);
+                countedOrders.put(orderId, items);
+            } else {
+                return;
+            }
+            publishSuggestions();
+        } catch (SQLException e) {
+            logger.warn("Failed to update item affinity for order {}", orderId, e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to update item affinity for order {}", orderId, e);
+        }
+    }
+    
+    private void checkDay() {
+        if (!LocalDate.now().equals(builtOn)) {
+            rebuild();
+        }
+    }
+    
+    /**
+     * Count the baskets of the window again from the sales store
+     */
+    private void rebuild() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        try {
+            DayPartition[] days = salesStore.days(today.minusDays(WINDOW_DAYS), today);
+            counts = BasketCounts.count(days, salesStore.itemCount());
+            lastBuiltOrderId = 0;
+            for (DayPartition day : days) {
+                for (int i = 0; i < day.size; i++) {
+                    lastBuiltOrderId = Math.max(lastBuiltOrderId, day.orderIds[i]);
+                }
+            }
+            countedOrders.clear();
+            builtOn = today;
+            publishSuggestions();
+            logger.debug("Item affinity counted {} orders in {} ms", counts.getOrders(), (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            logger.warn("Failed to count items ordered together; suggestions unavailable until the next try", e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to count items ordered together", e);
+        }
+    }
+    
+    /**
+     * Work out every item's suggestions from the counts and swap in the new table
+     */
+    private void publishSuggestions() {
+        Map<String, List<Suggestion>> table = new HashMap<>();
+        counts.forEachPair((a, b, together) -> {
+            if (together < MIN_TOGETHER) {
+                return;
+            }
+            ItemPair pair = salesStore.itemPair(counts, a, b, together);
+            if (pair.getLift() > 1) {
+                table.computeIfAbsent(pair.getItem(), name -> new ArrayList<>())
+                    .add(new Suggestion(pair.getPairedItem(), pair.getConfidence()));
+                table.computeIfAbsent(pair.getPairedItem(), name -> new ArrayList<>())
+                    .add(new Suggestion(pair.getItem(), pair.getReverseConfidence()));
+            }
+        });
+        for (List<Suggestion> list : table.values()) {
+            list.sort(Comparator.comparingDouble((Suggestion suggestion) -> suggestion.confidence).reversed());
+        }
+        suggestions = table;
+    }
+    
+    /**
+     * An item to suggest, with the share of orders of the other item that also had it
+     */
+    private static final class Suggestion {
+        final String itemName;
+        final double confidence;
+        
+        Suggestion(String itemName, double confidence) {
+            this.itemName = itemName;
+            this.confidence = confidence;
+        }
+    }
+}
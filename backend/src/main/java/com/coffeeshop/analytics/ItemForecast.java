@@ -0,0 +1,47 @@
+package com.coffeeshop.analytics;
+
+/**
+ * Expected demand for one menu item on one day, with the quantity to prepare
+ */
+public final class ItemForecast {
+    private final String item;
+    private final double expected;
+    private final double deviation;
+    private final int prepQuantity;
+    private final int peakHour;
+    
+    ItemForecast(String item, double expected, double deviation, int prepQuantity, int peakHour) {
+        this.item = item;
+        this.expected = expected;
+        this.deviation = deviation;
+        this.prepQuantity = prepQuantity;
+        this.peakHour = peakHour;
+    }
+    
+    public String getItem() { return item; }
+    
+    /**
+     * @return Quantity expected to sell over the day
+     */
+    public double getExpected() { return expected; }
+    
+    /**
+     * @return Typical distance of a day's sales from the expected quantity
+     */
+    public double getDeviation() { return deviation; }
+    
+    /**
+     * @return Quantity to prepare: the expected quantity plus a margin for a busier day
+     */
+    public int getPrepQuantity() { return prepQuantity; }
+    
+    /**
+     * @return Hour of the day the item is expected to sell most
+     */
+    public int getPeakHour() { return peakHour; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: expect %.1f, prep %d", item, expected, prepQuantity);
+    }
+}
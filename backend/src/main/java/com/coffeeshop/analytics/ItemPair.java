@@ -0,0 +1,65 @@
+package com.coffeeshop.analytics;
+
+/**
+ * Two menu items ordered together, with the usual market-basket measures
+ */
+public final class ItemPair {
+    private final String item;
+    private final String pairedItem;
+    private final int together;
+    private final int itemOrders;
+    private final int pairedItemOrders;
+    private final int totalOrders;
+    
+    ItemPair(String item, String pairedItem, int together, int itemOrders, int pairedItemOrders, int totalOrders) {
+        this.item = item;
+        this.pairedItem = pairedItem;
+        this.together = together;
+        this.itemOrders = itemOrders;
+        this.pairedItemOrders = pairedItemOrders;
+        this.totalOrders = totalOrders;
+    }
+    
+    public String getItem() { return item; }
+    public String getPairedItem() { return pairedItem; }
+    
+    /**
+     * @return Orders containing both items
+     */
+    public int getTogether() { return together; }
+    
+    /**
+     * @return Share of all orders containing both items
+     */
+    public double getSupport() {
+        return totalOrders > 0 ? (double) together / totalOrders : 0;
+    }
+    
+    /**
+     * @return Share of the orders with the item that also have the paired item
+     */
+    public double getConfidence() {
+        return itemOrders > 0 ? (double) together / itemOrders : 0;
+    }
+    
+    /**
+     * @return Share of the orders with the paired item that also have the item
+     */
+    public double getReverseConfidence() {
+        return pairedItemOrders > 0 ? (double) together / pairedItemOrders : 0;
+    }
+    
+    /**
+     * @return How many times more often the two are ordered together than by
+     *         chance; above 1 they go together, below 1 they exclude each other
+     */
+    public double getLift() {
+        long expected = (long) itemOrders * pairedItemOrders;
+        return expected > 0 ? (double) together * totalOrders / expected : 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s + %s: %d orders, lift %.2f", item, pairedItem, together, getLift());
+    }
+}
@@ -0,0 +1,383 @@
+package com.coffeeshop.analytics;
+
+import com.coffeeshop.dao.SalesLineDAO;
+import com.coffeeshop.dao.impl.SalesLineDAOImpl;
+import com.coffeeshop.model.CompactOrder;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Running totals of today's sales for the live dashboard.
+ *
+ * The totals are loaded once from the day's order lines, then kept current
+ * from order change events: an event re-reads only the changed order and
+ * replaces that order's previous contribution to the totals. The totals are
+ * lock-free accumulators written by a single applier thread, so the
+ * dashboard reads them at its frame rate without locking and without
+ * querying the database. An event for several orders at once, and the first
+ * minute after midnight, reload the day.
+ */
+public class LiveSalesMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(LiveSalesMonitor.class);
+    private static LiveSalesMonitor instance;
+    
+    private static final int TOP_ITEMS = 5;
+    
+    // Window the current pace of orders is measured over
+    private static final int RECENT_MINUTES = 15;
+    
+    private final SalesLineDAO salesLineDAO;
+    private final Consumer<ChangeEvent> listener = this::onChange;
+    
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder items = new LongAdder();
+    private final LongAdder cents = new LongAdder();
+    private final LongAdder openOrders = new LongAdder();
+    private final LongAdder completedOrders = new LongAdder();
+    private final AtomicLongArray hourOrders = new AtomicLongArray(24);
+    private final AtomicLongArray hourCents = new AtomicLongArray(24);
+    private final Map<String, ItemTotals> itemTotals = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    
+    // Orders taken per minute in the recent window; slot = minute modulo the window, stamped with its minute
+    private final AtomicLongArray minuteOrders = new AtomicLongArray(RECENT_MINUTES);
+    private final AtomicLongArray minuteStamps = new AtomicLongArray(RECENT_MINUTES);
+    
+    private volatile LocalDate day;
+    
+    // Applier thread only: what each of today's orders added to the totals
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    
+    // Guarded by this
+    private ScheduledExecutorService applier;
+    private int users;
+    
+    private LiveSalesMonitor() {
+        this.salesLineDAO = new SalesLineDAOImpl();
+    }
+    
+    public static synchronized LiveSalesMonitor getInstance() {
+        if (instance == null) {
+            instance = new LiveSalesMonitor();
+        }
+        return instance;
+    }
+    
+    /**
+     * Start following order changes, loading today's totals in the background.
+     * Every call must be matched by a call to {@link #stop()}.
+     */
+    public synchronized void start() {
+        if (users++ > 0) {
+            return;
+        }
+        applier = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "live-sales");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ChangeNotifier.getInstance().addListener(listener);
+        applier.execute(this::reload);
+        applier.scheduleWithFixedDelay(this::checkDay, 1, 1, TimeUnit.MINUTES);
+        logger.info("Live sales monitor started");
+    }
+    
+    /**
+     * Stop following order changes once the last user stopped
+     */
+    public synchronized void stop() {
+        if (users == 0 || --users > 0) {
+            return;
+        }
+        ChangeNotifier.getInstance().removeListener(listener);
+        applier.shutdownNow();
+        applier = null;
+        logger.info("Live sales monitor stopped");
+    }
+    
+    /**
+     * Read the current totals; cheap enough to call for every frame
+     */
+    public LiveSalesSnapshot snapshot() {
+        long currentVersion = version.get();
+        
+        int[] ordersByHour = new int[24];
+        long[] centsByHour = new long[24];
+        for (int hour = 0; hour < 24; hour++) {
+            ordersByHour[hour] = (int) hourOrders.get(hour);
+            centsByHour[hour] = hourCents.get(hour);
+        }
+        
+        long now = minuteOf(LocalDateTime.now());
+        int recent = 0;
+        for (int slot = 0; slot < RECENT_MINUTES; slot++) {
+            if (minuteStamps.get(slot) > now - RECENT_MINUTES) {
+                recent += (int) minuteOrders.get(slot);
+            }
+        }
+        
+        List<SalesRow> topItems = new ArrayList<>();
+        itemTotals.forEach((name, totals) -> {
+            if (totals.orders.sum() > 0) {
+                topItems.add(new SalesRow(name, totals.orders.intValue(), totals.quantity.sum(), totals.cents.sum()));
+            }
+        });
+        topItems.sort(Comparator.comparingLong(SalesRow::getQuantity).reversed().thenComparing(SalesRow::getLabel));
+        
+        SalesRow total = new SalesRow("Today", orders.intValue(), items.sum(), cents.sum());
+        return new LiveSalesSnapshot(day, currentVersion, total, openOrders.intValue(), completedOrders.intValue(),
+            recent, RECENT_MINUTES, ordersByHour, centsByHour,
+            topItems.size() > TOP_ITEMS ? topItems.subList(0, TOP_ITEMS) : topItems);
+    }
+    
+    private void onChange(ChangeEvent event) {
+        if (event.getEntity() != ChangeEvent.Entity.ORDER) {
+            return;
+        }
+        synchronized (this) {
+            if (applier == null) {
+                return;
+            }
+            try {
+                applier.execute(() -> apply(event.getEntityId()));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Live sales monitor stopping, dropped {}", event);
+            }
+        }
+    }
+    
+    /**
+     * Replace the contribution of a changed order
+     * @param orderId Changed order, or null if several changed
+     */
+    private void apply(Long orderId) {
+        if (orderId == null || !LocalDate.now().equals(day)) {
+            reload();
+            return;
+        }
+        try {
+            Contribution.Builder builder = new Contribution.Builder();
+            salesLineDAO.forEachLineOfOrder(orderId, builder::add);
+            Contribution contribution = builder.build();
+            if (contribution != null && !day.equals(contribution.day)) {
+                contribution = null;
+            }
+            
+            Contribution previous = contribution != null
+                ? contributions.put(orderId, contribution) : contributions.remove(orderId);
+            if (previous != null) {
+                add(previous, -1);
+            }
+            if (contribution != null) {
+                add(contribution, 1);
+            }
+            version.incrementAndGet();
+        } catch (SQLException e) {
+            logger.warn("Failed to update live sales for order {}", orderId, e);
+        } catch (RuntimeException e) {
+            logger.error("Failed to update live sales for order {}", orderId, e);
+        }
+    }
+    
+    private void checkDay() {
+        if (!LocalDate.now().equals(day)) {
+            reload();
+        }
+    }
+    
+    /**
+     * Start the totals over from today's orders
+     */
+    private void reload() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        
+        contributions.clear();
+        orders.reset();
+        items.reset();
+        cents.reset();
+        openOrders.reset();
+        completedOrders.reset();
+        for (int hour = 0; hour < 24; hour++) {
+            hourOrders.set(hour, 0);
+            hourCents.set(hour, 0);
+        }
+        for (int slot = 0; slot < RECENT_MINUTES; slot++) {
+            minuteOrders.set(slot, 0);
+            minuteStamps.set(slot, 0);
+        }
+        itemTotals.clear();
+        day = today;
+        
+        try {
+            // Lines arrive grouped by order
+            Contribution.Builder[] builder = { new Contribution.Builder() };
+            salesLineDAO.forEachLine(today, today.plusDays(1), line -> {
+                if (!builder[0].accepts(line)) {
+                    addLoaded(builder[0].build());
+                    builder[0] = new Contribution.Builder();
+                }
+                builder[0].add(line);
+            });
+            addLoaded(builder[0].build());
+            logger.debug("Live sales loaded {} orders in {} ms", contributions.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            logger.warn("Failed to load today's sales; totals follow new changes only", e);
+        } finally {
+            version.incrementAndGet();
+        }
+    }
+    
+    private void addLoaded(Contribution contribution) {
+        if (contribution != null) {
+            contributions.put(contribution.orderId, contribution);
+            add(contribution, 1);
+        }
+    }
+    
+    /**
+     * Add an order to the totals, or take it out again with a sign of -1
+     */
+    private void add(Contribution contribution, int sign) {
+        orders.add(sign);
+        items.add(sign * contribution.quantity);
+        cents.add(sign * contribution.cents);
+        (contribution.status == Order.Status.COMPLETED ? completedOrders : openOrders).add(sign);
+        hourOrders.addAndGet(contribution.hour, sign);
+        hourCents.addAndGet(contribution.hour, sign * contribution.cents);
+        for (int i = 0; i < contribution.itemNames.length; i++) {
+            itemTotals.computeIfAbsent(contribution.itemNames[i], name -> new ItemTotals())
+                .add(sign, contribution.itemQuantities[i], contribution.itemCents[i]);
+        }
+        countRecent(contribution.minute, sign);
+    }
+    
+    private void countRecent(long minute, int sign) {
+        int slot = (int) Math.floorMod(minute, (long) RECENT_MINUTES);
+        long stamp = minuteStamps.get(slot);
+        if (stamp != minute) {
+            // The slot holds another minute: a newer one, or an older one this minute now replaces
+            if (sign < 0 || minute < stamp || minute <= minuteOf(LocalDateTime.now()) - RECENT_MINUTES) {
+                return;
+            }
+            minuteOrders.set(slot, 0);
+            minuteStamps.set(slot, minute);
+        }
+        minuteOrders.addAndGet(slot, sign);
+    }
+    
+    private static long minuteOf(LocalDateTime dateTime) {
+        return CompactOrder.toMillis(dateTime) / 60_000;
+    }
+    
+    /**
+     * Sales of one menu item today
+     */
+    private static final class ItemTotals {
+        final LongAdder orders = new LongAdder();
+        final LongAdder quantity = new LongAdder();
+        final LongAdder cents = new LongAdder();
+        
+        void add(int sign, long itemQuantity, long itemCents) {
+            orders.add(sign);
+            quantity.add(sign * itemQuantity);
+            cents.add(sign * itemCents);
+        }
+    }
+    
+    /**
+     * What one order adds to the totals
+     */
+    private static final class Contribution {
+        final long orderId;
+        final LocalDate day;
+        final int hour;
+        final long minute;
+        final Order.Status status;
+        final long quantity;
+        final long cents;
+        // One entry per distinct item
+        final String[] itemNames;
+        final long[] itemQuantities;
+        final long[] itemCents;
+        
+        private Contribution(Builder builder) {
+            this.orderId = builder.orderId;
+            this.day = builder.createdAt.toLocalDate();
+            this.hour = builder.createdAt.getHour();
+            this.minute = minuteOf(builder.createdAt);
+            this.status = builder.status;
+            
+            int count = builder.items.size();
+            this.itemNames = new String[count];
+            this.itemQuantities = new long[count];
+            this.itemCents = new long[count];
+            long totalQuantity = 0;
+            long totalCents = 0;
+            int i = 0;
+            for (Map.Entry<String, long[]> item : builder.items.entrySet()) {
+                itemNames[i] = item.getKey();
+                itemQuantities[i] = item.getValue()[0];
+                itemCents[i] = item.getValue()[1];
+                totalQuantity += itemQuantities[i];
+                totalCents += itemCents[i];
+                i++;
+            }
+            this.quantity = totalQuantity;
+            this.cents = totalCents;
+        }
+        
+        /**
+         * Collects the lines of one order
+         */
+        static final class Builder {
+            private long orderId;
+            private LocalDateTime createdAt;
+            private Order.Status status;
+            // Quantity and cents per item name, the same item on several lines summed
+            private final Map<String, long[]> items = new LinkedHashMap<>();
+            
+            boolean accepts(SalesLineDAO.Line line) {
+                return createdAt == null || line.getOrderId() == orderId;
+            }
+            
+            void add(SalesLineDAO.Line line) {
+                orderId = line.getOrderId();
+                createdAt = line.getCreatedAt();
+                status = line.getStatus();
+                long[] totals = items.computeIfAbsent(line.getItemName(), name -> new long[2]);
+                totals[0] += line.getQuantity();
+                totals[1] += line.getTotalCents();
+            }
+            
+            /**
+             * @return The order's contribution, or null if it had no lines
+             */
+            Contribution build() {
+                return createdAt != null ? new Contribution(this) : null;
+            }
+        }
+    }
+}
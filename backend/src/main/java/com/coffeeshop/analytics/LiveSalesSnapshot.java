@@ -0,0 +1,90 @@
+package com.coffeeshop.analytics;
+
+import com.coffeeshop.model.CompactOrder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Today's running sales totals at one instant
+ */
+public final class LiveSalesSnapshot {
+    private final LocalDate day;
+    private final long version;
+    private final SalesRow total;
+    private final int openOrders;
+    private final int completedOrders;
+    private final int recentOrders;
+    private final int recentMinutes;
+    private final int[] hourOrders;
+    private final long[] hourCents;
+    private final List<SalesRow> topItems;
+    
+    LiveSalesSnapshot(LocalDate day, long version, SalesRow total, int openOrders, int completedOrders,
+                      int recentOrders, int recentMinutes, int[] hourOrders, long[] hourCents, List<SalesRow> topItems) {
+        this.day = day;
+        this.version = version;
+        this.total = total;
+        this.openOrders = openOrders;
+        this.completedOrders = completedOrders;
+        this.recentOrders = recentOrders;
+        this.recentMinutes = recentMinutes;
+        this.hourOrders = hourOrders;
+        this.hourCents = hourCents;
+        this.topItems = Collections.unmodifiableList(topItems);
+    }
+    
+    public LocalDate getDay() { return day; }
+    
+    /**
+     * @return Number that changes whenever the totals change
+     */
+    public long getVersion() { return version; }
+    
+    /**
+     * @return Orders, items and revenue of the day, cancelled orders excluded
+     */
+    public SalesRow getTotal() { return total; }
+    
+    public BigDecimal getRevenue() {
+        return total.getRevenue();
+    }
+    
+    public BigDecimal getAverageTicket() {
+        return total.getAverageOrderValue();
+    }
+    
+    /**
+     * @return Orders not yet completed
+     */
+    public int getOpenOrders() { return openOrders; }
+    
+    public int getCompletedOrders() { return completedOrders; }
+    
+    /**
+     * @return Orders taken within the last {@link #getRecentMinutes()} minutes
+     */
+    public int getRecentOrders() { return recentOrders; }
+    
+    public int getRecentMinutes() { return recentMinutes; }
+    
+    /**
+     * @return Orders per hour at the pace of the last few minutes
+     */
+    public int getOrdersPerHourPace() {
+        return recentOrders * 60 / recentMinutes;
+    }
+    
+    public int getHourOrders(int hour) { return hourOrders[hour]; }
+    
+    public BigDecimal getHourRevenue(int hour) {
+        return CompactOrder.fromCents(hourCents[hour]);
+    }
+    
+    /**
+     * @return Best-selling items by quantity, most sold first
+     */
+    public List<SalesRow> getTopItems() { return topItems; }
+}
@@ -0,0 +1,34 @@
+package com.coffeeshop.analytics;
+
+/**
+ * What sales are grouped by in a report
+ */
+public enum SalesDimension {
+    HOUR("Hour of Day"),
+    DAY("Day"),
+    MONTH("Month"),
+    WAITER("Waiter"),
+    TABLE("Table"),
+    CATEGORY("Category"),
+    ITEM("Menu Item");
+    
+    private final String displayName;
+    
+    SalesDimension(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() { return displayName; }
+    
+    /**
+     * @return true if groups follow each other in time, false for names
+     */
+    public boolean isTime() {
+        return this == HOUR || this == DAY || this == MONTH;
+    }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
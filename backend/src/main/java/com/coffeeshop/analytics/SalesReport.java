@@ -0,0 +1,43 @@
+package com.coffeeshop.analytics;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sales over a range of days grouped by one dimension
+ */
+public final class SalesReport {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final SalesDimension dimension;
+    private final List<SalesRow> rows;
+    private final SalesRow total;
+    
+    SalesReport(LocalDate from, LocalDate to, SalesDimension dimension, List<SalesRow> rows, SalesRow total) {
+        this.from = from;
+        this.to = to;
+        this.dimension = dimension;
+        this.rows = Collections.unmodifiableList(rows);
+        this.total = total;
+    }
+    
+    public LocalDate getFrom() { return from; }
+    
+    /**
+     * @return Last day included
+     */
+    public LocalDate getTo() { return to; }
+    
+    public SalesDimension getDimension() { return dimension; }
+    
+    /**
+     * @return Groups with sales: in time order for time dimensions, highest revenue first otherwise
+     */
+    public List<SalesRow> getRows() { return rows; }
+    
+    /**
+     * @return All sales in the range; its order count counts each order once
+     */
+    public SalesRow getTotal() { return total; }
+}
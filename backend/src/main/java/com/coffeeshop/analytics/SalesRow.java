@@ -0,0 +1,52 @@
+package com.coffeeshop.analytics;
+
+import com.coffeeshop.model.CompactOrder;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one group in a report
+ */
+public final class SalesRow {
+    private final String label;
+    private final int orders;
+    private final long quantity;
+    private final long revenueCents;
+    
+    SalesRow(String label, int orders, long quantity, long revenueCents) {
+        this.label = label;
+        this.orders = orders;
+        this.quantity = quantity;
+        this.revenueCents = revenueCents;
+    }
+    
+    public String getLabel() { return label; }
+    
+    /**
+     * @return Number of orders with at least one line in the group
+     */
+    public int getOrders() { return orders; }
+    
+    /**
+     * @return Number of items sold
+     */
+    public long getQuantity() { return quantity; }
+    
+    public long getRevenueCents() { return revenueCents; }
+    
+    public BigDecimal getRevenue() {
+        return CompactOrder.fromCents(revenueCents);
+    }
+    
+    /**
+     * @return Revenue per order, zero without orders
+     */
+    public BigDecimal getAverageOrderValue() {
+        return CompactOrder.fromCents(orders > 0 ? Math.round((double) revenueCents / orders) : 0);
+    }
+    
+    @Override
+    public String toString() {
+        return label + ": " + orders + " orders, " + quantity + " items, $" + getRevenue();
+    }
+}
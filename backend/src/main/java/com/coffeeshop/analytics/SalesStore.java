@@ -0,0 +1,441 @@
+package com.coffeeshop.analytics;
+
+import com.coffeeshop.dao.SalesLineDAO;
+import com.coffeeshop.dao.impl.SalesLineDAOImpl;
+import com.coffeeshop.model.NameDictionary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * In-memory columnar store of order lines for sales reports.
+ *
+ * Lines are kept in one {@link DayPartition} per day, with waiter, table,
+ * category and item names dictionary-encoded. The first use loads only the
+ * days it asks for, up to today; after that only the days whose orders
+ * changed since the last refresh are read again, and earlier days are loaded
+ * when a report first reaches back to them. Reports are aggregated by tight loops
+ * over the columns, with the days split across the fork/join pool.
+ *
+ * A deleted order is noticed only when its day changes again; orders are
+ * normally cancelled rather than deleted.
+ */
+public class SalesStore {
+    private static final Logger logger = LoggerFactory.getLogger(SalesStore.class);
+    private static SalesStore instance;
+    
+    // Orders updated shortly before the last refresh are checked again: terminal clocks
+    // differ and a slow transaction commits after the instant it recorded
+    private static final long OVERLAP_SECONDS = 120;
+    
+    // Days aggregated by one fork/join task before it stops splitting
+    private static final int DAYS_PER_TASK = 16;
+    
+    private static final String NO_NAME = "(none)";
+    
+    private final SalesLineDAO salesLineDAO;
+    private final NameDictionary waiters = new NameDictionary();
+    private final NameDictionary tables = new NameDictionary();
+    private final NameDictionary categories = new NameDictionary();
+    private final NameDictionary items = new NameDictionary();
+    
+    // Replaced rather than modified, so a report reads a consistent set of days without locking
+    private volatile NavigableMap<Long, DayPartition> partitions = Collections.emptyNavigableMap();
+    
+    // Guarded by this
+    private LocalDate loadedFrom;
+    private LocalDateTime refreshedAt;
+    
+    private SalesStore() {
+        this.salesLineDAO = new SalesLineDAOImpl();
+    }
+    
+    public static synchronized SalesStore getInstance() {
+        if (instance == null) {
+            instance = new SalesStore();
+        }
+        return instance;
+    }
+    
+    /**
+     * Bring the store up to date with the database: load today on first use,
+     * afterwards reload only the days with changed orders
+     */
+    public synchronized void refresh() throws SQLException {
+        refresh(LocalDate.now());
+    }
+    
+    /**
+     * Bring the store up to date with the database
+     * @param from First day to load if nothing is loaded yet
+     */
+    private void refresh(LocalDate from) throws SQLException {
+        LocalDateTime started = LocalDateTime.now();
+        if (loadedFrom == null) {
+            LocalDate today = started.toLocalDate();
+            LocalDate first = from.isBefore(today) ? from : today;
+            loadDays(first, today.plusDays(1));
+            loadedFrom = first;
+        } else {
+            Set<LocalDate> changed = salesLineDAO.findDaysChangedSince(refreshedAt.minusSeconds(OVERLAP_SECONDS));
+            for (LocalDate day : changed) {
+                if (!day.isBefore(loadedFrom)) {
+                    loadDays(day, day.plusDays(1));
+                }
+            }
+        }
+        refreshedAt = started;
+    }
+    
+    /**
+     * Aggregate the sales of a range of days, refreshing the store first
+     * @param from First day
+     * @param to Last day, included
+     * @param dimension What to group by
+     * @return Sales per group and in total
+     */
+    public SalesReport report(LocalDate from, LocalDate to, SalesDimension dimension) throws SQLException {
+        return aggregate(from, to, dimension, days(from, to));
+    }
+    
+    /**
+     * Find the items ordered together in a range of days more often than
+     * chance would have it, refreshing the store first
+     * @param from First day
+     * @param to Last day, included
+     * @param minTogether Fewest orders a pair must share to be listed
+     * @return Pairs by lift, the more ordered item of each first
+     */
+    public List<ItemPair> itemPairs(LocalDate from, LocalDate to, int minTogether) throws SQLException {
+        DayPartition[] days = days(from, to);
+        long start = System.nanoTime();
+        BasketCounts counts = BasketCounts.count(days, itemCount());
+        
+        List<ItemPair> pairs = new ArrayList<>();
+        counts.forEachPair((a, b, together) -> {
+            if (together >= minTogether) {
+                ItemPair pair = itemPair(counts, a, b, together);
+                if (pair.getLift() > 1) {
+                    pairs.add(pair);
+                }
+            }
+        });
+        pairs.sort(Comparator.comparingDouble(ItemPair::getLift).reversed()
+            .thenComparing(Comparator.comparingInt(ItemPair::getTogether).reversed()));
+        
+        logger.debug("Counted item pairs of {} orders over {} days in {} ms",
+            counts.getOrders(), days.length, (System.nanoTime() - start) / 1_000_000);
+        return pairs;
+    }
+    
+    /**
+     * @return Number of order lines held
+     */
+    public long getLineCount() {
+        long lines = 0;
+        for (DayPartition day : partitions.values()) {
+            lines += day.size;
+        }
+        return lines;
+    }
+    
+    /**
+     * Bring the store up to date and take the days of a range, loading days
+     * before those held the first time a range reaches back to them
+     * @param to Last day, included
+     */
+    DayPartition[] days(LocalDate from, LocalDate to) throws SQLException {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + from + " to " + to);
+        }
+        synchronized (this) {
+            refresh(from);
+            if (from.isBefore(loadedFrom)) {
+                loadDays(from, loadedFrom);
+                loadedFrom = from;
+            }
+        }
+        return partitions.subMap(from.toEpochDay(), true, to.toEpochDay(), true)
+            .values().toArray(new DayPartition[0]);
+    }
+    
+    /**
+     * @return Code of an item name, as used in the days of the store
+     */
+    int itemCode(String itemName) {
+        return items.encode(itemName);
+    }
+    
+    /**
+     * @return Number of item codes given out so far
+     */
+    int itemCount() {
+        return items.size();
+    }
+    
+    /**
+     * @return Name of an item code
+     */
+    String itemName(int code) {
+        return items.decode(code);
+    }
+    
+    /**
+     * Name a counted pair of item codes, putting the more ordered item first
+     */
+    ItemPair itemPair(BasketCounts counts, int a, int b, int together) {
+        if (counts.getItemOrders(b) > counts.getItemOrders(a)) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        return new ItemPair(items.decode(a), items.decode(b), together,
+            counts.getItemOrders(a), counts.getItemOrders(b), counts.getOrders());
+    }
+    
+    /**
+     * Read a range of days from the database and replace them in the store
+     * @param to Day after the last day
+     */
+    private void loadDays(LocalDate from, LocalDate to) throws SQLException {
+        long start = System.nanoTime();
+        Map<Long, DayPartition.Builder> builders = new HashMap<>();
+        int lines = salesLineDAO.forEachLine(from, to, line -> {
+            long epochDay = line.getCreatedAt().toLocalDate().toEpochDay();
+            builders.computeIfAbsent(epochDay, DayPartition.Builder::new).add(
+                line.getOrderId(),
+                line.getCreatedAt().getHour(),
+                waiters.encode(line.getWaiterName()),
+                tables.encode(line.getTableName()),
+                categories.encode(line.getCategoryName()),
+                items.encode(line.getItemName()),
+                line.getQuantity(),
+                line.getTotalCents());
+        });
+        
+        NavigableMap<Long, DayPartition> updated = new TreeMap<>(partitions);
+        updated.subMap(from.toEpochDay(), to.toEpochDay()).clear();
+        for (DayPartition.Builder builder : builders.values()) {
+            DayPartition day = builder.build();
+            updated.put(day.epochDay, day);
+        }
+        partitions = updated;
+        
+        logger.debug("Loaded {} sales lines from {} to {} in {} ms",
+            lines, from, to.minusDays(1), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    private SalesReport aggregate(LocalDate from, LocalDate to, SalesDimension dimension, DayPartition[] days) {
+        long start = System.nanoTime();
+        
+        // Dictionaries only grow, so codes in the days taken above are below these sizes
+        int groups;
+        switch (dimension) {
+            case HOUR: groups = 24; break;
+            case DAY: groups = (int) ChronoUnit.DAYS.between(from, to) + 1; break;
+            case MONTH: groups = (int) ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(to)) + 1; break;
+            default: groups = dictionary(dimension).size() + 1; break;
+        }
+        
+        Totals totals = ForkJoinPool.commonPool().invoke(
+            new AggregateTask(days, 0, days.length, dimension, from, groups));
+        
+        List<SalesRow> rows = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            if (totals.orders[group] > 0) {
+                rows.add(new SalesRow(label(dimension, from, group),
+                    totals.orders[group], totals.quantity[group], totals.cents[group]));
+            }
+        }
+        if (!dimension.isTime()) {
+            rows.sort(Comparator.comparingLong(SalesRow::getRevenueCents).reversed()
+                .thenComparing(SalesRow::getLabel));
+        }
+        SalesRow total = new SalesRow("Total", totals.totalOrders, totals.totalQuantity, totals.totalCents);
+        
+        logger.debug("Aggregated {} days by {} in {} ms", days.length, dimension, (System.nanoTime() - start) / 1_000_000);
+        return new SalesReport(from, to, dimension, rows, total);
+    }
+    
+    private NameDictionary dictionary(SalesDimension dimension) {
+        switch (dimension) {
+            case WAITER: return waiters;
+            case TABLE: return tables;
+            case CATEGORY: return categories;
+            case ITEM: return items;
+            default: throw new IllegalArgumentException("Not a named dimension: " + dimension);
+        }
+    }
+    
+    private String label(SalesDimension dimension, LocalDate from, int group) {
+        switch (dimension) {
+            case HOUR: return String.format("%02d:00", group);
+            case DAY: return from.plusDays(group).toString();
+            case MONTH: return YearMonth.from(from).plusMonths(group).toString();
+            default:
+                // Group 0 holds the lines without a name
+                String name = dictionary(dimension).decode(group - 1);
+                return name != null ? name : NO_NAME;
+        }
+    }
+    
+    /**
+     * Sums per group, plus overall
+     */
+    private static final class Totals {
+        final int[] orders;
+        final long[] quantity;
+        final long[] cents;
+        // Last order counted per group; order IDs start at 1
+        final int[] lastOrder;
+        int totalOrders;
+        long totalQuantity;
+        long totalCents;
+        
+        Totals(int groups) {
+            orders = new int[groups];
+            quantity = new long[groups];
+            cents = new long[groups];
+            lastOrder = new int[groups];
+        }
+        
+        void add(DayPartition day, SalesDimension dimension, LocalDate from) {
+            int[] orderIds = day.orderIds;
+            int[] quantities = day.quantities;
+            long[] lineCents = day.cents;
+            int size = day.size;
+            
+            switch (dimension) {
+                case HOUR: {
+                    byte[] hours = day.hours;
+                    for (int i = 0; i < size; i++) {
+                        int group = hours[i];
+                        quantity[group] += quantities[i];
+                        cents[group] += lineCents[i];
+                        if (lastOrder[group] != orderIds[i]) {
+                            lastOrder[group] = orderIds[i];
+                            orders[group]++;
+                        }
+                    }
+                    break;
+                }
+                case DAY:
+                case MONTH: {
+                    // The whole day falls in one group
+                    LocalDate date = LocalDate.ofEpochDay(day.epochDay);
+                    int group = (int) (dimension == SalesDimension.DAY
+                        ? ChronoUnit.DAYS.between(from, date)
+                        : ChronoUnit.MONTHS.between(YearMonth.from(from), YearMonth.from(date)));
+                    long dayQuantity = 0;
+                    long dayCents = 0;
+                    int dayOrders = 0;
+                    int previous = lastOrder[group];
+                    for (int i = 0; i < size; i++) {
+                        dayQuantity += quantities[i];
+                        dayCents += lineCents[i];
+                        if (previous != orderIds[i]) {
+                            previous = orderIds[i];
+                            dayOrders++;
+                        }
+                    }
+                    lastOrder[group] = previous;
+                    quantity[group] += dayQuantity;
+                    cents[group] += dayCents;
+                    orders[group] += dayOrders;
+                    break;
+                }
+                default: {
+                    int[] codes = day.codes(dimension);
+                    for (int i = 0; i < size; i++) {
+                        int group = codes[i] + 1;
+                        quantity[group] += quantities[i];
+                        cents[group] += lineCents[i];
+                        if (lastOrder[group] != orderIds[i]) {
+                            lastOrder[group] = orderIds[i];
+                            orders[group]++;
+                        }
+                    }
+                    break;
+                }
+            }
+            
+            int previous = 0;
+            for (int i = 0; i < size; i++) {
+                totalQuantity += quantities[i];
+                totalCents += lineCents[i];
+                if (previous != orderIds[i]) {
+                    previous = orderIds[i];
+                    totalOrders++;
+                }
+            }
+        }
+        
+        /**
+         * Add another task's sums; an order lies within one day, so the two never count the same order
+         */
+        void merge(Totals other) {
+            for (int group = 0; group < orders.length; group++) {
+                orders[group] += other.orders[group];
+                quantity[group] += other.quantity[group];
+                cents[group] += other.cents[group];
+            }
+            totalOrders += other.totalOrders;
+            totalQuantity += other.totalQuantity;
+            totalCents += other.totalCents;
+        }
+    }
+    
+    /**
+     * Aggregates a slice of the days, splitting it in half until it is small
+     */
+    private static final class AggregateTask extends RecursiveTask<Totals> {
+        private final DayPartition[] days;
+        private final int low;
+        private final int high;
+        private final SalesDimension dimension;
+        private final LocalDate from;
+        private final int groups;
+        
+        AggregateTask(DayPartition[] days, int low, int high, SalesDimension dimension, LocalDate from, int groups) {
+            this.days = days;
+            this.low = low;
+            this.high = high;
+            this.dimension = dimension;
+            this.from = from;
+            this.groups = groups;
+        }
+        
+        @Override
+        protected Totals compute() {
+            if (high - low <= DAYS_PER_TASK) {
+                Totals totals = new Totals(groups);
+                for (int i = low; i < high; i++) {
+                    totals.add(days[i], dimension, from);
+                }
+                return totals;
+            }
+            int middle = (low + high) >>> 1;
+            AggregateTask left = new AggregateTask(days, low, middle, dimension, from, groups);
+            left.fork();
+            Totals totals = new AggregateTask(days, middle, high, dimension, from, groups).compute();
+            totals.merge(left.join());
+            return totals;
+        }
+    }
+}
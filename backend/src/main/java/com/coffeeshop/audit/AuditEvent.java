@@ -0,0 +1,145 @@
+package com.coffeeshop.audit;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Something a user did, as recorded in the audit log. Events are serialized
+ * into a compact binary form.
+ */
+public final class AuditEvent {
+    /**
+     * Kinds of event; stored by position, so new kinds go at the end
+     */
+    public enum Type {
+        LOGIN("Login"),
+        LOGIN_FAILED("Failed Login"),
+        LOGOUT("Logout"),
+        ORDER_CREATED("Order Created"),
+        ORDER_STATUS_CHANGED("Order Status Changed"),
+        MENU_ITEM_CREATED("Menu Item Created"),
+        MENU_ITEM_UPDATED("Menu Item Updated"),
+        MENU_ITEM_DELETED("Menu Item Deleted"),
+        MENU_ITEM_AVAILABILITY_CHANGED("Menu Item Availability Changed"),
+        CATEGORY_CREATED("Category Created"),
+        CATEGORY_UPDATED("Category Updated"),
+        CATEGORY_DELETED("Category Deleted");
+        
+        private final String displayName;
+        
+        Type(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        /**
+         * @return true for changes to menu items and categories
+         */
+        public boolean isMenuEdit() {
+            return ordinal() >= MENU_ITEM_CREATED.ordinal() && ordinal() <= CATEGORY_DELETED.ordinal();
+        }
+    }
+    
+    private final Type type;
+    private final long recordedAt;
+    private final Long userId;
+    private final String username;
+    private final Long subjectId;
+    private final String detail;
+    
+    private AuditEvent(Type type, long recordedAt, Long userId, String username, Long subjectId, String detail) {
+        this.type = type;
+        this.recordedAt = recordedAt;
+        this.userId = userId;
+        this.username = username;
+        this.subjectId = subjectId;
+        this.detail = detail;
+    }
+    
+    /**
+     * @param userId User who acted, null if unknown
+     * @param username Name of the user who acted, or the name tried for a failed login
+     * @param subjectId Order, menu item or category acted on, if any
+     * @param detail Short description, e.g. the new status
+     */
+    public static AuditEvent of(Type type, Long userId, String username, Long subjectId, String detail) {
+        return new AuditEvent(type, System.currentTimeMillis(), userId, username, subjectId, detail);
+    }
+    
+    public Type getType() { return type; }
+    public long getRecordedAt() { return recordedAt; }
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public Long getSubjectId() { return subjectId; }
+    public String getDetail() { return detail; }
+    
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(recordedAt), ZoneId.systemDefault());
+    }
+    
+    /**
+     * @return Local day the event happened on, as an epoch day
+     */
+    long getEpochDay() {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(recordedAt), ZoneId.systemDefault()).toEpochDay();
+    }
+    
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type.ordinal());
+        out.writeLong(recordedAt);
+        writeLong(out, userId);
+        writeString(out, username);
+        writeLong(out, subjectId);
+        writeString(out, detail);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    static AuditEvent fromBytes(DataInputStream in) throws IOException {
+        Type type = Type.values()[in.readByte()];
+        long recordedAt = in.readLong();
+        Long userId = readLong(in);
+        String username = readString(in);
+        Long subjectId = readLong(in);
+        String detail = readString(in);
+        return new AuditEvent(type, recordedAt, userId, username, subjectId, detail);
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+    
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+    
+    @Override
+    public String toString() {
+        return "AuditEvent{" + type + " by " + username + " at " + getTime() + (detail != null ? ": " + detail : "") + "}";
+    }
+}
@@ -0,0 +1,325 @@
+package com.coffeeshop.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only log of user actions, kept in rolling segment files.
+ *
+ * Records are framed as {@code [length][crc32][payload]}, like the order
+ * journal. When the current segment reaches its size limit it is synced and
+ * a new one started; segments whose events are all older than the retention
+ * period are deleted. An in-memory index tells, for each day and user, which
+ * segments hold their events, so a report reads only those segments. The
+ * index is rebuilt by scanning the segments when the log is opened.
+ * Events whose user is known by ID only are indexed as having no user and
+ * named when read, from a lookup the reader passes in.
+ *
+ * Appends are not synced one by one: a terminal crash loses nothing, a
+ * power cut may lose the last few events. Audit writes never hold up the
+ * action they record.
+ */
+public class AuditLog implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+    
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    
+    // Index key of events without a user
+    private static final String NO_USER = "";
+    
+    private final Path directory;
+    private final long segmentBytes;
+    private final int retentionDays;
+    
+    // Guarded by this
+    private final NavigableMap<Integer, Path> segments = new TreeMap<>();
+    // Last day with events, per segment
+    private final Map<Integer, Long> segmentLastDays = new HashMap<>();
+    // Day -> user -> segments with that user's events that day
+    private final NavigableMap<Long, Map<String, BitSet>> index = new TreeMap<>();
+    private int currentSegment;
+    private FileChannel channel;
+    private long writePosition;
+    
+    /**
+     * @param segmentBytes Size at which a segment is closed and a new one started
+     * @param retentionDays Days of events kept
+     */
+    public AuditLog(Path directory, long segmentBytes, int retentionDays) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.retentionDays = retentionDays;
+        
+        long start = System.nanoTime();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                Integer number = segmentNumber(file);
+                if (number != null) {
+                    segments.put(number, file);
+                }
+            }
+        }
+        
+        int events = 0;
+        for (Map.Entry<Integer, Path> segment : segments.entrySet()) {
+            events += indexSegment(segment.getKey(), segment.getValue());
+        }
+        
+        currentSegment = segments.isEmpty() ? 1 : segments.lastKey();
+        openCurrent();
+        deleteExpired();
+        
+        logger.info("Audit log opened at {} ({} events in {} segments, indexed in {} ms)",
+            directory, events, segments.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Append an event, starting a new segment if the current one is full
+     */
+    public synchronized void append(AuditEvent event) throws IOException {
+        byte[] payload = event.toBytes();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (record.hasRemaining()) {
+            writePosition += channel.write(record, writePosition);
+        }
+        addToIndex(event, currentSegment);
+        
+        if (writePosition >= segmentBytes) {
+            roll();
+        }
+    }
+    
+    /**
+     * Read the events of a range of days, from the segments the index names only
+     * @param from First day
+     * @param to Last day, included
+     * @param username Only this user's events, or null for everyone's
+     * @param names Finds the name of a user recorded by ID only; null if unknown
+     * @return Events in the order they were recorded
+     */
+    public List<AuditEvent> read(LocalDate from, LocalDate to, String username, Function<Long, String> names)
+            throws IOException {
+        long firstDay = from.toEpochDay();
+        long lastDay = to.toEpochDay();
+        
+        // Take the segments and their readable length under the lock, read them outside it
+        Map<Path, Long> toRead = new LinkedHashMap<>();
+        synchronized (this) {
+            BitSet wanted = new BitSet();
+            for (Map<String, BitSet> users : index.subMap(firstDay, true, lastDay, true).values()) {
+                if (username == null) {
+                    users.values().forEach(wanted::or);
+                } else {
+                    // The user's events recorded by ID only are under no user
+                    for (String key : new String[] {username, NO_USER}) {
+                        if (users.containsKey(key)) {
+                            wanted.or(users.get(key));
+                        }
+                    }
+                }
+            }
+            for (int number = wanted.nextSetBit(0); number >= 0; number = wanted.nextSetBit(number + 1)) {
+                Path file = segments.get(number);
+                if (file != null) {
+                    toRead.put(file, number == currentSegment ? writePosition : Long.MAX_VALUE);
+                }
+            }
+        }
+        
+        List<AuditEvent> events = new ArrayList<>();
+        for (Map.Entry<Path, Long> segment : toRead.entrySet()) {
+            try (FileChannel reader = FileChannel.open(segment.getKey(), StandardOpenOption.READ)) {
+                long end = Math.min(segment.getValue(), reader.size());
+                List<AuditEvent> segmentEvents = new ArrayList<>();
+                scan(reader, end, false, segmentEvents);
+                for (AuditEvent event : segmentEvents) {
+                    long day = event.getEpochDay();
+                    if (day >= firstDay && day <= lastDay
+                            && (username == null || username.equals(nameOf(event, names)))) {
+                        events.add(event);
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // Deleted as expired since the index was read
+            }
+        }
+        return events;
+    }
+    
+    /**
+     * Sum up what each user did over a range of days
+     * @param names Finds the name of a user recorded by ID only; null if unknown
+     * @return One row per user, most active first
+     */
+    public List<UserActivity> summarize(LocalDate from, LocalDate to, Function<Long, String> names) throws IOException {
+        Map<String, UserActivity> users = new HashMap<>();
+        for (AuditEvent event : read(from, to, null, names)) {
+            users.computeIfAbsent(nameOf(event, names), UserActivity::new).add(event);
+        }
+        List<UserActivity> rows = new ArrayList<>(users.values());
+        rows.sort(Comparator.comparingInt(UserActivity::getTotal).reversed().thenComparing(UserActivity::getUsername));
+        return rows;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+    
+    private void roll() throws IOException {
+        channel.force(false);
+        channel.close();
+        currentSegment++;
+        openCurrent();
+        deleteExpired();
+        logger.debug("Audit log started segment {}", currentSegment);
+    }
+    
+    private void openCurrent() throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, currentSegment, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(currentSegment, file);
+        
+        // Drop a record torn by a crash mid-append
+        writePosition = scan(channel, channel.size(), true, null);
+        if (writePosition < channel.size()) {
+            logger.warn("Truncating {} bytes of incomplete audit data", channel.size() - writePosition);
+            channel.truncate(writePosition);
+        }
+    }
+    
+    /**
+     * Delete the segments, other than the current one, with no event in the retention period
+     */
+    private void deleteExpired() {
+        long firstKept = LocalDate.now().minusDays(retentionDays).toEpochDay();
+        List<Integer> expired = new ArrayList<>();
+        for (Integer number : segments.keySet()) {
+            if (number != currentSegment && segmentLastDays.getOrDefault(number, Long.MIN_VALUE) < firstKept) {
+                expired.add(number);
+            }
+        }
+        for (Integer number : expired) {
+            try {
+                Files.deleteIfExists(segments.get(number));
+                segments.remove(number);
+                segmentLastDays.remove(number);
+            } catch (IOException e) {
+                logger.warn("Failed to delete expired audit segment {}", segments.get(number), e);
+            }
+        }
+        index.headMap(firstKept, false).clear();
+    }
+    
+    private int indexSegment(int number, Path file) throws IOException {
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<AuditEvent> events = new ArrayList<>();
+            scan(reader, reader.size(), true, events);
+            for (AuditEvent event : events) {
+                addToIndex(event, number);
+            }
+            return events.size();
+        }
+    }
+    
+    private void addToIndex(AuditEvent event, int segment) {
+        long day = event.getEpochDay();
+        index.computeIfAbsent(day, d -> new HashMap<>())
+            .computeIfAbsent(keyOf(event), user -> new BitSet())
+            .set(segment);
+        segmentLastDays.merge(segment, day, Math::max);
+    }
+    
+    /**
+     * Read the records of a segment up to a position
+     * @param verify Check each record's checksum, stopping at the first bad one
+     * @param events Receives the events read, or null to only find where the records end
+     * @return Position just past the last record read
+     */
+    private static long scan(FileChannel reader, long end, boolean verify, List<AuditEvent> events) throws IOException {
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        
+        while (position + HEADER_BYTES <= end) {
+            header.clear();
+            reader.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            if (length < 0 || position + HEADER_BYTES + length > end) {
+                break;
+            }
+            
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            reader.read(payload, position + HEADER_BYTES);
+            if (verify) {
+                crc.reset();
+                crc.update(payload.array());
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;
+                }
+            }
+            if (events != null) {
+                events.add(AuditEvent.fromBytes(new DataInputStream(new ByteArrayInputStream(payload.array()))));
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+    
+    private static String keyOf(AuditEvent event) {
+        return event.getUsername() != null ? event.getUsername() : NO_USER;
+    }
+    
+    private static String nameOf(AuditEvent event, Function<Long, String> names) {
+        if (event.getUsername() == null && event.getUserId() != null) {
+            String username = names.apply(event.getUserId());
+            if (username != null) {
+                return username;
+            }
+        }
+        return keyOf(event);
+    }
+    
+    private static Integer segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.valueOf(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring unexpected file in the audit log directory: {}", file);
+            return null;
+        }
+    }
+}
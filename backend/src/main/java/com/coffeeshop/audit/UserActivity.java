@@ -0,0 +1,60 @@
+package com.coffeeshop.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * What one user did over a period, summed up from the audit log
+ */
+public final class UserActivity {
+    private final String username;
+    private int logins;
+    private int failedLogins;
+    private int ordersCreated;
+    private int statusChanges;
+    private int menuEdits;
+    private int total;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+    
+    UserActivity(String username) {
+        this.username = username;
+    }
+    
+    void add(AuditEvent event) {
+        switch (event.getType()) {
+            case LOGIN: logins++; break;
+            case LOGIN_FAILED: failedLogins++; break;
+            case ORDER_CREATED: ordersCreated++; break;
+            case ORDER_STATUS_CHANGED: statusChanges++; break;
+            default:
+                if (event.getType().isMenuEdit()) {
+                    menuEdits++;
+                }
+                break;
+        }
+        total++;
+        
+        // Events come in the order they were recorded
+        if (firstSeen == null) {
+            firstSeen = event.getTime();
+        }
+        lastSeen = event.getTime();
+    }
+    
+    /**
+     * @return Username, or the name tried for failed logins; empty if unknown
+     */
+    public String getUsername() { return username; }
+    public int getLogins() { return logins; }
+    public int getFailedLogins() { return failedLogins; }
+    public int getOrdersCreated() { return ordersCreated; }
+    public int getStatusChanges() { return statusChanges; }
+    public int getMenuEdits() { return menuEdits; }
+    
+    /**
+     * @return Number of events of any kind
+     */
+    public int getTotal() { return total; }
+    public LocalDateTime getFirstSeen() { return firstSeen; }
+    public LocalDateTime getLastSeen() { return lastSeen; }
+}
@@ -0,0 +1,137 @@
+package com.coffeeshop.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.h2.tools.RunScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Persistence backends the application can run against.
+ *
+ * Selected with the {@code coffeeshop.db} system property ({@code mysql} or
+ * {@code embedded}); MySQL is the default.
+ */
+public enum DatabaseBackend {
+    
+    /**
+     * Shared MySQL server, used by multi-terminal shops
+     */
+    MYSQL {
+        @Override
+        void configure(HikariConfig config) {
+            config.setJdbcUrl(System.getProperty("coffeeshop.db.url", MYSQL_URL));
+            config.setUsername(MYSQL_USERNAME);
+            config.setPassword(MYSQL_PASSWORD);
+            config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+            config.setMaximumPoolSize(10);
+            config.setMinimumIdle(2);
+        }
+        
+        @Override
+        void initializeSchema(Connection conn) {
+            // Schema is created by the MySQL container from database/init.sql
+        }
+    },
+    
+    /**
+     * In-process H2 database in MySQL compatibility mode, stored in a local
+     * file. Meant for single-terminal kiosks, tests and benchmarks.
+     */
+    EMBEDDED {
+        @Override
+        void configure(HikariConfig config) {
+            String path = System.getProperty("coffeeshop.db.path",
+                Paths.get(System.getProperty("user.home"), ".coffeeshop", "coffeeshop").toString());
+            // "mem:<name>" gives a throwaway in-memory database for hermetic runs
+            String location = path.startsWith("mem:") ? path + ";DB_CLOSE_DELAY=-1" : "file:" + path;
+            
+            config.setJdbcUrl("jdbc:h2:" + location + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            config.setUsername("sa");
+            config.setPassword("");
+            config.setDriverClassName("org.h2.Driver");
+            // No network hop, so a small pool is enough
+            config.setMaximumPoolSize(4);
+            config.setMinimumIdle(1);
+        }
+        
+        @Override
+        void initializeSchema(Connection conn) throws SQLException {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = 'users'");
+                 ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return;
+                }
+            }
+            
+            // init.sql targets MySQL; only the USE statement has no H2 equivalent
+            String script = loadInitScript().replaceAll("(?mi)^USE\\s+\\w+\\s*;", "");
+            RunScript.execute(conn, new StringReader(script));
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+            logger.info("Embedded database initialized from init.sql");
+        }
+    };
+    
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBackend.class);
+    
+    private static final String MYSQL_URL = "jdbc:mysql://localhost:3306/coffeeshop?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
+    private static final String MYSQL_USERNAME = "coffeeuser";
+    private static final String MYSQL_PASSWORD = "coffee123";
+    
+    // Packaged from database/init.sql by the build, see pom.xml
+    private static final String INIT_SCRIPT_RESOURCE = "/db/init.sql";
+    
+    /**
+     * Apply connection settings for this backend
+     */
+    abstract void configure(HikariConfig config);
+    
+    /**
+     * Create the schema and seed data if the database is empty
+     */
+    abstract void initializeSchema(Connection conn) throws SQLException;
+    
+    /**
+     * Get the backend selected by the {@code coffeeshop.db} system property
+     */
+    public static DatabaseBackend fromSystemProperty() {
+        String value = System.getProperty("coffeeshop.db", "mysql").trim().toUpperCase();
+        try {
+            return valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown database backend: " + value + " (expected mysql or embedded)");
+        }
+    }
+    
+    private static String loadInitScript() throws SQLException {
+        try (InputStream in = DatabaseBackend.class.getResourceAsStream(INIT_SCRIPT_RESOURCE)) {
+            if (in != null) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            
+            // Running from the source tree without packaged resources
+            for (Path candidate : new Path[]{Paths.get("database", "init.sql"), Paths.get("..", "database", "init.sql")}) {
+                if (Files.exists(candidate)) {
+                    return Files.readString(candidate, StandardCharsets.UTF_8);
+                }
+            }
+        } catch (IOException e) {
+            throw new SQLException("Failed to read init.sql", e);
+        }
+        throw new SQLException("init.sql not found on classpath or in database/");
+    }
+}
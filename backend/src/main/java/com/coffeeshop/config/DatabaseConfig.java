@@ -16,12 +16,7 @@ public class DatabaseConfig {
     private static final Logger logger = LoggerFactory.getLogger(DatabaseConfig.class);
     private static DatabaseConfig instance;
     private HikariDataSource dataSource;
-    
-    // Database configuration
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/coffeeshop?useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true";
-    private static final String DB_USERNAME = "coffeeuser";
-    private static final String DB_PASSWORD = "coffee123";
-    private static final String DB_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private DatabaseBackend backend;
     
     private DatabaseConfig() {}
     
@@ -34,15 +29,12 @@ public class DatabaseConfig {
     
     public void initializeDatabase() throws SQLException {
         if (dataSource == null) {
+            backend = DatabaseBackend.fromSystemProperty();
+            
             HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(DB_URL);
-            config.setUsername(DB_USERNAME);
-            config.setPassword(DB_PASSWORD);
-            config.setDriverClassName(DB_DRIVER);
+            backend.configure(config);
             
             // Connection pool settings
-            config.setMaximumPoolSize(10);
-            config.setMinimumIdle(2);
             config.setConnectionTimeout(30000);
             config.setIdleTimeout(600000);
             config.setMaxLifetime(1800000);
@@ -54,13 +46,21 @@ public class DatabaseConfig {
             
             dataSource = new HikariDataSource(config);
             
-            // Test the connection
+            // Test the connection and create the schema where the backend owns it
             try (Connection conn = getConnection()) {
-                logger.info("Database connection established successfully");
+                backend.initializeSchema(conn);
+                logger.info("Database connection established successfully ({})", backend);
             }
         }
     }
     
+    /**
+     * Get the backend chosen at initialization, or null before initialization
+     */
+    public DatabaseBackend getBackend() {
+        return backend;
+    }
+    
     public Connection getConnection() throws SQLException {
         if (dataSource == null) {
             throw new SQLException("DataSource not initialized");
@@ -0,0 +1,58 @@
+package com.coffeeshop.dao;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * DAO interface for the change event outbox.
+ * DAOs add outbox entries in the same transaction as the change they announce.
+ */
+public interface ChangeOutboxDAO {
+    
+    /**
+     * A pending change notice
+     */
+    final class Entry {
+        private final String entity;
+        private final Long entityId;
+        private final String origin;
+        
+        public Entry(String entity, Long entityId, String origin) {
+            this.entity = entity;
+            this.entityId = entityId;
+            this.origin = origin;
+        }
+        
+        public String getEntity() { return entity; }
+        
+        /**
+         * @return Changed entity, or null if several changed
+         */
+        public Long getEntityId() { return entityId; }
+        
+        /**
+         * @return Terminal that made the change
+         */
+        public String getOrigin() { return origin; }
+    }
+    
+    /**
+     * Read the oldest pending entries, hand them to the handler and remove them.
+     * The handler runs outside any transaction. Entries are only removed once the
+     * handler returned, so a failure leaves them pending for the next attempt;
+     * relays running at the same time may both hand over the same entry.
+     * @param batchSize Maximum number of entries to claim
+     * @param handler Receives the claimed entries, oldest first
+     * @return Number of entries relayed
+     * @throws SQLException if database error occurs
+     */
+    int relayPending(int batchSize, Consumer<List<Entry>> handler) throws SQLException;
+    
+    /**
+     * Count entries not relayed yet
+     * @return Number of pending entries
+     * @throws SQLException if database error occurs
+     */
+    long countPending() throws SQLException;
+}
@@ -0,0 +1,28 @@
+package com.coffeeshop.dao;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when an update is rejected because the row was modified by another
+ * terminal after it was read (the stored version no longer matches).
+ */
+public class OptimisticLockException extends SQLException {
+    private static final long serialVersionUID = 1L;
+    
+    private final String entity;
+    private final Long entityId;
+    private final int expectedVersion;
+    
+    public OptimisticLockException(String entity, Long entityId, int expectedVersion) {
+        super(entity + " " + entityId + " was modified concurrently (expected version " + expectedVersion + ")");
+        this.entity = entity;
+        this.entityId = entityId;
+        this.expectedVersion = expectedVersion;
+    }
+    
+    public String getEntity() { return entity; }
+    
+    public Long getEntityId() { return entityId; }
+    
+    public int getExpectedVersion() { return expectedVersion; }
+}
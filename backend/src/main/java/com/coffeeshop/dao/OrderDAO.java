@@ -5,12 +5,36 @@ import com.coffeeshop.model.Order;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO interface for Order entity
  */
 public interface OrderDAO extends GenericDAO<Order, Long> {
     
+    /**
+     * Default number of orders committed per transaction by {@link #saveAll(List)}
+     */
+    int DEFAULT_BULK_CHUNK_SIZE = 200;
+    
+    /**
+     * Save many orders using multi-row inserts, committing every
+     * {@link #DEFAULT_BULK_CHUNK_SIZE} orders
+     * @param orders Orders to save, updated in place with generated IDs
+     * @return The saved orders
+     * @throws SQLException if database error occurs
+     */
+    List<Order> saveAll(List<Order> orders) throws SQLException;
+    
+    /**
+     * Save many orders using multi-row inserts
+     * @param orders Orders to save, updated in place with generated IDs
+     * @param chunkSize Number of orders per transaction; chunks committed before a failure stay committed
+     * @return The saved orders
+     * @throws SQLException if database error occurs
+     */
+    List<Order> saveAll(List<Order> orders, int chunkSize) throws SQLException;
+    
     /**
      * Find orders by status
      * @param status Order status
@@ -75,6 +99,13 @@ public interface OrderDAO extends GenericDAO<Order, Long> {
      */
     void updateStatus(Long orderId, Order.Status status, Long changedBy) throws SQLException;
     
+    /**
+     * Update the status of several orders in a single transaction
+     * @param statuses New status per order ID
+     * @throws SQLException if database error occurs; no status is changed in that case
+     */
+    void updateStatuses(Map<Long, Order.Status> statuses) throws SQLException;
+    
     /**
      * Generate next order number
      * @return Next order number
@@ -103,4 +134,13 @@ public interface OrderDAO extends GenericDAO<Order, Long> {
      * @throws SQLException if database error occurs
      */
     List<Order> searchOrders(String searchTerm) throws SQLException;
-}
+    
+    /**
+     * Search orders created before a given time, i.e. outside the in-memory search window
+     * @param searchTerm Search term
+     * @param before Only orders created before this time are returned
+     * @return List of matching orders, newest first
+     * @throws SQLException if database error occurs
+     */
+    List<Order> searchOrdersBefore(String searchTerm, LocalDateTime before) throws SQLException;
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.coffeeshop.dao;
+
+import com.coffeeshop.model.Order;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * DAO interface for reading order lines in bulk for sales analytics.
+ * Each line is one order item flattened with its order, waiter, table and
+ * category. Cancelled orders are not sales and have no lines.
+ */
+public interface SalesLineDAO {
+    
+    /**
+     * One order item with the dimensions it is reported by. Instances are
+     * reused from row to row; copy what you keep.
+     */
+    final class Line {
+        private long orderId;
+        private LocalDateTime createdAt;
+        private Order.Status status;
+        private String waiterName;
+        private String tableName;
+        private String categoryName;
+        private String itemName;
+        private int quantity;
+        private long totalCents;
+        
+        public long getOrderId() { return orderId; }
+        public void setOrderId(long orderId) { this.orderId = orderId; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        public Order.Status getStatus() { return status; }
+        public void setStatus(Order.Status status) { this.status = status; }
+        public String getWaiterName() { return waiterName; }
+        public void setWaiterName(String waiterName) { this.waiterName = waiterName; }
+        public String getTableName() { return tableName; }
+        public void setTableName(String tableName) { this.tableName = tableName; }
+        public String getCategoryName() { return categoryName; }
+        public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+        public String getItemName() { return itemName; }
+        public void setItemName(String itemName) { this.itemName = itemName; }
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+        public long getTotalCents() { return totalCents; }
+        public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+    }
+    
+    /**
+     * Read the lines of the orders created in a range of days, ordered by
+     * creation time so the lines of an order arrive together
+     * @param from First day
+     * @param to Day after the last day
+     * @param handler Receives each line
+     * @return Number of lines read
+     * @throws SQLException if database error occurs
+     */
+    int forEachLine(LocalDate from, LocalDate to, Consumer<Line> handler) throws SQLException;
+    
+    /**
+     * Read the lines of one order
+     * @param orderId Order ID
+     * @param handler Receives each line
+     * @return Number of lines read, 0 if the order is cancelled or gone
+     * @throws SQLException if database error occurs
+     */
+    int forEachLineOfOrder(Long orderId, Consumer<Line> handler) throws SQLException;
+    
+    /**
+     * Find the days whose orders were created or changed since an instant
+     * @param since Orders updated at or after this instant count as changed
+     * @return Creation days of the changed orders
+     * @throws SQLException if database error occurs
+     */
+    Set<LocalDate> findDaysChangedSince(LocalDateTime since) throws SQLException;
+}
@@ -0,0 +1,56 @@
+package com.coffeeshop.dao;
+
+import com.coffeeshop.model.Station;
+import com.coffeeshop.model.StationTicket;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * DAO interface for StationTicket entity.
+ * Tickets are created and removed by OrderDAO as order items change.
+ */
+public interface StationTicketDAO {
+    
+    /**
+     * Find a ticket by ID
+     * @param id Ticket ID
+     * @return Ticket if found
+     * @throws SQLException if database error occurs
+     */
+    Optional<StationTicket> findById(Long id) throws SQLException;
+    
+    /**
+     * Find the tickets of an order, with their items
+     * @param orderId Order ID
+     * @return List of the order's tickets
+     * @throws SQLException if database error occurs
+     */
+    List<StationTicket> findByOrder(Long orderId) throws SQLException;
+    
+    /**
+     * Find the tickets a station still has to prepare, oldest first, with only
+     * the items prepared at that station
+     * @param station Kitchen station
+     * @return List of NEW and IN_PROGRESS tickets of active orders
+     * @throws SQLException if database error occurs
+     */
+    List<StationTicket> findOpenByStation(Station station) throws SQLException;
+    
+    /**
+     * Update ticket status
+     * @param ticketId Ticket ID
+     * @param status New status
+     * @throws SQLException if database error occurs
+     */
+    void updateStatus(Long ticketId, StationTicket.Status status) throws SQLException;
+    
+    /**
+     * Count the tickets of an order that are not READY yet
+     * @param orderId Order ID
+     * @return Number of unfinished tickets
+     * @throws SQLException if database error occurs
+     */
+    int countUnfinished(Long orderId) throws SQLException;
+}
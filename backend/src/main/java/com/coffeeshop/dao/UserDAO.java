@@ -42,6 +42,16 @@ public interface UserDAO extends GenericDAO<User, Long> {
      */
     void updatePassword(Long userId, String newPassword) throws SQLException;
     
+    /**
+     * Update user password only if it is still the given one
+     * @param userId User ID
+     * @param expectedPassword Stored password the new one replaces (hashed)
+     * @param newPassword New password (should be hashed)
+     * @return true if replaced, false if the password changed in the meantime
+     * @throws SQLException if database error occurs
+     */
+    boolean replacePassword(Long userId, String expectedPassword, String newPassword) throws SQLException;
+    
     /**
      * Activate or deactivate user
      * @param userId User ID
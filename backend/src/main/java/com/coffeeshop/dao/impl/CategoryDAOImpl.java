@@ -3,6 +3,7 @@ package com.coffeeshop.dao.impl;
 import com.coffeeshop.config.DatabaseConfig;
 import com.coffeeshop.dao.CategoryDAO;
 import com.coffeeshop.model.Category;
+import com.coffeeshop.model.Station;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,7 +19,7 @@ public class CategoryDAOImpl implements CategoryDAO {
     private static final Logger logger = LoggerFactory.getLogger(CategoryDAOImpl.class);
     
     private static final String INSERT_CATEGORY = 
-        "INSERT INTO categories (name, description, is_active) VALUES (?, ?, ?)";
+        "INSERT INTO categories (name, description, is_active, station) VALUES (?, ?, ?, ?)";
     
     private static final String SELECT_CATEGORY_BY_ID = 
         "SELECT * FROM categories WHERE id = ?";
@@ -33,7 +34,7 @@ public class CategoryDAOImpl implements CategoryDAO {
         "SELECT * FROM categories WHERE name = ?";
     
     private static final String UPDATE_CATEGORY = 
-        "UPDATE categories SET name = ?, description = ?, is_active = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        "UPDATE categories SET name = ?, description = ?, is_active = ?, station = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
     
     private static final String UPDATE_ACTIVE_STATUS = 
         "UPDATE categories SET is_active = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
@@ -55,6 +56,7 @@ public class CategoryDAOImpl implements CategoryDAO {
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
             stmt.setBoolean(3, category.isActive());
+            stmt.setString(4, stationOrDefault(category).name());
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -140,7 +142,8 @@ public class CategoryDAOImpl implements CategoryDAO {
             stmt.setString(1, category.getName());
             stmt.setString(2, category.getDescription());
             stmt.setBoolean(3, category.isActive());
-            stmt.setLong(4, category.getId());
+            stmt.setString(4, stationOrDefault(category).name());
+            stmt.setLong(5, category.getId());
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -212,12 +215,17 @@ public class CategoryDAOImpl implements CategoryDAO {
         return 0;
     }
     
+    private Station stationOrDefault(Category category) {
+        return category.getStation() != null ? category.getStation() : Station.BAR;
+    }
+    
     private Category mapResultSetToCategory(ResultSet rs) throws SQLException {
         Category category = new Category();
         category.setId(rs.getLong("id"));
         category.setName(rs.getString("name"));
         category.setDescription(rs.getString("description"));
         category.setActive(rs.getBoolean("is_active"));
+        category.setStation(Station.valueOf(rs.getString("station")));
         
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -0,0 +1,130 @@
+package com.coffeeshop.dao.impl;
+
+import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.dao.ChangeOutboxDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of ChangeOutboxDAO for database operations
+ */
+public class ChangeOutboxDAOImpl implements ChangeOutboxDAO {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeOutboxDAOImpl.class);
+    
+    static final String ORDER = "ORDER";
+    
+    // Identifies this terminal in the entries it writes
+    private static volatile String origin = UUID.randomUUID().toString().substring(0, 8);
+    
+    private static final String INSERT_ENTRY = 
+        "INSERT INTO change_outbox (entity, entity_id, origin) VALUES (?, ?, ?)";
+    
+    // Plain read, so relays never hold locks that order writes inserting into the outbox would wait on
+    private static final String SELECT_PENDING = 
+        "SELECT id, entity, entity_id, origin FROM change_outbox ORDER BY id LIMIT ?";
+    
+    // By ID rather than range: an entry with a lower ID may still be uncommitted and unseen
+    private static final String DELETE_ENTRIES_PREFIX = "DELETE FROM change_outbox WHERE id IN ";
+    private static final String COUNT_PENDING = "SELECT COUNT(*) FROM change_outbox";
+    
+    /**
+     * Set the terminal ID recorded with this terminal's changes
+     */
+    public static void setOrigin(String terminalId) {
+        origin = terminalId;
+    }
+    
+    static String getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * Add outbox entries within the caller's transaction
+     * @param entityIds Changed entities; a null element means several changed
+     */
+    static void record(Connection conn, String entity, Collection<Long> entityIds) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ENTRY)) {
+            for (Long entityId : entityIds) {
+                stmt.setString(1, entity);
+                if (entityId != null) {
+                    stmt.setLong(2, entityId);
+                } else {
+                    stmt.setNull(2, Types.INTEGER);
+                }
+                stmt.setString(3, origin);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
+    static void record(Connection conn, String entity, Long entityId) throws SQLException {
+        List<Long> ids = new ArrayList<>(1);
+        ids.add(entityId);
+        record(conn, entity, ids);
+    }
+    
+    @Override
+    public int relayPending(int batchSize, Consumer<List<Entry>> handler) throws SQLException {
+        List<Long> claimed = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_PENDING)) {
+            stmt.setInt(1, batchSize);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long entityId = rs.getLong("entity_id");
+                    entries.add(new Entry(rs.getString("entity"), rs.wasNull() ? null : entityId, rs.getString("origin")));
+                    claimed.add(rs.getLong("id"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error reading change outbox", e);
+            throw e;
+        }
+        
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        
+        // Announce outside any transaction: listeners may be slow, and held outbox locks would block every order write.
+        // A failure or crash before the delete leaves the entries to be announced again, which is harmless.
+        handler.accept(entries);
+        
+        StringBuilder sql = new StringBuilder(DELETE_ENTRIES_PREFIX).append('(');
+        for (int i = 0; i < claimed.size(); i++) {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(')');
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < claimed.size(); i++) {
+                stmt.setLong(i + 1, claimed.get(i));
+            }
+            stmt.executeUpdate();
+            return claimed.size();
+        } catch (SQLException e) {
+            logger.error("Error removing relayed entries from change outbox", e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public long countPending() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_PENDING);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            logger.error("Error counting pending changes", e);
+            throw e;
+        }
+    }
+}
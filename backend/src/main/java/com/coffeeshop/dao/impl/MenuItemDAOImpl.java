@@ -3,6 +3,7 @@ package com.coffeeshop.dao.impl;
 import com.coffeeshop.config.DatabaseConfig;
 import com.coffeeshop.dao.MenuItemDAO;
 import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.model.Station;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,7 +20,7 @@ public class MenuItemDAOImpl implements MenuItemDAO {
     private static final Logger logger = LoggerFactory.getLogger(MenuItemDAOImpl.class);
     
     private static final String INSERT_MENU_ITEM = 
-        "INSERT INTO menu_items (name, category_id, description, price, is_available, preparation_time) VALUES (?, ?, ?, ?, ?, ?)";
+        "INSERT INTO menu_items (name, category_id, description, price, is_available, preparation_time, station) VALUES (?, ?, ?, ?, ?, ?, ?)";
     
     private static final String SELECT_MENU_ITEM_BY_ID = 
         "SELECT * FROM menu_items WHERE id = ?";
@@ -42,7 +43,7 @@ public class MenuItemDAOImpl implements MenuItemDAO {
     
     private static final String UPDATE_MENU_ITEM = 
         "UPDATE menu_items SET name = ?, category_id = ?, description = ?, price = ?, " +
-        "is_available = ?, preparation_time = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
+        "is_available = ?, preparation_time = ?, station = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
     
     private static final String UPDATE_AVAILABILITY = 
         "UPDATE menu_items SET is_available = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
@@ -67,6 +68,7 @@ public class MenuItemDAOImpl implements MenuItemDAO {
             stmt.setBigDecimal(4, menuItem.getPrice());
             stmt.setBoolean(5, menuItem.isAvailable());
             stmt.setInt(6, menuItem.getPreparationTime());
+            stmt.setString(7, menuItem.getStation() != null ? menuItem.getStation().name() : null);
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -188,7 +190,8 @@ public class MenuItemDAOImpl implements MenuItemDAO {
             stmt.setBigDecimal(4, menuItem.getPrice());
             stmt.setBoolean(5, menuItem.isAvailable());
             stmt.setInt(6, menuItem.getPreparationTime());
-            stmt.setLong(7, menuItem.getId());
+            stmt.setString(7, menuItem.getStation() != null ? menuItem.getStation().name() : null);
+            stmt.setLong(8, menuItem.getId());
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -270,6 +273,8 @@ public class MenuItemDAOImpl implements MenuItemDAO {
         item.setAvailable(rs.getBoolean("is_available"));
         item.setImagePath(rs.getString("image_path"));
         item.setPreparationTime(rs.getInt("preparation_time"));
+        String station = rs.getString("station");
+        item.setStation(station != null ? Station.valueOf(station) : null);
         
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -1,6 +1,7 @@
 package com.coffeeshop.dao.impl;
 
 import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.dao.OptimisticLockException;
 import com.coffeeshop.dao.OrderDAO;
 import com.coffeeshop.model.Order;
 import com.coffeeshop.model.OrderItem;
@@ -10,8 +11,12 @@ import org.slf4j.LoggerFactory;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of OrderDAO for database operations
@@ -23,6 +28,17 @@ public class OrderDAOImpl implements OrderDAO {
         "INSERT INTO orders (order_number, table_id, customer_name, waiter_id, status, total_amount, notes, created_at, updated_at) " +
         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
+    private static final String INSERT_ORDERS_PREFIX = 
+        "INSERT INTO orders (order_number, table_id, customer_name, waiter_id, status, total_amount, notes, created_at, updated_at) VALUES ";
+    private static final String ORDER_VALUES_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String INSERT_ORDER_ITEMS_PREFIX = 
+        "INSERT INTO order_items (order_id, menu_item_id, quantity, unit_price, total_price, special_instructions) VALUES ";
+    private static final String ORDER_ITEM_VALUES_ROW = "(?, ?, ?, ?, ?, ?)";
+    
+    // Keeps multi-row item inserts well below MySQL's 65535 placeholder limit
+    private static final int MAX_ITEM_ROWS_PER_INSERT = 1000;
+    
     private static final String INSERT_ORDER_ITEM = 
         "INSERT INTO order_items (order_id, menu_item_id, quantity, unit_price, total_price, special_instructions) " +
         "VALUES (?, ?, ?, ?, ?, ?)";
@@ -69,14 +85,46 @@ public class OrderDAOImpl implements OrderDAO {
         "WHERE oi.order_id = ?";
     
     private static final String UPDATE_ORDER_STATUS = 
-        "UPDATE orders SET status = ?, updated_at = ? WHERE id = ?";
+        "UPDATE orders SET status = ?, updated_at = ?, version = version + 1 WHERE id = ?";
     
+    // Compare-and-set on version so concurrent edits from other terminals are detected instead of overwritten
     private static final String UPDATE_ORDER = 
-        "UPDATE orders SET table_id = ?, customer_name = ?, status = ?, total_amount = ?, notes = ?, updated_at = ? WHERE id = ?";
+        "UPDATE orders SET table_id = ?, customer_name = ?, status = ?, total_amount = ?, notes = ?, updated_at = ?, " +
+        "version = version + 1 WHERE id = ? AND version = ?";
     
     private static final String DELETE_ORDER = "DELETE FROM orders WHERE id = ?";
     private static final String DELETE_ORDER_ITEMS = "DELETE FROM order_items WHERE order_id = ?";
+    private static final String DELETE_ORDER_ITEM = "DELETE FROM order_items WHERE id = ? AND order_id = ?";
+    private static final String UPDATE_ORDER_ITEM = 
+        "UPDATE order_items SET quantity = ?, unit_price = ?, total_price = ?, special_instructions = ? WHERE id = ? AND order_id = ?";
     private static final String COUNT_ORDERS = "SELECT COUNT(*) FROM orders";
+    
+    // A menu item is prepared at its own station if set, otherwise at its category's
+    private static final String ITEM_STATION = "COALESCE(mi.station, c.station)";
+    
+    private static final String INSERT_MISSING_STATION_TICKETS = 
+        "INSERT INTO station_tickets (order_id, station) " +
+        "SELECT DISTINCT oi.order_id, " + ITEM_STATION + " FROM order_items oi " +
+        "JOIN menu_items mi ON oi.menu_item_id = mi.id " +
+        "JOIN categories c ON mi.category_id = c.id " +
+        "WHERE oi.order_id = ? AND NOT EXISTS (" +
+        "SELECT 1 FROM station_tickets st WHERE st.order_id = oi.order_id AND st.station = " + ITEM_STATION + ")";
+    
+    private static final String DELETE_EMPTY_STATION_TICKETS = 
+        "DELETE FROM station_tickets WHERE order_id = ? AND station NOT IN (" +
+        "SELECT " + ITEM_STATION + " FROM order_items oi " +
+        "JOIN menu_items mi ON oi.menu_item_id = mi.id " +
+        "JOIN categories c ON mi.category_id = c.id " +
+        "WHERE oi.order_id = ?)";
+    
+    // Followed by one placeholder per added menu item and a closing "))"
+    private static final String REOPEN_STATION_TICKETS_PREFIX = 
+        "UPDATE station_tickets SET status = 'NEW', updated_at = ? WHERE order_id = ? AND status = 'READY' AND station IN (" +
+        "SELECT " + ITEM_STATION + " FROM menu_items mi JOIN categories c ON mi.category_id = c.id WHERE mi.id IN (";
+    
+    private static final String REOPEN_READY_ORDER = 
+        "UPDATE orders SET status = 'IN_PROGRESS' WHERE id = ? AND status = 'READY'";
+    
     private static final String EXISTS_ORDER = "SELECT 1 FROM orders WHERE id = ? LIMIT 1";
     private static final String SELECT_ORDER_BY_NUMBER = "SELECT o.*, u.full_name as waiter_name, t.table_number as table_name FROM orders o LEFT JOIN users u ON o.waiter_id = u.id LEFT JOIN tables t ON o.table_id = t.id WHERE o.order_number = ?";
     private static final String SELECT_TODAYS_ORDERS = "SELECT o.*, u.full_name as waiter_name, t.table_number as table_name FROM orders o LEFT JOIN users u ON o.waiter_id = u.id LEFT JOIN tables t ON o.table_id = t.id WHERE DATE(o.created_at) = CURDATE() ORDER BY o.created_at DESC";
@@ -106,8 +154,10 @@ public class OrderDAOImpl implements OrderDAO {
             stmt.setString(5, order.getStatus().name());
             stmt.setBigDecimal(6, order.getTotalAmount());
             stmt.setString(7, order.getNotes());
-            stmt.setTimestamp(8, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setTimestamp(9, Timestamp.valueOf(LocalDateTime.now()));
+            // Keep the capture time of orders replayed from the offline journal
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            stmt.setTimestamp(8, order.getCreatedAt() != null ? Timestamp.valueOf(order.getCreatedAt()) : now);
+            stmt.setTimestamp(9, now);
             
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -121,8 +171,11 @@ public class OrderDAOImpl implements OrderDAO {
                 
                 // Insert order items
                 saveOrderItems(conn, orderId, order.getOrderItems());
+                routeStationTickets(conn, List.of(order));
+                ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, orderId);
                 
                 conn.commit();
+                order.markItemsPersisted();
                 logger.info("Order saved successfully with ID: {}", orderId);
                 return order;
             } else {
@@ -137,6 +190,7 @@ public class OrderDAOImpl implements OrderDAO {
                     logger.error("Error rolling back transaction", ex);
                 }
             }
+            clearGeneratedIds(List.of(order));
             logger.error("Error saving order", e);
             throw e;
         } finally {
@@ -147,9 +201,11 @@ public class OrderDAOImpl implements OrderDAO {
     }
     
     private void saveOrderItems(Connection conn, Long orderId, List<OrderItem> orderItems) throws SQLException {
-        PreparedStatement stmt = null;
-        try {
-            stmt = conn.prepareStatement(INSERT_ORDER_ITEM);
+        if (orderItems.isEmpty()) {
+            return;
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_ORDER_ITEM, Statement.RETURN_GENERATED_KEYS)) {
             for (OrderItem item : orderItems) {
                 stmt.setLong(1, orderId);
                 stmt.setLong(2, item.getMenuItemId());
@@ -160,11 +216,274 @@ public class OrderDAOImpl implements OrderDAO {
                 stmt.addBatch();
             }
             stmt.executeBatch();
-        } finally {
-            if (stmt != null) stmt.close();
+            
+            // Keys come back in batch order, also when the driver rewrites the batch into a multi-row insert
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (OrderItem item : orderItems) {
+                    if (!keys.next()) {
+                        throw new SQLException("Creating order items failed, no ID obtained.");
+                    }
+                    item.setId(keys.getLong(1));
+                    item.setOrderId(orderId);
+                }
+            }
         }
     }
     
+    /**
+     * Write only the item rows that changed since the order was loaded
+     */
+    private void saveItemChanges(Connection conn, Order order) throws SQLException {
+        Set<Long> removedIds = order.getRemovedItemIds();
+        if (!removedIds.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_ORDER_ITEM)) {
+                for (Long itemId : removedIds) {
+                    stmt.setLong(1, itemId);
+                    stmt.setLong(2, order.getId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        
+        List<OrderItem> modifiedItems = order.getModifiedItems();
+        if (!modifiedItems.isEmpty()) {
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_ORDER_ITEM)) {
+                for (OrderItem item : modifiedItems) {
+                    stmt.setInt(1, item.getQuantity());
+                    stmt.setBigDecimal(2, item.getUnitPrice());
+                    stmt.setBigDecimal(3, item.getTotalPrice());
+                    stmt.setString(4, item.getSpecialInstructions());
+                    stmt.setLong(5, item.getId());
+                    stmt.setLong(6, order.getId());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+        
+        // Taken before inserting, which gives the items ids
+        List<OrderItem> addedItems = order.getAddedItems();
+        saveOrderItems(conn, order.getId(), addedItems);
+        
+        logger.debug("Order {} items: {} added, {} modified, {} removed", order.getId(),
+            addedItems.size(), modifiedItems.size(), removedIds.size());
+    }
+    
+    @Override
+    public List<Order> saveAll(List<Order> orders) throws SQLException {
+        return saveAll(orders, DEFAULT_BULK_CHUNK_SIZE);
+    }
+    
+    @Override
+    public List<Order> saveAll(List<Order> orders, int chunkSize) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be greater than 0");
+        }
+        
+        // One base number per call; the per-order suffix keeps numbers unique within the same millisecond
+        String baseNumber = generateOrderNumber();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            if (order.getOrderNumber() == null || order.getOrderNumber().isEmpty()) {
+                order.setOrderNumber(baseNumber + "-" + (i + 1));
+            }
+        }
+        
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            List<Order> chunk = List.of();
+            try {
+                for (int start = 0; start < orders.size(); start += chunkSize) {
+                    chunk = orders.subList(start, Math.min(start + chunkSize, orders.size()));
+                    insertOrderChunk(conn, chunk);
+                    routeStationTickets(conn, chunk);
+                    // One notice per chunk; receivers reload rather than fetch each order
+                    ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, (Long) null);
+                    conn.commit();
+                    for (Order order : chunk) {
+                        order.markItemsPersisted();
+                    }
+                }
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.error("Error rolling back transaction", ex);
+                }
+                // The rolled back chunk's ids name no rows; earlier chunks stay committed
+                clearGeneratedIds(chunk);
+                logger.error("Error bulk saving orders", e);
+                throw e;
+            }
+        }
+        
+        logger.info("Bulk saved {} orders", orders.size());
+        return orders;
+    }
+    
+    private void insertOrderChunk(Connection conn, List<Order> chunk) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        
+        try (PreparedStatement stmt = conn.prepareStatement(
+                buildMultiRowInsert(INSERT_ORDERS_PREFIX, ORDER_VALUES_ROW, chunk.size()), Statement.RETURN_GENERATED_KEYS)) {
+            int index = 1;
+            for (Order order : chunk) {
+                stmt.setString(index++, order.getOrderNumber());
+                stmt.setLong(index++, order.getTableId());
+                stmt.setString(index++, order.getCustomerName());
+                stmt.setLong(index++, order.getWaiterId());
+                stmt.setString(index++, order.getStatus().name());
+                stmt.setBigDecimal(index++, order.getTotalAmount());
+                stmt.setString(index++, order.getNotes());
+                // Keep the capture time of imported and replayed orders
+                stmt.setTimestamp(index++, order.getCreatedAt() != null ? Timestamp.valueOf(order.getCreatedAt()) : now);
+                stmt.setTimestamp(index++, now);
+            }
+            
+            if (stmt.executeUpdate() != chunk.size()) {
+                throw new SQLException("Creating orders failed, not all rows inserted.");
+            }
+            
+            // Keys of a multi-row insert are returned in row order
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                for (Order order : chunk) {
+                    if (!keys.next()) {
+                        throw new SQLException("Creating orders failed, no ID obtained.");
+                    }
+                    order.setId(keys.getLong(1));
+                    if (order.getCreatedAt() == null) {
+                        order.setCreatedAt(now.toLocalDateTime());
+                    }
+                    order.setUpdatedAt(now.toLocalDateTime());
+                }
+            }
+        }
+        
+        List<OrderItem> items = new ArrayList<>();
+        for (Order order : chunk) {
+            for (OrderItem item : order.getOrderItems()) {
+                item.setOrderId(order.getId());
+                items.add(item);
+            }
+        }
+        
+        for (int start = 0; start < items.size(); start += MAX_ITEM_ROWS_PER_INSERT) {
+            List<OrderItem> slice = items.subList(start, Math.min(start + MAX_ITEM_ROWS_PER_INSERT, items.size()));
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    buildMultiRowInsert(INSERT_ORDER_ITEMS_PREFIX, ORDER_ITEM_VALUES_ROW, slice.size()), Statement.RETURN_GENERATED_KEYS)) {
+                int index = 1;
+                for (OrderItem item : slice) {
+                    stmt.setLong(index++, item.getOrderId());
+                    stmt.setLong(index++, item.getMenuItemId());
+                    stmt.setInt(index++, item.getQuantity());
+                    stmt.setBigDecimal(index++, item.getUnitPrice());
+                    stmt.setBigDecimal(index++, item.getTotalPrice());
+                    stmt.setString(index++, item.getSpecialInstructions());
+                }
+                stmt.executeUpdate();
+                
+                try (ResultSet keys = stmt.getGeneratedKeys()) {
+                    for (OrderItem item : slice) {
+                        if (!keys.next()) {
+                            throw new SQLException("Creating order items failed, no ID obtained.");
+                        }
+                        item.setId(keys.getLong(1));
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Forget the ids assigned during a transaction that was rolled back, so the orders can be saved again
+     */
+    private static void clearGeneratedIds(List<Order> orders) {
+        for (Order order : orders) {
+            order.setId(null);
+            clearGeneratedItemIds(order.getOrderItems());
+        }
+    }
+    
+    /**
+     * Forget the ids of items inserted in a transaction that was rolled back, so they count as added again
+     */
+    private static void clearGeneratedItemIds(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            item.setId(null);
+            item.setOrderId(null);
+        }
+    }
+    
+    /**
+     * Split orders into one ticket per kitchen station their items are prepared at.
+     * Adds tickets for stations new to the order and drops those left without items.
+     */
+    private void routeStationTickets(Connection conn, List<Order> orders) throws SQLException {
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_MISSING_STATION_TICKETS);
+             PreparedStatement delete = conn.prepareStatement(DELETE_EMPTY_STATION_TICKETS)) {
+            for (Order order : orders) {
+                insert.setLong(1, order.getId());
+                insert.addBatch();
+                delete.setLong(1, order.getId());
+                delete.setLong(2, order.getId());
+                delete.addBatch();
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+        }
+    }
+    
+    /**
+     * Send finished station tickets back to the kitchen when items for their station
+     * are added, and take a READY order back to IN_PROGRESS with them
+     * @return true if any ticket was reopened
+     */
+    private boolean reopenStationTickets(Connection conn, Long orderId, List<OrderItem> addedItems) throws SQLException {
+        if (addedItems.isEmpty()) {
+            return false;
+        }
+        
+        Set<Long> menuItemIds = new LinkedHashSet<>();
+        for (OrderItem item : addedItems) {
+            menuItemIds.add(item.getMenuItemId());
+        }
+        
+        // One statement for all the stations the added items go to
+        int reopened;
+        try (PreparedStatement stmt = conn.prepareStatement(REOPEN_STATION_TICKETS_PREFIX
+                + String.join(", ", Collections.nCopies(menuItemIds.size(), "?")) + "))")) {
+            int index = 1;
+            stmt.setTimestamp(index++, Timestamp.valueOf(LocalDateTime.now()));
+            stmt.setLong(index++, orderId);
+            for (Long menuItemId : menuItemIds) {
+                stmt.setLong(index++, menuItemId);
+            }
+            reopened = stmt.executeUpdate();
+        }
+        
+        if (reopened > 0) {
+            try (PreparedStatement stmt = conn.prepareStatement(REOPEN_READY_ORDER)) {
+                stmt.setLong(1, orderId);
+                stmt.executeUpdate();
+            }
+            logger.info("Reopened {} station tickets of order {}", reopened, orderId);
+        }
+        return reopened > 0;
+    }
+    
+    private static String buildMultiRowInsert(String prefix, String valuesRow, int rows) {
+        StringBuilder sql = new StringBuilder(prefix.length() + rows * (valuesRow.length() + 2));
+        sql.append(prefix);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(valuesRow);
+        }
+        return sql.toString();
+    }
+    
     @Override
     public Optional<Order> findById(Long id) throws SQLException {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
@@ -175,7 +494,7 @@ public class OrderDAOImpl implements OrderDAO {
             
             if (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, id));
+                loadOrderItems(conn, order);
                 return Optional.of(order);
             }
             
@@ -198,7 +517,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -221,7 +540,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -244,7 +563,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -266,7 +585,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -293,7 +612,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -317,7 +636,7 @@ public class OrderDAOImpl implements OrderDAO {
             List<Order> orders = new ArrayList<>();
             while (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 orders.add(order);
             }
             
@@ -339,7 +658,7 @@ public class OrderDAOImpl implements OrderDAO {
             
             if (rs.next()) {
                 Order order = mapResultSetToOrder(rs);
-                order.setOrderItems(getOrderItems(conn, order.getId()));
+                loadOrderItems(conn, order);
                 return order;
             }
             
@@ -353,26 +672,83 @@ public class OrderDAOImpl implements OrderDAO {
     
     @Override
     public void updateStatus(Long orderId, Order.Status status, Long changedBy) throws SQLException {
-        try (Connection conn = DatabaseConfig.getInstance().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(UPDATE_ORDER_STATUS)) {
-            
-            stmt.setString(1, status.name());
-            stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
-            stmt.setLong(3, orderId);
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                logger.info("Order status updated successfully for ID: {} by user: {}", orderId, changedBy);
-            } else {
-                logger.warn("No order found with ID: {}", orderId);
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_ORDER_STATUS)) {
+                stmt.setString(1, status.name());
+                stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setLong(3, orderId);
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, orderId);
+                    conn.commit();
+                    logger.info("Order status updated successfully for ID: {} by user: {}", orderId, changedBy);
+                } else {
+                    conn.rollback();
+                    logger.warn("No order found with ID: {}", orderId);
+                }
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.error("Error rolling back transaction", ex);
+                }
+                throw e;
             }
-            
         } catch (SQLException e) {
             logger.error("Error updating order status for ID: {}", orderId, e);
             throw e;
         }
     }
     
+    @Override
+    public void updateStatuses(Map<Long, Order.Status> statuses) throws SQLException {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_ORDER_STATUS)) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<Long> orderIds = new ArrayList<>(statuses.keySet());
+                for (Long orderId : orderIds) {
+                    stmt.setString(1, statuses.get(orderId).name());
+                    stmt.setTimestamp(2, now);
+                    stmt.setLong(3, orderId);
+                    stmt.addBatch();
+                }
+                int[] counts = stmt.executeBatch();
+                
+                // Counts come back in batch order; SUCCESS_NO_INFO is taken as updated
+                List<Long> updatedIds = new ArrayList<>(orderIds.size());
+                for (int i = 0; i < orderIds.size(); i++) {
+                    if (i < counts.length && counts[i] == 0) {
+                        logger.warn("No order found with ID: {}", orderIds.get(i));
+                    } else {
+                        updatedIds.add(orderIds.get(i));
+                    }
+                }
+                if (!updatedIds.isEmpty()) {
+                    ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, updatedIds);
+                }
+                conn.commit();
+                logger.info("Order statuses updated for {} orders", updatedIds.size());
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.error("Error rolling back transaction", ex);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Error updating order statuses", e);
+            throw e;
+        }
+    }
+    
     // Overloaded method for backward compatibility
     public void updateStatus(Long orderId, Order.Status status) throws SQLException {
         updateStatus(orderId, status, null);
@@ -381,6 +757,7 @@ public class OrderDAOImpl implements OrderDAO {
     @Override
     public void update(Order order) throws SQLException {
         Connection conn = null;
+        List<OrderItem> addedItems = Collections.emptyList();
         try {
             conn = DatabaseConfig.getInstance().getConnection();
             conn.setAutoCommit(false);
@@ -394,21 +771,52 @@ public class OrderDAOImpl implements OrderDAO {
             stmt.setString(5, order.getNotes());
             stmt.setTimestamp(6, Timestamp.valueOf(LocalDateTime.now()));
             stmt.setLong(7, order.getId());
+            stmt.setInt(8, order.getVersion());
             
-            stmt.executeUpdate();
-            stmt.close();
-            
-            // Delete existing order items and insert new ones
-            stmt = conn.prepareStatement(DELETE_ORDER_ITEMS);
-            stmt.setLong(1, order.getId());
-            stmt.executeUpdate();
+            int affectedRows = stmt.executeUpdate();
             stmt.close();
+            if (affectedRows == 0) {
+                throw new OptimisticLockException("Order", order.getId(), order.getVersion());
+            }
             
-            saveOrderItems(conn, order.getId(), order.getOrderItems());
+            boolean reopened = false;
+            boolean itemsChanged = true;
+            if (order.isItemTrackingEnabled()) {
+                addedItems = order.getAddedItems();
+                // Quantity or note changes keep an item at its station; only added or removed items move tickets
+                itemsChanged = !addedItems.isEmpty() || !order.getRemovedItemIds().isEmpty();
+                saveItemChanges(conn, order);
+                reopened = reopenStationTickets(conn, order.getId(), addedItems);
+            } else {
+                // Order was not loaded through this DAO, so there is no baseline to diff against
+                stmt = conn.prepareStatement(DELETE_ORDER_ITEMS);
+                stmt.setLong(1, order.getId());
+                stmt.executeUpdate();
+                stmt.close();
+                
+                saveOrderItems(conn, order.getId(), order.getOrderItems());
+            }
+            if (itemsChanged) {
+                routeStationTickets(conn, List.of(order));
+            }
+            ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, order.getId());
             
             conn.commit();
+            if (reopened && order.getStatus() == Order.Status.READY) {
+                order.setStatus(Order.Status.IN_PROGRESS);
+            }
+            order.setVersion(order.getVersion() + 1);
+            order.markItemsPersisted();
             logger.info("Order updated successfully: {}", order.getId());
             
+        } catch (OptimisticLockException e) {
+            try {
+                conn.rollback();
+            } catch (SQLException ex) {
+                logger.error("Error rolling back transaction", ex);
+            }
+            logger.warn(e.getMessage());
+            throw e;
         } catch (SQLException e) {
             if (conn != null) {
                 try {
@@ -417,6 +825,7 @@ public class OrderDAOImpl implements OrderDAO {
                     logger.error("Error rolling back transaction", ex);
                 }
             }
+            clearGeneratedItemIds(addedItems);
             logger.error("Error updating order", e);
             throw e;
         } finally {
@@ -449,6 +858,7 @@ public class OrderDAOImpl implements OrderDAO {
             int affectedRows = stmt.executeUpdate();
             
             if (affectedRows > 0) {
+                ChangeOutboxDAOImpl.record(conn, ChangeOutboxDAOImpl.ORDER, id);
                 conn.commit();
                 logger.info("Order deleted successfully: {}", id);
             } else {
@@ -516,6 +926,11 @@ public class OrderDAOImpl implements OrderDAO {
         return "ORD-" + timestamp.substring(timestamp.length() - 8);
     }
     
+    private void loadOrderItems(Connection conn, Order order) throws SQLException {
+        order.setOrderItems(getOrderItems(conn, order.getId()));
+        order.markItemsPersisted();
+    }
+    
     private List<OrderItem> getOrderItems(Connection conn, Long orderId) throws SQLException {
         List<OrderItem> items = new ArrayList<>();
         
@@ -552,6 +967,7 @@ public class OrderDAOImpl implements OrderDAO {
         order.setStatus(Order.Status.valueOf(rs.getString("status")));
         order.setTotalAmount(rs.getBigDecimal("total_amount"));
         order.setNotes(rs.getString("notes"));
+        order.setVersion(rs.getInt("version"));
         
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -572,7 +988,7 @@ public class OrderDAOImpl implements OrderDAO {
              PreparedStatement stmt = conn.prepareStatement(
                  "SELECT o.id, o.order_number, o.table_id, t.table_number as table_name, " +
                  "o.customer_name, o.waiter_id, u.username as waiter_name, o.status, " +
-                 "o.total_amount, o.notes, o.created_at, o.updated_at " +
+                 "o.total_amount, o.notes, o.version, o.created_at, o.updated_at " +
                  "FROM orders o " +
                  "LEFT JOIN tables t ON o.table_id = t.id " +
                  "LEFT JOIN users u ON o.waiter_id = u.id " +
@@ -585,6 +1001,9 @@ public class OrderDAOImpl implements OrderDAO {
                     orders.add(mapResultSetToOrder(rs));
                 }
             }
+            for (Order order : orders) {
+                loadOrderItems(conn, order);
+            }
             return orders;
         } catch (SQLException e) {
             logger.error("Error finding active orders", e);
@@ -598,7 +1017,7 @@ public class OrderDAOImpl implements OrderDAO {
              PreparedStatement stmt = conn.prepareStatement(
                  "SELECT o.id, o.order_number, o.table_id, t.table_number as table_name, " +
                  "o.customer_name, o.waiter_id, u.username as waiter_name, o.status, " +
-                 "o.total_amount, o.notes, o.created_at, o.updated_at " +
+                 "o.total_amount, o.notes, o.version, o.created_at, o.updated_at " +
                  "FROM orders o " +
                  "LEFT JOIN tables t ON o.table_id = t.id " +
                  "LEFT JOIN users u ON o.waiter_id = u.id " +
@@ -620,13 +1039,23 @@ public class OrderDAOImpl implements OrderDAO {
     
     @Override
     public List<Order> searchOrders(String searchTerm) throws SQLException {
+        return searchOrders(searchTerm, null);
+    }
+    
+    @Override
+    public List<Order> searchOrdersBefore(String searchTerm, LocalDateTime before) throws SQLException {
+        return searchOrders(searchTerm, before);
+    }
+    
+    private List<Order> searchOrders(String searchTerm, LocalDateTime before) throws SQLException {
         String sql = "SELECT o.id, o.order_number, o.table_id, t.table_number as table_name, " +
                     "o.customer_name, o.waiter_id, u.username as waiter_name, o.status, " +
-                    "o.total_amount, o.notes, o.created_at, o.updated_at " +
+                    "o.total_amount, o.notes, o.version, o.created_at, o.updated_at " +
                     "FROM orders o " +
                     "LEFT JOIN tables t ON o.table_id = t.id " +
                     "LEFT JOIN users u ON o.waiter_id = u.id " +
-                    "WHERE o.order_number LIKE ? OR o.customer_name LIKE ? OR t.table_number LIKE ? " +
+                    "WHERE (o.order_number LIKE ? OR o.customer_name LIKE ? OR t.table_number LIKE ?) " +
+                    (before != null ? "AND o.created_at < ? " : "") +
                     "ORDER BY o.created_at DESC";
         
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
@@ -636,6 +1065,9 @@ public class OrderDAOImpl implements OrderDAO {
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
             stmt.setString(3, searchPattern);
+            if (before != null) {
+                stmt.setTimestamp(4, Timestamp.valueOf(before));
+            }
             
             List<Order> orders = new ArrayList<>();
             try (ResultSet rs = stmt.executeQuery()) {
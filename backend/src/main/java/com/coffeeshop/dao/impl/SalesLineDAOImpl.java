@@ -0,0 +1,118 @@
+package com.coffeeshop.dao.impl;
+
+import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.dao.SalesLineDAO;
+import com.coffeeshop.model.CompactOrder;
+import com.coffeeshop.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of SalesLineDAO for database operations
+ */
+public class SalesLineDAOImpl implements SalesLineDAO {
+    private static final Logger logger = LoggerFactory.getLogger(SalesLineDAOImpl.class);
+    
+    private static final String SELECT_LINES =
+        "SELECT o.id as order_id, o.created_at, o.status, u.full_name as waiter_name, t.table_number as table_name, " +
+        "c.name as category_name, mi.name as item_name, oi.quantity, oi.total_price " +
+        "FROM orders o " +
+        "JOIN order_items oi ON oi.order_id = o.id " +
+        "JOIN menu_items mi ON oi.menu_item_id = mi.id " +
+        "LEFT JOIN categories c ON mi.category_id = c.id " +
+        "LEFT JOIN users u ON o.waiter_id = u.id " +
+        "LEFT JOIN tables t ON o.table_id = t.id " +
+        "WHERE o.status <> 'CANCELLED' ";
+    
+    // Lines of an order are adjacent: ordered by creation time, then order
+    private static final String SELECT_LINES_BY_DATE_RANGE = SELECT_LINES +
+        "AND o.created_at >= ? AND o.created_at < ? ORDER BY o.created_at, o.id";
+    
+    private static final String SELECT_LINES_BY_ORDER = SELECT_LINES + "AND o.id = ?";
+    
+    // Includes cancelled orders: cancelling one takes its lines out of its day
+    private static final String SELECT_CHANGED_DAYS =
+        "SELECT DISTINCT CAST(created_at AS DATE) as created_day FROM orders WHERE updated_at >= ?";
+    
+    // Rows per round trip where the driver fetches in batches; a year of lines is too many to buffer at once
+    private static final int FETCH_SIZE = 1000;
+    
+    @Override
+    public int forEachLine(LocalDate from, LocalDate to, Consumer<Line> handler) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LINES_BY_DATE_RANGE)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            stmt.setTimestamp(2, Timestamp.valueOf(to.atStartOfDay()));
+            stmt.setFetchSize(FETCH_SIZE);
+            
+            return readLines(stmt, handler);
+            
+        } catch (SQLException e) {
+            logger.error("Error reading sales lines from {} to {}", from, to, e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public int forEachLineOfOrder(Long orderId, Consumer<Line> handler) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_LINES_BY_ORDER)) {
+            
+            stmt.setLong(1, orderId);
+            return readLines(stmt, handler);
+            
+        } catch (SQLException e) {
+            logger.error("Error reading sales lines of order: {}", orderId, e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public Set<LocalDate> findDaysChangedSince(LocalDateTime since) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_CHANGED_DAYS)) {
+            
+            stmt.setTimestamp(1, Timestamp.valueOf(since));
+            ResultSet rs = stmt.executeQuery();
+            
+            Set<LocalDate> days = new HashSet<>();
+            while (rs.next()) {
+                days.add(rs.getDate("created_day").toLocalDate());
+            }
+            return days;
+            
+        } catch (SQLException e) {
+            logger.error("Error finding days changed since {}", since, e);
+            throw e;
+        }
+    }
+    
+    private int readLines(PreparedStatement stmt, Consumer<Line> handler) throws SQLException {
+        int count = 0;
+        Line line = new Line();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                line.setOrderId(rs.getLong("order_id"));
+                line.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                line.setStatus(Order.Status.valueOf(rs.getString("status")));
+                line.setWaiterName(rs.getString("waiter_name"));
+                line.setTableName(rs.getString("table_name"));
+                line.setCategoryName(rs.getString("category_name"));
+                line.setItemName(rs.getString("item_name"));
+                line.setQuantity(rs.getInt("quantity"));
+                line.setTotalCents(CompactOrder.toCents(rs.getBigDecimal("total_price")));
+                handler.accept(line);
+                count++;
+            }
+        }
+        return count;
+    }
+}
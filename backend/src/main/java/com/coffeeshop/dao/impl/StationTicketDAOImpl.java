@@ -0,0 +1,251 @@
+package com.coffeeshop.dao.impl;
+
+import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.dao.StationTicketDAO;
+import com.coffeeshop.model.OrderItem;
+import com.coffeeshop.model.Station;
+import com.coffeeshop.model.StationTicket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of StationTicketDAO for database operations
+ */
+public class StationTicketDAOImpl implements StationTicketDAO {
+    private static final Logger logger = LoggerFactory.getLogger(StationTicketDAOImpl.class);
+    
+    private static final String SELECT_TICKETS = 
+        "SELECT st.*, o.order_number, o.customer_name, o.notes as order_notes, t.table_number as table_name " +
+        "FROM station_tickets st " +
+        "JOIN orders o ON st.order_id = o.id " +
+        "LEFT JOIN tables t ON o.table_id = t.id ";
+    
+    private static final String SELECT_TICKET_BY_ID = SELECT_TICKETS + "WHERE st.id = ?";
+    
+    private static final String SELECT_TICKETS_BY_ORDER = SELECT_TICKETS + "WHERE st.order_id = ? ORDER BY st.station";
+    
+    // Orders taken off the kitchen board as a whole (served, cancelled) drop off every station
+    private static final String SELECT_OPEN_TICKETS_BY_STATION = SELECT_TICKETS + 
+        "WHERE st.station = ? AND st.status IN ('NEW', 'IN_PROGRESS') AND o.status IN ('NEW', 'IN_PROGRESS') " +
+        "ORDER BY st.created_at, st.id";
+    
+    // Items of the open tickets at one station, in a single round trip
+    private static final String SELECT_OPEN_STATION_ITEMS = 
+        "SELECT oi.*, mi.name as menu_item_name " +
+        "FROM order_items oi " +
+        "JOIN menu_items mi ON oi.menu_item_id = mi.id " +
+        "JOIN categories c ON mi.category_id = c.id " +
+        "JOIN station_tickets st ON st.order_id = oi.order_id AND st.station = COALESCE(mi.station, c.station) " +
+        "JOIN orders o ON st.order_id = o.id " +
+        "WHERE st.station = ? AND st.status IN ('NEW', 'IN_PROGRESS') AND o.status IN ('NEW', 'IN_PROGRESS') " +
+        "ORDER BY oi.id";
+    
+    private static final String SELECT_ORDER_STATION_ITEMS = 
+        "SELECT oi.*, mi.name as menu_item_name, COALESCE(mi.station, c.station) as station " +
+        "FROM order_items oi " +
+        "JOIN menu_items mi ON oi.menu_item_id = mi.id " +
+        "JOIN categories c ON mi.category_id = c.id " +
+        "WHERE oi.order_id = ? ORDER BY oi.id";
+    
+    private static final String UPDATE_TICKET_STATUS = 
+        "UPDATE station_tickets SET status = ?, updated_at = ? WHERE id = ?";
+    
+    // Announce the ticket's order, in the same transaction as the ticket change
+    private static final String INSERT_ORDER_CHANGE = 
+        "INSERT INTO change_outbox (entity, entity_id, origin) SELECT 'ORDER', order_id, ? FROM station_tickets WHERE id = ?";
+    
+    private static final String COUNT_UNFINISHED = 
+        "SELECT COUNT(*) FROM station_tickets WHERE order_id = ? AND status <> 'READY'";
+    
+    @Override
+    public Optional<StationTicket> findById(Long id) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_TICKET_BY_ID)) {
+            
+            stmt.setLong(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    StationTicket ticket = mapResultSetToTicket(rs);
+                    loadOrderItems(conn, ticket.getOrderId(), List.of(ticket));
+                    return Optional.of(ticket);
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Error finding station ticket by ID: {}", id, e);
+            throw e;
+        }
+        return Optional.empty();
+    }
+    
+    @Override
+    public List<StationTicket> findByOrder(Long orderId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_TICKETS_BY_ORDER)) {
+            
+            stmt.setLong(1, orderId);
+            List<StationTicket> tickets = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tickets.add(mapResultSetToTicket(rs));
+                }
+            }
+            return loadOrderItems(conn, orderId, tickets);
+        } catch (SQLException e) {
+            logger.error("Error finding station tickets for order: {}", orderId, e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public List<StationTicket> findOpenByStation(Station station) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            Map<Long, StationTicket> ticketsByOrder = new HashMap<>();
+            List<StationTicket> tickets = new ArrayList<>();
+            
+            try (PreparedStatement stmt = conn.prepareStatement(SELECT_OPEN_TICKETS_BY_STATION)) {
+                stmt.setString(1, station.name());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        StationTicket ticket = mapResultSetToTicket(rs);
+                        ticketsByOrder.put(ticket.getOrderId(), ticket);
+                        tickets.add(ticket);
+                    }
+                }
+            }
+            
+            if (!tickets.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(SELECT_OPEN_STATION_ITEMS)) {
+                    stmt.setString(1, station.name());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            StationTicket ticket = ticketsByOrder.get(rs.getLong("order_id"));
+                            if (ticket != null) {
+                                ticket.getItems().add(mapResultSetToItem(rs));
+                            }
+                        }
+                    }
+                }
+            }
+            return tickets;
+        } catch (SQLException e) {
+            logger.error("Error finding open tickets for station: {}", station, e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public void updateStatus(Long ticketId, StationTicket.Status status) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(UPDATE_TICKET_STATUS);
+                 PreparedStatement notice = conn.prepareStatement(INSERT_ORDER_CHANGE)) {
+                stmt.setString(1, status.name());
+                stmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                stmt.setLong(3, ticketId);
+                int affectedRows = stmt.executeUpdate();
+                
+                notice.setString(1, ChangeOutboxDAOImpl.getOrigin());
+                notice.setLong(2, ticketId);
+                notice.executeUpdate();
+                conn.commit();
+                
+                if (affectedRows > 0) {
+                    logger.info("Station ticket {} updated to {}", ticketId, status);
+                } else {
+                    logger.warn("No station ticket found with ID: {}", ticketId);
+                }
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    logger.error("Error rolling back transaction", ex);
+                }
+                throw e;
+            }
+        } catch (SQLException e) {
+            logger.error("Error updating station ticket status for ID: {}", ticketId, e);
+            throw e;
+        }
+    }
+    
+    @Override
+    public int countUnfinished(Long orderId) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_UNFINISHED)) {
+            
+            stmt.setLong(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            logger.error("Error counting unfinished station tickets for order: {}", orderId, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Attach the order's items to the ticket of the station preparing them
+     */
+    private List<StationTicket> loadOrderItems(Connection conn, Long orderId, List<StationTicket> tickets) throws SQLException {
+        Map<Station, StationTicket> ticketsByStation = new HashMap<>();
+        for (StationTicket ticket : tickets) {
+            ticketsByStation.put(ticket.getStation(), ticket);
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ORDER_STATION_ITEMS)) {
+            stmt.setLong(1, orderId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    StationTicket ticket = ticketsByStation.get(Station.valueOf(rs.getString("station")));
+                    if (ticket != null) {
+                        ticket.getItems().add(mapResultSetToItem(rs));
+                    }
+                }
+            }
+        }
+        return tickets;
+    }
+    
+    private StationTicket mapResultSetToTicket(ResultSet rs) throws SQLException {
+        StationTicket ticket = new StationTicket();
+        ticket.setId(rs.getLong("id"));
+        ticket.setOrderId(rs.getLong("order_id"));
+        ticket.setOrderNumber(rs.getString("order_number"));
+        ticket.setTableName(rs.getString("table_name"));
+        ticket.setCustomerName(rs.getString("customer_name"));
+        ticket.setOrderNotes(rs.getString("order_notes"));
+        ticket.setStation(Station.valueOf(rs.getString("station")));
+        ticket.setStatus(StationTicket.Status.valueOf(rs.getString("status")));
+        
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        if (createdAt != null) {
+            ticket.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            ticket.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        return ticket;
+    }
+    
+    private OrderItem mapResultSetToItem(ResultSet rs) throws SQLException {
+        OrderItem item = new OrderItem();
+        item.setId(rs.getLong("id"));
+        item.setOrderId(rs.getLong("order_id"));
+        item.setMenuItemId(rs.getLong("menu_item_id"));
+        item.setMenuItemName(rs.getString("menu_item_name"));
+        item.setQuantity(rs.getInt("quantity"));
+        item.setUnitPrice(rs.getBigDecimal("unit_price"));
+        item.setTotalPrice(rs.getBigDecimal("total_price"));
+        item.setSpecialInstructions(rs.getString("special_instructions"));
+        return item;
+    }
+}
@@ -42,6 +42,10 @@ public class UserDAOImpl implements UserDAO {
     private static final String UPDATE_PASSWORD = 
         "UPDATE users SET password = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
     
+    // Compare-and-set, so a rehash finishing late cannot undo a password change
+    private static final String REPLACE_PASSWORD = 
+        "UPDATE users SET password = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ? AND password = ?";
+    
     private static final String UPDATE_ACTIVE_STATUS = 
         "UPDATE users SET is_active = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?";
     
@@ -196,6 +200,23 @@ public class UserDAOImpl implements UserDAO {
         }
     }
     
+    @Override
+    public boolean replacePassword(Long userId, String expectedPassword, String newPassword) throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REPLACE_PASSWORD)) {
+            
+            stmt.setString(1, newPassword);
+            stmt.setLong(2, userId);
+            stmt.setString(3, expectedPassword);
+            
+            boolean replaced = stmt.executeUpdate() > 0;
+            if (replaced) {
+                logger.info("Password updated for user ID: {}", userId);
+            }
+            return replaced;
+        }
+    }
+    
     @Override
     public void updateActiveStatus(Long userId, boolean active) throws SQLException {
         try (Connection conn = DatabaseConfig.getInstance().getConnection();
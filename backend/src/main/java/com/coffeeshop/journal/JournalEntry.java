@@ -0,0 +1,158 @@
+package com.coffeeshop.journal;
+
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.OrderItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A change captured in the local order journal while the database could not
+ * take it. Entries are serialized into a compact binary form.
+ */
+public final class JournalEntry {
+    public enum Type {
+        ORDER_CREATED, STATUS_CHANGED
+    }
+    
+    private final Type type;
+    private final long recordedAt;
+    private final Order order;          // ORDER_CREATED
+    private final Long orderId;         // STATUS_CHANGED
+    private final Order.Status status;  // STATUS_CHANGED
+    private final Long changedBy;       // STATUS_CHANGED
+    
+    private JournalEntry(Type type, long recordedAt, Order order, Long orderId, Order.Status status, Long changedBy) {
+        this.type = type;
+        this.recordedAt = recordedAt;
+        this.order = order;
+        this.orderId = orderId;
+        this.status = status;
+        this.changedBy = changedBy;
+    }
+    
+    public static JournalEntry orderCreated(Order order) {
+        return new JournalEntry(Type.ORDER_CREATED, System.currentTimeMillis(), order, null, null, null);
+    }
+    
+    public static JournalEntry statusChanged(Long orderId, Order.Status status, Long changedBy) {
+        return new JournalEntry(Type.STATUS_CHANGED, System.currentTimeMillis(), null, orderId, status, changedBy);
+    }
+    
+    public Type getType() { return type; }
+    public long getRecordedAt() { return recordedAt; }
+    public Order getOrder() { return order; }
+    public Long getOrderId() { return orderId; }
+    public Order.Status getStatus() { return status; }
+    public Long getChangedBy() { return changedBy; }
+    
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type.ordinal());
+        out.writeLong(recordedAt);
+        
+        if (type == Type.ORDER_CREATED) {
+            out.writeUTF(order.getOrderNumber());
+            writeLong(out, order.getTableId());
+            writeString(out, order.getCustomerName());
+            writeLong(out, order.getWaiterId());
+            out.writeUTF(order.getStatus().name());
+            out.writeUTF(order.getTotalAmount().toPlainString());
+            writeString(out, order.getNotes());
+            writeTime(out, order.getCreatedAt());
+            out.writeInt(order.getOrderItems().size());
+            for (OrderItem item : order.getOrderItems()) {
+                out.writeLong(item.getMenuItemId());
+                writeString(out, item.getMenuItemName());
+                out.writeInt(item.getQuantity());
+                out.writeUTF(item.getUnitPrice().toPlainString());
+                out.writeUTF(item.getTotalPrice().toPlainString());
+                writeString(out, item.getSpecialInstructions());
+            }
+        } else {
+            out.writeLong(orderId);
+            out.writeUTF(status.name());
+            writeLong(out, changedBy);
+        }
+        
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    static JournalEntry fromBytes(DataInputStream in) throws IOException {
+        Type type = Type.values()[in.readByte()];
+        long recordedAt = in.readLong();
+        
+        if (type == Type.ORDER_CREATED) {
+            Order order = new Order();
+            order.setOrderNumber(in.readUTF());
+            order.setTableId(readLong(in));
+            order.setCustomerName(readString(in));
+            order.setWaiterId(readLong(in));
+            order.setStatus(Order.Status.valueOf(in.readUTF()));
+            order.setTotalAmount(new BigDecimal(in.readUTF()));
+            order.setNotes(readString(in));
+            order.setCreatedAt(readTime(in));
+            
+            int itemCount = in.readInt();
+            List<OrderItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                OrderItem item = new OrderItem();
+                item.setMenuItemId(in.readLong());
+                item.setMenuItemName(readString(in));
+                item.setQuantity(in.readInt());
+                item.setUnitPrice(new BigDecimal(in.readUTF()));
+                item.setTotalPrice(new BigDecimal(in.readUTF()));
+                item.setSpecialInstructions(readString(in));
+                items.add(item);
+            }
+            order.setOrderItems(items);
+            return new JournalEntry(type, recordedAt, order, null, null, null);
+        }
+        
+        Long orderId = in.readLong();
+        Order.Status status = Order.Status.valueOf(in.readUTF());
+        Long changedBy = readLong(in);
+        return new JournalEntry(type, recordedAt, null, orderId, status, changedBy);
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+    
+    private static Long readLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+    
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        writeLong(out, value != null ? value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null);
+    }
+    
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        Long millis = readLong(in);
+        return millis != null ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()) : null;
+    }
+}
@@ -0,0 +1,141 @@
+package com.coffeeshop.journal;
+
+import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.search.OrderSearchIndex;
+import com.coffeeshop.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background task that drains the order journal into the database once it is
+ * reachable again.
+ *
+ * Replay is idempotent: orders are keyed by their unique order number, so an
+ * order that already reached the database (e.g. a save that finished after the
+ * caller gave up waiting) is skipped rather than inserted twice. Status
+ * changes simply set the status again.
+ */
+public class JournalReplayer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(JournalReplayer.class);
+    private static final int BATCH_SIZE = 100;
+    
+    private final OrderJournal journal;
+    private final OrderDAO orderDAO;
+    private final ScheduledExecutorService scheduler;
+    
+    public JournalReplayer(OrderJournal journal, OrderDAO orderDAO, long intervalMillis) {
+        this.journal = journal;
+        this.orderDAO = orderDAO;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Replay everything currently pending. Stops when the database cannot be
+     * reached and resumes from the same entry on the next run. An entry the
+     * database rejects, e.g. for a missing menu item, is set aside in the
+     * journal's rejected file and replay moves on.
+     */
+    public void drain() {
+        if (!journal.hasPending()) {
+            return;
+        }
+        
+        try {
+            int replayed = 0;
+            List<OrderJournal.PendingEntry> entries;
+            while (!(entries = journal.readPending(BATCH_SIZE)).isEmpty()) {
+                for (OrderJournal.PendingEntry pending : entries) {
+                    try {
+                        apply(pending.getEntry());
+                        replayed++;
+                    } catch (SQLException e) {
+                        if (OrderService.isConnectivityFailure(e)) {
+                            throw e;
+                        }
+                        reject(pending.getEntry(), e);
+                    } catch (RuntimeException e) {
+                        reject(pending.getEntry(), e);
+                    }
+                    journal.acknowledge(pending.getEndOffset());
+                }
+            }
+            logger.info("Replayed {} journaled order changes", replayed);
+        } catch (SQLException e) {
+            logger.warn("Database still unavailable, journal replay deferred: {}", e.getMessage());
+        } catch (IOException e) {
+            logger.error("Error reading order journal", e);
+        }
+    }
+    
+    private void reject(JournalEntry entry, Exception cause) throws IOException {
+        journal.reject(entry);
+        if (entry.getType() == JournalEntry.Type.ORDER_CREATED) {
+            logger.error("Database rejected journaled order {}; moved to the rejected journal",
+                entry.getOrder().getOrderNumber(), cause);
+        } else {
+            logger.error("Database rejected journaled status {} of order {}; moved to the rejected journal",
+                entry.getStatus(), entry.getOrderId(), cause);
+        }
+    }
+    
+    private void apply(JournalEntry entry) throws SQLException {
+        switch (entry.getType()) {
+            case ORDER_CREATED:
+                Order order = entry.getOrder();
+                Order existing = orderDAO.findByOrderNumber(order.getOrderNumber());
+                if (existing != null) {
+                    // Saved late by the original attempt, which nobody was waiting for any more
+                    OrderSearchIndex.getInstance().index(existing);
+                    logger.info("Journaled order {} already in database, skipping", order.getOrderNumber());
+                    return;
+                }
+                try {
+                    orderDAO.save(order);
+                    OrderSearchIndex.getInstance().index(order);
+                    OrderService.announceChanges();
+                } catch (SQLIntegrityConstraintViolationException e) {
+                    // Lost the race against a late original save, or rejected for another constraint
+                    if (orderDAO.findByOrderNumber(order.getOrderNumber()) == null) {
+                        throw e;
+                    }
+                    logger.info("Journaled order {} already in database, skipping", order.getOrderNumber());
+                }
+                break;
+            case STATUS_CHANGED:
+                orderDAO.updateStatus(entry.getOrderId(), entry.getStatus(), entry.getChangedBy());
+                OrderSearchIndex.getInstance().updateStatus(entry.getOrderId(), entry.getStatus());
+                OrderService.announceChanges();
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal entry type: " + entry.getType());
+        }
+    }
+    
+    /**
+     * Stop the background task after a final drain attempt
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
@@ -0,0 +1,245 @@
+package com.coffeeshop.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only journal for order changes the database could not accept.
+ *
+ * Each record is framed as {@code [length][crc32][payload]}. An append returns
+ * only after the record is fsynced; writers that arrive while another writer is
+ * syncing share the next fsync, so bursts cost one sync rather than one each.
+ * Replay progress is kept in a separate checkpoint file, and the journal is
+ * truncated once everything in it has been replayed. Entries the database
+ * rejects are moved to a separate file so they cannot hold up the rest.
+ */
+public class OrderJournal implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OrderJournal.class);
+    
+    private static final String JOURNAL_FILE = "orders.journal";
+    private static final String CHECKPOINT_FILE = "orders.checkpoint";
+    private static final String REJECTED_FILE = "orders.rejected";
+    private static final int HEADER_BYTES = 8;
+    
+    private final Path checkpointPath;
+    private final Path rejectedPath;
+    private final FileChannel channel;
+    private final Object writeLock = new Object();
+    private final Object syncLock = new Object();
+    private long writePosition;
+    private long syncedPosition;
+    private long checkpoint;
+    
+    public OrderJournal(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.checkpointPath = directory.resolve(CHECKPOINT_FILE);
+        this.rejectedPath = directory.resolve(REJECTED_FILE);
+        this.channel = FileChannel.open(directory.resolve(JOURNAL_FILE),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpoint = readCheckpoint();
+        
+        // Drop a record torn by a crash mid-append; it was never acknowledged
+        this.writePosition = scanValidEnd();
+        if (writePosition < channel.size()) {
+            logger.warn("Truncating {} bytes of incomplete journal data", channel.size() - writePosition);
+            channel.truncate(writePosition);
+        }
+        this.syncedPosition = writePosition;
+        if (checkpoint > writePosition) {
+            checkpoint = writePosition;
+        }
+        
+        logger.info("Order journal opened at {} ({} bytes pending)", directory, writePosition - checkpoint);
+    }
+    
+    /**
+     * Durably append an entry
+     */
+    public void append(JournalEntry entry) throws IOException {
+        ByteBuffer record = frame(entry);
+        
+        long end;
+        synchronized (writeLock) {
+            while (record.hasRemaining()) {
+                writePosition += channel.write(record, writePosition);
+            }
+            end = writePosition;
+        }
+        
+        synchronized (syncLock) {
+            if (syncedPosition < end) {
+                // Covers every record written so far, not just this one
+                long target;
+                synchronized (writeLock) {
+                    target = writePosition;
+                }
+                channel.force(false);
+                syncedPosition = target;
+            }
+        }
+    }
+    
+    /**
+     * Check if there are entries that have not been replayed yet
+     */
+    public boolean hasPending() {
+        synchronized (writeLock) {
+            return checkpoint < writePosition;
+        }
+    }
+    
+    /**
+     * Read up to {@code max} entries after the checkpoint
+     */
+    public List<PendingEntry> readPending(int max) throws IOException {
+        long position;
+        long end;
+        synchronized (writeLock) {
+            position = checkpoint;
+            end = syncedPosition;
+        }
+        
+        List<PendingEntry> entries = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (entries.size() < max && position + HEADER_BYTES <= end) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            header.getInt();
+            
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            position += HEADER_BYTES + length;
+            
+            JournalEntry entry = JournalEntry.fromBytes(new DataInputStream(new ByteArrayInputStream(payload.array())));
+            entries.add(new PendingEntry(entry, position));
+        }
+        return entries;
+    }
+    
+    /**
+     * Mark everything up to {@code offset} as replayed
+     */
+    public void acknowledge(long offset) throws IOException {
+        synchronized (writeLock) {
+            checkpoint = offset;
+            if (checkpoint == writePosition) {
+                // Fully drained: start over with an empty journal
+                channel.truncate(0);
+                channel.force(true);
+                writePosition = 0;
+                syncedPosition = 0;
+                checkpoint = 0;
+            }
+            writeCheckpoint(checkpoint);
+        }
+    }
+    
+    /**
+     * Durably set aside an entry the database rejected, in the same format as
+     * the journal, so it can be inspected and fixed by hand. The caller then
+     * acknowledges it so replay moves past it.
+     */
+    public void reject(JournalEntry entry) throws IOException {
+        ByteBuffer record = frame(entry);
+        synchronized (writeLock) {
+            try (FileChannel rejected = FileChannel.open(rejectedPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (record.hasRemaining()) {
+                    rejected.write(record);
+                }
+                rejected.force(false);
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private static ByteBuffer frame(JournalEntry entry) throws IOException {
+        byte[] payload = entry.toBytes();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+    
+    private long scanValidEnd() throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int expectedCrc = header.getInt();
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+    
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointPath)) {
+            return 0;
+        }
+        String value = new String(Files.readAllBytes(checkpointPath), StandardCharsets.US_ASCII).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+    
+    private void writeCheckpoint(long offset) throws IOException {
+        // Write-then-rename so a crash never leaves a half-written checkpoint
+        Path temp = checkpointPath.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        Files.write(temp, Long.toString(offset).getBytes(StandardCharsets.US_ASCII),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+        Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * An entry read from the journal together with the offset just past it
+     */
+    public static final class PendingEntry {
+        private final JournalEntry entry;
+        private final long endOffset;
+        
+        PendingEntry(JournalEntry entry, long endOffset) {
+            this.entry = entry;
+            this.endOffset = endOffset;
+        }
+        
+        public JournalEntry getEntry() { return entry; }
+        public long getEndOffset() { return endOffset; }
+    }
+}
@@ -11,6 +11,7 @@ public class Category {
     private String name;
     private String description;
     private boolean isActive;
+    private Station station; // Where this category's items are prepared
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -21,6 +22,7 @@ public class Category {
         this.name = name;
         this.description = description;
         this.isActive = true;
+        this.station = Station.BAR;
     }
     
     // Getters and Setters
@@ -36,6 +38,9 @@ public class Category {
     public boolean isActive() { return isActive; }
     public void setActive(boolean active) { isActive = active; }
     
+    public Station getStation() { return station; }
+    public void setStation(Station station) { this.station = station; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
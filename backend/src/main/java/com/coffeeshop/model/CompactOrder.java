@@ -0,0 +1,254 @@
+package com.coffeeshop.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only, memory-compact copy of an order and its items, for holding many
+ * orders in memory for caching and analytics.
+ *
+ * Ids are primitive longs (0 when missing), money is in cents, timestamps are
+ * milliseconds, and table, waiter, customer and menu item names are codes in
+ * a shared {@link NameDictionary}. Items are stored in parallel arrays rather
+ * than as objects. A compact order takes roughly a third of the heap of the
+ * equivalent {@link Order}.
+ *
+ * Timestamps are the local date-time counted in milliseconds as if it were
+ * UTC. This converts back to the same {@link LocalDateTime} exactly, and
+ * dividing by the length of a day buckets by local midnight; compare against
+ * {@link #toMillis(LocalDateTime)} of a local time, not the system clock.
+ */
+public final class CompactOrder {
+    public static final long NO_TIME = Long.MIN_VALUE;
+    
+    private static final Order.Status[] STATUSES = Order.Status.values();
+    
+    private final NameDictionary names;
+    private final long id;
+    private final String orderNumber;
+    private final long tableId;
+    private final int tableName;
+    private final int customerName;
+    private final long waiterId;
+    private final int waiterName;
+    private final byte status;
+    private final long totalCents;
+    private final String notes;
+    private final int version;
+    private final long createdAt;
+    private final long updatedAt;
+    
+    // One entry per item in each array
+    private final long[] itemIds;
+    private final long[] menuItemIds;
+    private final int[] itemNames;
+    private final int[] quantities;
+    private final long[] unitCents;
+    private final long[] itemTotalCents;
+    private final long[] itemCreatedAt;
+    private final String[] instructions; // null when no item has any
+    
+    private CompactOrder(Order order, NameDictionary names) {
+        this.names = names;
+        this.id = toId(order.getId());
+        this.orderNumber = order.getOrderNumber();
+        this.tableId = toId(order.getTableId());
+        this.tableName = names.encode(order.getTableName());
+        this.customerName = names.encode(order.getCustomerName());
+        this.waiterId = toId(order.getWaiterId());
+        this.waiterName = names.encode(order.getWaiterName());
+        this.status = (byte) (order.getStatus() != null ? order.getStatus() : Order.Status.NEW).ordinal();
+        this.totalCents = toCents(order.getTotalAmount());
+        this.notes = order.getNotes();
+        this.version = order.getVersion();
+        this.createdAt = toMillis(order.getCreatedAt());
+        this.updatedAt = toMillis(order.getUpdatedAt());
+        
+        List<OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : new ArrayList<>();
+        int count = items.size();
+        this.itemIds = new long[count];
+        this.menuItemIds = new long[count];
+        this.itemNames = new int[count];
+        this.quantities = new int[count];
+        this.unitCents = new long[count];
+        this.itemTotalCents = new long[count];
+        this.itemCreatedAt = new long[count];
+        String[] itemInstructions = null;
+        for (int i = 0; i < count; i++) {
+            OrderItem item = items.get(i);
+            itemIds[i] = toId(item.getId());
+            menuItemIds[i] = toId(item.getMenuItemId());
+            itemNames[i] = names.encode(item.getMenuItemName());
+            quantities[i] = item.getQuantity();
+            unitCents[i] = toCents(item.getUnitPrice());
+            itemTotalCents[i] = toCents(item.getTotalPrice());
+            itemCreatedAt[i] = toMillis(item.getCreatedAt());
+            if (item.getSpecialInstructions() != null) {
+                if (itemInstructions == null) {
+                    itemInstructions = new String[count];
+                }
+                itemInstructions[i] = item.getSpecialInstructions();
+            }
+        }
+        this.instructions = itemInstructions;
+    }
+    
+    private CompactOrder(CompactOrder source, Order.Status status) {
+        // The item arrays are never written after construction, so copies share them
+        this.names = source.names;
+        this.id = source.id;
+        this.orderNumber = source.orderNumber;
+        this.tableId = source.tableId;
+        this.tableName = source.tableName;
+        this.customerName = source.customerName;
+        this.waiterId = source.waiterId;
+        this.waiterName = source.waiterName;
+        this.status = (byte) status.ordinal();
+        this.totalCents = source.totalCents;
+        this.notes = source.notes;
+        this.version = source.version;
+        this.createdAt = source.createdAt;
+        this.updatedAt = source.updatedAt;
+        this.itemIds = source.itemIds;
+        this.menuItemIds = source.menuItemIds;
+        this.itemNames = source.itemNames;
+        this.quantities = source.quantities;
+        this.unitCents = source.unitCents;
+        this.itemTotalCents = source.itemTotalCents;
+        this.itemCreatedAt = source.itemCreatedAt;
+        this.instructions = source.instructions;
+    }
+    
+    /**
+     * Make a compact copy of an order
+     * @param order Order to copy
+     * @param names Dictionary shared by the orders held together
+     * @return Compact order
+     */
+    public static CompactOrder of(Order order, NameDictionary names) {
+        return new CompactOrder(order, names);
+    }
+    
+    /**
+     * Make a copy with another status
+     */
+    public CompactOrder withStatus(Order.Status status) {
+        return new CompactOrder(this, status);
+    }
+    
+    /**
+     * Convert back to a full order. The items count as persisted when they
+     * all have ids, as for an order loaded from the database.
+     * @return New order equal to the one this was made from
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(fromId(id));
+        order.setOrderNumber(orderNumber);
+        order.setTableId(fromId(tableId));
+        order.setTableName(names.decode(tableName));
+        order.setCustomerName(names.decode(customerName));
+        order.setWaiterId(fromId(waiterId));
+        order.setWaiterName(names.decode(waiterName));
+        order.setStatus(getStatus());
+        order.setTotalAmount(fromCents(totalCents));
+        order.setNotes(notes);
+        order.setVersion(version);
+        order.setCreatedAt(fromMillis(createdAt));
+        order.setUpdatedAt(fromMillis(updatedAt));
+        
+        List<OrderItem> items = new ArrayList<>(itemIds.length);
+        boolean persisted = true;
+        for (int i = 0; i < itemIds.length; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(fromId(itemIds[i]));
+            item.setOrderId(order.getId());
+            item.setMenuItemId(fromId(menuItemIds[i]));
+            item.setMenuItemName(names.decode(itemNames[i]));
+            item.setQuantity(quantities[i]);
+            item.setUnitPrice(fromCents(unitCents[i]));
+            item.setTotalPrice(fromCents(itemTotalCents[i]));
+            item.setSpecialInstructions(instructions != null ? instructions[i] : null);
+            item.setCreatedAt(fromMillis(itemCreatedAt[i]));
+            persisted &= item.getId() != null;
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        if (persisted) {
+            order.markItemsPersisted();
+        }
+        return order;
+    }
+    
+    public long getId() { return id; }
+    public String getOrderNumber() { return orderNumber; }
+    public long getTableId() { return tableId; }
+    public String getTableName() { return names.decode(tableName); }
+    public String getCustomerName() { return names.decode(customerName); }
+    public long getWaiterId() { return waiterId; }
+    public String getWaiterName() { return names.decode(waiterName); }
+    public Order.Status getStatus() { return STATUSES[status]; }
+    public long getTotalCents() { return totalCents; }
+    public String getNotes() { return notes; }
+    public int getVersion() { return version; }
+    public long getCreatedAtMillis() { return createdAt; }
+    public long getUpdatedAtMillis() { return updatedAt; }
+    
+    public int getItemCount() { return itemIds.length; }
+    public long getItemId(int index) { return itemIds[index]; }
+    public long getMenuItemId(int index) { return menuItemIds[index]; }
+    public String getItemName(int index) { return names.decode(itemNames[index]); }
+    public int getQuantity(int index) { return quantities[index]; }
+    public long getUnitCents(int index) { return unitCents[index]; }
+    public long getItemTotalCents(int index) { return itemTotalCents[index]; }
+    
+    public int getTotalQuantity() {
+        int total = 0;
+        for (int quantity : quantities) {
+            total += quantity;
+        }
+        return total;
+    }
+    
+    /**
+     * Convert an amount of money to cents, rounding half up below a cent
+     * @return Cents, 0 for null
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+    
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+    
+    /**
+     * Convert a local date-time to the milliseconds used by compact orders
+     * @return Milliseconds, or {@link #NO_TIME} for null
+     */
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_TIME;
+    }
+    
+    public static LocalDateTime fromMillis(long millis) {
+        return millis != NO_TIME ? LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+            Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC) : null;
+    }
+    
+    private static long toId(Long id) {
+        return id != null ? id : 0;
+    }
+    
+    private static Long fromId(long id) {
+        return id != 0 ? id : null;
+    }
+    
+    @Override
+    public String toString() {
+        return orderNumber + " - " + getCustomerName() + " ($" + fromCents(totalCents) + ")";
+    }
+}
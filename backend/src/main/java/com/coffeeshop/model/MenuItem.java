@@ -17,6 +17,7 @@ public class MenuItem {
     private boolean isAvailable;
     private String imagePath;
     private int preparationTime; // in minutes
+    private Station station; // Overrides the category's station when set
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
@@ -60,6 +61,9 @@ public class MenuItem {
     public int getPreparationTime() { return preparationTime; }
     public void setPreparationTime(int preparationTime) { this.preparationTime = preparationTime; }
     
+    public Station getStation() { return station; }
+    public void setStation(Station station) { this.station = station; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,54 @@
+package com.coffeeshop.model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns small integer codes to repeated names, such as table, waiter and
+ * menu item names, so compact orders store each distinct name once.
+ * Codes are never reused or removed; a dictionary lives as long as the
+ * orders encoded with it.
+ */
+public class NameDictionary {
+    // Code of a missing (null) name
+    public static final int NONE = -1;
+    
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] names = new String[64];
+    private int size;
+    
+    /**
+     * Get the code of a name, adding the name if it is new
+     * @param name Name to encode, may be null
+     * @return Code of the name, or {@link #NONE} for null
+     */
+    public synchronized int encode(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        Integer code = codes.get(name);
+        if (code == null) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            code = size;
+            names[size++] = name;
+            codes.put(name, code);
+        }
+        return code;
+    }
+    
+    /**
+     * Get the name of a code
+     * @param code Code returned by {@link #encode(String)}
+     * @return Name, or null for {@link #NONE}
+     */
+    public synchronized String decode(int code) {
+        return code == NONE ? null : names[code];
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -3,8 +3,10 @@ package com.coffeeshop.model;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Order entity representing customer orders
@@ -24,9 +26,11 @@ public class Order {
     private Status status;
     private BigDecimal totalAmount;
     private String notes;
+    private int version; // Optimistic concurrency counter
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<OrderItem> orderItems;
+    private Set<Long> persistedItemIds; // Item ids as last loaded/saved; null when unknown
     
     // Constructors
     public Order() {
@@ -74,6 +78,9 @@ public class Order {
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -100,6 +107,67 @@ public class Order {
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
     
+    /**
+     * Record the current items as the persisted baseline for change tracking.
+     * Called by the DAO after loading or saving the order's items.
+     */
+    public void markItemsPersisted() {
+        persistedItemIds = new HashSet<>();
+        for (OrderItem item : orderItems) {
+            if (item.getId() != null) {
+                persistedItemIds.add(item.getId());
+            }
+            item.clearModified();
+        }
+    }
+    
+    /**
+     * Check if item changes can be computed against a persisted baseline
+     */
+    public boolean isItemTrackingEnabled() {
+        return persistedItemIds != null;
+    }
+    
+    /**
+     * Get items that have not been saved yet
+     */
+    public List<OrderItem> getAddedItems() {
+        List<OrderItem> added = new ArrayList<>();
+        for (OrderItem item : orderItems) {
+            if (item.getId() == null) {
+                added.add(item);
+            }
+        }
+        return added;
+    }
+    
+    /**
+     * Get saved items whose fields changed since the baseline
+     */
+    public List<OrderItem> getModifiedItems() {
+        List<OrderItem> modified = new ArrayList<>();
+        for (OrderItem item : orderItems) {
+            if (item.getId() != null && item.isModified()) {
+                modified.add(item);
+            }
+        }
+        return modified;
+    }
+    
+    /**
+     * Get ids of baseline items that are no longer part of the order
+     */
+    public Set<Long> getRemovedItemIds() {
+        Set<Long> removed = new HashSet<>();
+        if (persistedItemIds != null) {
+            removed.addAll(persistedItemIds);
+            for (OrderItem item : orderItems) {
+                removed.remove(item.getId());
+            }
+        }
+        return removed;
+    }
+    
     public int getTotalItems() {
         return orderItems.stream()
             .mapToInt(OrderItem::getQuantity)
@@ -17,6 +17,7 @@ public class OrderItem {
     private BigDecimal totalPrice;
     private String specialInstructions;
     private LocalDateTime createdAt;
+    private boolean modified; // Changed since last loaded/saved, see Order#markItemsPersisted
     
     // Constructors
     public OrderItem() {}
@@ -45,24 +46,39 @@ public class OrderItem {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { 
         this.quantity = quantity;
+        this.modified = true;
         calculateTotalPrice();
     }
     
     public BigDecimal getUnitPrice() { return unitPrice; }
     public void setUnitPrice(BigDecimal unitPrice) { 
         this.unitPrice = unitPrice;
+        this.modified = true;
         calculateTotalPrice();
     }
     
     public BigDecimal getTotalPrice() { return totalPrice; }
-    public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
+    public void setTotalPrice(BigDecimal totalPrice) { 
+        this.totalPrice = totalPrice;
+        this.modified = true;
+    }
     
     public String getSpecialInstructions() { return specialInstructions; }
-    public void setSpecialInstructions(String specialInstructions) { this.specialInstructions = specialInstructions; }
+    public void setSpecialInstructions(String specialInstructions) { 
+        this.specialInstructions = specialInstructions;
+        this.modified = true;
+    }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
+    /**
+     * Check if this item needs to be written: it is new or one of its
+     * persisted fields changed since it was loaded or saved
+     */
+    public boolean isModified() { return id == null || modified; }
+    public void clearModified() { this.modified = false; }
+    
     // Utility methods
     private void calculateTotalPrice() {
         if (unitPrice != null && quantity > 0) {
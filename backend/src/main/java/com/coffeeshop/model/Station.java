@@ -0,0 +1,23 @@
+package com.coffeeshop.model;
+
+/**
+ * Kitchen station that prepares a share of each order
+ */
+public enum Station {
+    ESPRESSO("Espresso"),
+    BAR("Bar"),
+    SANDWICH_PRESS("Sandwich Press");
+    
+    private final String displayName;
+    
+    Station(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() { return displayName; }
+    
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
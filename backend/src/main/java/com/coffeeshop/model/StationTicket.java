@@ -0,0 +1,84 @@
+package com.coffeeshop.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The part of an order prepared at one kitchen station
+ */
+public class StationTicket {
+    public enum Status {
+        NEW, IN_PROGRESS, READY
+    }
+    
+    private Long id;
+    private Long orderId;
+    private String orderNumber; // For display purposes
+    private String tableName; // For display purposes
+    private String customerName; // For display purposes
+    private String orderNotes; // For display purposes
+    private Station station;
+    private Status status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private List<OrderItem> items;
+    
+    // Constructors
+    public StationTicket() {
+        this.items = new ArrayList<>();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+    
+    public String getOrderNumber() { return orderNumber; }
+    public void setOrderNumber(String orderNumber) { this.orderNumber = orderNumber; }
+    
+    public String getTableName() { return tableName; }
+    public void setTableName(String tableName) { this.tableName = tableName; }
+    
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+    
+    public String getOrderNotes() { return orderNotes; }
+    public void setOrderNotes(String orderNotes) { this.orderNotes = orderNotes; }
+    
+    public Station getStation() { return station; }
+    public void setStation(Station station) { this.station = station; }
+    
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public List<OrderItem> getItems() { return items; }
+    public void setItems(List<OrderItem> items) { this.items = items; }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StationTicket that = (StationTicket) o;
+        return Objects.equals(id, that.id);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+    
+    @Override
+    public String toString() {
+        return orderNumber + " - " + station + " (" + status + ")";
+    }
+}
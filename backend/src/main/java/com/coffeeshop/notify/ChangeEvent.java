@@ -0,0 +1,78 @@
+package com.coffeeshop.notify;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Notice that an entity changed in the shared database. Carries only what
+ * changed, not the new state: receivers re-read what they display.
+ *
+ * On the wire an event is one short line of text,
+ * {@code CS1 <sender> <origin> <entity> <id>}, with {@code -} for "several".
+ * The origin made the change; the sender announced it, which is a different
+ * terminal when it relayed the change for a terminal that went down.
+ */
+public final class ChangeEvent {
+    public enum Entity {
+        ORDER, MENU, TABLE
+    }
+    
+    private static final String WIRE_VERSION = "CS1";
+    
+    private final Entity entity;
+    private final Long entityId;   // null when several entities changed at once
+    private final String origin;   // terminal that made the change
+    private final String sender;   // terminal that announced it
+    private final boolean remote;
+    
+    ChangeEvent(Entity entity, Long entityId, String origin, String sender, boolean remote) {
+        this.entity = entity;
+        this.entityId = entityId;
+        this.origin = origin;
+        this.sender = sender;
+        this.remote = remote;
+    }
+    
+    public Entity getEntity() { return entity; }
+    public Long getEntityId() { return entityId; }
+    public String getOrigin() { return origin; }
+    String getSender() { return sender; }
+    
+    /**
+     * Check if the change was made by another terminal, as opposed to this one
+     */
+    public boolean isRemote() { return remote; }
+    
+    /**
+     * The same event as seen by the given terminal
+     */
+    ChangeEvent receivedBy(String terminal) {
+        return new ChangeEvent(entity, entityId, origin, sender, !origin.equals(terminal));
+    }
+    
+    byte[] encode() {
+        return String.join(" ", WIRE_VERSION, sender, origin, entity.name(), entityId != null ? entityId.toString() : "-")
+            .getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    /**
+     * Parse a received event
+     * @return The event, or null if the data is not a change event of this version
+     */
+    static ChangeEvent decode(byte[] data, int length) {
+        String[] parts = new String(data, 0, length, StandardCharsets.US_ASCII).trim().split(" ");
+        if (parts.length != 5 || !WIRE_VERSION.equals(parts[0])) {
+            return null;
+        }
+        try {
+            Long id = "-".equals(parts[4]) ? null : Long.valueOf(parts[4]);
+            return new ChangeEvent(Entity.valueOf(parts[3]), id, parts[2], parts[1], true);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return entity + " " + (entityId != null ? entityId : "*") + (remote ? " from " + origin : "");
+    }
+}
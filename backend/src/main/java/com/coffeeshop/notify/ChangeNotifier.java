@@ -0,0 +1,150 @@
+package com.coffeeshop.notify;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Tells every terminal when shared data changes, so caches and open views
+ * refresh right away instead of polling the database.
+ *
+ * Services publish after committing a change, or have the change relayed
+ * from the outbox it was committed with (see {@link OutboxRelay}). Listeners
+ * hear changes announced by this process immediately and those announced by
+ * other terminals once their event arrives over the connected transport.
+ * Events sent from here come back from the network too; they are recognized
+ * by sender and dropped.
+ */
+public class ChangeNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeNotifier.class);
+    private static ChangeNotifier instance;
+    
+    private final String origin;
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private volatile ChangeTransport transport;
+    
+    ChangeNotifier() {
+        this.origin = UUID.randomUUID().toString().substring(0, 8);
+    }
+    
+    public static synchronized ChangeNotifier getInstance() {
+        if (instance == null) {
+            instance = new ChangeNotifier();
+        }
+        return instance;
+    }
+    
+    /**
+     * Identifies this terminal in the events it sends
+     */
+    public String getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * Start exchanging events with other terminals over a transport,
+     * replacing any previous one
+     */
+    public synchronized void connect(ChangeTransport newTransport) throws IOException {
+        disconnect();
+        newTransport.open(this::receive);
+        transport = newTransport;
+    }
+    
+    /**
+     * Connect the transport chosen by the {@code coffeeshop.notify} system
+     * properties. A single embedded terminal only needs to hear itself;
+     * terminals sharing a MySQL server talk over the LAN. If no transport
+     * can be opened, views fall back to polling.
+     * @param sharedDatabase Whether other processes use the same database
+     */
+    public void connectConfigured(boolean sharedDatabase) {
+        String mode = System.getProperty("coffeeshop.notify", sharedDatabase ? "multicast" : "local");
+        try {
+            if ("multicast".equals(mode)) {
+                InetAddress group = InetAddress.getByName(System.getProperty("coffeeshop.notify.group", "239.255.42.99"));
+                connect(new MulticastChangeTransport(group, Integer.getInteger("coffeeshop.notify.port", 4446)));
+                Runtime.getRuntime().addShutdownHook(new Thread(this::disconnect));
+            } else if ("local".equals(mode)) {
+                connect(new LoopbackChangeTransport());
+            } else {
+                logger.info("Change notifications off, views poll for changes");
+            }
+        } catch (Exception e) {
+            logger.warn("Change notifications unavailable, views poll for changes", e);
+        }
+    }
+    
+    public synchronized void disconnect() {
+        if (transport != null) {
+            transport.close();
+            transport = null;
+        }
+    }
+    
+    /**
+     * Check if changes from other terminals are delivered. When not, views
+     * have to poll to see them.
+     */
+    public boolean isConnected() {
+        return transport != null;
+    }
+    
+    public void addListener(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Announce a committed change
+     * @param entityId Changed entity, or null if several changed
+     */
+    public void publish(ChangeEvent.Entity entity, Long entityId) {
+        announce(new ChangeEvent(entity, entityId, origin, origin, false));
+    }
+    
+    /**
+     * Announce a change read back from the outbox, possibly made by another terminal
+     * @param changeOrigin Terminal that made the change
+     */
+    public void relay(ChangeEvent.Entity entity, Long entityId, String changeOrigin) {
+        announce(new ChangeEvent(entity, entityId, changeOrigin, origin, !origin.equals(changeOrigin)));
+    }
+    
+    private void announce(ChangeEvent event) {
+        dispatch(event);
+        
+        ChangeTransport current = transport;
+        if (current != null) {
+            current.send(event);
+        }
+    }
+    
+    private void receive(ChangeEvent event) {
+        if (!origin.equals(event.getSender())) {
+            ChangeEvent received = event.receivedBy(origin);
+            logger.debug("Received change event {}", received);
+            dispatch(received);
+        }
+    }
+    
+    private void dispatch(ChangeEvent event) {
+        for (Consumer<ChangeEvent> listener : listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                // One failing view must not keep the others stale
+                logger.error("Change listener failed for {}", event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.coffeeshop.notify;
+
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Refreshes an open window when the entities it shows change.
+ *
+ * The refresh runs on the Swing event thread, once per burst of events, and
+ * the subscription ends when the window is closed.
+ */
+public final class ChangeSubscription {
+    // Events arriving within this window, e.g. a bulk import, cause a single refresh
+    private static final int COALESCE_MILLIS = 150;
+    
+    private ChangeSubscription() {
+        throw new IllegalStateException("Utility class");
+    }
+    
+    /**
+     * Subscribe a window to changes
+     * @param window Window to refresh; the subscription ends when it closes
+     * @param refresh Reloads the window's data
+     * @param entity First entity type the window shows
+     * @param more Further entity types the window shows
+     */
+    public static void refreshOnChange(JFrame window, Runnable refresh, ChangeEvent.Entity entity, ChangeEvent.Entity... more) {
+        Set<ChangeEvent.Entity> entities = EnumSet.of(entity, more);
+        Timer coalesce = new Timer(COALESCE_MILLIS, e -> refresh.run());
+        coalesce.setRepeats(false);
+        
+        Consumer<ChangeEvent> listener = event -> {
+            if (entities.contains(event.getEntity())) {
+                SwingUtilities.invokeLater(coalesce::restart);
+            }
+        };
+        
+        ChangeNotifier notifier = ChangeNotifier.getInstance();
+        notifier.addListener(listener);
+        window.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                notifier.removeListener(listener);
+                coalesce.stop();
+            }
+        });
+    }
+}
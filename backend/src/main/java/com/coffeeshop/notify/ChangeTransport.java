@@ -0,0 +1,26 @@
+package com.coffeeshop.notify;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Channel carrying change events between terminals
+ */
+public interface ChangeTransport extends AutoCloseable {
+    
+    /**
+     * Start delivering events sent by other terminals
+     * @param receiver Called on the transport's own thread for every event received
+     * @throws IOException if the channel cannot be opened
+     */
+    void open(Consumer<ChangeEvent> receiver) throws IOException;
+    
+    /**
+     * Send an event to the other terminals. Delivery is best effort.
+     * @param event Event to send
+     */
+    void send(ChangeEvent event);
+    
+    @Override
+    void close();
+}
@@ -0,0 +1,56 @@
+package com.coffeeshop.notify;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand-in for the network channel.
+ *
+ * Every loopback transport in the JVM hears the events sent by the others, so
+ * several notifiers can play separate terminals in tests and benchmarks. With
+ * a single terminal (the embedded database) it is the whole channel: no other
+ * process can change the data.
+ */
+public class LoopbackChangeTransport implements ChangeTransport {
+    private static final List<LoopbackChangeTransport> connected = new CopyOnWriteArrayList<>();
+    
+    // Delivered off the sender's thread, like a datagram
+    private static final ExecutorService delivery = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "change-loopback");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private volatile Consumer<ChangeEvent> receiver;
+    
+    @Override
+    public void open(Consumer<ChangeEvent> receiver) {
+        this.receiver = receiver;
+        connected.add(this);
+    }
+    
+    @Override
+    public void send(ChangeEvent event) {
+        byte[] data = event.encode();
+        for (LoopbackChangeTransport transport : connected) {
+            if (transport != this) {
+                delivery.execute(() -> {
+                    Consumer<ChangeEvent> target = transport.receiver;
+                    ChangeEvent received = ChangeEvent.decode(data, data.length);
+                    if (target != null && received != null) {
+                        target.accept(received);
+                    }
+                });
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        connected.remove(this);
+        receiver = null;
+    }
+}
@@ -0,0 +1,115 @@
+package com.coffeeshop.notify;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.function.Consumer;
+
+/**
+ * Change events as UDP multicast datagrams on the shop's LAN.
+ *
+ * Needs no broker: every terminal joins the same group, and each event is a
+ * single small datagram. Multicast is not reliable, so terminals keep a slow
+ * safety poll for the rare lost datagram.
+ */
+public class MulticastChangeTransport implements ChangeTransport {
+    private static final Logger logger = LoggerFactory.getLogger(MulticastChangeTransport.class);
+    
+    // Events are a few dozen bytes
+    private static final int MAX_DATAGRAM = 512;
+    
+    // Keep events on the local network segment
+    private static final int TIME_TO_LIVE = 1;
+    
+    private final InetAddress group;
+    private final int port;
+    private MulticastSocket socket;
+    private Thread listener;
+    
+    public MulticastChangeTransport(InetAddress group, int port) {
+        if (!group.isMulticastAddress()) {
+            throw new IllegalArgumentException("Not a multicast address: " + group);
+        }
+        this.group = group;
+        this.port = port;
+    }
+    
+    @Override
+    @SuppressWarnings("deprecation")
+    public synchronized void open(Consumer<ChangeEvent> receiver) throws IOException {
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(TIME_TO_LIVE);
+        // Other terminals on this host (e.g. a kitchen screen next to the admin PC) must hear us too
+        socket.setLoopbackMode(false); // false enables loopback
+        socket.joinGroup(group);
+        
+        MulticastSocket receiving = socket;
+        listener = new Thread(() -> receive(receiving, receiver), "change-listener");
+        listener.setDaemon(true);
+        listener.start();
+        logger.info("Listening for change events on {}:{}", group.getHostAddress(), port);
+    }
+    
+    private void receive(MulticastSocket receiving, Consumer<ChangeEvent> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (!receiving.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                receiving.receive(packet);
+            } catch (SocketException e) {
+                // Closed
+                break;
+            } catch (IOException e) {
+                logger.warn("Error receiving change event", e);
+                continue;
+            }
+            
+            ChangeEvent event = ChangeEvent.decode(packet.getData(), packet.getLength());
+            if (event != null) {
+                receiver.accept(event);
+            }
+        }
+    }
+    
+    @Override
+    public void send(ChangeEvent event) {
+        MulticastSocket current;
+        synchronized (this) {
+            current = socket;
+        }
+        if (current == null) {
+            return;
+        }
+        
+        byte[] data = event.encode();
+        try {
+            current.send(new DatagramPacket(data, data.length, new InetSocketAddress(group, port)));
+        } catch (IOException e) {
+            // Other terminals fall back to their safety poll
+            logger.warn("Failed to send change event {}", event, e);
+        }
+    }
+    
+    @Override
+    @SuppressWarnings("deprecation")
+    public synchronized void close() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.leaveGroup(group);
+        } catch (IOException e) {
+            logger.debug("Error leaving multicast group", e);
+        }
+        socket.close();
+        socket = null;
+        listener = null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.coffeeshop.notify;
+
+import com.coffeeshop.dao.ChangeOutboxDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background task that announces the changes recorded in the outbox.
+ *
+ * A change and its outbox entry commit together, so a change cannot be made
+ * without eventually being announced, even if the terminal that made it goes
+ * down right after the commit. The terminal making a change wakes its relay
+ * at once; every relay also checks the outbox now and then, which picks up
+ * entries left behind by a terminal that went down. Entries are removed only
+ * after they were announced, and no outbox lock is held while announcing, so
+ * an entry may be announced twice (after a failure, or by two relays at once)
+ * but never lost; announcements only invalidate caches, so that is harmless.
+ */
+public class OutboxRelay implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final int BATCH_SIZE = 200;
+    
+    private final ChangeOutboxDAO outboxDAO;
+    private final ChangeNotifier notifier;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+    
+    public OutboxRelay(ChangeOutboxDAO outboxDAO, ChangeNotifier notifier, long intervalMillis) {
+        this.outboxDAO = outboxDAO;
+        this.notifier = notifier;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::drain, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Relay new entries now rather than at the next check. Calls made while a
+     * wake-up is still queued are folded into it.
+     */
+    public void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    wakeQueued.set(false);
+                    drain();
+                });
+            } catch (RejectedExecutionException e) {
+                // Closed; the final drain or another terminal relays the entries
+                wakeQueued.set(false);
+            }
+        }
+    }
+    
+    /**
+     * Relay everything currently in the outbox. Stops at the first database
+     * error and retries on the next run.
+     */
+    public void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = outboxDAO.relayPending(BATCH_SIZE, this::announce);
+            } while (relayed == BATCH_SIZE);
+        } catch (SQLException e) {
+            logger.warn("Outbox relay failed, will retry: {}", e.getMessage());
+        }
+    }
+    
+    private void announce(List<ChangeOutboxDAO.Entry> entries) {
+        // A burst of changes to one order goes out as one event
+        Map<String, ChangeOutboxDAO.Entry> distinct = new LinkedHashMap<>();
+        for (ChangeOutboxDAO.Entry entry : entries) {
+            distinct.putIfAbsent(entry.getEntity() + ":" + entry.getEntityId() + ":" + entry.getOrigin(), entry);
+        }
+        
+        for (ChangeOutboxDAO.Entry entry : distinct.values()) {
+            try {
+                notifier.relay(ChangeEvent.Entity.valueOf(entry.getEntity()), entry.getEntityId(), entry.getOrigin());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Dropping outbox entry for unknown entity {}", entry.getEntity());
+            }
+        }
+        if (entries.size() > distinct.size()) {
+            logger.debug("Relayed {} outbox entries as {} events", entries.size(), distinct.size());
+        }
+    }
+    
+    /**
+     * Stop the background task after a final drain attempt
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+}
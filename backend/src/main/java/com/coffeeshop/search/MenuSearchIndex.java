@@ -0,0 +1,230 @@
+package com.coffeeshop.search;
+
+import com.coffeeshop.model.MenuItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Search-as-you-type index over the menu catalog.
+ *
+ * Names, categories and descriptions are accent-folded and tokenized once, and
+ * every token's trigrams are posted to the items containing it. A query token
+ * only has to be checked against the items sharing its trigrams (or its first
+ * characters, while it is still shorter than a trigram). Matches are ranked by
+ * field and match quality and tolerate small typos.
+ *
+ * The index is immutable once built; {@link #rebuild(List)} builds a new one
+ * and swaps it in, so readers never see a half-updated catalog.
+ */
+public class MenuSearchIndex {
+    private static MenuSearchIndex instance;
+    
+    // Weights of name, category and description matches, in the order the fields are tokenized
+    private static final float[] FIELD_WEIGHTS = {3.0f, 2.0f, 1.0f};
+    
+    // A mistyped word start ("late" for "latte") ranks above a hit in the middle of another word
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float FUZZY_MATCH = 0.6f;
+    private static final float SUBSTRING_MATCH = 0.5f;
+    
+    private static final int[] NO_ITEMS = new int[0];
+    
+    private volatile Snapshot snapshot;
+    
+    private MenuSearchIndex() {}
+    
+    public static synchronized MenuSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new MenuSearchIndex();
+        }
+        return instance;
+    }
+    
+    /**
+     * Replace the indexed catalog
+     */
+    public void rebuild(List<MenuItem> items) {
+        snapshot = new Snapshot(items);
+    }
+    
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+    
+    /**
+     * Find items matching every token of the query, best matches first
+     * @param availableOnly Skip items that are currently unavailable
+     */
+    public List<MenuItem> search(String query, boolean availableOnly, int limit) {
+        Snapshot current = snapshot;
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (current == null || tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        float[] scores = null;
+        for (String token : tokens) {
+            float[] tokenScores = current.match(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // All tokens must match
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] = tokenScores[i] > 0 && scores[i] > 0 ? scores[i] + tokenScores[i] : 0;
+                }
+            }
+        }
+        
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            if (scores[i] > 0 && (!availableOnly || current.items[i].isAvailable())) {
+                hits.add(i);
+            }
+        }
+        final float[] finalScores = scores;
+        hits.sort(Comparator.<Integer>comparingDouble(i -> -finalScores[i])
+            .thenComparing(i -> current.sortNames[i]));
+        
+        List<MenuItem> results = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            results.add(current.items[hits.get(i)]);
+        }
+        return results;
+    }
+    
+    /**
+     * One immutable build of the index
+     */
+    private static final class Snapshot {
+        final MenuItem[] items;
+        final String[] sortNames;          // item -> folded name
+        final String[][][] tokens;         // item -> field -> tokens
+        final Map<String, int[]> postings; // trigram, or 1-2 char token prefix -> sorted item indexes
+        
+        Snapshot(List<MenuItem> catalog) {
+            items = catalog.toArray(new MenuItem[0]);
+            sortNames = new String[items.length];
+            tokens = new String[items.length][][];
+            
+            Map<String, List<Integer>> building = new HashMap<>();
+            for (int i = 0; i < items.length; i++) {
+                MenuItem item = items[i];
+                sortNames[i] = TextNormalizer.fold(item.getName());
+                tokens[i] = new String[][] {
+                    TextNormalizer.tokenize(item.getName()).toArray(new String[0]),
+                    TextNormalizer.tokenize(item.getCategoryName()).toArray(new String[0]),
+                    TextNormalizer.tokenize(item.getDescription()).toArray(new String[0])
+                };
+                for (String[] fieldTokens : tokens[i]) {
+                    for (String token : fieldTokens) {
+                        post(building, token.substring(0, 1), i);
+                        if (token.length() >= 2) {
+                            post(building, token.substring(0, 2), i);
+                        }
+                        for (String gram : TextNormalizer.trigrams(token)) {
+                            post(building, gram, i);
+                        }
+                    }
+                }
+            }
+            
+            postings = new HashMap<>(building.size() * 2);
+            for (Map.Entry<String, List<Integer>> entry : building.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        
+        private static void post(Map<String, List<Integer>> building, String key, int item) {
+            List<Integer> list = building.computeIfAbsent(key, k -> new ArrayList<>());
+            // Items are added in order, so checking the tail is enough to avoid duplicates
+            if (list.isEmpty() || list.get(list.size() - 1) != item) {
+                list.add(item);
+            }
+        }
+        
+        /**
+         * Score every item against one query token; 0 means no match
+         */
+        float[] match(String token) {
+            float[] scores = new float[items.length];
+            int edits = TextNormalizer.allowedEdits(token);
+            
+            for (int item : candidates(token, edits)) {
+                float best = 0;
+                for (int field = 0; field < FIELD_WEIGHTS.length; field++) {
+                    best = Math.max(best, bestQuality(token, tokens[item][field], edits) * FIELD_WEIGHTS[field]);
+                }
+                scores[item] = best;
+            }
+            return scores;
+        }
+        
+        private int[] candidates(String token, int edits) {
+            if (token.length() < 3) {
+                return postings.getOrDefault(token, NO_ITEMS);
+            }
+            
+            Set<String> grams = TextNormalizer.trigrams(token);
+            int[] shared = new int[items.length];
+            for (String gram : grams) {
+                for (int item : postings.getOrDefault(gram, NO_ITEMS)) {
+                    shared[item]++;
+                }
+            }
+            
+            // Each edit destroys at most three trigrams
+            int minShared = Math.max(1, grams.size() - 3 * edits);
+            int[] result = new int[items.length];
+            int count = 0;
+            for (int item = 0; item < items.length; item++) {
+                if (shared[item] >= minShared) {
+                    result[count++] = item;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+        
+        private static float bestQuality(String token, String[] fieldTokens, int edits) {
+            float best = 0;
+            for (String candidate : fieldTokens) {
+                if (candidate.equals(token)) {
+                    return EXACT_MATCH;
+                } else if (candidate.startsWith(token)) {
+                    best = Math.max(best, PREFIX_MATCH);
+                } else if (edits > 0 && best < FUZZY_MATCH && isFuzzyMatch(token, candidate, edits)) {
+                    best = FUZZY_MATCH;
+                } else if (token.length() >= 3 && candidate.contains(token)) {
+                    best = Math.max(best, SUBSTRING_MATCH);
+                }
+            }
+            return best;
+        }
+        
+        private static boolean isFuzzyMatch(String token, String candidate, int edits) {
+            if (TextNormalizer.boundedEditDistance(token, candidate, edits) <= edits) {
+                return true;
+            }
+            // While typing, compare against the start of the word: "capuc" vs "cappuc(cino)". A dropped or
+            // extra letter shifts where the typed part ends, so try every prefix length within the edit budget.
+            // The first letter must match, or short tokens match unrelated words ("late" vs "wate(r)").
+            if (candidate.isEmpty() || candidate.charAt(0) != token.charAt(0)) {
+                return false;
+            }
+            int shortest = Math.max(1, token.length() - edits);
+            int longest = Math.min(candidate.length() - 1, token.length() + edits);
+            for (int length = shortest; length <= longest; length++) {
+                if (TextNormalizer.boundedEditDistance(token, candidate.substring(0, length), edits) <= edits) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
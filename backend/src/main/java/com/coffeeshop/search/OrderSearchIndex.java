@@ -0,0 +1,323 @@
+package com.coffeeshop.search;
+
+import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.model.CompactOrder;
+import com.coffeeshop.model.NameDictionary;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over recent orders.
+ *
+ * Indexes order number, customer name, table and item names. Terms are kept
+ * in a sorted dictionary for prefix lookups, and a trigram-to-term map finds
+ * substring and typo-tolerant matches without scanning the vocabulary. The
+ * index covers a sliding window of recent days; older orders are searched in
+ * the database. Indexed orders are held as {@link CompactOrder}s and turned
+ * back into full orders only for the results of a search.
+ */
+public class OrderSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchIndex.class);
+    private static OrderSearchIndex instance;
+    
+    // Field weights: a hit on the order number is worth more than one on an item name
+    private static final float ORDER_NUMBER_WEIGHT = 3.0f;
+    private static final float CUSTOMER_WEIGHT = 2.0f;
+    private static final float TABLE_WEIGHT = 2.0f;
+    private static final float ITEM_WEIGHT = 1.0f;
+    
+    // Match quality multipliers
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.8f;
+    private static final float SUBSTRING_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedOrder> documents = new HashMap<>();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByTrigram = new HashMap<>();
+    private NameDictionary names = new NameDictionary();
+    private volatile boolean ready;
+    private volatile LocalDateTime windowStart = LocalDateTime.MIN;
+    
+    private OrderSearchIndex() {}
+    
+    public static synchronized OrderSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new OrderSearchIndex();
+        }
+        return instance;
+    }
+    
+    /**
+     * Rebuild the index from the orders of the last {@code windowDays} days
+     */
+    public void rebuild(OrderDAO orderDAO, int windowDays) throws SQLException {
+        long start = System.nanoTime();
+        LocalDateTime newWindowStart = LocalDate.now().minusDays(windowDays).atStartOfDay();
+        
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            documents.clear();
+            postings.clear();
+            termsByTrigram.clear();
+            names = new NameDictionary();
+            windowStart = newWindowStart;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        List<Order> orders = orderDAO.findByDateRange(newWindowStart, LocalDateTime.now().plusDays(1));
+        lock.writeLock().lock();
+        try {
+            for (Order order : orders) {
+                // An order indexed by a live event during the load is newer than the loaded copy
+                if (!documents.containsKey(order.getId())) {
+                    addDocument(order);
+                }
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        
+        logger.info("Order search index built: {} orders, {} terms in {} ms",
+            orders.size(), postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Orders created before this instant are not in the index
+     */
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+    
+    /**
+     * Add an order or replace its previous version
+     */
+    public void index(Order order) {
+        if (order.getId() == null || (order.getCreatedAt() != null && order.getCreatedAt().isBefore(windowStart))) {
+            return;
+        }
+        
+        lock.writeLock().lock();
+        try {
+            removeDocument(order.getId());
+            addDocument(order);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Reflect a status change on an indexed order
+     */
+    public void updateStatus(Long orderId, Order.Status status) {
+        lock.writeLock().lock();
+        try {
+            IndexedOrder document = documents.get(orderId);
+            if (document != null) {
+                document.order = document.order.withStatus(status);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(Long orderId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(orderId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Find orders matching every token of the query, best matches first.
+     * Tokens may be prefixes or substrings of indexed terms and may contain
+     * small typos.
+     */
+    public List<Order> search(String query, int limit) {
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = matchToken(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // All tokens must match
+                    Map<Long, Float> combined = new HashMap<>();
+                    for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                        Float score = tokenScores.get(entry.getKey());
+                        if (score != null) {
+                            combined.put(entry.getKey(), entry.getValue() + score);
+                        }
+                    }
+                    scores = combined;
+                }
+                if (scores.isEmpty()) {
+                    return new ArrayList<>();
+                }
+            }
+            
+            final Map<Long, Float> finalScores = scores;
+            List<IndexedOrder> hits = new ArrayList<>();
+            for (Long orderId : finalScores.keySet()) {
+                hits.add(documents.get(orderId));
+            }
+            hits.sort(Comparator.<IndexedOrder>comparingDouble(hit -> -finalScores.get(hit.order.getId()))
+                .thenComparing(Comparator.comparingLong((IndexedOrder hit) -> hit.order.getCreatedAtMillis()).reversed()));
+            
+            List<Order> results = new ArrayList<>(Math.min(limit, hits.size()));
+            for (int i = 0; i < hits.size() && i < limit; i++) {
+                results.add(hits.get(i).order.toOrder());
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Map<Long, Float> matchToken(String token) {
+        Map<Long, Float> scores = new HashMap<>();
+        
+        // Exact and prefix matches come straight from the sorted dictionary
+        for (Map.Entry<String, Map<Long, Float>> entry
+                : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+            float quality = entry.getKey().equals(token) ? EXACT_MATCH : PREFIX_MATCH;
+            addScores(scores, entry.getValue(), quality);
+        }
+        
+        if (token.length() < 3) {
+            return scores;
+        }
+        
+        // Substring and fuzzy candidates share trigrams with the token
+        Set<String> grams = TextNormalizer.trigrams(token);
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> terms = termsByTrigram.get(gram);
+            if (terms != null) {
+                for (String term : terms) {
+                    sharedGrams.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        
+        int edits = TextNormalizer.allowedEdits(token);
+        // Each edit destroys at most three trigrams
+        int minSharedForFuzzy = Math.max(1, grams.size() - 3 * edits);
+        for (Map.Entry<String, Integer> candidate : sharedGrams.entrySet()) {
+            String term = candidate.getKey();
+            if (term.startsWith(token)) {
+                continue;
+            }
+            if (candidate.getValue() == grams.size() && term.contains(token)) {
+                addScores(scores, postings.get(term), SUBSTRING_MATCH);
+            } else if (edits > 0 && candidate.getValue() >= minSharedForFuzzy
+                    && TextNormalizer.boundedEditDistance(token, term, edits) <= edits) {
+                addScores(scores, postings.get(term), FUZZY_MATCH);
+            }
+        }
+        return scores;
+    }
+    
+    private static void addScores(Map<Long, Float> scores, Map<Long, Float> termPostings, float quality) {
+        for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+            scores.merge(posting.getKey(), posting.getValue() * quality, Math::max);
+        }
+    }
+    
+    private void addDocument(Order order) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, order.getOrderNumber(), ORDER_NUMBER_WEIGHT);
+        if (order.getOrderNumber() != null) {
+            // Also index "ord12345678" so the number matches with or without its dash
+            terms.merge(String.join("", TextNormalizer.tokenize(order.getOrderNumber())), ORDER_NUMBER_WEIGHT, Math::max);
+        }
+        addTerms(terms, order.getCustomerName(), CUSTOMER_WEIGHT);
+        addTerms(terms, order.getTableName(), TABLE_WEIGHT);
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                addTerms(terms, item.getMenuItemName(), ITEM_WEIGHT);
+            }
+        }
+        terms.remove("");
+        
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> {
+                for (String gram : TextNormalizer.trigrams(key)) {
+                    termsByTrigram.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+                }
+                return new HashMap<>();
+            }).put(order.getId(), term.getValue());
+        }
+        documents.put(order.getId(), new IndexedOrder(CompactOrder.of(order, names), terms.keySet()));
+    }
+    
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : TextNormalizer.tokenize(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+    
+    private void removeDocument(Long orderId) {
+        IndexedOrder document = documents.remove(orderId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Float> termPostings = postings.get(term);
+            termPostings.remove(orderId);
+            if (termPostings.isEmpty()) {
+                // Drop unused terms so the dictionary does not grow with churn
+                postings.remove(term);
+                for (String gram : TextNormalizer.trigrams(term)) {
+                    Set<String> gramTerms = termsByTrigram.get(gram);
+                    gramTerms.remove(term);
+                    if (gramTerms.isEmpty()) {
+                        termsByTrigram.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static final class IndexedOrder {
+        CompactOrder order;
+        final Set<String> terms;
+        
+        IndexedOrder(CompactOrder order, Set<String> terms) {
+            this.order = order;
+            this.terms = terms;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.audit.AuditEvent;
+import com.coffeeshop.audit.AuditLog;
+import com.coffeeshop.audit.UserActivity;
+import com.coffeeshop.dao.UserDAO;
+import com.coffeeshop.dao.impl.UserDAOImpl;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Service recording user actions in the local audit log and reading them
+ * back for the user activity report. Recording is best effort: a failed
+ * audit write is logged and never fails the action being recorded. It never
+ * queries the database either; a user known only by ID is recorded without
+ * a name, which is looked up when the report is read.
+ */
+public class AuditService {
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+    private static AuditService instance;
+    
+    private final UserDAO userDAO = new UserDAOImpl();
+    // User ID -> username, for events whose actor is known by ID only; filled by logins and reports
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+    private volatile AuditLog auditLog;
+    
+    private AuditService() {
+    }
+    
+    public static synchronized AuditService getInstance() {
+        if (instance == null) {
+            instance = new AuditService();
+        }
+        return instance;
+    }
+    
+    /**
+     * Open the audit log and start recording
+     * @param directory Directory of the log segments
+     * @param segmentBytes Size at which a new segment is started
+     * @param retentionDays Days of events kept
+     */
+    public synchronized void enable(Path directory, long segmentBytes, int retentionDays) throws IOException {
+        if (auditLog == null) {
+            auditLog = new AuditLog(directory, segmentBytes, retentionDays);
+        }
+    }
+    
+    /**
+     * Stop recording and close the audit log, if enabled
+     */
+    public synchronized void disable() {
+        if (auditLog != null) {
+            try {
+                auditLog.close();
+            } catch (IOException e) {
+                logger.error("Error closing audit log", e);
+            }
+            auditLog = null;
+        }
+    }
+    
+    public boolean isEnabled() {
+        return auditLog != null;
+    }
+    
+    public void recordLogin(User user, boolean withPin) {
+        usernames.put(user.getId(), user.getUsername());
+        record(AuditEvent.of(AuditEvent.Type.LOGIN, user.getId(), user.getUsername(), null, withPin ? "PIN" : "Password"));
+    }
+    
+    /**
+     * @param username Name that was tried
+     * @param reason Why the login was refused
+     */
+    public void recordFailedLogin(String username, String reason) {
+        record(AuditEvent.of(AuditEvent.Type.LOGIN_FAILED, null, username, null, reason));
+    }
+    
+    public void recordLogout(User user) {
+        record(AuditEvent.of(AuditEvent.Type.LOGOUT, user.getId(), user.getUsername(), null, null));
+    }
+    
+    /**
+     * Record an order taken by its waiter, or by the current user if it has none
+     */
+    public void recordOrderCreated(Order order) {
+        record(AuditEvent.Type.ORDER_CREATED, order.getWaiterId(), order.getId(),
+            order.getOrderNumber() + " ($" + order.getTotalAmount() + ")");
+    }
+    
+    /**
+     * Record a status change made by {@code changedBy}, or by the current user if it is null
+     */
+    public void recordStatusChanged(Long orderId, Order.Status status, Long changedBy) {
+        record(AuditEvent.Type.ORDER_STATUS_CHANGED, changedBy, orderId, status.name());
+    }
+    
+    /**
+     * Record a change to a menu item or category by the current user
+     * @param id Item or category changed
+     * @param detail What changed, e.g. its name
+     */
+    public void recordMenuChange(AuditEvent.Type type, Long id, String detail) {
+        record(type, null, id, detail);
+    }
+    
+    /**
+     * Sum up each user's actions over a range of days, from the audit log alone
+     * @return One row per user, most active first; empty if the audit log is off
+     */
+    public List<UserActivity> getUserActivity(LocalDate from, LocalDate to) throws IOException {
+        AuditLog log = auditLog;
+        return log != null ? log.summarize(from, to, nameLookup()) : Collections.emptyList();
+    }
+    
+    /**
+     * Get one user's actions over a range of days
+     * @return Events in the order they happened; empty if the audit log is off
+     */
+    public List<AuditEvent> getUserEvents(String username, LocalDate from, LocalDate to) throws IOException {
+        AuditLog log = auditLog;
+        return log != null ? log.read(from, to, username, nameLookup()) : Collections.emptyList();
+    }
+    
+    /**
+     * @param userId User who acted, or null for the current user
+     */
+    private void record(AuditEvent.Type type, Long userId, Long subjectId, String detail) {
+        if (auditLog == null) {
+            return;
+        }
+        if (userId != null) {
+            record(AuditEvent.of(type, userId, usernameOf(userId), subjectId, detail));
+            return;
+        }
+        User user = AuthenticationService.getInstance().getCurrentUser();
+        if (user != null) {
+            record(AuditEvent.of(type, user.getId(), user.getUsername(), subjectId, detail));
+        } else {
+            record(AuditEvent.of(type, null, null, subjectId, detail));
+        }
+    }
+    
+    /**
+     * Find a user's name without going to the database, e.g. for events from
+     * the API or journal replay, which carry only the ID
+     * @return Username, or null to leave it to the report
+     */
+    private String usernameOf(Long userId) {
+        User current = AuthenticationService.getInstance().getCurrentUser();
+        if (current != null && userId.equals(current.getId())) {
+            return current.getUsername();
+        }
+        return usernames.get(userId);
+    }
+    
+    /**
+     * Name users recorded by ID only while reading a report, looking each up at most once
+     */
+    private Function<Long, String> nameLookup() {
+        Set<Long> unknown = new HashSet<>();
+        return userId -> {
+            String username = usernames.get(userId);
+            if (username == null && unknown.add(userId)) {
+                try {
+                    username = userDAO.findById(userId).map(User::getUsername).orElse(null);
+                    if (username != null) {
+                        usernames.put(userId, username);
+                    }
+                } catch (SQLException e) {
+                    logger.warn("Failed to look up the name of user {} for the audit report", userId, e);
+                }
+            }
+            return username;
+        };
+    }
+    
+    private void record(AuditEvent event) {
+        AuditLog log = auditLog;
+        if (log == null) {
+            return;
+        }
+        try {
+            log.append(event);
+        } catch (IOException e) {
+            logger.warn("Failed to record {} in the audit log", event, e);
+        }
+    }
+}
@@ -1,16 +1,85 @@
 package com.coffeeshop.service;
 
 import com.coffeeshop.model.User;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.session.SessionContext;
+import com.coffeeshop.session.SessionRegistry;
 import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service for user authentication and management
+ *
+ * BCrypt runs on a small bounded pool, so a burst of logins cannot take every
+ * CPU of a terminal or queue up without limit. New hashes use the highest cost
+ * that stays within the target latency on this terminal, never less than the
+ * original cost of 10, and older hashes are upgraded when their user logs in.
+ * After a password login, users may register a short PIN to switch back onto
+ * this terminal for a limited time without running BCrypt again.
+ *
+ * Each login opens its own session. The current user is the session bound to
+ * the calling thread (see {@link SessionContext}), or else the session of the
+ * last login on this terminal, so one process can serve several screens or
+ * clients with different users at once.
  */
 public class AuthenticationService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticationService.class);
     private static AuthenticationService instance;
-    private User currentUser;
     
-    private AuthenticationService() {}
+    // BCrypt cost bounds; the lower one is the cost every stored hash already has
+    private static final int MIN_COST = 10;
+    private static final int MAX_COST = 14;
+    
+    // Logins waiting for a hashing thread before new ones are turned away
+    private static final int HASH_QUEUE_SIZE = 32;
+    
+    // PIN quick switch: digits, lifetime after the password login and failures before the PIN is dropped
+    private static final int MIN_PIN_LENGTH = 4;
+    private static final int MAX_PIN_LENGTH = 8;
+    private static final long PIN_TTL_MILLIS = Integer.getInteger("coffeeshop.auth.pinTtlMinutes", 30) * 60_000L;
+    private static final int MAX_PIN_FAILURES = 3;
+    private static final int PIN_HASH_ITERATIONS = 20_000;
+    
+    private final ThreadPoolExecutor hashPool;
+    private final CompletableFuture<Integer> targetCost;
+    private final Map<String, QuickSwitch> quickSwitches = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final SessionRegistry sessions = SessionRegistry.getInstance();
+    private final AtomicReference<Session> terminalSession = new AtomicReference<>();
+    
+    private AuthenticationService() {
+        int threads = Math.max(1, Integer.getInteger("coffeeshop.auth.hashThreads",
+            Math.min(2, Runtime.getRuntime().availableProcessors())));
+        AtomicInteger counter = new AtomicInteger();
+        this.hashPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(HASH_QUEUE_SIZE), r -> {
+                Thread thread = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.hashPool.allowCoreThreadTimeOut(true);
+        
+        // Measure in the background, the first login or new user waits for it if needed
+        long targetMillis = Long.getLong("coffeeshop.auth.targetMs", 250L);
+        this.targetCost = CompletableFuture.supplyAsync(() -> calibrate(targetMillis), hashPool);
+    }
     
     public static synchronized AuthenticationService getInstance() {
         if (instance == null) {
@@ -20,12 +89,21 @@ public class AuthenticationService {
     }
     
     /**
-     * Hash a password using BCrypt
+     * Hash a password using BCrypt at this terminal's calibrated cost
      * @param password Plain text password
      * @return Hashed password
      */
     public String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return await(hashPasswordAsync(password));
+    }
+    
+    /**
+     * Hash a password on the hashing pool
+     * @param password Plain text password
+     * @return Future completing with the hashed password
+     */
+    public CompletableFuture<String> hashPasswordAsync(String password) {
+        return targetCost.thenApplyAsync(cost -> BCrypt.hashpw(password, BCrypt.gensalt(cost)), hashPool);
     }
     
     /**
@@ -35,15 +113,145 @@ public class AuthenticationService {
      * @return true if password matches
      */
     public boolean verifyPassword(String password, String hashedPassword) {
-        return BCrypt.checkpw(password, hashedPassword);
+        return await(verifyPasswordAsync(password, hashedPassword));
     }
     
     /**
-     * Set current authenticated user
-     * @param user Current user
+     * Verify a password on the hashing pool
+     * @param password Plain text password
+     * @param hashedPassword Hashed password
+     * @return Future completing with true if password matches
+     * @throws IllegalStateException if too many logins are already waiting
+     */
+    public CompletableFuture<Boolean> verifyPasswordAsync(String password, String hashedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> BCrypt.checkpw(password, hashedPassword), hashPool);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Too many logins in progress, please try again");
+        }
+    }
+    
+    /**
+     * Check if a hash was made with a lower cost than this terminal now uses.
+     * Hashes are only ever upgraded, so terminals of different speeds sharing
+     * a database do not keep rehashing each other's passwords.
+     * @param hashedPassword Hashed password
+     * @return true if the password should be hashed again
      */
-    public void setCurrentUser(User user) {
-        this.currentUser = user;
+    public boolean needsRehash(String hashedPassword) {
+        // $2a$10$... carries the cost in the two digits after the version
+        if (hashedPassword == null || hashedPassword.length() < 7 || hashedPassword.charAt(0) != '$') {
+            return false;
+        }
+        try {
+            int cost = Integer.parseInt(hashedPassword.substring(4, 6));
+            return cost < await(targetCost);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Get the BCrypt cost used for new hashes on this terminal
+     * @return Cost factor
+     */
+    public int getTargetCost() {
+        return await(targetCost);
+    }
+    
+    /**
+     * Register a PIN the user can switch back onto this terminal with, until
+     * the PIN lifetime after this password login has passed
+     * @param user User who just logged in with a password
+     * @param pin Digits chosen by the user
+     * @throws IllegalArgumentException if the PIN is not 4 to 8 digits
+     */
+    public void registerPin(User user, String pin) {
+        if (!isValidPin(pin)) {
+            throw new IllegalArgumentException("PIN must be " + MIN_PIN_LENGTH + " to " + MAX_PIN_LENGTH + " digits");
+        }
+        byte[] salt = new byte[16];
+        random.nextBytes(salt);
+        quickSwitches.put(user.getUsername(), new QuickSwitch(user.getId(), salt, hashPin(pin, salt),
+            System.currentTimeMillis() + PIN_TTL_MILLIS));
+    }
+    
+    /**
+     * Check a quick switch PIN. A wrong PIN counts as a failure, and after three
+     * failures the PIN is forgotten so the user has to log in with a password.
+     * @param username Username
+     * @param pin PIN entered
+     * @return ID of the user, or null if no PIN is registered or it does not match
+     */
+    public Long verifyPin(String username, String pin) {
+        QuickSwitch entry = quickSwitches.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            quickSwitches.remove(username, entry);
+            return null;
+        }
+        if (pin != null && MessageDigest.isEqual(entry.pinHash, hashPin(pin, entry.salt))) {
+            entry.failures.set(0);
+            return entry.userId;
+        }
+        if (entry.failures.incrementAndGet() >= MAX_PIN_FAILURES) {
+            quickSwitches.remove(username, entry);
+            logger.warn("Quick switch PIN for {} dropped after {} failed attempts", username, MAX_PIN_FAILURES);
+        }
+        return null;
+    }
+    
+    /**
+     * Check if a user can currently switch in with a PIN
+     * @param username Username
+     * @return true if an unexpired PIN is registered
+     */
+    public boolean hasPin(String username) {
+        QuickSwitch entry = quickSwitches.get(username);
+        return entry != null && entry.expiresAt >= System.currentTimeMillis();
+    }
+    
+    /**
+     * Forget a user's quick switch PIN, e.g. after their password changed
+     * @param userId User ID
+     */
+    public void forgetPin(Long userId) {
+        quickSwitches.values().removeIf(entry -> entry.userId.equals(userId));
+    }
+    
+    /**
+     * Check if a PIN has the accepted form
+     * @param pin PIN to check
+     * @return true if the PIN is 4 to 8 digits
+     */
+    public static boolean isValidPin(String pin) {
+        return pin != null && pin.length() >= MIN_PIN_LENGTH && pin.length() <= MAX_PIN_LENGTH
+            && pin.chars().allMatch(c -> c >= '0' && c <= '9');
+    }
+    
+    /**
+     * Open a session for an authenticated user; it becomes this terminal's session
+     * @param user Authenticated user
+     * @return New session
+     */
+    public Session startSession(User user) {
+        Session session = sessions.open(user);
+        terminalSession.set(session);
+        return session;
+    }
+    
+    /**
+     * Get the session of the current user
+     * @return Session bound to this thread, else this terminal's session, or null if nobody is logged in
+     */
+    public Session getCurrentSession() {
+        Session session = SessionContext.current();
+        if (session == null) {
+            session = terminalSession.get();
+        }
+        return session != null && !session.isClosed() ? session : null;
     }
     
     /**
@@ -51,7 +259,8 @@ public class AuthenticationService {
      * @return Current user
      */
     public User getCurrentUser() {
-        return currentUser;
+        Session session = getCurrentSession();
+        return session != null ? session.getUser() : null;
     }
     
     /**
@@ -59,7 +268,7 @@ public class AuthenticationService {
      * @return true if user is logged in
      */
     public boolean isAuthenticated() {
-        return currentUser != null;
+        return getCurrentSession() != null;
     }
     
     /**
@@ -68,7 +277,8 @@ public class AuthenticationService {
      * @return true if user has role
      */
     public boolean hasRole(User.Role role) {
-        return isAuthenticated() && currentUser.getRole() == role;
+        Session session = getCurrentSession();
+        return session != null && session.hasRole(role);
     }
     
     /**
@@ -99,6 +309,88 @@ public class AuthenticationService {
      * Logout current user
      */
     public void logout() {
-        this.currentUser = null;
+        Session session = getCurrentSession();
+        if (session != null) {
+            logout(session);
+        }
+    }
+    
+    /**
+     * Logout the user of a session, leaving the other sessions logged in
+     * @param session Session to close
+     */
+    public void logout(Session session) {
+        if (!session.isClosed()) {
+            AuditService.getInstance().recordLogout(session.getUser());
+        }
+        sessions.close(session);
+        terminalSession.compareAndSet(session, null);
+    }
+    
+    /**
+     * Find the highest cost whose hash takes no longer than the target on this terminal
+     */
+    private static int calibrate(long targetMillis) {
+        // Warm up first, so the measurement is not inflated by the JIT; the PIN hash too, so the first switch is quick
+        BCrypt.hashpw("calibrate", BCrypt.gensalt(6));
+        hashPin("0000", new byte[16]);
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibrate", BCrypt.gensalt(MIN_COST));
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        
+        // Each step up in cost doubles the work
+        int cost = MIN_COST;
+        while (cost < MAX_COST && millis * 2 <= targetMillis) {
+            millis *= 2;
+            cost++;
+        }
+        logger.info("BCrypt cost {} for new password hashes (about {} ms, target {} ms)", cost, millis, targetMillis);
+        return cost;
+    }
+    
+    private static byte[] hashPin(String pin, byte[] salt) {
+        PBEKeySpec spec = new PBEKeySpec(pin.toCharArray(), salt, PIN_HASH_ITERATIONS, 256);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+    
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new IllegalStateException("Too many logins in progress, please try again");
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+    
+    /**
+     * A registered quick switch PIN
+     */
+    private static final class QuickSwitch {
+        private final Long userId;
+        private final byte[] salt;
+        private final byte[] pinHash;
+        private final long expiresAt;
+        private final AtomicInteger failures = new AtomicInteger();
+        
+        QuickSwitch(Long userId, byte[] salt, byte[] pinHash, long expiresAt) {
+            this.userId = userId;
+            this.salt = salt;
+            this.pinHash = pinHash;
+            this.expiresAt = expiresAt;
+        }
     }
 }
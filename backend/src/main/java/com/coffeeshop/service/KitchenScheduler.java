@@ -0,0 +1,220 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dao.MenuItemDAO;
+import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.dao.impl.MenuItemDAOImpl;
+import com.coffeeshop.dao.impl.OrderDAOImpl;
+import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.OrderItem;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Plans the kitchen queue from menu preparation times.
+ *
+ * Every active order is worth the preparation time of its items. An order is
+ * promised for its creation time plus that work, and NEW orders are taken
+ * earliest promise first, so quick orders slip in ahead of long ones. Each
+ * order is also moved ahead by its wait plus a boost that grows with the
+ * square of its wait, so every minute waited counts for more than the one
+ * before: of two queued orders the older one gains on the younger as time
+ * passes, and a large order passed over by a stream of quick ones soon
+ * reaches the front. The queue is then laid out over the kitchen's parallel
+ * prep lines to project when each order will be ready.
+ */
+public class KitchenScheduler {
+    private static KitchenScheduler instance;
+    
+    // Used for menu items without a preparation time
+    private static final int DEFAULT_PREP_MINUTES = 2;
+    
+    // An order that has waited this many minutes gets as many minutes of extra boost; the boost grows with the square of the wait
+    private static final double AGING_MINUTES = 10.0;
+    
+    // Menu prep times and active orders are re-read at most this often
+    private static final long CACHE_MILLIS = 15_000;
+    
+    private final OrderDAO orderDAO;
+    private final MenuItemDAO menuItemDAO;
+    private final int prepLines;
+    
+    private Map<Long, Integer> prepMinutesByMenuItem = new HashMap<>();
+    private List<Order> activeOrders = new ArrayList<>();
+    private long loadedAt;
+    
+    private KitchenScheduler() {
+        this.orderDAO = new OrderDAOImpl();
+        this.menuItemDAO = new MenuItemDAOImpl();
+        this.prepLines = Math.max(1, Integer.getInteger("coffeeshop.kitchen.lines", 2));
+    }
+    
+    public static synchronized KitchenScheduler getInstance() {
+        if (instance == null) {
+            instance = new KitchenScheduler();
+        }
+        return instance;
+    }
+    
+    /**
+     * Get the active orders in the order the kitchen should work on them:
+     * orders already in progress first, then the NEW queue by priority
+     */
+    public synchronized List<ScheduledOrder> getSchedule() throws SQLException {
+        reload(true);
+        return plan(activeOrders, LocalDateTime.now());
+    }
+    
+    /**
+     * Project how long a new order with these items would take to be ready,
+     * given the current kitchen queue
+     */
+    public synchronized Duration estimateWait(List<OrderItem> items) throws SQLException {
+        reload(false);
+        
+        LocalDateTime now = LocalDateTime.now();
+        Order candidate = new Order();
+        candidate.setStatus(Order.Status.NEW);
+        candidate.setCreatedAt(now);
+        candidate.setOrderItems(items);
+        
+        List<Order> orders = new ArrayList<>(activeOrders);
+        orders.add(candidate);
+        for (ScheduledOrder scheduled : plan(orders, now)) {
+            if (scheduled.getOrder() == candidate) {
+                return Duration.between(now, scheduled.getEstimatedReady());
+            }
+        }
+        return Duration.ZERO;
+    }
+    
+    /**
+     * Drop cached orders and prep times, e.g. after the menu changed
+     */
+    public synchronized void invalidate() {
+        loadedAt = 0;
+    }
+    
+    /**
+     * Minutes of kitchen work needed for an order
+     */
+    public synchronized int getWorkMinutes(Order order) {
+        int minutes = 0;
+        if (order.getOrderItems() != null) {
+            for (OrderItem item : order.getOrderItems()) {
+                int prep = prepMinutesByMenuItem.getOrDefault(item.getMenuItemId(), DEFAULT_PREP_MINUTES);
+                minutes += Math.max(1, item.getQuantity()) * prep;
+            }
+        }
+        return Math.max(1, minutes);
+    }
+    
+    private void reload(boolean forceOrders) throws SQLException {
+        long now = System.currentTimeMillis();
+        boolean stale = now - loadedAt > CACHE_MILLIS;
+        if (stale) {
+            Map<Long, Integer> prepMinutes = new HashMap<>();
+            for (MenuItem item : menuItemDAO.findAll()) {
+                prepMinutes.put(item.getId(), item.getPreparationTime() > 0 ? item.getPreparationTime() : DEFAULT_PREP_MINUTES);
+            }
+            prepMinutesByMenuItem = prepMinutes;
+        }
+        if (stale || forceOrders) {
+            activeOrders = orderDAO.findActiveOrders();
+            loadedAt = now;
+        }
+    }
+    
+    private List<ScheduledOrder> plan(List<Order> orders, LocalDateTime now) {
+        List<ScheduledOrder> inProgress = new ArrayList<>();
+        List<ScheduledOrder> queued = new ArrayList<>();
+        for (Order order : orders) {
+            int work = getWorkMinutes(order);
+            LocalDateTime created = order.getCreatedAt() != null ? order.getCreatedAt() : now;
+            ScheduledOrder scheduled = new ScheduledOrder(order, work, created.plusMinutes(work));
+            if (order.getStatus() == Order.Status.IN_PROGRESS) {
+                inProgress.add(scheduled);
+            } else {
+                queued.add(scheduled);
+            }
+        }
+        
+        queued.sort(Comparator.comparingDouble((ScheduledOrder s) -> priority(s, now))
+            .thenComparing(s -> s.getOrder().getCreatedAt(), Comparator.nullsLast(Comparator.naturalOrder())));
+        
+        // Each prep line becomes free at the time held in the queue
+        PriorityQueue<LocalDateTime> lines = new PriorityQueue<>();
+        for (int i = 0; i < prepLines; i++) {
+            lines.add(now);
+        }
+        
+        List<ScheduledOrder> schedule = new ArrayList<>(inProgress.size() + queued.size());
+        for (ScheduledOrder scheduled : inProgress) {
+            // Started when the status last changed; assume at least a minute is left
+            LocalDateTime started = scheduled.getOrder().getUpdatedAt() != null ? scheduled.getOrder().getUpdatedAt() : now;
+            long remaining = Math.max(1, scheduled.getWorkMinutes() - Duration.between(started, now).toMinutes());
+            LocalDateTime free = lines.poll();
+            scheduled.estimatedStart = started;
+            scheduled.estimatedReady = free.plusMinutes(remaining);
+            lines.add(scheduled.estimatedReady);
+            schedule.add(scheduled);
+        }
+        for (ScheduledOrder scheduled : queued) {
+            LocalDateTime free = lines.poll();
+            scheduled.estimatedStart = free;
+            scheduled.estimatedReady = free.plusMinutes(scheduled.getWorkMinutes());
+            lines.add(scheduled.estimatedReady);
+            schedule.add(scheduled);
+        }
+        return schedule;
+    }
+    
+    /**
+     * Sort key in minutes from now: the promised time, pulled forward by the square of the time waited
+     */
+    private static double priority(ScheduledOrder scheduled, LocalDateTime now) {
+        double promised = Duration.between(now, scheduled.getPromisedAt()).getSeconds() / 60.0;
+        LocalDateTime created = scheduled.getOrder().getCreatedAt() != null ? scheduled.getOrder().getCreatedAt() : now;
+        double waited = Math.max(0, Duration.between(created, now).getSeconds() / 60.0);
+        return promised - waited - waited * waited / AGING_MINUTES;
+    }
+    
+    /**
+     * An active order with its projected timing
+     */
+    public static final class ScheduledOrder {
+        private final Order order;
+        private final int workMinutes;
+        private final LocalDateTime promisedAt;
+        private LocalDateTime estimatedStart;
+        private LocalDateTime estimatedReady;
+        
+        ScheduledOrder(Order order, int workMinutes, LocalDateTime promisedAt) {
+            this.order = order;
+            this.workMinutes = workMinutes;
+            this.promisedAt = promisedAt;
+        }
+        
+        public Order getOrder() { return order; }
+        public int getWorkMinutes() { return workMinutes; }
+        public LocalDateTime getPromisedAt() { return promisedAt; }
+        public LocalDateTime getEstimatedStart() { return estimatedStart; }
+        public LocalDateTime getEstimatedReady() { return estimatedReady; }
+        
+        /**
+         * Check if the order is projected to miss its promised time by at least a minute
+         */
+        public boolean isLate() {
+            return estimatedReady.truncatedTo(ChronoUnit.MINUTES).isAfter(promisedAt.truncatedTo(ChronoUnit.MINUTES));
+        }
+    }
+}
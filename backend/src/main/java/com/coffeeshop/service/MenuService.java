@@ -1,10 +1,14 @@
 package com.coffeeshop.service;
 
+import com.coffeeshop.audit.AuditEvent;
 import com.coffeeshop.dao.MenuItemDAO;
 import com.coffeeshop.dao.impl.MenuItemDAOImpl;
 import com.coffeeshop.dao.impl.CategoryDAOImpl;
 import com.coffeeshop.model.Category;
 import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.search.MenuSearchIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,19 +20,36 @@ import java.util.List;
  */
 public class MenuService {
     private static final Logger logger = LoggerFactory.getLogger(MenuService.class);
+    private static final int SEARCH_RESULT_LIMIT = 100;
     private final MenuItemDAO menuItemDAO;
     private final CategoryDAOImpl categoryDAO;
+    private final MenuSearchIndex searchIndex;
+    private final ChangeNotifier changeNotifier;
+    private final AuditService auditService;
     
     public MenuService() {
         this.menuItemDAO = new MenuItemDAOImpl();
         this.categoryDAO = new CategoryDAOImpl();
+        this.searchIndex = MenuSearchIndex.getInstance();
+        this.changeNotifier = ChangeNotifier.getInstance();
+        this.auditService = AuditService.getInstance();
     }
     
     /**
      * Get all menu items with category information
      */
     public List<MenuItem> getAllMenuItems() throws SQLException {
-        return menuItemDAO.findAllWithCategory();
+        List<MenuItem> items = menuItemDAO.findAllWithCategory();
+        // The full catalog was just read anyway, so pick up changes made on other terminals
+        searchIndex.rebuild(items);
+        return items;
+    }
+    
+    /**
+     * Reload the catalog into the search index
+     */
+    public void refreshSearchIndex() throws SQLException {
+        searchIndex.rebuild(menuItemDAO.findAllWithCategory());
     }
     
     /**
@@ -59,6 +80,9 @@ public class MenuService {
     public MenuItem createMenuItem(MenuItem menuItem) throws SQLException {
         validateMenuItem(menuItem);
         MenuItem created = menuItemDAO.save(menuItem);
+        refreshSearchIndex();
+        changeNotifier.publish(ChangeEvent.Entity.MENU, created.getId());
+        auditService.recordMenuChange(AuditEvent.Type.MENU_ITEM_CREATED, created.getId(), created.getName());
         logger.info("Menu item created: {}", created.getName());
         return created;
     }
@@ -69,6 +93,9 @@ public class MenuService {
     public void updateMenuItem(MenuItem menuItem) throws SQLException {
         validateMenuItem(menuItem);
         menuItemDAO.update(menuItem);
+        refreshSearchIndex();
+        changeNotifier.publish(ChangeEvent.Entity.MENU, menuItem.getId());
+        auditService.recordMenuChange(AuditEvent.Type.MENU_ITEM_UPDATED, menuItem.getId(), menuItem.getName());
         logger.info("Menu item updated: {}", menuItem.getName());
     }
     
@@ -77,6 +104,9 @@ public class MenuService {
      */
     public void deleteMenuItem(Long id) throws SQLException {
         menuItemDAO.deleteById(id);
+        refreshSearchIndex();
+        changeNotifier.publish(ChangeEvent.Entity.MENU, id);
+        auditService.recordMenuChange(AuditEvent.Type.MENU_ITEM_DELETED, id, null);
         logger.info("Menu item deleted with ID: {}", id);
     }
     
@@ -85,14 +115,29 @@ public class MenuService {
      */
     public void updateMenuItemAvailability(Long id, boolean available) throws SQLException {
         menuItemDAO.updateAvailability(id, available);
+        refreshSearchIndex();
+        changeNotifier.publish(ChangeEvent.Entity.MENU, id);
+        auditService.recordMenuChange(AuditEvent.Type.MENU_ITEM_AVAILABILITY_CHANGED, id,
+            available ? "Available" : "Unavailable");
         logger.info("Menu item availability updated for ID: {} to {}", id, available);
     }
     
     /**
-     * Search menu items by name
+     * Search menu items by name, category and description, best matches first.
+     * Tolerates partial words, missing accents and small typos.
      */
-    public List<MenuItem> searchMenuItems(String name) throws SQLException {
-        return menuItemDAO.findByNameContaining(name);
+    public List<MenuItem> searchMenuItems(String query) throws SQLException {
+        return searchMenuItems(query, false);
+    }
+    
+    /**
+     * Search menu items, optionally only those currently available
+     */
+    public List<MenuItem> searchMenuItems(String query, boolean availableOnly) throws SQLException {
+        if (!searchIndex.isBuilt()) {
+            refreshSearchIndex();
+        }
+        return searchIndex.search(query, availableOnly, SEARCH_RESULT_LIMIT);
     }
     
     /**
@@ -115,6 +160,9 @@ public class MenuService {
     public Category createCategory(Category category) throws SQLException {
         validateCategory(category);
         Category created = categoryDAO.save(category);
+        // Category changes affect many items
+        changeNotifier.publish(ChangeEvent.Entity.MENU, null);
+        auditService.recordMenuChange(AuditEvent.Type.CATEGORY_CREATED, created.getId(), created.getName());
         logger.info("Category created: {}", created.getName());
         return created;
     }
@@ -125,6 +173,10 @@ public class MenuService {
     public void updateCategory(Category category) throws SQLException {
         validateCategory(category);
         categoryDAO.update(category);
+        // Category names are searchable
+        refreshSearchIndex();
+        changeNotifier.publish(ChangeEvent.Entity.MENU, null);
+        auditService.recordMenuChange(AuditEvent.Type.CATEGORY_UPDATED, category.getId(), category.getName());
         logger.info("Category updated: {}", category.getName());
     }
     
@@ -139,6 +191,8 @@ public class MenuService {
         }
         
         categoryDAO.deleteById(id);
+        changeNotifier.publish(ChangeEvent.Entity.MENU, null);
+        auditService.recordMenuChange(AuditEvent.Type.CATEGORY_DELETED, id, null);
         logger.info("Category deleted with ID: {}", id);
     }
     
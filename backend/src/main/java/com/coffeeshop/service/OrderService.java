@@ -1,32 +1,180 @@
 package com.coffeeshop.service;
 
+import com.coffeeshop.dao.OptimisticLockException;
 import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.dao.impl.ChangeOutboxDAOImpl;
 import com.coffeeshop.dao.impl.OrderDAOImpl;
+import com.coffeeshop.journal.JournalEntry;
+import com.coffeeshop.journal.JournalReplayer;
+import com.coffeeshop.journal.OrderJournal;
 import com.coffeeshop.model.Order;
 import com.coffeeshop.model.OrderItem;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.notify.OutboxRelay;
+import com.coffeeshop.search.OrderSearchIndex;
+import com.coffeeshop.session.SessionContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * Service class for order-related business operations
  */
 public class OrderService {
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    
+    // Commutative edits are re-applied to a fresh copy this many times before the conflict is surfaced
+    private static final int MAX_CONFLICT_RETRIES = 5;
+    
+    // Shared by all OrderService instances once enabled, so every panel's status changes coalesce together
+    private static volatile StatusGroupCommitter statusCommitter;
+    
+    // Offline capture, see enableOfflineJournal
+    private static volatile OrderJournal journal;
+    private static volatile JournalReplayer journalReplayer;
+    private static volatile long journalDbTimeoutMillis;
+    private static final ExecutorService journalSaveExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "order-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Upper bound on results returned by the in-memory order search
+    private static final int SEARCH_RESULT_LIMIT = 200;
+    private static volatile int searchWindowDays;
+    
+    // Announces order changes committed to the outbox, see enableOutboxRelay
+    private static volatile OutboxRelay outboxRelay;
+    
     private final OrderDAO orderDAO;
+    private final OrderSearchIndex searchIndex;
+    private final AuditService auditService;
     
     public OrderService() {
         this.orderDAO = new OrderDAOImpl();
+        this.searchIndex = OrderSearchIndex.getInstance();
+        this.auditService = AuditService.getInstance();
+    }
+    
+    /**
+     * Load orders from the last {@code windowDays} days into the in-memory
+     * search index. Until this completes, searches go to the database.
+     */
+    public static void rebuildSearchIndex(int windowDays) throws SQLException {
+        searchWindowDays = windowDays;
+        OrderSearchIndex.getInstance().rebuild(new OrderDAOImpl(), windowDays);
     }
     
     /**
-     * Create a new order
+     * Route status updates through a group-commit writer that batches changes
+     * arriving within the given window into one transaction
+     */
+    public static synchronized void enableStatusGroupCommit(long windowMillis, int maxBatchSize) {
+        if (statusCommitter == null) {
+            statusCommitter = new StatusGroupCommitter(new OrderDAOImpl(), windowMillis, maxBatchSize);
+            logger.info("Status group commit enabled ({} ms window, max {} changes)", windowMillis, maxBatchSize);
+        }
+    }
+    
+    /**
+     * Flush and stop the group-commit writer, if enabled
+     */
+    public static synchronized void disableStatusGroupCommit() {
+        if (statusCommitter != null) {
+            statusCommitter.close();
+            statusCommitter = null;
+        }
+    }
+    
+    /**
+     * Announce order changes through the change outbox. This terminal's
+     * changes go out as soon as they commit; the outbox is also checked every
+     * {@code intervalMillis} for changes another terminal committed but did
+     * not get to announce.
+     */
+    public static synchronized void enableOutboxRelay(long intervalMillis) {
+        if (outboxRelay == null) {
+            ChangeOutboxDAOImpl.setOrigin(ChangeNotifier.getInstance().getOrigin());
+            outboxRelay = new OutboxRelay(new ChangeOutboxDAOImpl(), ChangeNotifier.getInstance(), intervalMillis);
+        }
+    }
+    
+    /**
+     * Announce what is left in the outbox and stop the relay, if enabled
+     */
+    public static synchronized void disableOutboxRelay() {
+        if (outboxRelay != null) {
+            outboxRelay.close();
+            outboxRelay = null;
+        }
+    }
+    
+    /**
+     * Announce order changes just committed rather than at the relay's next check
+     */
+    public static void announceChanges() {
+        OutboxRelay relay = outboxRelay;
+        if (relay != null) {
+            relay.wake();
+        }
+    }
+    
+    /**
+     * Capture orders and status changes in a local journal whenever the
+     * database is unreachable or slower than {@code dbTimeoutMillis}, and
+     * replay them in the background once it responds again
+     */
+    public static synchronized void enableOfflineJournal(Path directory, long dbTimeoutMillis) throws IOException {
+        if (journal == null) {
+            journal = new OrderJournal(directory);
+            journalDbTimeoutMillis = dbTimeoutMillis;
+            journalReplayer = new JournalReplayer(journal, new OrderDAOImpl(), 5000);
+            journalReplayer.drain();
+        }
+    }
+    
+    /**
+     * Replay what is possible and close the journal, if enabled
+     */
+    public static synchronized void disableOfflineJournal() {
+        if (journal != null) {
+            journalReplayer.close();
+            try {
+                journal.close();
+            } catch (IOException e) {
+                logger.error("Error closing order journal", e);
+            }
+            journal = null;
+            journalReplayer = null;
+        }
+    }
+    
+    /**
+     * Create a new order. With the offline journal enabled, an order the
+     * database cannot take in time is journaled and returned without an ID;
+     * it reaches the database once the journal is replayed.
      */
     public Order createOrder(Order order) throws SQLException {
         try {
@@ -48,7 +196,15 @@ public class OrderService {
             // Calculate total amount
             calculateOrderTotal(order);
             
+            OrderJournal currentJournal = journal;
+            if (currentJournal != null) {
+                return saveOrJournal(order, currentJournal);
+            }
+            
             Order savedOrder = orderDAO.save(order);
+            searchIndex.index(savedOrder);
+            announceChanges();
+            auditService.recordOrderCreated(savedOrder);
             logger.info("Created new order: {}", savedOrder.getOrderNumber());
             return savedOrder;
             
@@ -58,19 +214,234 @@ public class OrderService {
         }
     }
     
+    /**
+     * Create many orders at once, e.g. when importing pre-orders
+     */
+    public List<Order> createOrders(List<Order> orders) throws SQLException {
+        try {
+            for (Order order : orders) {
+                if (order.getStatus() == null) {
+                    order.setStatus(Order.Status.NEW);
+                }
+                calculateOrderTotal(order);
+            }
+            
+            List<Order> savedOrders = orderDAO.saveAll(orders);
+            savedOrders.forEach(searchIndex::index);
+            announceChanges();
+            savedOrders.forEach(auditService::recordOrderCreated);
+            logger.info("Created {} orders in bulk", savedOrders.size());
+            return savedOrders;
+            
+        } catch (SQLException e) {
+            logger.error("Error creating orders in bulk", e);
+            throw e;
+        }
+    }
+    
+    private Order saveOrJournal(Order order, OrderJournal currentJournal) throws SQLException {
+        // The save works on a copy, so a save finishing after we give up never changes the order we return
+        Order copy = copyForSave(order);
+        Future<Order> pendingSave = journalSaveExecutor.submit(() -> orderDAO.save(copy));
+        try {
+            pendingSave.get(journalDbTimeoutMillis, TimeUnit.MILLISECONDS);
+            order.setId(copy.getId());
+            for (int i = 0; i < order.getOrderItems().size(); i++) {
+                OrderItem item = order.getOrderItems().get(i);
+                item.setId(copy.getOrderItems().get(i).getId());
+                item.setOrderId(copy.getId());
+            }
+            order.markItemsPersisted();
+            searchIndex.index(order);
+            announceChanges();
+            auditService.recordOrderCreated(order);
+            logger.info("Created new order: {}", order.getOrderNumber());
+            return order;
+        } catch (TimeoutException e) {
+            // The save may still finish; replay skips the order if it does
+            pendingSave.cancel(true);
+            logger.warn("Database slow, journaling order {}", order.getOrderNumber());
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof SQLException) || !isConnectivityFailure((SQLException) e.getCause())) {
+                throw e.getCause() instanceof SQLException
+                    ? (SQLException) e.getCause() : new SQLException("Error saving order", e.getCause());
+            }
+            logger.warn("Database unavailable, journaling order {}", order.getOrderNumber());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while saving order", e);
+        }
+        
+        journalOrThrow(currentJournal, JournalEntry.orderCreated(order));
+        auditService.recordOrderCreated(order);
+        return order;
+    }
+    
+    private static Order copyForSave(Order order) {
+        Order copy = new Order(order.getOrderNumber(), order.getTableId(), order.getCustomerName(), order.getWaiterId());
+        copy.setStatus(order.getStatus());
+        copy.setTotalAmount(order.getTotalAmount());
+        copy.setNotes(order.getNotes());
+        copy.setCreatedAt(order.getCreatedAt());
+        copy.setUpdatedAt(order.getUpdatedAt());
+        List<OrderItem> items = new ArrayList<>(order.getOrderItems().size());
+        for (OrderItem item : order.getOrderItems()) {
+            OrderItem itemCopy = new OrderItem();
+            itemCopy.setMenuItemId(item.getMenuItemId());
+            itemCopy.setMenuItemName(item.getMenuItemName());
+            itemCopy.setQuantity(item.getQuantity());
+            itemCopy.setUnitPrice(item.getUnitPrice());
+            itemCopy.setTotalPrice(item.getTotalPrice());
+            itemCopy.setSpecialInstructions(item.getSpecialInstructions());
+            items.add(itemCopy);
+        }
+        copy.setOrderItems(items);
+        return copy;
+    }
+    
+    private void journalOrThrow(OrderJournal currentJournal, JournalEntry entry) throws SQLException {
+        try {
+            currentJournal.append(entry);
+        } catch (IOException e) {
+            throw new SQLException("Database unavailable and order journal write failed", e);
+        }
+    }
+    
+    /**
+     * Check if an error means the database could not be reached, as opposed
+     * to rejecting the statement
+     */
+    public static boolean isConnectivityFailure(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException || t instanceof SQLTimeoutException) {
+                return true;
+            }
+            if (t instanceof SQLException) {
+                String state = ((SQLException) t).getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
     /**
      * Update order status
      */
     public void updateOrderStatus(Long orderId, Order.Status status, Long changedBy) throws SQLException {
+        OrderJournal currentJournal = journal;
+        if (currentJournal != null && currentJournal.hasPending()) {
+            // Keep changes in order behind the ones still waiting for replay
+            journalOrThrow(currentJournal, JournalEntry.statusChanged(orderId, status, changedBy));
+            auditService.recordStatusChanged(orderId, status, changedBy);
+            logger.info("Journaled order {} status {} for replay", orderId, status);
+            return;
+        }
+        
         try {
-            orderDAO.updateStatus(orderId, status, changedBy);
+            writeStatus(orderId, status, changedBy, currentJournal != null);
+            searchIndex.updateStatus(orderId, status);
+            announceChanges();
+            auditService.recordStatusChanged(orderId, status, changedBy);
             logger.info("Updated order {} status to {}", orderId, status);
+        } catch (TimeoutException e) {
+            // The write may still commit; replaying the change then sets the same status again
+            journalOrThrow(currentJournal, JournalEntry.statusChanged(orderId, status, changedBy));
+            auditService.recordStatusChanged(orderId, status, changedBy);
+            logger.warn("Database slow, journaled order {} status {}", orderId, status);
         } catch (SQLException e) {
+            if (currentJournal != null && isConnectivityFailure(e)) {
+                journalOrThrow(currentJournal, JournalEntry.statusChanged(orderId, status, changedBy));
+                auditService.recordStatusChanged(orderId, status, changedBy);
+                logger.warn("Database unavailable, journaled order {} status {}", orderId, status);
+                return;
+            }
             logger.error("Error updating order status", e);
             throw e;
         }
     }
     
+    /**
+     * Update order status without blocking the caller. The future completes
+     * once the change is committed, or journaled when the offline journal is
+     * on and the database cannot take it.
+     */
+    public CompletableFuture<Void> updateOrderStatusAsync(Long orderId, Order.Status status, Long changedBy) {
+        StatusGroupCommitter committer = statusCommitter;
+        if (committer != null && journal == null) {
+            return committer.submit(orderId, status, changedBy)
+                .thenRun(() -> {
+                    searchIndex.updateStatus(orderId, status);
+                    announceChanges();
+                    auditService.recordStatusChanged(orderId, status, changedBy);
+                });
+        }
+        
+        // Off the caller's thread, and through updateOrderStatus so changes stay
+        // behind journaled ones and the database wait is bounded
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        journalSaveExecutor.execute(SessionContext.wrap(() -> {
+            try {
+                updateOrderStatus(orderId, status, changedBy);
+                future.complete(null);
+            } catch (SQLException e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+    
+    /**
+     * Write a status change, through the group committer if it is on
+     * @param bounded Give up after the journal's database timeout, as creates do
+     * @throws TimeoutException if bounded and the database took longer
+     */
+    private void writeStatus(Long orderId, Order.Status status, Long changedBy, boolean bounded)
+            throws SQLException, TimeoutException {
+        StatusGroupCommitter committer = statusCommitter;
+        if (!bounded) {
+            if (committer != null) {
+                awaitCommit(committer.submit(orderId, status, changedBy));
+            } else {
+                orderDAO.updateStatus(orderId, status, changedBy);
+            }
+            return;
+        }
+        
+        // Otherwise a click waits out the pool's connection timeout before reaching the journal
+        Future<?> pendingWrite = committer != null
+            ? committer.submit(orderId, status, changedBy)
+            : journalSaveExecutor.submit(() -> {
+                orderDAO.updateStatus(orderId, status, changedBy);
+                return null;
+            });
+        try {
+            pendingWrite.get(journalDbTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pendingWrite.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SQLException
+                ? (SQLException) e.getCause() : new SQLException("Status update failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while updating order status", e);
+        }
+    }
+    
+    private void awaitCommit(CompletableFuture<Void> future) throws SQLException {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Status update failed", e.getCause());
+        }
+    }
+    
     /**
      * Get order by ID
      */
@@ -194,20 +565,9 @@ public class OrderService {
      */
     public void addItemToOrder(Long orderId, OrderItem item) throws SQLException {
         try {
-            Optional<Order> orderOpt = orderDAO.findById(orderId);
-            if (orderOpt.isPresent()) {
-                Order order = orderOpt.get();
-                order.getOrderItems().add(item);
-                item.setOrderId(orderId);
-                
-                // Recalculate total
-                calculateOrderTotal(order);
-                
-                orderDAO.update(order);
-                logger.info("Added item to order {}: {}", orderId, item.getMenuItemName());
-            } else {
-                throw new SQLException("Order not found with ID: " + orderId);
-            }
+            item.setOrderId(orderId);
+            modifyOrder(orderId, order -> order.getOrderItems().add(item));
+            logger.info("Added item to order {}: {}", orderId, item.getMenuItemName());
         } catch (SQLException e) {
             logger.error("Error adding item to order", e);
             throw e;
@@ -219,21 +579,55 @@ public class OrderService {
      */
     public void removeItemFromOrder(Long orderId, Long itemId) throws SQLException {
         try {
-            Optional<Order> orderOpt = orderDAO.findById(orderId);
-            if (orderOpt.isPresent()) {
-                Order order = orderOpt.get();
-                order.getOrderItems().removeIf(item -> item.getId().equals(itemId));
-                
-                // Recalculate total
-                calculateOrderTotal(order);
-                
+            // Removing an item that another terminal already removed is a no-op, so this merges cleanly too
+            modifyOrder(orderId, order -> order.getOrderItems().removeIf(item -> itemId.equals(item.getId())));
+            logger.info("Removed item from order {}: {}", orderId, itemId);
+        } catch (SQLException e) {
+            logger.error("Error removing item from order", e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Apply a commutative change to the latest copy of an order and save it with a
+     * version check. When another terminal wins the race the order is re-read and the
+     * change re-applied, so no locks are held while the user is editing.
+     */
+    private void modifyOrder(Long orderId, Consumer<Order> change) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            Order order = orderDAO.findById(orderId)
+                .orElseThrow(() -> new SQLException("Order not found with ID: " + orderId));
+            change.accept(order);
+            calculateOrderTotal(order);
+            
+            try {
                 orderDAO.update(order);
-                logger.info("Removed item from order {}: {}", orderId, itemId);
-            } else {
-                throw new SQLException("Order not found with ID: " + orderId);
+                searchIndex.index(order);
+                announceChanges();
+                return;
+            } catch (OptimisticLockException e) {
+                if (attempt >= MAX_CONFLICT_RETRIES) {
+                    throw e;
+                }
+                logger.info("Order {} changed concurrently, retrying ({}/{})", orderId, attempt, MAX_CONFLICT_RETRIES);
             }
+        }
+    }
+    
+    /**
+     * Save edits made to a previously loaded order. Unlike item additions and removals,
+     * a whole-order edit cannot be merged automatically, so a concurrent change surfaces
+     * as an {@link OptimisticLockException} and the caller should reload.
+     */
+    public void updateOrder(Order order) throws SQLException {
+        try {
+            calculateOrderTotal(order);
+            orderDAO.update(order);
+            searchIndex.index(order);
+            announceChanges();
+            logger.info("Updated order: {}", order.getId());
         } catch (SQLException e) {
-            logger.error("Error removing item from order", e);
+            logger.error("Error updating order", e);
             throw e;
         }
     }
@@ -258,6 +652,8 @@ public class OrderService {
     public void deleteOrder(Long orderId) throws SQLException {
         try {
             orderDAO.deleteById(orderId);
+            searchIndex.remove(orderId);
+            announceChanges();
             logger.info("Deleted order: {}", orderId);
         } catch (SQLException e) {
             logger.error("Error deleting order", e);
@@ -266,9 +662,36 @@ public class OrderService {
     }
     
     /**
-     * Search orders
+     * Bring the search index up to date with an order another terminal changed
+     * @param orderId Changed order, or null if several changed
+     */
+    public void reindexOrder(Long orderId) throws SQLException {
+        if (!searchIndex.isReady()) {
+            // The running build reads the change anyway
+            return;
+        }
+        if (orderId == null) {
+            searchIndex.rebuild(orderDAO, searchWindowDays);
+            return;
+        }
+        
+        Optional<Order> order = orderDAO.findById(orderId);
+        if (order.isPresent()) {
+            searchIndex.index(order.get());
+        } else {
+            searchIndex.remove(orderId);
+        }
+    }
+    
+    /**
+     * Search recent orders by order number, customer, table or item name,
+     * best matches first. Served from the in-memory index once it is built;
+     * use {@link #searchArchivedOrders(String)} for older orders.
      */
     public List<Order> searchOrders(String searchTerm) throws SQLException {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(searchTerm, SEARCH_RESULT_LIMIT);
+        }
         try {
             return orderDAO.searchOrders(searchTerm);
         } catch (SQLException e) {
@@ -276,4 +699,21 @@ public class OrderService {
             throw e;
         }
     }
+    
+    /**
+     * Search orders older than the in-memory index window in the database.
+     * Empty while the index is still building, since {@link #searchOrders(String)}
+     * then covers every order already.
+     */
+    public List<Order> searchArchivedOrders(String searchTerm) throws SQLException {
+        if (!searchIndex.isReady()) {
+            return new ArrayList<>();
+        }
+        try {
+            return orderDAO.searchOrdersBefore(searchTerm, searchIndex.getWindowStart());
+        } catch (SQLException e) {
+            logger.error("Error searching archived orders with term: {}", searchTerm, e);
+            throw e;
+        }
+    }
 }
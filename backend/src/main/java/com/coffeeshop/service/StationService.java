@@ -0,0 +1,82 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dao.StationTicketDAO;
+import com.coffeeshop.dao.impl.StationTicketDAOImpl;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.Station;
+import com.coffeeshop.model.StationTicket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Service class for the per-station kitchen queues.
+ *
+ * Each order is split into one ticket per station that prepares its items.
+ * Stations work through their own tickets, and the order follows along: it
+ * is IN_PROGRESS once any station starts on it and READY once every station
+ * has finished.
+ */
+public class StationService {
+    private static final Logger logger = LoggerFactory.getLogger(StationService.class);
+    
+    private final StationTicketDAO stationTicketDAO;
+    private final OrderService orderService;
+    
+    public StationService() {
+        this.stationTicketDAO = new StationTicketDAOImpl();
+        this.orderService = new OrderService();
+    }
+    
+    /**
+     * Get the tickets a station still has to prepare, oldest first
+     */
+    public List<StationTicket> getOpenTickets(Station station) throws SQLException {
+        try {
+            return stationTicketDAO.findOpenByStation(station);
+        } catch (SQLException e) {
+            logger.error("Error getting open tickets for station: {}", station, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Get the tickets an order was split into
+     */
+    public List<StationTicket> getTicketsForOrder(Long orderId) throws SQLException {
+        try {
+            return stationTicketDAO.findByOrder(orderId);
+        } catch (SQLException e) {
+            logger.error("Error getting station tickets for order: {}", orderId, e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Update a ticket's status and carry the change over to its order
+     */
+    public void updateTicketStatus(StationTicket ticket, StationTicket.Status status, Long changedBy) throws SQLException {
+        try {
+            stationTicketDAO.updateStatus(ticket.getId(), status);
+            ticket.setStatus(status);
+            
+            if (status == StationTicket.Status.IN_PROGRESS) {
+                Order order = orderService.getOrderById(ticket.getOrderId()).orElse(null);
+                if (order != null && order.getStatus() == Order.Status.NEW) {
+                    orderService.updateOrderStatus(order.getId(), Order.Status.IN_PROGRESS, changedBy);
+                }
+            } else if (status == StationTicket.Status.READY
+                    && stationTicketDAO.countUnfinished(ticket.getOrderId()) == 0) {
+                orderService.updateOrderStatus(ticket.getOrderId(), Order.Status.READY, changedBy);
+                logger.info("All stations finished order {}", ticket.getOrderNumber());
+            }
+            // Other terminals at the same station drop or update the ticket
+            OrderService.announceChanges();
+        } catch (SQLException e) {
+            logger.error("Error updating station ticket status", e);
+            throw e;
+        }
+    }
+}
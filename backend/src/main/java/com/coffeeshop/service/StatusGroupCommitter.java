@@ -0,0 +1,163 @@
+package com.coffeeshop.service;
+
+import com.coffeeshop.dao.OrderDAO;
+import com.coffeeshop.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for order status changes.
+ *
+ * Status changes arriving within a short window are collected by a single
+ * worker thread and written in one batched transaction. When the same order
+ * changes more than once inside a window only its last status is written.
+ * Each caller's future completes only after that transaction has committed,
+ * so acknowledging a change still means it is durable.
+ */
+public class StatusGroupCommitter implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StatusGroupCommitter.class);
+    
+    private final OrderDAO orderDAO;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingStatus> queue = new LinkedBlockingQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    
+    public StatusGroupCommitter(OrderDAO orderDAO, long windowMillis, int maxBatchSize) {
+        this.orderDAO = orderDAO;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.worker = new Thread(this::run, "status-group-commit");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+    
+    /**
+     * Queue a status change
+     * @return Future completed once the change is committed, or completed
+     *         exceptionally with the {@link SQLException} that aborted its batch
+     */
+    public CompletableFuture<Void> submit(Long orderId, Order.Status status, Long changedBy) {
+        PendingStatus pending = new PendingStatus(orderId, status, changedBy);
+        // Checked and queued under the lock close() takes, so nothing is queued after the final flush
+        synchronized (this) {
+            if (!running) {
+                pending.future.completeExceptionally(new SQLException("Status writer is closed"));
+                return pending.future;
+            }
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+    
+    private void run() {
+        List<PendingStatus> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingStatus first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Keep collecting until the window closes or the batch is full
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingStatus next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+        
+        // Never leave a caller waiting forever
+        synchronized (this) {
+            running = false;
+        }
+        PendingStatus leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new SQLException("Status writer stopped before commit"));
+        }
+    }
+    
+    private void commit(List<PendingStatus> batch) {
+        // Later transitions of the same order replace earlier ones
+        Map<Long, Order.Status> statuses = new LinkedHashMap<>();
+        for (PendingStatus pending : batch) {
+            statuses.put(pending.orderId, pending.status);
+        }
+        
+        try {
+            orderDAO.updateStatuses(statuses);
+            for (PendingStatus pending : batch) {
+                logger.debug("Order {} status {} committed (changed by {})", pending.orderId, pending.status, pending.changedBy);
+                pending.future.complete(null);
+            }
+            logger.debug("Group commit of {} status changes for {} orders", batch.size(), statuses.size());
+        } catch (SQLException e) {
+            logger.error("Group commit of {} status changes failed", batch.size(), e);
+            for (PendingStatus pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        } catch (RuntimeException e) {
+            // Keep the worker alive for the next batch
+            logger.error("Group commit of {} status changes failed", batch.size(), e);
+            for (PendingStatus pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+    
+    /**
+     * Stop accepting changes and flush everything already queued
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            running = false;
+        }
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static final class PendingStatus {
+        final Long orderId;
+        final Order.Status status;
+        final Long changedBy;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        PendingStatus(Long orderId, Order.Status status, Long changedBy) {
+            this.orderId = orderId;
+            this.status = status;
+            this.changedBy = changedBy;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.coffeeshop.service;
 import com.coffeeshop.dao.TableDAO;
 import com.coffeeshop.dao.impl.TableDAOImpl;
 import com.coffeeshop.model.Table;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,9 +18,11 @@ import java.util.Optional;
 public class TableService {
     private static final Logger logger = LoggerFactory.getLogger(TableService.class);
     private final TableDAO tableDAO;
+    private final ChangeNotifier changeNotifier;
     
     public TableService() {
         this.tableDAO = new TableDAOImpl();
+        this.changeNotifier = ChangeNotifier.getInstance();
     }
     
     /**
@@ -33,6 +37,7 @@ public class TableService {
             }
             
             Table savedTable = tableDAO.save(table);
+            changeNotifier.publish(ChangeEvent.Entity.TABLE, savedTable.getId());
             logger.info("Created new table: {}", savedTable.getTableNumber());
             return savedTable;
             
@@ -59,6 +64,7 @@ public class TableService {
             }
             
             tableDAO.update(table);
+            changeNotifier.publish(ChangeEvent.Entity.TABLE, table.getId());
             logger.info("Updated table: {}", table.getTableNumber());
             return table;
             
@@ -146,6 +152,7 @@ public class TableService {
     public void activateTable(Long tableId) throws SQLException {
         try {
             tableDAO.updateStatus(tableId, true);
+            changeNotifier.publish(ChangeEvent.Entity.TABLE, tableId);
             logger.info("Activated table with ID: {}", tableId);
         } catch (SQLException e) {
             logger.error("Error activating table", e);
@@ -159,6 +166,7 @@ public class TableService {
     public void deactivateTable(Long tableId) throws SQLException {
         try {
             tableDAO.updateStatus(tableId, false);
+            changeNotifier.publish(ChangeEvent.Entity.TABLE, tableId);
             logger.info("Deactivated table with ID: {}", tableId);
         } catch (SQLException e) {
             logger.error("Error deactivating table", e);
@@ -177,6 +185,7 @@ public class TableService {
             }
             
             tableDAO.deleteById(tableId);
+            changeNotifier.publish(ChangeEvent.Entity.TABLE, tableId);
             logger.info("Deleted table with ID: {}", tableId);
         } catch (SQLException e) {
             logger.error("Error deleting table", e);
@@ -3,6 +3,7 @@ package com.coffeeshop.service;
 import com.coffeeshop.dao.UserDAO;
 import com.coffeeshop.dao.impl.UserDAOImpl;
 import com.coffeeshop.model.User;
+import com.coffeeshop.session.SessionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,10 +18,12 @@ public class UserService {
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final UserDAO userDAO;
     private final AuthenticationService authService;
+    private final AuditService auditService;
     
     public UserService() {
         this.userDAO = new UserDAOImpl();
         this.authService = AuthenticationService.getInstance();
+        this.auditService = AuditService.getInstance();
     }
     
     /**
@@ -35,24 +38,73 @@ public class UserService {
         Optional<User> userOpt = userDAO.findByUsername(username);
         
         if (userOpt.isEmpty()) {
+            auditService.recordFailedLogin(username, "Unknown user");
             throw new IllegalArgumentException("Invalid username or password");
         }
         
         User user = userOpt.get();
         
         if (!user.isActive()) {
+            auditService.recordFailedLogin(username, "Account disabled");
             throw new IllegalArgumentException("User account is disabled");
         }
         
         if (!authService.verifyPassword(password, user.getPassword())) {
+            auditService.recordFailedLogin(username, "Wrong password");
             throw new IllegalArgumentException("Invalid username or password");
         }
         
-        authService.setCurrentUser(user);
+        if (authService.needsRehash(user.getPassword())) {
+            upgradePasswordHash(user.getId(), user.getPassword(), password);
+        }
+        
+        authService.startSession(user);
+        auditService.recordLogin(user, false);
         logger.info("User authenticated successfully: {}", username);
         return user;
     }
     
+    /**
+     * Switch a user back in with the PIN they registered on this terminal
+     * @param username Username
+     * @param pin Quick switch PIN
+     * @return User if the PIN matches
+     * @throws SQLException if database error occurs
+     * @throws IllegalArgumentException if there is no valid PIN or it does not match
+     */
+    public User authenticateWithPin(String username, String pin) throws SQLException {
+        Long userId = authService.verifyPin(username, pin);
+        if (userId == null) {
+            auditService.recordFailedLogin(username, "Wrong PIN");
+            throw new IllegalArgumentException("Invalid PIN, please log in with your password");
+        }
+        
+        // The account may have been disabled since the password login
+        Optional<User> userOpt = userDAO.findById(userId);
+        if (userOpt.isEmpty() || !userOpt.get().isActive()) {
+            authService.forgetPin(userId);
+            auditService.recordFailedLogin(username, "Account disabled");
+            throw new IllegalArgumentException("User account is disabled");
+        }
+        
+        User user = userOpt.get();
+        authService.startSession(user);
+        auditService.recordLogin(user, true);
+        logger.info("User switched in with PIN: {}", username);
+        return user;
+    }
+    
+    /**
+     * Register a quick switch PIN after a password login
+     * @param user Authenticated user
+     * @param pin PIN of 4 to 8 digits
+     * @throws IllegalArgumentException if the PIN is not valid
+     */
+    public void registerQuickSwitchPin(User user, String pin) {
+        authService.registerPin(user, pin);
+        logger.info("Quick switch PIN registered for user: {}", user.getUsername());
+    }
+    
     /**
      * Create new user
      * @param user User to create
@@ -116,6 +168,7 @@ public class UserService {
         
         String hashedNewPassword = authService.hashPassword(newPassword);
         userDAO.updatePassword(userId, hashedNewPassword);
+        authService.forgetPin(userId);
         logger.info("Password changed for user ID: {}", userId);
     }
     
@@ -166,6 +219,8 @@ public class UserService {
      */
     public void deleteUser(Long id) throws SQLException {
         userDAO.deleteById(id);
+        authService.forgetPin(id);
+        SessionRegistry.getInstance().closeAll(id);
         logger.info("User deleted with ID: {}", id);
     }
     
@@ -177,9 +232,34 @@ public class UserService {
      */
     public void updateUserStatus(Long userId, boolean active) throws SQLException {
         userDAO.updateActiveStatus(userId, active);
+        if (!active) {
+            SessionRegistry.getInstance().closeAll(userId);
+        }
         logger.info("User status updated for ID: {} to {}", userId, active);
     }
     
+    /**
+     * Store the password again at the current cost, without holding up the login
+     * @param oldHash Hash the password was checked against; left alone if it changed since
+     */
+    private void upgradePasswordHash(Long userId, String oldHash, String password) {
+        authService.hashPasswordAsync(password).whenComplete((hash, error) -> {
+            if (error != null) {
+                logger.warn("Failed to upgrade password hash for user ID: {}", userId, error);
+                return;
+            }
+            try {
+                if (userDAO.replacePassword(userId, oldHash, hash)) {
+                    logger.info("Password hash upgraded for user ID: {}", userId);
+                } else {
+                    logger.info("Password of user ID {} changed during hash upgrade, keeping the new one", userId);
+                }
+            } catch (SQLException e) {
+                logger.warn("Failed to upgrade password hash for user ID: {}", userId, e);
+            }
+        });
+    }
+    
     private void validateUser(User user) {
         if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
             throw new IllegalArgumentException("Username is required");
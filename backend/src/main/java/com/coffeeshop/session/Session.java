@@ -0,0 +1,59 @@
+package com.coffeeshop.session;
+
+import com.coffeeshop.model.User;
+
+/**
+ * A logged in user on one screen, terminal or API client.
+ *
+ * The user and role are fixed when the session opens, so role checks read
+ * final fields without locking. Only the last access time and the closed flag
+ * change afterwards, and both are volatile.
+ */
+public final class Session {
+    private final String id;
+    private final User user;
+    private final User.Role role;
+    private final long createdAt;
+    private volatile long lastAccessedAt;
+    private volatile boolean closed;
+    
+    Session(String id, User user, long now) {
+        this.id = id;
+        this.user = user;
+        this.role = user.getRole();
+        this.createdAt = now;
+        this.lastAccessedAt = now;
+    }
+    
+    public String getId() { return id; }
+    public User getUser() { return user; }
+    public User.Role getRole() { return role; }
+    public long getCreatedAt() { return createdAt; }
+    public long getLastAccessedAt() { return lastAccessedAt; }
+    public boolean isClosed() { return closed; }
+    
+    /**
+     * Check if the session is open and its user has a role
+     * @param role Role to check
+     * @return true if the user has the role
+     */
+    public boolean hasRole(User.Role role) {
+        return !closed && this.role == role;
+    }
+    
+    /**
+     * Record activity, which keeps the session from being evicted as idle
+     */
+    public void touch() {
+        lastAccessedAt = System.currentTimeMillis();
+    }
+    
+    void close() {
+        closed = true;
+    }
+    
+    @Override
+    public String toString() {
+        return "Session{user=" + user.getUsername() + ", role=" + role + (closed ? ", closed" : "") + "}";
+    }
+}
@@ -0,0 +1,103 @@
+package com.coffeeshop.session;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * The session work on the current thread is done for.
+ *
+ * A session is bound to a thread for the duration of a task and restored to
+ * the previous binding afterwards, so nested and re-entrant calls are safe.
+ * Running a task as a session counts as activity on it, which keeps it from
+ * being evicted as idle.
+ * Tasks handed to executors do not inherit the binding by themselves; wrap
+ * them, or the executor, to carry the submitting thread's session along.
+ */
+public final class SessionContext {
+    private static final ThreadLocal<Session> current = new ThreadLocal<>();
+    
+    private SessionContext() {}
+    
+    /**
+     * Get the session bound to this thread
+     * @return Bound session, or null if none is bound
+     */
+    public static Session current() {
+        return current.get();
+    }
+    
+    /**
+     * Run a task with a session bound to this thread
+     * @param session Session to bind, or null to run without one
+     * @param task Task to run
+     */
+    public static void runAs(Session session, Runnable task) {
+        Session previous = current.get();
+        if (session != null) {
+            session.touch();
+        }
+        bind(session);
+        try {
+            task.run();
+        } finally {
+            bind(previous);
+        }
+    }
+    
+    /**
+     * Call a task with a session bound to this thread
+     * @param session Session to bind, or null to run without one
+     * @param task Task to call
+     * @return Result of the task
+     * @throws Exception if the task fails
+     */
+    public static <T> T callAs(Session session, Callable<T> task) throws Exception {
+        Session previous = current.get();
+        if (session != null) {
+            session.touch();
+        }
+        bind(session);
+        try {
+            return task.call();
+        } finally {
+            bind(previous);
+        }
+    }
+    
+    /**
+     * Wrap a task so it runs with the session bound to this thread now
+     * @param task Task to wrap
+     * @return Task carrying the current session
+     */
+    public static Runnable wrap(Runnable task) {
+        Session session = current.get();
+        return () -> runAs(session, task);
+    }
+    
+    /**
+     * Wrap a task so it is called with the session bound to this thread now
+     * @param task Task to wrap
+     * @return Task carrying the current session
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Session session = current.get();
+        return () -> callAs(session, task);
+    }
+    
+    /**
+     * Wrap an executor so every task carries the session of the thread submitting it
+     * @param executor Executor to wrap
+     * @return Executor propagating sessions
+     */
+    public static Executor propagating(Executor executor) {
+        return task -> executor.execute(wrap(task));
+    }
+    
+    private static void bind(Session session) {
+        if (session != null) {
+            current.set(session);
+        } else {
+            current.remove();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.coffeeshop.session;
+
+import com.coffeeshop.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * All open sessions of this process, by session ID.
+ *
+ * One process may serve several screens or API clients at once, each with its
+ * own session. Sessions nobody used for the idle timeout are closed by a
+ * background sweep, so sessions of screens that were switched off or clients
+ * that went away do not pile up.
+ */
+public class SessionRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRegistry.class);
+    private static SessionRegistry instance;
+    
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final long idleMillis;
+    private final ScheduledExecutorService evictor;
+    
+    private SessionRegistry() {
+        // A shift by default, e.g. -Dcoffeeshop.session.idleMinutes=30 for shared screens
+        this.idleMillis = Integer.getInteger("coffeeshop.session.idleMinutes", 720) * 60_000L;
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sweepMillis = Math.max(1_000L, Math.min(60_000L, idleMillis / 4));
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public static synchronized SessionRegistry getInstance() {
+        if (instance == null) {
+            instance = new SessionRegistry();
+        }
+        return instance;
+    }
+    
+    /**
+     * Open a session for a user who just authenticated
+     * @param user Authenticated user
+     * @return New session
+     */
+    public Session open(User user) {
+        byte[] token = new byte[18];
+        random.nextBytes(token);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(token),
+            user, System.currentTimeMillis());
+        sessions.put(session.getId(), session);
+        logger.debug("Opened {}", session);
+        return session;
+    }
+    
+    /**
+     * Look up an open session and record the access
+     * @param id Session ID
+     * @return Session if it is open
+     */
+    public Optional<Session> find(String id) {
+        Session session = id != null ? sessions.get(id) : null;
+        if (session == null || session.isClosed()) {
+            return Optional.empty();
+        }
+        session.touch();
+        return Optional.of(session);
+    }
+    
+    /**
+     * Close a session; closing it again has no effect
+     * @param session Session to close
+     */
+    public void close(Session session) {
+        if (sessions.remove(session.getId(), session)) {
+            logger.debug("Closed {}", session);
+        }
+        session.close();
+    }
+    
+    /**
+     * Close every session of a user, e.g. after the account was disabled
+     * @param userId User ID
+     */
+    public void closeAll(Long userId) {
+        for (Session session : sessions.values()) {
+            if (userId.equals(session.getUser().getId())) {
+                close(session);
+            }
+        }
+    }
+    
+    /**
+     * Close the sessions that were not used within the idle timeout
+     * @return Number of sessions closed
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Session session : sessions.values()) {
+            if (session.getLastAccessedAt() < cutoff) {
+                close(session);
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            logger.info("Closed {} idle session(s)", evicted);
+        }
+        return evicted;
+    }
+    
+    /**
+     * Get the open sessions
+     * @return Snapshot of the open sessions
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+    
+    public int size() {
+        return sessions.size();
+    }
+}
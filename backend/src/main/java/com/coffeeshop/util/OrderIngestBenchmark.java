@@ -0,0 +1,96 @@
+package com.coffeeshop.util;
+
+import com.coffeeshop.config.DatabaseConfig;
+import com.coffeeshop.dao.impl.OrderDAOImpl;
+import com.coffeeshop.model.Order;
+import com.coffeeshop.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares orders-per-second of the single-order save path against the bulk
+ * saveAll path. Writes (and afterwards deletes) BENCH-* orders, so run it
+ * against a scratch database.
+ *
+ * Usage: OrderIngestBenchmark [orders] [itemsPerOrder] [chunkSize]
+ */
+public class OrderIngestBenchmark {
+    private static final String BENCH_PREFIX = "BENCH-";
+    
+    public static void main(String[] args) throws SQLException {
+        int orderCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int itemsPerOrder = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int chunkSize = args.length > 2 ? Integer.parseInt(args[2]) : OrderDAOImpl.DEFAULT_BULK_CHUNK_SIZE;
+        
+        DatabaseConfig.getInstance().initializeDatabase();
+        OrderDAOImpl orderDAO = new OrderDAOImpl();
+        long[] refs = loadReferenceIds();
+        
+        try {
+            // Warm up pool, statement caches and JIT
+            for (Order order : buildOrders("W", 50, itemsPerOrder, refs)) {
+                orderDAO.save(order);
+            }
+            orderDAO.saveAll(buildOrders("WB", 50, itemsPerOrder, refs), chunkSize);
+            
+            List<Order> single = buildOrders("S", orderCount, itemsPerOrder, refs);
+            long start = System.nanoTime();
+            for (Order order : single) {
+                orderDAO.save(order);
+            }
+            double singleRate = rate(orderCount, System.nanoTime() - start);
+            
+            List<Order> bulk = buildOrders("B", orderCount, itemsPerOrder, refs);
+            start = System.nanoTime();
+            orderDAO.saveAll(bulk, chunkSize);
+            double bulkRate = rate(orderCount, System.nanoTime() - start);
+            
+            System.out.printf("Orders: %d, items/order: %d, chunk size: %d%n", orderCount, itemsPerOrder, chunkSize);
+            System.out.printf("save()    : %10.1f orders/s%n", singleRate);
+            System.out.printf("saveAll() : %10.1f orders/s (%.1fx)%n", bulkRate, bulkRate / singleRate);
+        } finally {
+            deleteBenchmarkOrders();
+            DatabaseConfig.getInstance().closeDataSource();
+        }
+    }
+    
+    private static List<Order> buildOrders(String run, int count, int itemsPerOrder, long[] refs) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order(BENCH_PREFIX + run + i, refs[0], "Benchmark " + i, refs[1]);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                order.addOrderItem(new OrderItem(null, refs[2], 1 + j, new BigDecimal("3.50")));
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+    
+    private static long[] loadReferenceIds() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                 "SELECT (SELECT MIN(id) FROM tables), (SELECT MIN(id) FROM users), (SELECT MIN(id) FROM menu_items)");
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            return new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)};
+        }
+    }
+    
+    private static void deleteBenchmarkOrders() throws SQLException {
+        try (Connection conn = DatabaseConfig.getInstance().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("DELETE FROM orders WHERE order_number LIKE ?")) {
+            stmt.setString(1, BENCH_PREFIX + "%");
+            stmt.executeUpdate();
+        }
+    }
+    
+    private static double rate(int count, long nanos) {
+        return count / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.coffeeshop.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the phases of application startup and logs them once the first
+ * window is on screen. Phases may run on different threads at the same time,
+ * so each one is listed with its start offset as well as its duration.
+ */
+public final class StartupTimer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+    
+    // Taken when the class is first used, i.e. at the start of main
+    private static final long originNanos = System.nanoTime();
+    private static final long jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    
+    private static final List<Phase> phases = new ArrayList<>();
+    private static boolean reported;
+    
+    private StartupTimer() {
+        throw new IllegalStateException("Utility class");
+    }
+    
+    /**
+     * Start timing a phase; end it with {@link Phase#end()}
+     * @param name Name shown in the report
+     * @return Running phase
+     */
+    public static Phase start(String name) {
+        return new Phase(name);
+    }
+    
+    /**
+     * Log the phases ended so far, once
+     */
+    public static synchronized void report() {
+        if (reported) {
+            return;
+        }
+        reported = true;
+        
+        long totalMillis = jvmMillis + elapsedMillis(originNanos);
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Startup took %d ms (%d ms in the JVM before main)", totalMillis, jvmMillis));
+        phases.sort(Comparator.comparingLong(phase -> phase.offsetMillis));
+        for (Phase phase : phases) {
+            report.append(String.format("%n  %-16s at %5d ms  took %5d ms  [%s]",
+                phase.name, phase.offsetMillis, phase.durationMillis, phase.thread));
+        }
+        logger.info(report.toString());
+    }
+    
+    private static synchronized void record(Phase phase) {
+        phases.add(phase);
+    }
+    
+    private static long elapsedMillis(long sinceNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sinceNanos);
+    }
+    
+    /**
+     * A timed part of startup
+     */
+    public static final class Phase {
+        private final String name;
+        private final String thread;
+        private final long startNanos;
+        private long offsetMillis;
+        private long durationMillis;
+        
+        private Phase(String name) {
+            this.name = name;
+            this.thread = Thread.currentThread().getName();
+            this.startNanos = System.nanoTime();
+        }
+        
+        public void end() {
+            offsetMillis = TimeUnit.NANOSECONDS.toMillis(startNanos - originNanos);
+            durationMillis = elapsedMillis(startNanos);
+            record(this);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.coffeeshop.view;
 
 import com.coffeeshop.model.User;
+import com.coffeeshop.service.AuthenticationService;
 import com.coffeeshop.service.UserService;
 import com.coffeeshop.util.UIUtils;
 import com.coffeeshop.view.admin.AdminDashboard;
@@ -24,6 +25,7 @@ public class LoginFrame extends JFrame {
     
     private JTextField usernameField;
     private JPasswordField passwordField;
+    private JPasswordField pinField;
     private JButton loginButton;
     private JLabel statusLabel;
     private UserService userService;
@@ -44,6 +46,10 @@ public class LoginFrame extends JFrame {
         passwordField = UIUtils.createStyledPasswordField();
         passwordField.setColumns(20);
         
+        pinField = UIUtils.createStyledPasswordField();
+        pinField.setColumns(8);
+        pinField.setToolTipText("With your password: set a PIN to switch back in quickly. On its own: switch in with your PIN.");
+        
         loginButton = UIUtils.createPrimaryButton("Login");
         statusLabel = new JLabel(" ");
         statusLabel.setFont(UIUtils.SMALL_FONT);
@@ -101,16 +107,26 @@ public class LoginFrame extends JFrame {
         gbc.fill = GridBagConstraints.HORIZONTAL;
         formPanel.add(passwordField, gbc);
         
-        // Login button
+        // Quick switch PIN
         gbc.gridx = 0;
         gbc.gridy = 3;
+        gbc.fill = GridBagConstraints.NONE;
+        formPanel.add(UIUtils.createStyledLabel("PIN (optional):"), gbc);
+        
+        gbc.gridx = 1;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(pinField, gbc);
+        
+        // Login button
+        gbc.gridx = 0;
+        gbc.gridy = 4;
         gbc.gridwidth = 2;
         gbc.fill = GridBagConstraints.HORIZONTAL;
         gbc.anchor = GridBagConstraints.CENTER;
         formPanel.add(loginButton, gbc);
         
         // Status label
-        gbc.gridy = 4;
+        gbc.gridy = 5;
         gbc.anchor = GridBagConstraints.CENTER;
         formPanel.add(statusLabel, gbc);
         
@@ -160,6 +176,7 @@ public class LoginFrame extends JFrame {
         
         usernameField.addKeyListener(enterKeyListener);
         passwordField.addKeyListener(enterKeyListener);
+        pinField.addKeyListener(enterKeyListener);
     }
     
     private void setupFrame() {
@@ -198,12 +215,21 @@ public class LoginFrame extends JFrame {
     private void performLogin() {
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
+        String pin = new String(pinField.getPassword());
         
-        if (username.isEmpty() || password.isEmpty()) {
+        // A PIN on its own switches back in a user who registered one on this terminal
+        boolean pinLogin = password.isEmpty() && !pin.isEmpty();
+        
+        if (username.isEmpty() || (password.isEmpty() && !pinLogin)) {
             setStatus("Please enter username and password", Color.RED);
             return;
         }
         
+        if (!pin.isEmpty() && !AuthenticationService.isValidPin(pin)) {
+            setStatus("PIN must be 4 to 8 digits", Color.RED);
+            return;
+        }
+        
         // Disable login button during authentication
         loginButton.setEnabled(false);
         setStatus("Authenticating...", Color.BLUE);
@@ -212,7 +238,14 @@ public class LoginFrame extends JFrame {
         SwingWorker<User, Void> worker = new SwingWorker<User, Void>() {
             @Override
             protected User doInBackground() throws Exception {
-                return userService.authenticate(username, password);
+                if (pinLogin) {
+                    return userService.authenticateWithPin(username, pin);
+                }
+                User user = userService.authenticate(username, password);
+                if (!pin.isEmpty()) {
+                    userService.registerQuickSwitchPin(user, pin);
+                }
+                return user;
             }
             
             @Override
@@ -265,6 +298,7 @@ public class LoginFrame extends JFrame {
         logger.warn("Login failed: {}", errorMessage);
         setStatus(errorMessage, Color.RED);
         passwordField.setText("");
+        pinField.setText("");
         passwordField.requestFocus();
     }
     
@@ -0,0 +1,150 @@
+package com.coffeeshop.view;
+
+import com.coffeeshop.session.Session;
+import com.coffeeshop.session.SessionContext;
+import com.coffeeshop.util.UIUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Ties each window to the session of the user working in it.
+ *
+ * A dashboard binds itself to its session when it opens. A window opened
+ * while a bound window handles input, such as a panel opened by a dashboard
+ * button, is bound to the same session; dialogs go with their owner. Input
+ * to a bound window is handled with its session bound to the event thread
+ * (see {@link SessionContext}), so what a user does in any of their windows,
+ * for as long as it is open, is done as that user and not as whoever last
+ * logged in on the terminal. It also counts as activity on the session, so
+ * only sessions nobody works in are evicted as idle. Once a session is
+ * closed, by logout, idle eviction or the account being disabled, the next
+ * input to one of its windows closes them all and shows the login screen
+ * instead.
+ *
+ * Only called on the event dispatch thread.
+ */
+public final class SessionWindows {
+    private static final Logger logger = LoggerFactory.getLogger(SessionWindows.class);
+    
+    // Weak, so windows disposed without disposeAll drop out
+    private static final Map<Window, Session> sessions = new WeakHashMap<>();
+    private static boolean installed;
+    
+    private SessionWindows() {}
+    
+    /**
+     * Pass input through the session checks; later calls do nothing
+     */
+    public static void install() {
+        if (!installed) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new SessionEventQueue());
+            installed = true;
+        }
+    }
+    
+    /**
+     * Bind a window, and the windows it opens, to a session
+     * @param window Window, normally a dashboard
+     * @param session Session of the user working in it
+     */
+    public static void bind(Window window, Session session) {
+        sessions.put(window, session);
+    }
+    
+    /**
+     * Get the session a component's window is bound to
+     * @param component Window or component in one
+     * @return Session of the window or of its owner, or null if none is bound
+     */
+    public static Session sessionOf(Component component) {
+        Window window = component instanceof Window ? (Window) component : SwingUtilities.getWindowAncestor(component);
+        for (; window != null; window = window.getOwner()) {
+            Session session = sessions.get(window);
+            if (session != null) {
+                return session;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Close every window bound to a session, e.g. after its user logged out
+     * @param session Session whose windows to close
+     */
+    public static void disposeAll(Session session) {
+        Iterator<Map.Entry<Window, Session>> entries = sessions.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Window, Session> entry = entries.next();
+            if (entry.getValue() == session) {
+                entries.remove();
+                entry.getKey().dispose();
+            }
+        }
+    }
+    
+    /**
+     * Close the windows of a session closed elsewhere and show the login screen
+     */
+    private static void returnToLogin(Session session) {
+        logger.info("Session of {} was closed, returning to the login screen", session.getUser().getUsername());
+        disposeAll(session);
+        LoginFrame loginFrame = new LoginFrame();
+        loginFrame.setVisible(true);
+        UIUtils.showWarning(loginFrame, "You were logged out. Please log in again.");
+    }
+    
+    /**
+     * @return true for input that may trigger an action, as opposed to pointer movement
+     */
+    private static boolean isAction(AWTEvent event) {
+        if (event instanceof MouseEvent) {
+            int id = event.getID();
+            return id == MouseEvent.MOUSE_PRESSED || id == MouseEvent.MOUSE_RELEASED || id == MouseEvent.MOUSE_CLICKED;
+        }
+        return true;
+    }
+    
+    private static final class SessionEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Session session = event instanceof InputEvent ? sessionOf((Component) event.getSource()) : null;
+            if (session == null) {
+                super.dispatchEvent(event);
+                return;
+            }
+            if (session.isClosed()) {
+                if (isAction(event)) {
+                    ((InputEvent) event).consume();
+                    returnToLogin(session);
+                }
+                return;
+            }
+            
+            if (!isAction(event)) {
+                SessionContext.runAs(session, () -> super.dispatchEvent(event));
+                return;
+            }
+            
+            // Windows the action opens belong to the same user
+            Set<Window> before = Collections.newSetFromMap(new IdentityHashMap<>());
+            Collections.addAll(before, Window.getWindows());
+            SessionContext.runAs(session, () -> super.dispatchEvent(event));
+            for (Window window : Window.getWindows()) {
+                if (window.isShowing() && !before.contains(window) && sessionOf(window) == null) {
+                    bind(window, session);
+                }
+            }
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.coffeeshop.view.admin;
 
 import com.coffeeshop.model.User;
 import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.session.SessionContext;
 import com.coffeeshop.util.UIUtils;
 import com.coffeeshop.view.LoginFrame;
+import com.coffeeshop.view.SessionWindows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +20,7 @@ public class AdminDashboard extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(AdminDashboard.class);
     
     private AuthenticationService authService;
+    private Session session;
     private User currentUser;
     
     // UI Components
@@ -28,10 +32,13 @@ public class AdminDashboard extends JFrame {
     private JButton reportsButton;
     private JButton settingsButton;
     private JButton logoutButton;
+    private LiveSalesPanel liveSalesPanel;
     
     public AdminDashboard() {
         this.authService = AuthenticationService.getInstance();
-        this.currentUser = authService.getCurrentUser();
+        this.session = authService.getCurrentSession();
+        this.currentUser = session.getUser();
+        SessionWindows.bind(this, session);
         
         initializeComponents();
         setupLayout();
@@ -65,6 +72,9 @@ public class AdminDashboard extends JFrame {
         
         logoutButton = UIUtils.createDangerButton("Logout");
         logoutButton.setPreferredSize(new Dimension(100, 40));
+        
+        // Today's sales, updated as orders come in
+        liveSalesPanel = new LiveSalesPanel();
     }
     
     private void setupLayout() {
@@ -85,39 +95,43 @@ public class AdminDashboard extends JFrame {
         gbc.insets = new Insets(15, 15, 15, 15);
         gbc.fill = GridBagConstraints.BOTH;
         
-        // Row 1
+        // One row, leaving the rest of the window to the live sales view
         gbc.gridx = 0; gbc.gridy = 0;
         contentPanel.add(menuManagementButton, gbc);
         
         gbc.gridx = 1;
         contentPanel.add(userManagementButton, gbc);
         
-        // Row 2
-        gbc.gridx = 0; gbc.gridy = 1;
+        gbc.gridx = 2;
         contentPanel.add(reportsButton, gbc);
         
-        gbc.gridx = 1;
+        gbc.gridx = 3;
         contentPanel.add(settingsButton, gbc);
         
+        JPanel bodyPanel = new JPanel(new BorderLayout(0, 15));
+        bodyPanel.setOpaque(false);
+        bodyPanel.add(contentPanel, BorderLayout.NORTH);
+        bodyPanel.add(liveSalesPanel, BorderLayout.CENTER);
+        
         // Add to main panel
         mainPanel.add(headerPanel, BorderLayout.NORTH);
-        mainPanel.add(contentPanel, BorderLayout.CENTER);
+        mainPanel.add(bodyPanel, BorderLayout.CENTER);
         
         add(mainPanel);
     }
     
     private void setupEventHandlers() {
-        menuManagementButton.addActionListener(e -> openMenuManagement());
-        userManagementButton.addActionListener(e -> openUserManagement());
-        reportsButton.addActionListener(e -> openReports());
-        settingsButton.addActionListener(e -> openSettings());
+        menuManagementButton.addActionListener(e -> SessionContext.runAs(session, this::openMenuManagement));
+        userManagementButton.addActionListener(e -> SessionContext.runAs(session, this::openUserManagement));
+        reportsButton.addActionListener(e -> SessionContext.runAs(session, this::openReports));
+        settingsButton.addActionListener(e -> SessionContext.runAs(session, this::openSettings));
         logoutButton.addActionListener(e -> performLogout());
     }
     
     private void setupFrame() {
         setTitle("Coffee Shop Management - Admin Dashboard");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        UIUtils.setResponsiveSize(this, 800, 600);
+        UIUtils.setResponsiveSize(this, 1100, 750);
         setResizable(true);
         UIUtils.centerOnScreen(this);
     }
@@ -161,11 +175,11 @@ public class AdminDashboard extends JFrame {
     
     private void performLogout() {
         if (UIUtils.showConfirmation(this, "Are you sure you want to logout?", "Confirm Logout")) {
-            authService.logout();
+            authService.logout(session);
             logger.info("User logged out: {}", currentUser.getUsername());
             
-            // Close this window and show login
-            dispose();
+            // Close this user's windows and show login
+            SessionWindows.disposeAll(session);
             SwingUtilities.invokeLater(() -> {
                 new LoginFrame().setVisible(true);
             });
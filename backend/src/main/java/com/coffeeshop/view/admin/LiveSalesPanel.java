@@ -0,0 +1,181 @@
+package com.coffeeshop.view.admin;
+
+import com.coffeeshop.analytics.LiveSalesMonitor;
+import com.coffeeshop.analytics.LiveSalesSnapshot;
+import com.coffeeshop.analytics.SalesRow;
+import com.coffeeshop.util.UIUtils;
+import com.coffeeshop.view.components.BarChart;
+
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Live view of today's sales: revenue, orders, average ticket, current pace,
+ * orders per hour and top items.
+ *
+ * Redraws at a fixed frame rate from the running totals of
+ * {@link LiveSalesMonitor}; a frame in which nothing changed costs one
+ * snapshot and no repaint. The monitor runs while the panel is showing.
+ */
+public class LiveSalesPanel extends JPanel {
+    // Four frames a second keeps the numbers live without costing the terminal anything noticeable
+    private static final int FRAME_MILLIS = 250;
+    
+    // Hours always on the chart, so the morning does not start as one wide bar
+    private static final int FIRST_HOUR = 6;
+    private static final int LAST_HOUR = 21;
+    
+    private final LiveSalesMonitor monitor;
+    private final Timer frameTimer;
+    
+    private JLabel revenueLabel;
+    private JLabel ordersLabel;
+    private JLabel averageTicketLabel;
+    private JLabel openOrdersLabel;
+    private JLabel paceLabel;
+    private BarChart hourChart;
+    private BarChart topItemsChart;
+    
+    private long shownVersion = -1;
+    private int shownMinute = -1;
+    
+    public LiveSalesPanel() {
+        this.monitor = LiveSalesMonitor.getInstance();
+        this.frameTimer = new Timer(FRAME_MILLIS, e -> renderFrame());
+        
+        initializeComponents();
+        setupLayout();
+    }
+    
+    private void initializeComponents() {
+        revenueLabel = createValueLabel();
+        ordersLabel = createValueLabel();
+        averageTicketLabel = createValueLabel();
+        openOrdersLabel = createValueLabel();
+        paceLabel = createValueLabel();
+        
+        hourChart = new BarChart(false);
+        topItemsChart = new BarChart(true);
+    }
+    
+    private void setupLayout() {
+        setLayout(new BorderLayout(0, 10));
+        setOpaque(false);
+        
+        // Key figures
+        JPanel figuresPanel = new JPanel(new GridLayout(1, 5, 10, 0));
+        figuresPanel.setOpaque(false);
+        figuresPanel.add(createFigureCard("Revenue Today", revenueLabel));
+        figuresPanel.add(createFigureCard("Orders", ordersLabel));
+        figuresPanel.add(createFigureCard("Average Ticket", averageTicketLabel));
+        figuresPanel.add(createFigureCard("Open Orders", openOrdersLabel));
+        figuresPanel.add(createFigureCard("Pace (orders/hr)", paceLabel));
+        
+        // Charts
+        JPanel chartsPanel = new JPanel(new GridLayout(1, 2, 10, 0));
+        chartsPanel.setOpaque(false);
+        chartsPanel.add(createChartCard("Orders per Hour", hourChart));
+        chartsPanel.add(createChartCard("Top Items", topItemsChart));
+        
+        add(figuresPanel, BorderLayout.NORTH);
+        add(chartsPanel, BorderLayout.CENTER);
+    }
+    
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        monitor.start();
+        frameTimer.start();
+    }
+    
+    @Override
+    public void removeNotify() {
+        frameTimer.stop();
+        monitor.stop();
+        super.removeNotify();
+    }
+    
+    /**
+     * Show the latest totals if they changed; the pace also moves on with the clock
+     */
+    private void renderFrame() {
+        LiveSalesSnapshot snapshot = monitor.snapshot();
+        LocalDateTime now = LocalDateTime.now();
+        int minute = now.getHour() * 60 + now.getMinute();
+        if (snapshot.getVersion() == shownVersion && minute == shownMinute) {
+            return;
+        }
+        shownVersion = snapshot.getVersion();
+        shownMinute = minute;
+        
+        SalesRow total = snapshot.getTotal();
+        revenueLabel.setText("$" + snapshot.getRevenue());
+        ordersLabel.setText(String.valueOf(total.getOrders()));
+        averageTicketLabel.setText("$" + snapshot.getAverageTicket());
+        openOrdersLabel.setText(String.valueOf(snapshot.getOpenOrders()));
+        paceLabel.setText(String.valueOf(snapshot.getOrdersPerHourPace()));
+        
+        renderHours(snapshot, now.getHour());
+        renderTopItems(snapshot.getTopItems());
+    }
+    
+    private void renderHours(LiveSalesSnapshot snapshot, int currentHour) {
+        int first = Math.min(FIRST_HOUR, currentHour);
+        int last = Math.max(LAST_HOUR, currentHour);
+        for (int hour = 0; hour < 24; hour++) {
+            if (snapshot.getHourOrders(hour) > 0) {
+                first = Math.min(first, hour);
+                last = Math.max(last, hour);
+            }
+        }
+        
+        int count = last - first + 1;
+        String[] labels = new String[count];
+        double[] values = new double[count];
+        String[] valueTexts = new String[count];
+        for (int i = 0; i < count; i++) {
+            int hour = first + i;
+            labels[i] = hour % 3 == 0 ? String.format("%02d", hour) : null;
+            values[i] = snapshot.getHourOrders(hour);
+            valueTexts[i] = String.valueOf(snapshot.getHourOrders(hour));
+        }
+        hourChart.setData(labels, values, valueTexts, currentHour - first);
+    }
+    
+    private void renderTopItems(List<SalesRow> topItems) {
+        String[] labels = new String[topItems.size()];
+        double[] values = new double[topItems.size()];
+        String[] valueTexts = new String[topItems.size()];
+        for (int i = 0; i < topItems.size(); i++) {
+            SalesRow item = topItems.get(i);
+            labels[i] = item.getLabel();
+            values[i] = item.getQuantity();
+            valueTexts[i] = item.getQuantity() + " sold";
+        }
+        topItemsChart.setData(labels, values, valueTexts, -1);
+    }
+    
+    private JLabel createValueLabel() {
+        JLabel label = UIUtils.createHeaderLabel("-");
+        label.setForeground(UIUtils.PRIMARY_COLOR);
+        return label;
+    }
+    
+    private JPanel createFigureCard(String caption, JLabel valueLabel) {
+        JPanel card = new JPanel(new BorderLayout(0, 4));
+        UIUtils.styleAsCard(card);
+        card.add(UIUtils.createSecondaryLabel(caption), BorderLayout.NORTH);
+        card.add(valueLabel, BorderLayout.CENTER);
+        return card;
+    }
+    
+    private JPanel createChartCard(String title, BarChart chart) {
+        JPanel card = new JPanel(new BorderLayout(0, 6));
+        UIUtils.styleAsCard(card);
+        card.add(UIUtils.createStyledLabel(title), BorderLayout.NORTH);
+        card.add(chart, BorderLayout.CENTER);
+        return card;
+    }
+}
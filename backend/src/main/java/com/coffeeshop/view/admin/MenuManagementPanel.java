@@ -4,6 +4,7 @@ import com.coffeeshop.dao.MenuItemDAO;
 import com.coffeeshop.dao.impl.MenuItemDAOImpl;
 import com.coffeeshop.model.Category;
 import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.model.Station;
 import com.coffeeshop.service.MenuService;
 import com.coffeeshop.util.UIUtils;
 import org.slf4j.Logger;
@@ -44,6 +45,7 @@ public class MenuManagementPanel extends JFrame {
     private JTextField priceField;
     private JCheckBox availableCheckbox;
     private JTextField preparationTimeField;
+    private JComboBox<Station> stationCombo;
     private JTextField imagePathField;
     private JButton imageSelectButton;
     private JLabel imagePreviewLabel;
@@ -97,6 +99,20 @@ public class MenuManagementPanel extends JFrame {
         priceField = UIUtils.createStyledTextField();
         availableCheckbox = new JCheckBox("Available");
         preparationTimeField = UIUtils.createStyledTextField();
+        stationCombo = UIUtils.createStyledComboBox();
+        stationCombo.addItem(null); // Use the category's station
+        for (Station station : Station.values()) {
+            stationCombo.addItem(station);
+        }
+        stationCombo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value,
+                    int index, boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+                setText(value != null ? value.toString() : "Category default");
+                return this;
+            }
+        });
         
         // Image components
         imagePathField = UIUtils.createStyledTextField();
@@ -321,12 +337,18 @@ public class MenuManagementPanel extends JFrame {
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
         formPanel.add(preparationTimeField, gbc);
         
+        // Kitchen station
+        gbc.gridx = 0; gbc.gridy = 5; gbc.fill = GridBagConstraints.NONE;
+        formPanel.add(new JLabel("Station:"), gbc);
+        gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(stationCombo, gbc);
+        
         // Available
-        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
         formPanel.add(availableCheckbox, gbc);
         
         // Image
-        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 1; gbc.fill = GridBagConstraints.NONE;
+        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 1; gbc.fill = GridBagConstraints.NONE;
         formPanel.add(new JLabel("Image:"), gbc);
         gbc.gridx = 1; gbc.fill = GridBagConstraints.HORIZONTAL;
         
@@ -336,7 +358,7 @@ public class MenuManagementPanel extends JFrame {
         formPanel.add(imagePanel, gbc);
         
         // Image preview
-        gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.NONE;
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.NONE;
         gbc.anchor = GridBagConstraints.CENTER;
         formPanel.add(imagePreviewLabel, gbc);
         
@@ -350,6 +372,7 @@ public class MenuManagementPanel extends JFrame {
         descriptionArea.setText("");
         priceField.setText("");
         preparationTimeField.setText("0");
+        stationCombo.setSelectedItem(null);
         availableCheckbox.setSelected(true);
         imagePathField.setText("");
         imagePreviewLabel.setIcon(null);
@@ -372,6 +395,7 @@ public class MenuManagementPanel extends JFrame {
         descriptionArea.setText(item.getDescription());
         priceField.setText(item.getPrice().toString());
         preparationTimeField.setText(String.valueOf(item.getPreparationTime()));
+        stationCombo.setSelectedItem(item.getStation());
         availableCheckbox.setSelected(item.isAvailable());
         
         // Update image
@@ -412,6 +436,7 @@ public class MenuManagementPanel extends JFrame {
             
             MenuItem item = new MenuItem(name, selectedCategory.getId(), description, price);
             item.setPreparationTime(prepTime);
+            item.setStation((Station) stationCombo.getSelectedItem());
             item.setAvailable(availableCheckbox.isSelected());
             
             // Set image path if provided
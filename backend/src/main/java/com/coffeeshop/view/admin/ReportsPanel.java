@@ -1,11 +1,29 @@
 package com.coffeeshop.view.admin;
 
+import com.coffeeshop.analytics.DemandForecaster;
+import com.coffeeshop.analytics.ItemForecast;
+import com.coffeeshop.analytics.ItemPair;
+import com.coffeeshop.analytics.SalesDimension;
+import com.coffeeshop.analytics.SalesReport;
+import com.coffeeshop.analytics.SalesRow;
+import com.coffeeshop.analytics.SalesStore;
+import com.coffeeshop.audit.AuditEvent;
+import com.coffeeshop.audit.UserActivity;
+import com.coffeeshop.service.AuditService;
 import com.coffeeshop.util.UIUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Reports Panel for admin users
@@ -13,6 +31,11 @@ import java.awt.*;
 public class ReportsPanel extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(ReportsPanel.class);
     
+    // Fewest shared orders for a pair to be listed; below it a lift is mostly chance
+    private static final int MIN_PAIR_ORDERS = 3;
+    
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
     // UI Components
     private JButton dailySalesButton;
     private JButton monthlySalesButton;
@@ -20,7 +43,74 @@ public class ReportsPanel extends JFrame {
     private JButton userActivityButton;
     private JButton exportButton;
     
+    // Sales report view, sliced by period and dimension
+    private JComboBox<Period> periodCombo;
+    private JComboBox<SalesDimension> dimensionCombo;
+    private JButton refreshButton;
+    private JTable reportTable;
+    private DefaultTableModel tableModel;
+    private JLabel totalLabel;
+    private JTable pairsTable;
+    private DefaultTableModel pairsModel;
+    private JTable prepTable;
+    private DefaultTableModel prepModel;
+    private JTable activityTable;
+    private DefaultTableModel activityModel;
+    private JTabbedPane reportTabs;
+    private JPanel activityTab;
+    private List<UserActivity> shownActivity = new ArrayList<>();
+    
+    // Set while a preset report changes both combos, so only one report runs
+    private boolean adjusting;
+    
+    /**
+     * Report periods, relative to today
+     */
+    private enum Period {
+        TODAY("Today"),
+        YESTERDAY("Yesterday"),
+        LAST_7_DAYS("Last 7 Days"),
+        THIS_MONTH("This Month"),
+        LAST_30_DAYS("Last 30 Days"),
+        LAST_MONTH("Last Month"),
+        THIS_YEAR("This Year");
+        
+        private final String displayName;
+        
+        Period(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        LocalDate from(LocalDate today) {
+            switch (this) {
+                case YESTERDAY: return today.minusDays(1);
+                case LAST_7_DAYS: return today.minusDays(6);
+                case THIS_MONTH: return today.withDayOfMonth(1);
+                case LAST_30_DAYS: return today.minusDays(29);
+                case LAST_MONTH: return today.minusMonths(1).withDayOfMonth(1);
+                case THIS_YEAR: return today.withDayOfYear(1);
+                default: return today;
+            }
+        }
+        
+        LocalDate to(LocalDate today) {
+            switch (this) {
+                case YESTERDAY: return today.minusDays(1);
+                case LAST_MONTH: return today.withDayOfMonth(1).minusDays(1);
+                default: return today;
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+    
     public ReportsPanel() {
+        // Keeps training nightly from here on, so the plan is ready when the panel is next opened
+        DemandForecaster.getInstance().start();
+        
         initializeComponents();
         setupLayout();
         setupEventHandlers();
@@ -44,6 +134,62 @@ public class ReportsPanel extends JFrame {
         
         exportButton = UIUtils.createSuccessButton("Export to CSV");
         exportButton.setPreferredSize(new Dimension(200, 60));
+        
+        periodCombo = UIUtils.createStyledComboBox();
+        for (Period period : Period.values()) {
+            periodCombo.addItem(period);
+        }
+        
+        dimensionCombo = UIUtils.createStyledComboBox();
+        for (SalesDimension dimension : SalesDimension.values()) {
+            dimensionCombo.addItem(dimension);
+        }
+        
+        refreshButton = UIUtils.createPrimaryButton("Refresh");
+        
+        String[] columnNames = {"Group", "Orders", "Items Sold", "Revenue", "Avg. Order"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false; // Make table read-only
+            }
+        };
+        reportTable = new JTable(tableModel);
+        reportTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        
+        pairsModel = new DefaultTableModel(
+            new String[] {"Item", "Ordered With", "Orders Together", "Share With Item", "Share With Other", "Lift"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        pairsTable = new JTable(pairsModel);
+        pairsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        
+        prepModel = new DefaultTableModel(
+            new String[] {"Item", "Expected", "Usual Variation", "Prepare", "Busiest Hour"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        prepTable = new JTable(prepModel);
+        prepTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        
+        activityModel = new DefaultTableModel(new String[] {
+            "User", "Logins", "Failed Logins", "Orders Created", "Status Changes", "Menu Edits", "First Seen", "Last Seen"
+        }, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        activityTable = new JTable(activityModel);
+        activityTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        activityTable.setToolTipText("Double-click a user to see each action");
+        
+        totalLabel = UIUtils.createStyledLabel("Choose a report");
     }
     
     private void setupLayout() {
@@ -62,31 +208,65 @@ public class ReportsPanel extends JFrame {
         gbc.insets = new Insets(15, 15, 15, 15);
         gbc.fill = GridBagConstraints.BOTH;
         
-        // Row 1
-        gbc.gridx = 0; gbc.gridy = 0;
+        // One row of report buttons
+        gbc.gridy = 0;
+        gbc.gridx = 0;
         contentPanel.add(dailySalesButton, gbc);
         
         gbc.gridx = 1;
         contentPanel.add(monthlySalesButton, gbc);
         
-        // Row 2
-        gbc.gridx = 0; gbc.gridy = 1;
+        gbc.gridx = 2;
         contentPanel.add(menuPerformanceButton, gbc);
         
-        gbc.gridx = 1;
+        gbc.gridx = 3;
         contentPanel.add(userActivityButton, gbc);
         
-        // Row 3
-        gbc.gridx = 0; gbc.gridy = 2; gbc.gridwidth = 2;
-        gbc.anchor = GridBagConstraints.CENTER;
+        gbc.gridx = 4;
         contentPanel.add(exportButton, gbc);
         
+        // Report controls
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controlPanel.add(UIUtils.createStyledLabel("Period:"));
+        controlPanel.add(periodCombo);
+        controlPanel.add(UIUtils.createStyledLabel("Group by:"));
+        controlPanel.add(dimensionCombo);
+        controlPanel.add(refreshButton);
+        
+        // Report tables with totals below
+        reportTabs = new JTabbedPane();
+        reportTabs.addTab("Sales", new JScrollPane(reportTable));
+        reportTabs.addTab("Bought Together", new JScrollPane(pairsTable));
+        reportTabs.addTab("Prep for Tomorrow", new JScrollPane(prepTable));
+        
+        // Read from this terminal's audit log, not the database
+        activityTab = new JPanel(new BorderLayout());
+        activityTab.add(new JScrollPane(activityTable), BorderLayout.CENTER);
+        activityTab.add(UIUtils.createSecondaryLabel(AuditService.getInstance().isEnabled()
+            ? "Actions taken on this terminal. Double-click a user for details."
+            : "The audit log is off on this terminal."), BorderLayout.SOUTH);
+        reportTabs.addTab("User Activity", activityTab);
+        
+        JPanel totalPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        totalPanel.add(totalLabel);
+        
+        JPanel reportPanel = new JPanel(new BorderLayout());
+        reportPanel.setBorder(BorderFactory.createEmptyBorder(10, 0, 0, 0));
+        reportPanel.add(controlPanel, BorderLayout.NORTH);
+        reportPanel.add(reportTabs, BorderLayout.CENTER);
+        reportPanel.add(totalPanel, BorderLayout.SOUTH);
+        
+        JPanel bodyPanel = new JPanel(new BorderLayout());
+        bodyPanel.setOpaque(false);
+        bodyPanel.add(contentPanel, BorderLayout.NORTH);
+        bodyPanel.add(reportPanel, BorderLayout.CENTER);
+        
         // Main panel
         JPanel mainPanel = new JPanel(new BorderLayout());
         mainPanel.setBackground(UIUtils.LIGHT_GRAY);
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         mainPanel.add(titleLabel, BorderLayout.NORTH);
-        mainPanel.add(contentPanel, BorderLayout.CENTER);
+        mainPanel.add(bodyPanel, BorderLayout.CENTER);
         
         add(mainPanel);
     }
@@ -97,30 +277,227 @@ public class ReportsPanel extends JFrame {
         menuPerformanceButton.addActionListener(e -> showMenuPerformanceReport());
         userActivityButton.addActionListener(e -> showUserActivityReport());
         exportButton.addActionListener(e -> exportReports());
+        
+        // Any change of period or grouping slices the sales again
+        periodCombo.addActionListener(e -> {
+            if (!adjusting) {
+                loadReport();
+            }
+        });
+        dimensionCombo.addActionListener(e -> {
+            if (!adjusting) {
+                loadReport();
+            }
+        });
+        refreshButton.addActionListener(e -> loadReport());
+        
+        activityTable.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = activityTable.getSelectedRow();
+                if (e.getClickCount() == 2 && row >= 0) {
+                    showUserEvents(shownActivity.get(row).getUsername());
+                }
+            }
+        });
     }
     
     private void setupFrame() {
         setTitle("Reports & Analytics");
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
-        UIUtils.setResponsiveSize(this, 600, 500);
+        UIUtils.setResponsiveSize(this, 1150, 700);
         setResizable(true);
         UIUtils.centerOnScreen(this);
     }
     
     private void showDailySalesReport() {
-        UIUtils.showSuccess(this, "Daily Sales Report will be implemented in the next phase!");
+        showReport(Period.TODAY, SalesDimension.HOUR);
     }
     
     private void showMonthlySalesReport() {
-        UIUtils.showSuccess(this, "Monthly Sales Report will be implemented in the next phase!");
+        showReport(Period.THIS_MONTH, SalesDimension.DAY);
     }
     
     private void showMenuPerformanceReport() {
-        UIUtils.showSuccess(this, "Menu Performance Report will be implemented in the next phase!");
+        showReport(Period.LAST_30_DAYS, SalesDimension.ITEM);
+    }
+    
+    private void showReport(Period period, SalesDimension dimension) {
+        adjusting = true;
+        try {
+            periodCombo.setSelectedItem(period);
+            dimensionCombo.setSelectedItem(dimension);
+        } finally {
+            adjusting = false;
+        }
+        loadReport();
+    }
+    
+    /**
+     * Aggregate the selected period and grouping, and count the items bought
+     * together in it, forecast tomorrow's prep and sum up user activity, in
+     * the background; the first report loads the sales history into memory,
+     * later ones only read changes
+     */
+    private void loadReport() {
+        Period period = (Period) periodCombo.getSelectedItem();
+        SalesDimension dimension = (SalesDimension) dimensionCombo.getSelectedItem();
+        LocalDate today = LocalDate.now();
+        LocalDate from = period.from(today);
+        LocalDate to = period.to(today);
+        
+        refreshButton.setEnabled(false);
+        totalLabel.setText("Loading...");
+        
+        SwingWorker<SalesReport, Void> worker = new SwingWorker<SalesReport, Void>() {
+            private List<ItemPair> pairs;
+            private List<ItemForecast> forecasts;
+            private List<UserActivity> activity;
+            
+            @Override
+            protected SalesReport doInBackground() throws Exception {
+                SalesReport report = SalesStore.getInstance().report(from, to, dimension);
+                pairs = SalesStore.getInstance().itemPairs(from, to, MIN_PAIR_ORDERS);
+                forecasts = DemandForecaster.getInstance().forecast(today.plusDays(1));
+                activity = AuditService.getInstance().getUserActivity(from, to);
+                return report;
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    displayReport(get());
+                    displayPairs(pairs);
+                    displayForecasts(forecasts);
+                    displayActivity(activity);
+                } catch (Exception e) {
+                    logger.error("Failed to load sales report", e);
+                    totalLabel.setText(" ");
+                    UIUtils.showError(ReportsPanel.this, "Failed to load sales report: " +
+                        (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                } finally {
+                    refreshButton.setEnabled(true);
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private void displayReport(SalesReport report) {
+        tableModel.setColumnIdentifiers(new Object[] {
+            report.getDimension().getDisplayName(), "Orders", "Items Sold", "Revenue", "Avg. Order"
+        });
+        tableModel.setRowCount(0);
+        for (SalesRow row : report.getRows()) {
+            tableModel.addRow(new Object[] {
+                row.getLabel(),
+                row.getOrders(),
+                row.getQuantity(),
+                "$" + row.getRevenue(),
+                "$" + row.getAverageOrderValue()
+            });
+        }
+        
+        SalesRow total = report.getTotal();
+        String range = report.getFrom().equals(report.getTo())
+            ? report.getFrom().toString() : report.getFrom() + " to " + report.getTo();
+        totalLabel.setText(String.format("%s: %d orders, %d items, $%s revenue, $%s per order",
+            range, total.getOrders(), total.getQuantity(), total.getRevenue(), total.getAverageOrderValue()));
+    }
+    
+    private void displayPairs(List<ItemPair> pairs) {
+        pairsModel.setRowCount(0);
+        for (ItemPair pair : pairs) {
+            pairsModel.addRow(new Object[] {
+                pair.getItem(),
+                pair.getPairedItem(),
+                pair.getTogether(),
+                String.format("%.0f%%", pair.getConfidence() * 100),
+                String.format("%.0f%%", pair.getReverseConfidence() * 100),
+                String.format("%.2f", pair.getLift())
+            });
+        }
+    }
+    
+    private void displayForecasts(List<ItemForecast> forecasts) {
+        prepModel.setRowCount(0);
+        for (ItemForecast forecast : forecasts) {
+            prepModel.addRow(new Object[] {
+                forecast.getItem(),
+                String.format("%.1f", forecast.getExpected()),
+                String.format("\u00b1%.1f", forecast.getDeviation()),
+                forecast.getPrepQuantity(),
+                String.format("%02d:00", forecast.getPeakHour())
+            });
+        }
+    }
+    
+    private void displayActivity(List<UserActivity> activity) {
+        shownActivity = activity;
+        activityModel.setRowCount(0);
+        for (UserActivity user : activity) {
+            activityModel.addRow(new Object[] {
+                user.getUsername().isEmpty() ? "(unknown)" : user.getUsername(),
+                user.getLogins(),
+                user.getFailedLogins(),
+                user.getOrdersCreated(),
+                user.getStatusChanges(),
+                user.getMenuEdits(),
+                formatTime(user.getFirstSeen()),
+                formatTime(user.getLastSeen())
+            });
+        }
     }
     
     private void showUserActivityReport() {
-        UIUtils.showSuccess(this, "User Activity Report will be implemented in the next phase!");
+        reportTabs.setSelectedComponent(activityTab);
+        showReport(Period.LAST_7_DAYS, (SalesDimension) dimensionCombo.getSelectedItem());
+    }
+    
+    /**
+     * List one user's actions in the selected period; reads only the audit
+     * segments holding that user's events
+     */
+    private void showUserEvents(String username) {
+        Period period = (Period) periodCombo.getSelectedItem();
+        LocalDate today = LocalDate.now();
+        LocalDate from = period.from(today);
+        LocalDate to = period.to(today);
+        
+        SwingWorker<List<AuditEvent>, Void> worker = new SwingWorker<List<AuditEvent>, Void>() {
+            @Override
+            protected List<AuditEvent> doInBackground() throws Exception {
+                return AuditService.getInstance().getUserEvents(username, from, to);
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    DefaultTableModel model = new DefaultTableModel(new String[] {"Time", "Action", "Detail"}, 0);
+                    for (AuditEvent event : get()) {
+                        model.addRow(new Object[] {
+                            formatTime(event.getTime()),
+                            event.getType().getDisplayName(),
+                            event.getDetail() != null ? event.getDetail() : ""
+                        });
+                    }
+                    JScrollPane scrollPane = new JScrollPane(new JTable(model));
+                    scrollPane.setPreferredSize(new Dimension(600, 400));
+                    JOptionPane.showMessageDialog(ReportsPanel.this, scrollPane,
+                        "Activity of " + (username.isEmpty() ? "unknown users" : username) + ", " + period,
+                        JOptionPane.PLAIN_MESSAGE);
+                } catch (Exception e) {
+                    logger.error("Failed to read user activity", e);
+                    UIUtils.showError(ReportsPanel.this, "Failed to read user activity: " +
+                        (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+                }
+            }
+        };
+        worker.execute();
+    }
+    
+    private static String formatTime(LocalDateTime time) {
+        return time != null ? time.format(TIME_FORMAT) : "";
     }
     
     private void exportReports() {
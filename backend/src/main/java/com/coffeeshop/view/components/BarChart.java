@@ -0,0 +1,142 @@
+package com.coffeeshop.view.components;
+
+import com.coffeeshop.util.UIUtils;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Lightweight bar chart painted straight onto the component, for dashboards
+ * that redraw several times a second. Bars stand in columns, or lie in rows
+ * with their label on the left when horizontal. Setting new data repaints
+ * only this component.
+ */
+public class BarChart extends JComponent {
+    private static final int PADDING = 8;
+    private static final int ROW_LABEL_WIDTH = 140;
+    private static final int VALUE_WIDTH = 70;
+    
+    private final boolean horizontal;
+    private String[] labels = new String[0];
+    private double[] values = new double[0];
+    private String[] valueTexts = new String[0];
+    private int highlighted = -1;
+    
+    /**
+     * @param horizontal true for one bar per row, false for one per column
+     */
+    public BarChart(boolean horizontal) {
+        this.horizontal = horizontal;
+        setFont(UIUtils.SMALL_FONT);
+        setPreferredSize(new Dimension(360, 180));
+    }
+    
+    /**
+     * Show new bars
+     * @param labels Label of each bar; null hides a column label
+     * @param values Length of each bar, scaled to the longest
+     * @param valueTexts Value shown by each bar, may be null
+     * @param highlighted Index of the bar to draw in the accent color, or -1
+     */
+    public void setData(String[] labels, double[] values, String[] valueTexts, int highlighted) {
+        this.labels = labels;
+        this.values = values;
+        this.valueTexts = valueTexts != null ? valueTexts : new String[values.length];
+        this.highlighted = highlighted;
+        repaint();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setColor(UIUtils.SURFACE_PRIMARY);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            
+            double max = 0;
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+            if (values.length == 0 || max <= 0) {
+                g2.setColor(UIUtils.TEXT_TERTIARY);
+                g2.drawString("No sales yet", PADDING, PADDING + g2.getFontMetrics().getAscent());
+                return;
+            }
+            
+            if (horizontal) {
+                paintRows(g2, max);
+            } else {
+                paintColumns(g2, max);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+    
+    private void paintColumns(Graphics2D g2, double max) {
+        FontMetrics metrics = g2.getFontMetrics();
+        int labelHeight = metrics.getHeight();
+        int chartHeight = getHeight() - 2 * PADDING - 2 * labelHeight;
+        int slot = Math.max(1, (getWidth() - 2 * PADDING) / values.length);
+        int barWidth = Math.max(1, slot - 4);
+        
+        for (int i = 0; i < values.length; i++) {
+            int x = PADDING + i * slot + (slot - barWidth) / 2;
+            int barHeight = (int) Math.round(values[i] / max * chartHeight);
+            int y = PADDING + labelHeight + chartHeight - barHeight;
+            
+            g2.setColor(i == highlighted ? UIUtils.ACCENT_COLOR : UIUtils.PRIMARY_LIGHT);
+            g2.fillRect(x, y, barWidth, barHeight);
+            
+            g2.setColor(UIUtils.TEXT_SECONDARY);
+            if (valueTexts[i] != null && values[i] > 0) {
+                drawCentered(g2, valueTexts[i], x + barWidth / 2, y - metrics.getDescent());
+            }
+            if (labels[i] != null) {
+                drawCentered(g2, labels[i], x + barWidth / 2, getHeight() - PADDING - metrics.getDescent());
+            }
+        }
+    }
+    
+    private void paintRows(Graphics2D g2, double max) {
+        FontMetrics metrics = g2.getFontMetrics();
+        int rowHeight = Math.max(metrics.getHeight() + 4, (getHeight() - 2 * PADDING) / Math.max(1, values.length));
+        int barHeight = Math.min(rowHeight - 4, metrics.getHeight() + 6);
+        int barSpace = Math.max(1, getWidth() - 2 * PADDING - ROW_LABEL_WIDTH - VALUE_WIDTH);
+        
+        for (int i = 0; i < values.length; i++) {
+            int top = PADDING + i * rowHeight;
+            int baseline = top + (barHeight + metrics.getAscent()) / 2 - 1;
+            
+            g2.setColor(UIUtils.TEXT_PRIMARY);
+            g2.drawString(clip(labels[i], metrics, ROW_LABEL_WIDTH - PADDING), PADDING, baseline);
+            
+            int barWidth = (int) Math.round(values[i] / max * barSpace);
+            g2.setColor(i == highlighted ? UIUtils.ACCENT_COLOR : UIUtils.PRIMARY_LIGHT);
+            g2.fillRect(PADDING + ROW_LABEL_WIDTH, top, barWidth, barHeight);
+            
+            if (valueTexts[i] != null) {
+                g2.setColor(UIUtils.TEXT_SECONDARY);
+                g2.drawString(valueTexts[i], PADDING + ROW_LABEL_WIDTH + barWidth + 6, baseline);
+            }
+        }
+    }
+    
+    private static void drawCentered(Graphics2D g2, String text, int centerX, int baseline) {
+        g2.drawString(text, centerX - g2.getFontMetrics().stringWidth(text) / 2, baseline);
+    }
+    
+    private static String clip(String text, FontMetrics metrics, int width) {
+        if (text == null || metrics.stringWidth(text) <= width) {
+            return text != null ? text : "";
+        }
+        String ellipsis = "...";
+        int end = text.length();
+        while (end > 0 && metrics.stringWidth(text.substring(0, end) + ellipsis) > width) {
+            end--;
+        }
+        return text.substring(0, end) + ellipsis;
+    }
+}
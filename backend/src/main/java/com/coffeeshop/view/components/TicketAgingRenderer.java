@@ -0,0 +1,158 @@
+package com.coffeeshop.view.components;
+
+import com.coffeeshop.util.UIUtils;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.awt.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Live age display for kitchen ticket tables.
+ *
+ * Renders the age of each ticket from its cached creation instant and colors
+ * rows that pass the service-level thresholds. A one second timer repaints
+ * only the visible duration cells, plus any row whose threshold changed, so
+ * the database is not queried and the cost of a tick does not grow with the
+ * number of open tickets beyond one comparison per row.
+ */
+public class TicketAgingRenderer extends DefaultTableCellRenderer {
+    private static final int LEVEL_OK = 0;
+    private static final int LEVEL_WARNING = 1;
+    private static final int LEVEL_CRITICAL = 2;
+    
+    // Thresholds in minutes, e.g. -Dcoffeeshop.kitchen.slaWarnMinutes=10
+    private static final long WARNING_MILLIS = Integer.getInteger("coffeeshop.kitchen.slaWarnMinutes", 15) * 60_000L;
+    private static final long CRITICAL_MILLIS = Integer.getInteger("coffeeshop.kitchen.slaCriticalMinutes", 30) * 60_000L;
+    private static final boolean AUDIBLE_ALERTS = Boolean.parseBoolean(System.getProperty("coffeeshop.kitchen.slaAlerts", "true"));
+    
+    private static final Color WARNING_BACKGROUND = UIUtils.WARNING_COLOR;
+    private static final Color CRITICAL_BACKGROUND = UIUtils.DANGER_COLOR;
+    
+    private final JTable table;
+    private final int durationColumn;
+    private final Timer timer;
+    
+    // Per model row, replaced as a whole on every reload
+    private long[] createdMillis = new long[0];
+    private int[] levels = new int[0];
+    private Object[] keys = new Object[0];
+    
+    // Tickets that already sounded the alert, so each one alerts once
+    private final Set<Object> alerted = new HashSet<>();
+    private long now = System.currentTimeMillis();
+    
+    /**
+     * Install on a table
+     * @param durationColumn Model index of the column showing the ticket's age
+     */
+    public TicketAgingRenderer(JTable table, int durationColumn) {
+        this.table = table;
+        this.durationColumn = durationColumn;
+        this.timer = new Timer(1000, e -> tick());
+        table.setDefaultRenderer(Object.class, this);
+    }
+    
+    public void start() {
+        timer.start();
+    }
+    
+    public void stop() {
+        timer.stop();
+    }
+    
+    /**
+     * Replace the tickets after the table was reloaded
+     * @param createdAt Creation time of each row, in model order
+     * @param rowKeys Identity of each row, used to alert once per ticket
+     */
+    public void setTickets(List<LocalDateTime> createdAt, List<?> rowKeys) {
+        ZoneId zone = ZoneId.systemDefault();
+        long[] created = new long[createdAt.size()];
+        for (int i = 0; i < created.length; i++) {
+            created[i] = createdAt.get(i) != null ? createdAt.get(i).atZone(zone).toInstant().toEpochMilli() : now;
+        }
+        
+        createdMillis = created;
+        levels = new int[created.length];
+        keys = rowKeys.toArray();
+        alerted.retainAll(rowKeys);
+        tick();
+    }
+    
+    private void tick() {
+        now = System.currentTimeMillis();
+        boolean alert = false;
+        
+        for (int row = 0; row < createdMillis.length; row++) {
+            int level = levelOf(now - createdMillis[row]);
+            if (level != levels[row]) {
+                levels[row] = level;
+                repaintRow(row);
+                if (level == LEVEL_CRITICAL && alerted.add(keys[row])) {
+                    alert = true;
+                }
+            }
+        }
+        
+        // Only the part of the duration column that is on screen
+        int viewColumn = table.convertColumnIndexToView(durationColumn);
+        if (viewColumn >= 0 && table.getRowCount() > 0) {
+            Rectangle visible = table.getVisibleRect();
+            Rectangle column = table.getCellRect(0, viewColumn, true);
+            table.repaint(column.x, visible.y, column.width, visible.height);
+        }
+        
+        if (alert && AUDIBLE_ALERTS) {
+            Toolkit.getDefaultToolkit().beep();
+        }
+    }
+    
+    private void repaintRow(int modelRow) {
+        if (modelRow < table.getRowCount()) {
+            int viewRow = table.convertRowIndexToView(modelRow);
+            Rectangle first = table.getCellRect(viewRow, 0, true);
+            table.repaint(0, first.y, table.getWidth(), first.height);
+        }
+    }
+    
+    private static int levelOf(long ageMillis) {
+        if (ageMillis >= CRITICAL_MILLIS) {
+            return LEVEL_CRITICAL;
+        }
+        return ageMillis >= WARNING_MILLIS ? LEVEL_WARNING : LEVEL_OK;
+    }
+    
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+        
+        int modelRow = table.convertRowIndexToModel(row);
+        boolean known = modelRow < createdMillis.length;
+        
+        if (known && table.convertColumnIndexToModel(column) == durationColumn) {
+            long seconds = Math.max(0, (now - createdMillis[modelRow]) / 1000);
+            setText(String.format("%d:%02d", seconds / 60, seconds % 60));
+        }
+        
+        if (!isSelected) {
+            int level = known ? levels[modelRow] : LEVEL_OK;
+            if (level == LEVEL_CRITICAL) {
+                setBackground(CRITICAL_BACKGROUND);
+                setForeground(UIUtils.TEXT_INVERSE);
+            } else if (level == LEVEL_WARNING) {
+                setBackground(WARNING_BACKGROUND);
+                setForeground(UIUtils.TEXT_PRIMARY);
+            } else {
+                setBackground(table.getBackground());
+                setForeground(table.getForeground());
+            }
+        }
+        return this;
+    }
+}
@@ -1,9 +1,13 @@
 package com.coffeeshop.view.kitchen;
 
+import com.coffeeshop.model.Station;
 import com.coffeeshop.model.User;
 import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.session.SessionContext;
 import com.coffeeshop.util.UIUtils;
 import com.coffeeshop.view.LoginFrame;
+import com.coffeeshop.view.SessionWindows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +21,7 @@ public class KitchenDashboard extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(KitchenDashboard.class);
     
     private AuthenticationService authService;
+    private Session session;
     private User currentUser;
     
     // UI Components
@@ -27,11 +32,14 @@ public class KitchenDashboard extends JFrame {
     private JButton inProgressButton;
     private JButton readyOrdersButton;
     private JButton completedButton;
+    private JButton stationButton;
     private JButton logoutButton;
     
     public KitchenDashboard() {
         this.authService = AuthenticationService.getInstance();
-        this.currentUser = authService.getCurrentUser();
+        this.session = authService.getCurrentSession();
+        this.currentUser = session.getUser();
+        SessionWindows.bind(this, session);
         
         initializeComponents();
         setupLayout();
@@ -63,6 +71,9 @@ public class KitchenDashboard extends JFrame {
         completedButton = UIUtils.createPrimaryButton("Completed Orders");
         completedButton.setPreferredSize(new Dimension(200, 80));
         
+        stationButton = UIUtils.createSecondaryButton("Station Queue");
+        stationButton.setPreferredSize(new Dimension(200, 80));
+        
         logoutButton = UIUtils.createDangerButton("Logout");
         logoutButton.setPreferredSize(new Dimension(100, 40));
     }
@@ -99,6 +110,11 @@ public class KitchenDashboard extends JFrame {
         gbc.gridx = 1;
         contentPanel.add(completedButton, gbc);
         
+        // Row 3
+        gbc.gridx = 0; gbc.gridy = 2;
+        gbc.gridwidth = 2;
+        contentPanel.add(stationButton, gbc);
+        
         // Add to main panel
         mainPanel.add(headerPanel, BorderLayout.NORTH);
         mainPanel.add(contentPanel, BorderLayout.CENTER);
@@ -107,10 +123,11 @@ public class KitchenDashboard extends JFrame {
     }
     
     private void setupEventHandlers() {
-        newOrdersButton.addActionListener(e -> viewNewOrders());
-        inProgressButton.addActionListener(e -> viewInProgressOrders());
-        readyOrdersButton.addActionListener(e -> viewReadyOrders());
-        completedButton.addActionListener(e -> viewCompletedOrders());
+        newOrdersButton.addActionListener(e -> SessionContext.runAs(session, this::viewNewOrders));
+        inProgressButton.addActionListener(e -> SessionContext.runAs(session, this::viewInProgressOrders));
+        readyOrdersButton.addActionListener(e -> SessionContext.runAs(session, this::viewReadyOrders));
+        completedButton.addActionListener(e -> SessionContext.runAs(session, this::viewCompletedOrders));
+        stationButton.addActionListener(e -> SessionContext.runAs(session, this::viewStationQueue));
         logoutButton.addActionListener(e -> performLogout());
     }
     
@@ -166,13 +183,41 @@ public class KitchenDashboard extends JFrame {
         }
     }
     
+    private void viewStationQueue() {
+        // A terminal mounted at a station can preselect it with -Dcoffeeshop.kitchen.station=ESPRESSO
+        Station defaultStation = Station.BAR;
+        String configured = System.getProperty("coffeeshop.kitchen.station");
+        if (configured != null) {
+            try {
+                defaultStation = Station.valueOf(configured.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown kitchen station '{}', using {}", configured, defaultStation);
+            }
+        }
+        
+        Station station = (Station) JOptionPane.showInputDialog(this, "Select the station for this terminal:",
+            "Station Queue", JOptionPane.QUESTION_MESSAGE, null, Station.values(), defaultStation);
+        if (station == null) {
+            return;
+        }
+        
+        try {
+            StationTicketPanel ticketPanel = new StationTicketPanel(station);
+            ticketPanel.setVisible(true);
+            logger.info("Station queue opened for {}", station);
+        } catch (Exception e) {
+            logger.error("Error opening station queue", e);
+            UIUtils.showError(this, "Error opening station queue: " + e.getMessage());
+        }
+    }
+    
     private void performLogout() {
         if (UIUtils.showConfirmation(this, "Are you sure you want to logout?", "Confirm Logout")) {
-            authService.logout();
+            authService.logout(session);
             logger.info("User logged out: {}", currentUser.getUsername());
             
-            // Close this window and show login
-            dispose();
+            // Close this user's windows and show login
+            SessionWindows.disposeAll(session);
             SwingUtilities.invokeLater(() -> new LoginFrame().setVisible(true));
         }
     }
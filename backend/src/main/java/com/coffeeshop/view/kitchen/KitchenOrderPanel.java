@@ -2,9 +2,15 @@ package com.coffeeshop.view.kitchen;
 
 import com.coffeeshop.model.Order;
 import com.coffeeshop.model.User;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.notify.ChangeSubscription;
 import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.service.KitchenScheduler;
 import com.coffeeshop.service.OrderService;
+import com.coffeeshop.session.Session;
 import com.coffeeshop.util.UIUtils;
+import com.coffeeshop.view.components.TicketAgingRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,8 +18,12 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Kitchen Order Management Panel
@@ -21,8 +31,14 @@ import java.util.List;
 public class KitchenOrderPanel extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(KitchenOrderPanel.class);
     
+    // With change notifications, polling only catches the odd lost event
+    private static final int POLL_MILLIS = 30000;
+    private static final int SAFETY_POLL_MILLIS = 300000;
+    
     private final OrderService orderService;
     private final AuthenticationService authService;
+    private final Session session;
+    private final KitchenScheduler scheduler;
     private final Order.Status filterStatus;
     
     // UI Components
@@ -34,10 +50,13 @@ public class KitchenOrderPanel extends JFrame {
     private JLabel titleLabel;
     private JLabel countLabel;
     private Timer refreshTimer;
+    private TicketAgingRenderer agingRenderer;
     
     public KitchenOrderPanel(Order.Status status) {
         this.orderService = new OrderService();
         this.authService = AuthenticationService.getInstance();
+        this.session = authService.getCurrentSession();
+        this.scheduler = KitchenScheduler.getInstance();
         this.filterStatus = status;
         
         initializeComponents();
@@ -68,7 +87,7 @@ public class KitchenOrderPanel extends JFrame {
         
         // Orders table
         tableModel = new DefaultTableModel(
-            new String[]{"Order #", "Customer", "Table", "Items", "Time", "Duration", "Notes"}, 0) {
+            new String[]{"Order #", "Customer", "Table", "Items", "Time", "Duration", "Promised", "Est. Ready", "Notes"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
@@ -80,6 +99,9 @@ public class KitchenOrderPanel extends JFrame {
         
         // Set row height for better readability
         ordersTable.setRowHeight(25);
+        
+        // Ages the Duration column every second and colors orders past the SLA
+        agingRenderer = new TicketAgingRenderer(ordersTable, 5);
     }
     
     private void setupLayout() {
@@ -148,9 +170,12 @@ public class KitchenOrderPanel extends JFrame {
     }
     
     private void startAutoRefresh() {
-        // Auto-refresh every 30 seconds for real-time updates
-        refreshTimer = new Timer(30000, e -> loadOrders());
+        // Refresh as soon as any terminal changes an order; poll only when changes are not announced
+        ChangeSubscription.refreshOnChange(this, this::loadOrders, ChangeEvent.Entity.ORDER, ChangeEvent.Entity.MENU);
+        int pollMillis = ChangeNotifier.getInstance().isConnected() ? SAFETY_POLL_MILLIS : POLL_MILLIS;
+        refreshTimer = new Timer(pollMillis, e -> loadOrders());
         refreshTimer.start();
+        agingRenderer.start();
         
         // Stop timer when window is closed
         addWindowListener(new java.awt.event.WindowAdapter() {
@@ -159,56 +184,70 @@ public class KitchenOrderPanel extends JFrame {
                 if (refreshTimer != null) {
                     refreshTimer.stop();
                 }
+                agingRenderer.stop();
             }
         });
     }
     
     private void loadOrders() {
         try {
-            List<Order> orders = orderService.getOrdersByStatus(filterStatus);
-            updateTable(orders);
+            if (filterStatus == Order.Status.NEW || filterStatus == Order.Status.IN_PROGRESS) {
+                // Active queues are shown in the scheduler's order rather than by arrival
+                List<Order> orders = new ArrayList<>();
+                Map<Long, KitchenScheduler.ScheduledOrder> timing = new HashMap<>();
+                for (KitchenScheduler.ScheduledOrder scheduled : scheduler.getSchedule()) {
+                    if (scheduled.getOrder().getStatus() == filterStatus) {
+                        orders.add(scheduled.getOrder());
+                        timing.put(scheduled.getOrder().getId(), scheduled);
+                    }
+                }
+                updateTable(orders, timing);
+            } else {
+                updateTable(orderService.getOrdersByStatus(filterStatus), new HashMap<>());
+            }
         } catch (SQLException e) {
             logger.error("Error loading orders for status: {}", filterStatus, e);
             UIUtils.showError(this, "Error loading orders: " + e.getMessage());
         }
     }
     
-    private void updateTable(List<Order> orders) {
+    private void updateTable(List<Order> orders, Map<Long, KitchenScheduler.ScheduledOrder> timing) {
         tableModel.setRowCount(0);
         
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        List<LocalDateTime> createdAt = new ArrayList<>(orders.size());
+        List<Long> orderIds = new ArrayList<>(orders.size());
         
         for (Order order : orders) {
-            // Calculate duration since order was created
-            long minutes = java.time.Duration.between(order.getCreatedAt(), java.time.LocalDateTime.now()).toMinutes();
-            String duration = minutes + " min";
+            createdAt.add(order.getCreatedAt());
+            orderIds.add(order.getId());
             
             // Count items in order
             int itemCount = order.getOrderItems() != null ? order.getOrderItems().size() : 0;
             
+            // Projected timing, for the active queues only
+            KitchenScheduler.ScheduledOrder scheduled = timing.get(order.getId());
+            String promised = scheduled != null ? scheduled.getPromisedAt().format(timeFormatter) : "";
+            String estimatedReady = "";
+            if (scheduled != null) {
+                estimatedReady = scheduled.getEstimatedReady().format(timeFormatter) + (scheduled.isLate() ? " (late)" : "");
+            }
+            
             tableModel.addRow(new Object[]{
                 order.getOrderNumber(),
                 order.getCustomerName(),
                 order.getTableName() != null ? order.getTableName() : "N/A",
                 itemCount + " items",
                 order.getCreatedAt().format(timeFormatter),
-                duration,
+                "", // Duration, drawn by the aging renderer
+                promised,
+                estimatedReady,
                 order.getNotes() != null ? order.getNotes() : ""
             });
         }
         
         countLabel.setText("Orders: " + orders.size());
-        
-        // Highlight urgent orders (older than 30 minutes)
-        for (int i = 0; i < orders.size(); i++) {
-            Order order = orders.get(i);
-            long minutes = java.time.Duration.between(order.getCreatedAt(), java.time.LocalDateTime.now()).toMinutes();
-            if (minutes > 30) {
-                // Would highlight row in red if we had custom renderer
-                // For now, just log it
-                logger.warn("Order {} is taking longer than 30 minutes", order.getOrderNumber());
-            }
-        }
+        agingRenderer.setTickets(createdAt, orderIds);
     }
     
     private void updateOrderStatus() {
@@ -229,7 +268,7 @@ public class KitchenOrderPanel extends JFrame {
         try {
             Order order = orderService.getOrderByNumber(orderNumber);
             if (order != null) {
-                User currentUser = authService.getCurrentUser();
+                User currentUser = session.getUser();
                 orderService.updateOrderStatus(order.getId(), newStatus, currentUser.getId());
                 
                 UIUtils.showSuccess(this, String.format("Order %s updated to %s", orderNumber, newStatus));
@@ -0,0 +1,252 @@
+package com.coffeeshop.view.kitchen;
+
+import com.coffeeshop.model.OrderItem;
+import com.coffeeshop.model.Station;
+import com.coffeeshop.model.StationTicket;
+import com.coffeeshop.model.User;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeNotifier;
+import com.coffeeshop.notify.ChangeSubscription;
+import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.service.StationService;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.util.UIUtils;
+import com.coffeeshop.view.components.TicketAgingRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Queue of one kitchen station: only the tickets and items this station prepares
+ */
+public class StationTicketPanel extends JFrame {
+    private static final Logger logger = LoggerFactory.getLogger(StationTicketPanel.class);
+    
+    // Station queues are short and change quickly, so they poll more often than the order panels
+    private static final int POLL_MILLIS = 10000;
+    
+    // With change notifications, polling only catches the odd lost event
+    private static final int SAFETY_POLL_MILLIS = 300000;
+    
+    private final StationService stationService;
+    private final AuthenticationService authService;
+    private final Session session;
+    private final Station station;
+    private List<StationTicket> tickets = new ArrayList<>();
+    
+    // UI Components
+    private JTable ticketsTable;
+    private DefaultTableModel tableModel;
+    private JButton refreshButton;
+    private JButton startButton;
+    private JButton readyButton;
+    private JLabel titleLabel;
+    private JLabel countLabel;
+    private Timer refreshTimer;
+    private TicketAgingRenderer agingRenderer;
+    
+    public StationTicketPanel(Station station) {
+        this.stationService = new StationService();
+        this.authService = AuthenticationService.getInstance();
+        this.session = authService.getCurrentSession();
+        this.station = station;
+        
+        initializeComponents();
+        setupLayout();
+        setupEventHandlers();
+        setupFrame();
+        loadTickets();
+        startAutoRefresh();
+        
+        logger.info("Station Ticket Panel initialized for station: {}", station);
+    }
+    
+    private void initializeComponents() {
+        titleLabel = UIUtils.createTitleLabel(station.getDisplayName() + " Station");
+        countLabel = new JLabel("Tickets: 0");
+        
+        // Buttons
+        refreshButton = UIUtils.createSecondaryButton("Refresh");
+        startButton = UIUtils.createPrimaryButton("Start");
+        readyButton = UIUtils.createSuccessButton("Ready");
+        
+        // Tickets table
+        tableModel = new DefaultTableModel(
+            new String[]{"Order #", "Table", "Customer", "Items", "Status", "Time", "Duration", "Notes"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        ticketsTable = new JTable(tableModel);
+        ticketsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        ticketsTable.getTableHeader().setReorderingAllowed(false);
+        ticketsTable.setRowHeight(25);
+        agingRenderer = new TicketAgingRenderer(ticketsTable, 6);
+    }
+    
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+        
+        // Top panel with title and controls
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        JPanel titlePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        titlePanel.add(titleLabel);
+        titlePanel.add(Box.createHorizontalStrut(20));
+        titlePanel.add(countLabel);
+        
+        JPanel controlPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        controlPanel.add(startButton);
+        controlPanel.add(readyButton);
+        controlPanel.add(Box.createHorizontalStrut(10));
+        controlPanel.add(refreshButton);
+        
+        topPanel.add(titlePanel, BorderLayout.WEST);
+        topPanel.add(controlPanel, BorderLayout.EAST);
+        
+        add(topPanel, BorderLayout.NORTH);
+        
+        // Center panel with table
+        JScrollPane scrollPane = new JScrollPane(ticketsTable);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Tickets"));
+        add(scrollPane, BorderLayout.CENTER);
+        
+        // Bottom panel with info
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(5, 10, 10, 10));
+        bottomPanel.add(new JLabel("Double-click a ticket to move it to the next stage. Orders are ready once every station is done."));
+        
+        add(bottomPanel, BorderLayout.SOUTH);
+    }
+    
+    private void setupEventHandlers() {
+        refreshButton.addActionListener(e -> loadTickets());
+        startButton.addActionListener(e -> updateSelectedTicket(StationTicket.Status.IN_PROGRESS));
+        readyButton.addActionListener(e -> updateSelectedTicket(StationTicket.Status.READY));
+        
+        // Double-click advances the ticket one stage
+        ticketsTable.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                int row = ticketsTable.getSelectedRow();
+                if (evt.getClickCount() == 2 && row >= 0) {
+                    StationTicket.Status current = tickets.get(row).getStatus();
+                    updateSelectedTicket(current == StationTicket.Status.NEW
+                        ? StationTicket.Status.IN_PROGRESS : StationTicket.Status.READY);
+                }
+            }
+        });
+    }
+    
+    private void setupFrame() {
+        setTitle("Kitchen - " + station.getDisplayName() + " Station");
+        setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        UIUtils.setResponsiveSize(this, 1000, 600);
+        setResizable(true);
+        UIUtils.centerOnScreen(this);
+    }
+    
+    private void startAutoRefresh() {
+        ChangeSubscription.refreshOnChange(this, this::loadTickets, ChangeEvent.Entity.ORDER, ChangeEvent.Entity.MENU);
+        int pollMillis = ChangeNotifier.getInstance().isConnected() ? SAFETY_POLL_MILLIS : POLL_MILLIS;
+        refreshTimer = new Timer(pollMillis, e -> loadTickets());
+        refreshTimer.start();
+        agingRenderer.start();
+        
+        // Stop timer when window is closed
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent windowEvent) {
+                if (refreshTimer != null) {
+                    refreshTimer.stop();
+                }
+                agingRenderer.stop();
+            }
+        });
+    }
+    
+    private void loadTickets() {
+        try {
+            updateTable(stationService.getOpenTickets(station));
+        } catch (SQLException e) {
+            logger.error("Error loading tickets for station: {}", station, e);
+            UIUtils.showError(this, "Error loading tickets: " + e.getMessage());
+        }
+    }
+    
+    private void updateTable(List<StationTicket> newTickets) {
+        // Keep the selection on the same ticket across refreshes
+        int selectedRow = ticketsTable.getSelectedRow();
+        StationTicket selected = selectedRow >= 0 && selectedRow < tickets.size() ? tickets.get(selectedRow) : null;
+        
+        tickets = newTickets;
+        tableModel.setRowCount(0);
+        
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+        List<LocalDateTime> createdAt = new ArrayList<>(tickets.size());
+        
+        for (StationTicket ticket : tickets) {
+            createdAt.add(ticket.getCreatedAt());
+            StringJoiner items = new StringJoiner(", ");
+            for (OrderItem item : ticket.getItems()) {
+                String line = item.getQuantity() + "x " + item.getMenuItemName();
+                if (item.getSpecialInstructions() != null && !item.getSpecialInstructions().isEmpty()) {
+                    line += " (" + item.getSpecialInstructions() + ")";
+                }
+                items.add(line);
+            }
+            
+            tableModel.addRow(new Object[]{
+                ticket.getOrderNumber(),
+                ticket.getTableName() != null ? ticket.getTableName() : "N/A",
+                ticket.getCustomerName(),
+                items.toString(),
+                ticket.getStatus() == StationTicket.Status.NEW ? "New" : "In Progress",
+                ticket.getCreatedAt() != null ? ticket.getCreatedAt().format(timeFormatter) : "",
+                "", // Duration, drawn by the aging renderer
+                ticket.getOrderNotes() != null ? ticket.getOrderNotes() : ""
+            });
+        }
+        
+        int reselect = selected != null ? tickets.indexOf(selected) : -1;
+        if (reselect >= 0) {
+            ticketsTable.setRowSelectionInterval(reselect, reselect);
+        }
+        countLabel.setText("Tickets: " + tickets.size());
+        agingRenderer.setTickets(createdAt, tickets);
+    }
+    
+    private void updateSelectedTicket(StationTicket.Status newStatus) {
+        int selectedRow = ticketsTable.getSelectedRow();
+        if (selectedRow == -1) {
+            UIUtils.showWarning(this, "Please select a ticket to update.");
+            return;
+        }
+        
+        StationTicket ticket = tickets.get(selectedRow);
+        if (ticket.getStatus() == newStatus) {
+            return;
+        }
+        
+        try {
+            User currentUser = session.getUser();
+            stationService.updateTicketStatus(ticket, newStatus, currentUser.getId());
+            logger.info("Ticket {} updated to {} by {}", ticket, newStatus, currentUser.getUsername());
+            loadTickets();
+        } catch (SQLException e) {
+            logger.error("Error updating ticket status", e);
+            UIUtils.showError(this, "Error updating ticket status: " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.coffeeshop.view.waiter;
 
 import com.coffeeshop.model.MenuItem;
+import com.coffeeshop.notify.ChangeEvent;
+import com.coffeeshop.notify.ChangeSubscription;
 import com.coffeeshop.service.MenuService;
 import com.coffeeshop.util.UIUtils;
 import com.coffeeshop.view.components.MenuItemCard;
@@ -8,6 +10,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.util.List;
@@ -28,6 +32,9 @@ public class ModernMenuViewPanel extends JFrame {
     private JComboBox<String> categoryFilter;
     private JLabel itemCountLabel;
     
+    // Available items as last loaded, shown again when the search is cleared
+    private List<MenuItem> catalog = List.of();
+    
     public ModernMenuViewPanel() {
         this.menuService = new MenuService();
         
@@ -37,6 +44,9 @@ public class ModernMenuViewPanel extends JFrame {
         setupFrame();
         loadMenuItems();
         
+        // Price and availability changes from the admin terminal show up while the menu is open
+        ChangeSubscription.refreshOnChange(this, this::showCurrentSelection, ChangeEvent.Entity.MENU);
+        
         logger.info("Modern Menu View Panel initialized");
     }
     
@@ -110,8 +120,15 @@ public class ModernMenuViewPanel extends JFrame {
     private void setupEventHandlers() {
         refreshButton.addActionListener(this::refreshMenuItems);
         
-        // Search functionality
-        searchField.addActionListener(this::performSearch);
+        // Search as you type; Enter needs no listener of its own
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { performSearch(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { performSearch(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { performSearch(); }
+        });
         categoryFilter.addActionListener(this::filterByCategory);
     }
     
@@ -127,6 +144,7 @@ public class ModernMenuViewPanel extends JFrame {
         SwingUtilities.invokeLater(() -> {
             try {
                 List<MenuItem> menuItems = menuService.getAvailableMenuItems();
+                catalog = menuItems;
                 updateMenuCards(menuItems);
                 updateItemCount(menuItems.size());
                 logger.info("Loaded {} menu items", menuItems.size());
@@ -184,6 +202,7 @@ public class ModernMenuViewPanel extends JFrame {
             @Override
             protected Void doInBackground() throws Exception {
                 Thread.sleep(500); // Small delay for better UX
+                menuService.refreshSearchIndex();
                 loadMenuItems();
                 return null;
             }
@@ -197,15 +216,17 @@ public class ModernMenuViewPanel extends JFrame {
         worker.execute();
     }
     
-    private void performSearch(ActionEvent e) {
-        String searchTerm = searchField.getText().trim().toLowerCase();
+    private void performSearch() {
+        String searchTerm = searchField.getText().trim();
+        if (searchTerm.isEmpty()) {
+            // Runs on every keystroke that clears the field, so no database query here
+            updateMenuCards(catalog);
+            updateItemCount(catalog.size());
+            return;
+        }
         
         try {
-            List<MenuItem> allItems = menuService.getAvailableMenuItems();
-            List<MenuItem> filteredItems = allItems.stream()
-                .filter(item -> item.getName().toLowerCase().contains(searchTerm) ||
-                               item.getDescription().toLowerCase().contains(searchTerm))
-                .toList();
+            List<MenuItem> filteredItems = menuService.searchMenuItems(searchTerm, true);
             
             updateMenuCards(filteredItems);
             updateItemCount(filteredItems.size());
@@ -215,6 +236,17 @@ public class ModernMenuViewPanel extends JFrame {
         }
     }
     
+    /**
+     * Reload the items matching the current search or category filter
+     */
+    private void showCurrentSelection() {
+        if (!searchField.getText().trim().isEmpty()) {
+            performSearch();
+        } else {
+            filterByCategory(null);
+        }
+    }
+    
     private void filterByCategory(ActionEvent e) {
         String selectedCategory = (String) categoryFilter.getSelectedItem();
         
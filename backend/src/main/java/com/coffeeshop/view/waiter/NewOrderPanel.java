@@ -1,7 +1,9 @@
 package com.coffeeshop.view.waiter;
 
+import com.coffeeshop.analytics.ItemAffinity;
 import com.coffeeshop.model.*;
 import com.coffeeshop.service.*;
+import com.coffeeshop.session.Session;
 import com.coffeeshop.util.UIUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +14,11 @@ import java.awt.*;
 import java.math.BigDecimal;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * New Order Panel for waiter users
@@ -20,10 +26,16 @@ import java.util.List;
 public class NewOrderPanel extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(NewOrderPanel.class);
     
+    // Add-ons offered at once; more would crowd the add item form
+    private static final int MAX_SUGGESTIONS = 3;
+    
     private final OrderService orderService;
     private final MenuService menuService;
     private final TableService tableService;
     private final AuthenticationService authService;
+    private final Session session;
+    private final KitchenScheduler kitchenScheduler;
+    private final ItemAffinity itemAffinity;
     
     // UI Components
     private JComboBox<Table> tableComboBox;
@@ -35,13 +47,17 @@ public class NewOrderPanel extends JFrame {
     private JTable orderItemsTable;
     private DefaultTableModel orderItemsModel;
     private JLabel totalLabel;
+    private JLabel waitLabel;
     private JTextArea notesArea;
     private JButton addItemButton;
     private JButton removeItemButton;
     private JButton saveOrderButton;
     private JButton cancelButton;
+    private JPanel suggestionsPanel;
     
     private List<OrderItem> orderItems;
+    // Available menu items by name, for turning suggestions back into items
+    private Map<String, com.coffeeshop.model.MenuItem> availableItems;
     private BigDecimal totalAmount;
     
     public NewOrderPanel() {
@@ -49,7 +65,12 @@ public class NewOrderPanel extends JFrame {
         this.menuService = new MenuService();
         this.tableService = new TableService();
         this.authService = AuthenticationService.getInstance();
+        this.session = authService.getCurrentSession();
+        this.kitchenScheduler = KitchenScheduler.getInstance();
+        this.itemAffinity = ItemAffinity.getInstance();
+        this.itemAffinity.start();
         this.orderItems = new ArrayList<>();
+        this.availableItems = new HashMap<>();
         this.totalAmount = BigDecimal.ZERO;
         
         initializeComponents();
@@ -125,6 +146,7 @@ public class NewOrderPanel extends JFrame {
         
         // Total and notes
         totalLabel = UIUtils.createTitleLabel("Total: $0.00");
+        waitLabel = UIUtils.createSecondaryLabel("");
         notesArea = new JTextArea(3, 30);
         notesArea.setLineWrap(true);
         notesArea.setWrapStyleWord(true);
@@ -134,6 +156,9 @@ public class NewOrderPanel extends JFrame {
         removeItemButton = UIUtils.createDangerButton("Remove Item");
         saveOrderButton = UIUtils.createPrimaryButton("Save Order");
         cancelButton = UIUtils.createSecondaryButton("Cancel");
+        
+        // Add-on suggestions, filled in as items are added
+        suggestionsPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 0));
     }
     
     private void setupLayout() {
@@ -227,6 +252,10 @@ public class NewOrderPanel extends JFrame {
         gbc.anchor = GridBagConstraints.CENTER;
         addPanel.add(addItemButton, gbc);
         
+        gbc.gridx = 0; gbc.gridy = 3; gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.anchor = GridBagConstraints.WEST;
+        addPanel.add(suggestionsPanel, gbc);
+        
         panel.add(addPanel, BorderLayout.SOUTH);
         
         return panel;
@@ -244,6 +273,8 @@ public class NewOrderPanel extends JFrame {
         JPanel bottomPanel = new JPanel(new BorderLayout());
         
         JPanel totalPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        totalPanel.add(waitLabel);
+        totalPanel.add(Box.createHorizontalStrut(20));
         totalPanel.add(totalLabel);
         bottomPanel.add(totalPanel, BorderLayout.NORTH);
         
@@ -298,6 +329,14 @@ public class NewOrderPanel extends JFrame {
                 categoryComboBox.addItem(category);
             }
             
+            // Load available items for suggestions
+            availableItems.clear();
+            for (com.coffeeshop.model.MenuItem item : menuService.getAllMenuItems()) {
+                if (item.isAvailable()) {
+                    availableItems.put(item.getName(), item);
+                }
+            }
+            
             // Load initial menu items
             loadMenuItems();
             
@@ -341,7 +380,15 @@ public class NewOrderPanel extends JFrame {
         
         int quantity = (Integer) quantitySpinner.getValue();
         String instructions = specialInstructionsField.getText().trim();
+        addItem(selectedItem, quantity, instructions);
         
+        // Clear inputs
+        quantitySpinner.setValue(1);
+        specialInstructionsField.setText("");
+        menuItemsList.clearSelection();
+    }
+    
+    private void addItem(com.coffeeshop.model.MenuItem selectedItem, int quantity, String instructions) {
         // Create order item
         OrderItem orderItem = new OrderItem();
         orderItem.setMenuItemId(selectedItem.getId());
@@ -357,11 +404,6 @@ public class NewOrderPanel extends JFrame {
         // Update table
         updateOrderItemsTable();
         
-        // Clear inputs
-        quantitySpinner.setValue(1);
-        specialInstructionsField.setText("");
-        menuItemsList.clearSelection();
-        
         logger.info("Added item to order: {} x{}", selectedItem.getName(), quantity);
     }
     
@@ -397,6 +439,52 @@ public class NewOrderPanel extends JFrame {
         
         // Update total label
         totalLabel.setText("Total: $" + totalAmount);
+        updateWaitEstimate();
+        updateSuggestions();
+    }
+    
+    /**
+     * Offer the items most often ordered with those already in the order
+     */
+    private void updateSuggestions() {
+        suggestionsPanel.removeAll();
+        
+        Set<String> basket = new LinkedHashSet<>();
+        for (OrderItem item : orderItems) {
+            basket.add(item.getMenuItemName());
+        }
+        List<String> suggested = new ArrayList<>();
+        for (String name : itemAffinity.suggest(basket, MAX_SUGGESTIONS * 2)) {
+            if (availableItems.containsKey(name) && suggested.size() < MAX_SUGGESTIONS) {
+                suggested.add(name);
+            }
+        }
+        
+        if (!suggested.isEmpty()) {
+            suggestionsPanel.add(UIUtils.createSecondaryLabel("Goes well with:"));
+            for (String name : suggested) {
+                com.coffeeshop.model.MenuItem item = availableItems.get(name);
+                JButton button = UIUtils.createSecondaryButton(item.getName() + " - $" + item.getPrice());
+                button.addActionListener(e -> addItem(item, 1, ""));
+                suggestionsPanel.add(button);
+            }
+        }
+        suggestionsPanel.revalidate();
+        suggestionsPanel.repaint();
+    }
+    
+    private void updateWaitEstimate() {
+        if (orderItems.isEmpty()) {
+            waitLabel.setText("");
+            return;
+        }
+        try {
+            long minutes = kitchenScheduler.estimateWait(orderItems).toMinutes();
+            waitLabel.setText("Estimated ready in ~" + Math.max(1, minutes) + " min");
+        } catch (SQLException e) {
+            logger.warn("Could not estimate kitchen wait: {}", e.getMessage());
+            waitLabel.setText("");
+        }
     }
     
     private void saveOrder() {
@@ -420,7 +508,7 @@ public class NewOrderPanel extends JFrame {
         try {
             // Create order
             Table selectedTable = (Table) tableComboBox.getSelectedItem();
-            User currentUser = authService.getCurrentUser();
+            User currentUser = session.getUser();
             
             Order order = new Order();
             order.setTableId(selectedTable.getId());
@@ -434,8 +522,15 @@ public class NewOrderPanel extends JFrame {
             // Save order
             Order savedOrder = orderService.createOrder(order);
             
-            UIUtils.showSuccess(this, "Order created successfully! Order #" + savedOrder.getOrderNumber());
-            logger.info("Order created successfully: {}", savedOrder.getOrderNumber());
+            if (savedOrder.getId() == null) {
+                // Captured in the offline journal; it reaches the kitchen once the database is back
+                UIUtils.showWarning(this, "Database unavailable - order #" + savedOrder.getOrderNumber() +
+                    " was saved locally and will be sent to the kitchen automatically.");
+                logger.info("Order journaled for later replay: {}", savedOrder.getOrderNumber());
+            } else {
+                UIUtils.showSuccess(this, "Order created successfully! Order #" + savedOrder.getOrderNumber());
+                logger.info("Order created successfully: {}", savedOrder.getOrderNumber());
+            }
             
             // Close dialog
             dispose();
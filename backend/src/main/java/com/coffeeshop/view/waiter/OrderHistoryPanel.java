@@ -4,16 +4,20 @@ import com.coffeeshop.model.Order;
 import com.coffeeshop.model.User;
 import com.coffeeshop.service.AuthenticationService;
 import com.coffeeshop.service.OrderService;
+import com.coffeeshop.session.Session;
 import com.coffeeshop.util.UIUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -24,6 +28,7 @@ public class OrderHistoryPanel extends JFrame {
     
     private final OrderService orderService;
     private final AuthenticationService authService;
+    private final Session session;
     
     // UI Components
     private JTable ordersTable;
@@ -32,10 +37,13 @@ public class OrderHistoryPanel extends JFrame {
     private JButton viewActiveButton;
     private JButton viewAllButton;
     private JLabel orderCountLabel;
+    private JTextField searchField;
+    private JCheckBox includeArchivedCheckBox;
     
     public OrderHistoryPanel() {
         this.orderService = new OrderService();
         this.authService = AuthenticationService.getInstance();
+        this.session = authService.getCurrentSession();
         
         initializeComponents();
         setupLayout();
@@ -52,6 +60,12 @@ public class OrderHistoryPanel extends JFrame {
         viewActiveButton = UIUtils.createSuccessButton("Active Orders");
         viewAllButton = UIUtils.createPrimaryButton("All Orders");
         
+        // Search
+        searchField = UIUtils.createStyledTextField();
+        searchField.setColumns(18);
+        searchField.setToolTipText("Order #, customer, table or item");
+        includeArchivedCheckBox = new JCheckBox("Include archived");
+        
         // Order count label
         orderCountLabel = UIUtils.createSecondaryLabel("Loading...");
         
@@ -80,6 +94,9 @@ public class OrderHistoryPanel extends JFrame {
         buttonsPanel.add(refreshButton);
         buttonsPanel.add(viewActiveButton);
         buttonsPanel.add(viewAllButton);
+        buttonsPanel.add(new JLabel("Search:"));
+        buttonsPanel.add(searchField);
+        buttonsPanel.add(includeArchivedCheckBox);
         
         // Status panel
         JPanel statusPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
@@ -100,6 +117,19 @@ public class OrderHistoryPanel extends JFrame {
         refreshButton.addActionListener(e -> loadOrders());
         viewActiveButton.addActionListener(e -> loadActiveOrders());
         viewAllButton.addActionListener(e -> loadOrders());
+        
+        // Recent orders are searched in memory, so results can follow every keystroke;
+        // archived orders come from the database and are only searched on Enter
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { searchAsYouType(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { searchAsYouType(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { searchAsYouType(); }
+        });
+        searchField.addActionListener(e -> searchOrders());
+        includeArchivedCheckBox.addActionListener(e -> searchOrders());
     }
     
     private void setupFrame() {
@@ -112,7 +142,7 @@ public class OrderHistoryPanel extends JFrame {
     
     private void loadOrders() {
         try {
-            User currentUser = authService.getCurrentUser();
+            User currentUser = session.getUser();
             List<Order> orders = orderService.getAllOrders();
             
             updateTable(orders);
@@ -127,7 +157,7 @@ public class OrderHistoryPanel extends JFrame {
     
     private void loadActiveOrders() {
         try {
-            User currentUser = authService.getCurrentUser();
+            User currentUser = session.getUser();
             List<Order> activeOrders = orderService.getActiveOrders();
             
             updateTable(activeOrders);
@@ -140,6 +170,33 @@ public class OrderHistoryPanel extends JFrame {
         }
     }
     
+    private void searchAsYouType() {
+        if (!includeArchivedCheckBox.isSelected()) {
+            searchOrders();
+        }
+    }
+    
+    private void searchOrders() {
+        String term = searchField.getText().trim();
+        if (term.isEmpty()) {
+            loadOrders();
+            return;
+        }
+        
+        try {
+            List<Order> orders = new ArrayList<>(orderService.searchOrders(term));
+            if (includeArchivedCheckBox.isSelected()) {
+                orders.addAll(orderService.searchArchivedOrders(term));
+            }
+            
+            updateTable(orders);
+            orderCountLabel.setText("Matching Orders: " + orders.size());
+        } catch (Exception e) {
+            logger.error("Error searching orders", e);
+            UIUtils.showError(this, "Error searching orders: " + e.getMessage());
+        }
+    }
+    
     private void updateTable(List<Order> orders) {
         tableModel.setRowCount(0);
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd HH:mm");
@@ -2,8 +2,11 @@ package com.coffeeshop.view.waiter;
 
 import com.coffeeshop.model.User;
 import com.coffeeshop.service.AuthenticationService;
+import com.coffeeshop.session.Session;
+import com.coffeeshop.session.SessionContext;
 import com.coffeeshop.util.UIUtils;
 import com.coffeeshop.view.LoginFrame;
+import com.coffeeshop.view.SessionWindows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,6 +20,7 @@ public class WaiterDashboard extends JFrame {
     private static final Logger logger = LoggerFactory.getLogger(WaiterDashboard.class);
     
     private AuthenticationService authService;
+    private Session session;
     private User currentUser;
     
     // UI Components
@@ -31,7 +35,9 @@ public class WaiterDashboard extends JFrame {
     
     public WaiterDashboard() {
         this.authService = AuthenticationService.getInstance();
-        this.currentUser = authService.getCurrentUser();
+        this.session = authService.getCurrentSession();
+        this.currentUser = session.getUser();
+        SessionWindows.bind(this, session);
         
         initializeComponents();
         setupLayout();
@@ -112,10 +118,10 @@ public class WaiterDashboard extends JFrame {
     }
     
     private void setupEventHandlers() {
-        viewMenuButton.addActionListener(e -> viewMenu());
-        newOrderButton.addActionListener(e -> createNewOrder());
-        myOrdersButton.addActionListener(e -> viewMyOrders());
-        tablesButton.addActionListener(e -> manageTable());
+        viewMenuButton.addActionListener(e -> SessionContext.runAs(session, this::viewMenu));
+        newOrderButton.addActionListener(e -> SessionContext.runAs(session, this::createNewOrder));
+        myOrdersButton.addActionListener(e -> SessionContext.runAs(session, this::viewMyOrders));
+        tablesButton.addActionListener(e -> SessionContext.runAs(session, this::manageTable));
         logoutButton.addActionListener(e -> performLogout());
     }
     
@@ -173,11 +179,11 @@ public class WaiterDashboard extends JFrame {
     
     private void performLogout() {
         if (UIUtils.showConfirmation(this, "Are you sure you want to logout?", "Confirm Logout")) {
-            authService.logout();
+            authService.logout(session);
             logger.info("User logged out: {}", currentUser.getUsername());
             
-            // Close this window and show login
-            dispose();
+            // Close this user's windows and show login
+            SessionWindows.disposeAll(session);
             SwingUtilities.invokeLater(() -> {
                 new LoginFrame().setVisible(true);
             });
@@ -22,6 +22,7 @@ CREATE TABLE IF NOT EXISTS categories (
     name VARCHAR(50) UNIQUE NOT NULL,
     description TEXT,
     is_active BOOLEAN DEFAULT TRUE,
+    station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS') NOT NULL DEFAULT 'BAR', -- kitchen station preparing this category
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -36,6 +37,7 @@ CREATE TABLE IF NOT EXISTS menu_items (
     is_available BOOLEAN DEFAULT TRUE,
     image_path VARCHAR(255),
     preparation_time INT DEFAULT 0, -- in minutes
+    station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS'), -- overrides the category's station when set
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE CASCADE
@@ -61,6 +63,7 @@ CREATE TABLE IF NOT EXISTS orders (
     status ENUM('NEW', 'IN_PROGRESS', 'READY', 'COMPLETED', 'CANCELLED') DEFAULT 'NEW',
     total_amount DECIMAL(10, 2) NOT NULL DEFAULT 0.00,
     notes TEXT,
+    version INT NOT NULL DEFAULT 0, -- optimistic concurrency counter
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (table_id) REFERENCES tables(id) ON DELETE SET NULL,
@@ -94,12 +97,34 @@ CREATE TABLE IF NOT EXISTS order_status_history (
     FOREIGN KEY (changed_by) REFERENCES users(id) ON DELETE SET NULL
 );
 
+-- Create station_tickets table: each order is split into one ticket per kitchen station
+CREATE TABLE IF NOT EXISTS station_tickets (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    order_id INT NOT NULL,
+    station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS') NOT NULL,
+    status ENUM('NEW', 'IN_PROGRESS', 'READY') NOT NULL DEFAULT 'NEW',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_station_tickets_order_station (order_id, station),
+    KEY idx_station_tickets_station_status (station, status),
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+-- Create change_outbox table: change events written with the change itself, relayed to all terminals
+CREATE TABLE IF NOT EXISTS change_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity ENUM('ORDER', 'MENU', 'TABLE') NOT NULL,
+    entity_id INT, -- NULL when several entities changed at once
+    origin VARCHAR(16) NOT NULL, -- terminal that made the change
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Insert default categories
-INSERT INTO categories (name, description) VALUES 
-('Hot Drinks', 'Coffee, tea, and other hot beverages'),
-('Cold Drinks', 'Iced coffee, smoothies, and cold beverages'),
-('Sweets', 'Pastries, cakes, and desserts'),
-('Snacks', 'Light snacks and sandwiches');
+INSERT INTO categories (name, description, station) VALUES 
+('Hot Drinks', 'Coffee, tea, and other hot beverages', 'ESPRESSO'),
+('Cold Drinks', 'Iced coffee, smoothies, and cold beverages', 'BAR'),
+('Sweets', 'Pastries, cakes, and desserts', 'BAR'),
+('Snacks', 'Light snacks and sandwiches', 'SANDWICH_PRESS');
 
 -- Insert default admin user (password: admin123)
 INSERT INTO users (username, password, role, full_name, email) VALUES 
@@ -140,6 +165,7 @@ INSERT INTO tables (table_number, capacity) VALUES
 -- Create indexes for better performance
 CREATE INDEX idx_orders_status ON orders(status);
 CREATE INDEX idx_orders_created_at ON orders(created_at);
+CREATE INDEX idx_orders_updated_at ON orders(updated_at);
 CREATE INDEX idx_menu_items_category ON menu_items(category_id);
 CREATE INDEX idx_menu_items_available ON menu_items(is_available);
 CREATE INDEX idx_order_items_order_id ON order_items(order_id);
@@ -189,3 +215,11 @@ INSERT INTO order_items (order_id, menu_item_id, quantity, unit_price, total_pri
 (2, 9, 1, 6.50, 6.50),  -- 1 Chocolate Cake
 (3, 4, 1, 4.75, 4.75),  -- 1 Latte
 (3, 12, 1, 2.75, 2.75); -- 1 Muffin
+
+-- Split sample orders into station tickets; finished orders have finished tickets
+INSERT INTO station_tickets (order_id, station, status)
+SELECT DISTINCT oi.order_id, COALESCE(mi.station, c.station), CASE WHEN o.status = 'READY' THEN 'READY' ELSE 'NEW' END
+FROM order_items oi
+JOIN orders o ON oi.order_id = o.id
+JOIN menu_items mi ON oi.menu_item_id = mi.id
+JOIN categories c ON mi.category_id = c.id;
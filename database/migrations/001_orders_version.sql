@@ -0,0 +1,6 @@
+-- Adds the optimistic concurrency counter to existing installations.
+-- New installations get this column from init.sql.
+
+USE coffeeshop;
+
+ALTER TABLE orders ADD COLUMN version INT NOT NULL DEFAULT 0 AFTER notes;
@@ -0,0 +1,31 @@
+-- Adds kitchen station routing to existing installations.
+-- New installations get these columns and tables from init.sql.
+
+USE coffeeshop;
+
+ALTER TABLE categories ADD COLUMN station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS') NOT NULL DEFAULT 'BAR' AFTER is_active;
+ALTER TABLE menu_items ADD COLUMN station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS') AFTER preparation_time;
+
+UPDATE categories SET station = 'ESPRESSO' WHERE name = 'Hot Drinks';
+UPDATE categories SET station = 'SANDWICH_PRESS' WHERE name = 'Snacks';
+
+CREATE TABLE IF NOT EXISTS station_tickets (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    order_id INT NOT NULL,
+    station ENUM('ESPRESSO', 'BAR', 'SANDWICH_PRESS') NOT NULL,
+    status ENUM('NEW', 'IN_PROGRESS', 'READY') NOT NULL DEFAULT 'NEW',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_station_tickets_order_station (order_id, station),
+    KEY idx_station_tickets_station_status (station, status),
+    FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+
+-- Route orders still on the kitchen board; older orders are never shown at a station
+INSERT INTO station_tickets (order_id, station)
+SELECT DISTINCT oi.order_id, COALESCE(mi.station, c.station)
+FROM order_items oi
+JOIN orders o ON oi.order_id = o.id
+JOIN menu_items mi ON oi.menu_item_id = mi.id
+JOIN categories c ON mi.category_id = c.id
+WHERE o.status IN ('NEW', 'IN_PROGRESS');
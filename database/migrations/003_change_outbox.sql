@@ -0,0 +1,12 @@
+-- Adds the change event outbox to existing installations.
+-- New installations get this table from init.sql.
+
+USE coffeeshop;
+
+CREATE TABLE IF NOT EXISTS change_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    entity ENUM('ORDER', 'MENU', 'TABLE') NOT NULL,
+    entity_id INT,
+    origin VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,7 @@
+-- Adds the index sales report refreshes use to find orders changed since the
+-- last refresh, to existing installations; without it every refresh scans
+-- the whole orders table. New installations get this index from init.sql.
+
+USE coffeeshop;
+
+CREATE INDEX idx_orders_updated_at ON orders(updated_at);
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Compare startup time and peak memory of the trimmed runtime image against
+# the shaded jar on the installed JRE, both with the JVM's defaults and with
+# the options baked into the image's launcher, so the effect of jlink can be
+# told apart from the effect of those options.
+#
+# Build both first:   cd backend && mvn clean package -P runtime
+# Then run:           ./measure-runtime.sh [runs]
+#
+# Each run starts the application in training mode against an in-memory
+# database, which exits as soon as startup is complete, and reports the
+# startup time the application logged, the wall time and the peak RSS.
+# Linux only: peak RSS is read from /proc.
+
+set -u
+
+RUNS=${1:-5}
+TARGET="$(cd "$(dirname "$0")" && pwd)/backend/target"
+JAR="$TARGET/coffee-shop-management-1.0.0.jar"
+LAUNCHER="$TARGET/dist/CoffeeShopManagement/bin/CoffeeShopManagement"
+
+for file in "$JAR" "$LAUNCHER"; do
+    if [ ! -e "$file" ]; then
+        echo "Missing $file - run 'mvn clean package -P runtime' in backend first" >&2
+        exit 1
+    fi
+done
+
+# Same settings for both, passed through the environment so the launcher sees them too
+export JAVA_TOOL_OPTIONS="-Dcoffeeshop.startup.training=true -Dcoffeeshop.db=embedded -Dcoffeeshop.db.path=mem:measure -Dcoffeeshop.notify=off -Dcoffeeshop.audit=false"
+
+# JVM options of the image's launcher, read from the runtime profile
+JAVA_OPTIONS=$(sed -n 's:.*<runtime.javaOptions>\(.*\)</runtime.javaOptions>.*:\1:p' "$TARGET/../pom.xml")
+
+# Run one start; prints "<startup ms> <wall ms> <peak RSS KB>"
+measure() {
+    local log peak start end startup
+    log=$(mktemp)
+    start=$(date +%s%N)
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+    peak=0
+    while kill -0 "$pid" 2>/dev/null; do
+        local hwm
+        hwm=$(awk '/VmHWM/ {print $2}' "/proc/$pid/status" 2>/dev/null)
+        if [ -n "$hwm" ] && [ "$hwm" -gt "$peak" ]; then
+            peak=$hwm
+        fi
+        sleep 0.05
+    done
+    wait "$pid"
+    end=$(date +%s%N)
+    startup=$(grep -o 'Startup took [0-9]*' "$log" | grep -o '[0-9]*$')
+    rm -f "$log"
+    echo "${startup:-?} $(( (end - start) / 1000000 )) $peak"
+}
+
+report() {
+    local name=$1
+    shift
+    local total_startup=0 total_wall=0 total_rss=0 counted=0
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r startup wall rss <<< "$(measure "$@")"
+        printf '  %-14s run %d: startup %5s ms, wall %5d ms, peak RSS %6d KB\n' "$name" "$i" "$startup" "$wall" "$rss"
+        if [ "$startup" != "?" ]; then
+            total_startup=$((total_startup + startup))
+            total_wall=$((total_wall + wall))
+            total_rss=$((total_rss + rss))
+            counted=$((counted + 1))
+        fi
+    done
+    if [ "$counted" -gt 0 ]; then
+        printf '%-16s average: startup %5d ms, wall %5d ms, peak RSS %6d KB\n\n' "$name" \
+            $((total_startup / counted)) $((total_wall / counted)) $((total_rss / counted))
+    fi
+}
+
+echo "Startup and memory over $RUNS runs"
+echo
+report "fat jar" java -jar "$JAR"
+# shellcheck disable=SC2086
+report "jar + options" java $JAVA_OPTIONS -jar "$JAR"
+report "runtime image" "$LAUNCHER"